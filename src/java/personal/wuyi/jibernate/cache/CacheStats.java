@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.cache;
+
+/**
+ * The snapshot of the statistics of a cache.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class CacheStats {
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+	private final int  size;
+	private final long weight;
+	
+	/**
+	 * Constructs a {@code CacheStats}.
+	 * 
+	 * @param  hits
+	 *         The number of the lookups which found a live entry.
+	 * 
+	 * @param  misses
+	 *         The number of the lookups which found nothing or an expired 
+	 *         entry.
+	 * 
+	 * @param  evictions
+	 *         The number of the entries evicted because the cache was full.
+	 * 
+	 * @param  expirations
+	 *         The number of the entries removed because they were expired.
+	 * 
+	 * @param  size
+	 *         The current number of the entries.
+	 * 
+	 * @param  weight
+	 *         The current total weight of the entries.
+	 * 
+	 * @since   1.1
+	 */
+	public CacheStats(long hits, long misses, long evictions, long expirations, int size, long weight) {
+		this.hits        = hits;
+		this.misses      = misses;
+		this.evictions   = evictions;
+		this.expirations = expirations;
+		this.size        = size;
+		this.weight      = weight;
+	}
+	
+	public long getHits()        { return hits;        }
+	public long getMisses()      { return misses;      }
+	public long getEvictions()   { return evictions;   }
+	public long getExpirations() { return expirations; }
+	public int  getSize()        { return size;        }
+	public long getWeight()      { return weight;      }
+	
+	/**
+	 * Get the ratio of the hits to all the lookups.
+	 * 
+	 * @return  The hit rate, or 0 if there is no lookup.
+	 * 
+	 * @since   1.1
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0.0 : (double) hits / lookups;
+	}
+	
+	@Override
+	public String toString() {
+		return "CacheStats [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions 
+				+ ", expirations=" + expirations + ", size=" + size + ", weight=" + weight + "]";
+	}
+}
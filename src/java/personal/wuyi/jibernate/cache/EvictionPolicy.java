@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.cache;
+
+/**
+ * The policies of selecting the entry to be evicted when a cache is full.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public enum EvictionPolicy {
+	/** Evict the least recently used entry. */
+	LRU,
+	
+	/** Evict the least frequently used entry, the older one for a tie. */
+	LFU
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.function.BiPredicate;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The in-process cache with a size bound, an eviction policy and an 
+ * optional time-to-live.
+ * 
+ * <p>The size of the cache can be bounded by the number of the entries, or 
+ * by the total weight of the values measured by a weigher, like the 
+ * estimated memory usage of the values.
+ * 
+ * <p>When the cache is full, the entries to be evicted are selected by the 
+ * {@link EvictionPolicy} in constant time: the LRU policy keeps the entries 
+ * in the access order, the LFU policy keeps the entries in the buckets of 
+ * their use counts. An entry older than the time-to-live will be treated 
+ * as missing and removed when it is looked up.
+ * 
+ * <p>All the methods are synchronized on the cache, so the cache can be 
+ * shared by multiple threads.
+ * 
+ * @param  <K>
+ *         The type of the keys.
+ * 
+ * @param  <V>
+ *         The type of the values.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class LocalCache<K, V> {
+	private final long                     maximumWeight;
+	private final ToLongFunction<? super V> weigher;
+	private final EvictionPolicy           policy;
+	private final long                     ttlNanos;
+	private final LongSupplier             ticker;
+	
+	private final LinkedHashMap<K, Entry<V>>     entries;
+	private final Map<Integer, LinkedHashSet<K>> frequencyBuckets = new HashMap<>();
+	private int                                  minFrequency     = 1;
+	private long                                 totalWeight      = 0;
+	
+	private long hits        = 0;
+	private long misses      = 0;
+	private long evictions   = 0;
+	private long expirations = 0;
+	
+	/**
+	 * Constructs a {@code LocalCache} without time-to-live.
+	 * 
+	 * @param  maximumSize
+	 *         The maximum number of the entries.
+	 * 
+	 * @param  policy
+	 *         The policy of selecting the entry to be evicted.
+	 * 
+	 * @since   1.1
+	 */
+	public LocalCache(int maximumSize, EvictionPolicy policy) {
+		this(maximumSize, policy, 0, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Constructs a {@code LocalCache}.
+	 * 
+	 * @param  maximumSize
+	 *         The maximum number of the entries.
+	 * 
+	 * @param  policy
+	 *         The policy of selecting the entry to be evicted.
+	 * 
+	 * @param  ttl
+	 *         The time-to-live of an entry since it was put, 0 means the 
+	 *         entries never expire.
+	 * 
+	 * @param  unit
+	 *         The time unit of the time-to-live.
+	 * 
+	 * @since   1.1
+	 */
+	public LocalCache(int maximumSize, EvictionPolicy policy, long ttl, TimeUnit unit) {
+		this(maximumSize, value -> 1L, policy, ttl, unit, System::nanoTime);
+	}
+	
+	/**
+	 * Constructs a {@code LocalCache} bounded by the total weight of the 
+	 * values.
+	 * 
+	 * <p>A value heavier than the maximum weight will not be cached.
+	 * 
+	 * @param  maximumWeight
+	 *         The maximum total weight of the values.
+	 * 
+	 * @param  weigher
+	 *         The function to measure the weight of a value.
+	 * 
+	 * @param  policy
+	 *         The policy of selecting the entry to be evicted.
+	 * 
+	 * @param  ttl
+	 *         The time-to-live of an entry since it was put, 0 means the 
+	 *         entries never expire.
+	 * 
+	 * @param  unit
+	 *         The time unit of the time-to-live.
+	 * 
+	 * @since   1.1
+	 */
+	public LocalCache(long maximumWeight, ToLongFunction<? super V> weigher, EvictionPolicy policy, long ttl, TimeUnit unit) {
+		this(maximumWeight, weigher, policy, ttl, unit, System::nanoTime);
+	}
+	
+	LocalCache(long maximumWeight, ToLongFunction<? super V> weigher, EvictionPolicy policy, long ttl, TimeUnit unit, LongSupplier ticker) {
+		Preconditions.checkArgument(maximumWeight > 0, "The maximum size needs to be positive.");
+		Preconditions.checkArgument(ttl >= 0,          "The time-to-live can not be negative.");
+		Preconditions.checkNotNull(weigher,            "The weigher can not be null.");
+		Preconditions.checkNotNull(policy,             "The eviction policy can not be null.");
+		this.maximumWeight = maximumWeight;
+		this.weigher       = weigher;
+		this.policy        = policy;
+		this.ttlNanos      = unit.toNanos(ttl);
+		this.ticker        = ticker;
+		this.entries       = new LinkedHashMap<>(16, 0.75f, policy == EvictionPolicy.LRU);
+	}
+	
+	public long           getMaximumWeight()           { return maximumWeight;                                 }
+	public EvictionPolicy getPolicy()                  { return policy;                                        }
+	public long           getTimeToLive(TimeUnit unit) { return unit.convert(ttlNanos, TimeUnit.NANOSECONDS); }
+	
+	/**
+	 * Get the value of a key.
+	 * 
+	 * @param  key
+	 *         The key to look up.
+	 * 
+	 * @return  The value, or {@code null} if the key is missing or expired.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		
+		if (isExpired(entry)) {
+			removeEntry(key, entry);
+			expirations++;
+			misses++;
+			return null;
+		}
+		
+		hits++;
+		if (policy == EvictionPolicy.LFU) {
+			increaseFrequency(key, entry);
+		}
+		return entry.value;
+	}
+	
+	/**
+	 * Put the value of a key.
+	 * 
+	 * <p>If the key exists, the value will be replaced and the time-to-live 
+	 * will be restarted. The entries will be evicted first until there is 
+	 * enough room for the value.
+	 * 
+	 * @param  key
+	 *         The key of the value.
+	 * 
+	 * @param  value
+	 *         The value to be cached.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized void put(K key, V value) {
+		Preconditions.checkNotNull(key,   "The key can not be null.");
+		Preconditions.checkNotNull(value, "The value can not be null.");
+		
+		// the replaced entry keeps its use count
+		int      frequency = 1;
+		Entry<V> existing  = entries.get(key);
+		if (existing != null) {
+			removeEntry(key, existing);
+			frequency = existing.frequency + 1;
+		}
+		
+		long weight = weigher.applyAsLong(value);
+		if (weight > maximumWeight) {
+			return;
+		}
+		
+		while (totalWeight + weight > maximumWeight) {
+			evict();
+		}
+		
+		entries.put(key, new Entry<>(value, weight, frequency, ticker.getAsLong()));
+		totalWeight += weight;
+		if (policy == EvictionPolicy.LFU) {
+			if (frequencyBuckets.isEmpty() || frequency < minFrequency) {
+				minFrequency = frequency;
+			}
+			frequencyBuckets.computeIfAbsent(frequency, f -> new LinkedHashSet<>()).add(key);
+		}
+	}
+	
+	/**
+	 * Remove the entry of a key.
+	 * 
+	 * @param  key
+	 *         The key to be removed.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized void invalidate(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null) {
+			removeEntry(key, entry);
+		}
+	}
+	
+	/**
+	 * Remove all the entries matched by a predicate.
+	 * 
+	 * @param  predicate
+	 *         The predicate to match the keys and the values.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+		List<K> keys = new ArrayList<>();
+		for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+			if (predicate.test(entry.getKey(), entry.getValue().value)) {
+				keys.add(entry.getKey());
+			}
+		}
+		for (K key : keys) {
+			removeEntry(key, entries.get(key));
+		}
+	}
+	
+	/**
+	 * Remove all the entries.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+		frequencyBuckets.clear();
+		minFrequency = 1;
+		totalWeight  = 0;
+	}
+	
+	/**
+	 * Get the current number of the entries, including the expired entries 
+	 * which have not been looked up yet.
+	 * 
+	 * @return  The number of the entries.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Get the snapshot of the statistics.
+	 * 
+	 * @return  The statistics of this cache.
+	 * 
+	 * @since   1.1
+	 */
+	public synchronized CacheStats getStats() {
+		return new CacheStats(hits, misses, evictions, expirations, entries.size(), totalWeight);
+	}
+	
+	/**
+	 * Evict one entry selected by the eviction policy.
+	 * 
+	 * @since   1.1
+	 */
+	private void evict() {
+		K victim;
+		if (policy == EvictionPolicy.LRU) {
+			victim = entries.keySet().iterator().next();
+		} else {
+			// the minimum frequency can be stale after an invalidation
+			if (!frequencyBuckets.containsKey(minFrequency)) {
+				minFrequency = Collections.min(frequencyBuckets.keySet());
+			}
+			victim = frequencyBuckets.get(minFrequency).iterator().next();
+		}
+		removeEntry(victim, entries.get(victim));
+		evictions++;
+	}
+	
+	/**
+	 * Move a key into the bucket of the next use count.
+	 * 
+	 * @since   1.1
+	 */
+	private void increaseFrequency(K key, Entry<V> entry) {
+		removeFromBucket(key, entry.frequency);
+		if (minFrequency == entry.frequency && !frequencyBuckets.containsKey(entry.frequency)) {
+			minFrequency = entry.frequency + 1;
+		}
+		entry.frequency++;
+		frequencyBuckets.computeIfAbsent(entry.frequency, frequency -> new LinkedHashSet<>()).add(key);
+	}
+	
+	private void removeEntry(K key, Entry<V> entry) {
+		entries.remove(key);
+		totalWeight -= entry.weight;
+		if (policy == EvictionPolicy.LFU) {
+			removeFromBucket(key, entry.frequency);
+		}
+	}
+	
+	private void removeFromBucket(K key, int frequency) {
+		LinkedHashSet<K> bucket = frequencyBuckets.get(frequency);
+		bucket.remove(key);
+		if (bucket.isEmpty()) {
+			frequencyBuckets.remove(frequency);
+		}
+	}
+	
+	private boolean isExpired(Entry<V> entry) {
+		return ttlNanos > 0 && ticker.getAsLong() - entry.createTime >= ttlNanos;
+	}
+	
+	/**
+	 * The entry of a cached value.
+	 * 
+	 * @since   1.1
+	 */
+	private static class Entry<V> {
+		private final V    value;
+		private final long weight;
+		private final long createTime;
+		private int        frequency;
+		
+		private Entry(V value, long weight, int frequency, long createTime) {
+			this.value      = value;
+			this.weight     = weight;
+			this.frequency  = frequency;
+			this.createTime = createTime;
+		}
+	}
+}
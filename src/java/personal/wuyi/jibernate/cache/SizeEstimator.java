@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tool class to estimate the memory usage of the cached values.
+ * 
+ * <p>The estimation is rough and fast: it assumes a 64-bit JVM with 
+ * compressed references, it follows the collections, the maps and the 
+ * arrays, but it does not follow the references between the objects, so an 
+ * entity is counted by its own fields, its strings and its boxed values, 
+ * not by the entities it refers to.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class SizeEstimator {
+	private static final int OBJECT_HEADER = 16;
+	private static final int REFERENCE     = 4;
+	
+	private static final ClassValue<List<Field>> INSTANCE_FIELDS = new ClassValue<List<Field>>() {
+		@Override
+		protected List<Field> computeValue(Class<?> clazz) {
+			List<Field> fieldList = new ArrayList<>();
+			for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						field.setAccessible(true);
+						fieldList.add(field);
+					}
+				}
+			}
+			return fieldList;
+		}
+	};
+	
+	private SizeEstimator() {}
+	
+	/**
+	 * Estimate the memory usage of an object in bytes.
+	 * 
+	 * @param  obj
+	 *         The object needs to be estimated.
+	 * 
+	 * @return  The estimated number of bytes.
+	 * 
+	 * @since   1.1
+	 */
+	public static long estimate(Object obj) {
+		if (obj == null || obj instanceof Enum || obj instanceof Class) {
+			return 0;
+		}
+		
+		if (obj instanceof String) {
+			return OBJECT_HEADER + 24 + 2L * ((String) obj).length();
+		}
+		
+		if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character || obj instanceof Date) {
+			return OBJECT_HEADER + 8;
+		}
+		
+		if (obj instanceof Collection) {
+			long size = OBJECT_HEADER + 24;
+			for (Object element : (Collection<?>) obj) {
+				size += REFERENCE + estimate(element);
+			}
+			return size;
+		}
+		
+		if (obj instanceof Map) {
+			long size = OBJECT_HEADER + 32;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+				size += 32 + estimate(entry.getKey()) + estimate(entry.getValue());
+			}
+			return size;
+		}
+		
+		if (obj.getClass().isArray()) {
+			return estimateArray(obj);
+		}
+		
+		return estimateShallow(obj);
+	}
+	
+	/**
+	 * Estimate the memory usage of an array.
+	 * 
+	 * @since   1.1
+	 */
+	private static long estimateArray(Object array) {
+		int      length        = Array.getLength(array);
+		Class<?> componentType = array.getClass().getComponentType();
+		if (componentType.isPrimitive()) {
+			return OBJECT_HEADER + (long) length * getPrimitiveSize(componentType);
+		}
+		
+		long size = OBJECT_HEADER + (long) length * REFERENCE;
+		for (int i = 0; i < length; i++) {
+			size += estimate(Array.get(array, i));
+		}
+		return size;
+	}
+	
+	/**
+	 * Estimate the memory usage of an object by its fields.
+	 * 
+	 * <p>The strings and the boxed values of the fields are counted, other 
+	 * referenced objects are only counted as references.
+	 * 
+	 * @since   1.1
+	 */
+	private static long estimateShallow(Object obj) {
+		long size = OBJECT_HEADER;
+		for (Field field : INSTANCE_FIELDS.get(obj.getClass())) {
+			Class<?> type = field.getType();
+			if (type.isPrimitive()) {
+				size += getPrimitiveSize(type);
+				continue;
+			}
+			
+			size += REFERENCE;
+			try {
+				Object value = field.get(obj);
+				if (value instanceof String || value instanceof Number || value instanceof Boolean 
+						|| value instanceof Character || value instanceof Date) {
+					size += estimate(value);
+				}
+			} catch (IllegalAccessException e) {
+				// the field is not readable, only count the reference
+			}
+		}
+		return size;
+	}
+	
+	private static int getPrimitiveSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		} else if (type == int.class || type == float.class) {
+			return 4;
+		} else if (type == short.class || type == char.class) {
+			return 2;
+		} else {
+			return 1;
+		}
+	}
+}
@@ -17,7 +17,9 @@
 package personal.wuyi.jibernate.config;
 
 import java.io.FileNotFoundException;
+import java.util.Properties;
 
+import personal.wuyi.io.file.properties.PropertiesUtil;
 import personal.wuyi.jpropertiesorm.annotation.PathX;
 import personal.wuyi.jpropertiesorm.annotation.ValueX;
 import personal.wuyi.jpropertiesorm.core.ConfigurationX;
@@ -40,6 +42,27 @@ public class MysqlDbConfig {
 	@ValueX(value="username")        private String username;
 	@ValueX(value="password")        private String password;
 	
+	// the optional settings of the connection pool, they will be loaded if 
+	// they exist in the external configuration file.
+	private String  poolType                  = "dbcp2";
+	private int     initialSize               = 10;
+	private int     maxTotal                  = 20;
+	private int     minIdle                   = 0;
+	private int     maxIdle                   = 20;
+	private long    maxWaitMillis             = 30000;
+	private boolean testOnBorrow              = true;
+	private int     validationQueryTimeout    = 5;
+	private boolean poolPreparedStatements    = true;
+	private int     maxOpenPreparedStatements = 250;
+	
+	// the optional performance properties of the MySQL JDBC driver.
+	private boolean cachePrepStmts            = true;
+	private int     prepStmtCacheSize         = 250;
+	private int     prepStmtCacheSqlLimit     = 2048;
+	private boolean useServerPrepStmts        = true;
+	private boolean rewriteBatchedStatements  = true;
+	private boolean useLocalSessionState      = true;
+	
 	/**
 	 * Constructs a {@code MysqlDbConfig}.
 	 * 
@@ -69,7 +92,75 @@ public class MysqlDbConfig {
      * @since   1.0
 	 */
 	public MysqlDbConfig initialize() throws IllegalAccessException, FileNotFoundException  {
-		return ConfigurationX.bindExternalConfigurationWithInstanceFieldsUsingPathX(this);
+		MysqlDbConfig config = ConfigurationX.bindExternalConfigurationWithInstanceFieldsUsingPathX(this);
+		config.loadOptionalProperties(PropertiesUtil.getProperties(config.getPath()));
+		return config;
+	}
+	
+	/**
+	 * Load the optional settings of the connection pool and the JDBC driver.
+	 * 
+	 * <p>The keys of the pool settings are prefixed by "pool." and the keys 
+	 * of the driver properties are prefixed by "jdbc.", like 
+	 * "pool.maxTotal=50" or "jdbc.useServerPrepStmts=false". If a key does 
+	 * not exist, the default value will be kept.
+	 * 
+	 * @param  properties
+	 *         The properties from the external configuration file.
+	 *         
+	 * @since   1.1
+	 */
+	protected void loadOptionalProperties(Properties properties) {
+		if (properties == null) {
+			return;
+		}
+		
+		poolType                  = getString(properties, "pool.type",                      poolType);
+		initialSize               = getInt(properties, "pool.initialSize",                  initialSize);
+		maxTotal                  = getInt(properties, "pool.maxTotal",                     maxTotal);
+		minIdle                   = getInt(properties, "pool.minIdle",                      minIdle);
+		maxIdle                   = getInt(properties, "pool.maxIdle",                      maxIdle);
+		maxWaitMillis             = getLong(properties, "pool.maxWaitMillis",               maxWaitMillis);
+		testOnBorrow              = getBoolean(properties, "pool.testOnBorrow",             testOnBorrow);
+		validationQueryTimeout    = getInt(properties, "pool.validationQueryTimeout",       validationQueryTimeout);
+		poolPreparedStatements    = getBoolean(properties, "pool.poolPreparedStatements",   poolPreparedStatements);
+		maxOpenPreparedStatements = getInt(properties, "pool.maxOpenPreparedStatements",    maxOpenPreparedStatements);
+
+		cachePrepStmts            = getBoolean(properties, "jdbc.cachePrepStmts",           cachePrepStmts);
+		prepStmtCacheSize         = getInt(properties, "jdbc.prepStmtCacheSize",            prepStmtCacheSize);
+		prepStmtCacheSqlLimit     = getInt(properties, "jdbc.prepStmtCacheSqlLimit",        prepStmtCacheSqlLimit);
+		useServerPrepStmts        = getBoolean(properties, "jdbc.useServerPrepStmts",       useServerPrepStmts);
+		rewriteBatchedStatements  = getBoolean(properties, "jdbc.rewriteBatchedStatements", rewriteBatchedStatements);
+		useLocalSessionState      = getBoolean(properties, "jdbc.useLocalSessionState",     useLocalSessionState);
+	}
+	
+	private static String  getString(Properties properties, String key, String defaultValue)   { return properties.getProperty(key, defaultValue);                                   }
+	private static int     getInt(Properties properties, String key, int defaultValue)         { return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)));     }
+	private static long    getLong(Properties properties, String key, long defaultValue)       { return Long.parseLong(properties.getProperty(key, String.valueOf(defaultValue)));       }
+	private static boolean getBoolean(Properties properties, String key, boolean defaultValue) { return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue))); }
+	
+	/**
+	 * Get the JDBC URL with the driver properties.
+	 * 
+	 * <p>The server-side cursor ("useCursorFetch") is only enabled when 
+	 * "useServerPrepStmts" is true, because the driver always uses the 
+	 * server-side prepared statements for a cursor fetch. If it is false, 
+	 * the streaming reads will load the whole result on the client.
+	 * 
+	 * @return  The JDBC URL.
+	 * 
+	 * @since   1.1
+	 */
+	public String getJdbcUrl() {
+		return "jdbc:mysql://" + host + ":" + port + "/" + database 
+				+ "?useSSL=true"
+				+ (useServerPrepStmts ? "&useCursorFetch=true" : "")
+				+ "&cachePrepStmts="           + cachePrepStmts
+				+ "&prepStmtCacheSize="        + prepStmtCacheSize
+				+ "&prepStmtCacheSqlLimit="    + prepStmtCacheSqlLimit
+				+ "&useServerPrepStmts="       + useServerPrepStmts
+				+ "&rewriteBatchedStatements=" + rewriteBatchedStatements
+				+ "&useLocalSessionState="     + useLocalSessionState;
 	}
 
 	public String getPath()                                  { return path;                            }
@@ -86,4 +177,37 @@ public class MysqlDbConfig {
 	public void   setUsername(String username)               { this.username = username;               }
 	public String getPassword()                              { return password;                        }
 	public void   setPassword(String password)               { this.password = password;               }
+	
+	public String  getPoolType()                                                 { return poolType;                                            }
+	public void    setPoolType(String poolType)                                  { this.poolType = poolType;                                   }
+	public int     getInitialSize()                                              { return initialSize;                                         }
+	public void    setInitialSize(int initialSize)                               { this.initialSize = initialSize;                             }
+	public int     getMaxTotal()                                                 { return maxTotal;                                            }
+	public void    setMaxTotal(int maxTotal)                                     { this.maxTotal = maxTotal;                                   }
+	public int     getMinIdle()                                                  { return minIdle;                                             }
+	public void    setMinIdle(int minIdle)                                       { this.minIdle = minIdle;                                     }
+	public int     getMaxIdle()                                                  { return maxIdle;                                             }
+	public void    setMaxIdle(int maxIdle)                                       { this.maxIdle = maxIdle;                                     }
+	public long    getMaxWaitMillis()                                            { return maxWaitMillis;                                       }
+	public void    setMaxWaitMillis(long maxWaitMillis)                          { this.maxWaitMillis = maxWaitMillis;                         }
+	public boolean isTestOnBorrow()                                              { return testOnBorrow;                                        }
+	public void    setTestOnBorrow(boolean testOnBorrow)                         { this.testOnBorrow = testOnBorrow;                           }
+	public int     getValidationQueryTimeout()                                   { return validationQueryTimeout;                              }
+	public void    setValidationQueryTimeout(int validationQueryTimeout)         { this.validationQueryTimeout = validationQueryTimeout;       }
+	public boolean isPoolPreparedStatements()                                    { return poolPreparedStatements;                              }
+	public void    setPoolPreparedStatements(boolean poolPreparedStatements)     { this.poolPreparedStatements = poolPreparedStatements;       }
+	public int     getMaxOpenPreparedStatements()                                { return maxOpenPreparedStatements;                           }
+	public void    setMaxOpenPreparedStatements(int maxOpenPreparedStatements)   { this.maxOpenPreparedStatements = maxOpenPreparedStatements; }
+	public boolean isCachePrepStmts()                                            { return cachePrepStmts;                                      }
+	public void    setCachePrepStmts(boolean cachePrepStmts)                     { this.cachePrepStmts = cachePrepStmts;                       }
+	public int     getPrepStmtCacheSize()                                        { return prepStmtCacheSize;                                   }
+	public void    setPrepStmtCacheSize(int prepStmtCacheSize)                   { this.prepStmtCacheSize = prepStmtCacheSize;                 }
+	public int     getPrepStmtCacheSqlLimit()                                    { return prepStmtCacheSqlLimit;                               }
+	public void    setPrepStmtCacheSqlLimit(int prepStmtCacheSqlLimit)           { this.prepStmtCacheSqlLimit = prepStmtCacheSqlLimit;         }
+	public boolean isUseServerPrepStmts()                                        { return useServerPrepStmts;                                  }
+	public void    setUseServerPrepStmts(boolean useServerPrepStmts)             { this.useServerPrepStmts = useServerPrepStmts;               }
+	public boolean isRewriteBatchedStatements()                                  { return rewriteBatchedStatements;                            }
+	public void    setRewriteBatchedStatements(boolean rewriteBatchedStatements) { this.rewriteBatchedStatements = rewriteBatchedStatements;   }
+	public boolean isUseLocalSessionState()                                      { return useLocalSessionState;                                }
+	public void    setUseLocalSessionState(boolean useLocalSessionState)         { this.useLocalSessionState = useLocalSessionState;           }
 }
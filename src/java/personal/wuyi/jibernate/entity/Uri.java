@@ -16,15 +16,12 @@
 
 package personal.wuyi.jibernate.entity;
 
-import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.math.NumberUtils;
-
-import com.google.common.base.Joiner;
-import com.google.common.base.Splitter;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.Lists;
 
 /**
  * The URI (Uniform Resource Identifier) for entity.
@@ -40,6 +37,13 @@ import com.google.common.collect.Lists;
  *     /com/aabbcc/entity/Student/24
  * </pre>
  * 
+ * <p>The class path of each class is computed only once and the classes 
+ * loaded from the class paths are registered, so parsing a URI string does 
+ * not need to look up the class again. The hash code is cached as well and 
+ * the integral unique IDs are compared by their values regardless of their 
+ * types (like {@code Integer} 6 and {@code Long} 6), so a {@code Uri} is 
+ * cheap to be used as the key of a map or a cache.
+ * 
  * @author  Wuyi Chen
  * @date    08/08/2018
  * @version 1.1
@@ -47,12 +51,21 @@ import com.google.common.collect.Lists;
  */
 public class Uri {
     public static final String SEPARATOR = "/";
+    
+    private static final ClassValue<String>    paths = new ClassValue<String>() {
+    	@Override
+    	protected String computeValue(Class<?> clazz) {
+    		return SEPARATOR + clazz.getName().replace('.', '/') + SEPARATOR;
+    	}
+    };
+    private static final Map<String, Class<?>> types = new ConcurrentHashMap<>();
 
     private String uriString;
 
     /** cache for convenience but do not serialize or persist */
     private transient Class<?> clazz;
     private transient Object   id;
+    private transient int      hash;
 
     private Uri() {}
 
@@ -83,7 +96,7 @@ public class Uri {
     public Uri(Class<?> clazz, Object id) {
         this.clazz     = clazz;
         this.id        = id;
-        this.uriString = Joiner.on("").skipNulls().join(getPath(clazz), id.toString());
+        this.uriString = getPath(clazz) + id.toString();
     }
     
     /**
@@ -128,42 +141,83 @@ public class Uri {
 
     /**
      * Parse URI string.
+     * 
+     * <p>The last segment of the URI string is the unique ID if it is an 
+     * integer (see {@link #parseId(String)}), the other segments are the 
+     * class path. So a URI string with a non-integral last segment, like 
+     * {@code /X/1.5}, is rejected because the class can not be found.
      *
      * @param  uriString
      *         The URI string needs to be parsed.
      * 
      * @return  The {@code Uri} object.
      * 
+     * @throws  IllegalArgumentException
+     *          If the class of the URI string can not be found.
+     * 
      * @since   1.0
      */
     public static Uri parse(final String uriString) {
-        final Uri uri   = new Uri();
-        uri.uriString   = uriString;
-        String path     = getClassPathWithoutId(uriString);
-        uri.clazz       = getType(path);
-
-        final String classpath = getPath(uri.clazz);
+        final Uri uri = new Uri();
+        uri.uriString = uriString;
 
+        int end = uriString.length();
+        while (end > 0 && uriString.charAt(end - 1) == '/') {
+        	end--;
+        }
+        
+        int    separator = uriString.lastIndexOf('/', end - 1);
+        String lastPart  = uriString.substring(separator + 1, end);
+        
         // if the uri string contains the unique ID.
-        if(classpath.length() < uriString.length()) {
-            String id = uriString.substring(classpath.length(), uriString.length());
-            id = id.trim();
-
-            if(id.length() > 0) {
-                uri.id = Integer.parseInt(id);
-            }
+        Number id = parseId(lastPart);
+        if (id != null) {
+        	uri.id = id;
+        	end    = separator;
         }
+        
+        uri.clazz = getType(uriString, 0, end);
+        Preconditions.checkArgument(uri.clazz != null, "The class of the URI %s can not be found.", uriString);
         return uri;
     }
     
-    private static String getClassPathWithoutId(String uriString) {
-        List<String> classPathList = Lists.newArrayList(Splitter.on('/').omitEmptyStrings().split(uriString));
-        if (NumberUtils.isCreatable(classPathList.get(classPathList.size() - 1))) {
-        		classPathList.remove(classPathList.size() - 1);	
-        }
-        return Joiner.on("").join(SEPARATOR, Joiner.on("/").join(classPathList), SEPARATOR);
+    /**
+     * Parse the unique ID from the last segment of a URI string.
+     * 
+     * <p>The segment needs to be the decimal digits with an optional sign. 
+     * The ID will be an {@code Integer} if it fits, otherwise a 
+     * {@code Long}, so the URI string of a {@code Long} ID can be parsed 
+     * back.
+     * 
+     * @param  segment
+     *         The last segment of a URI string.
+     * 
+     * @return  The unique ID, or {@code null} if the segment is not an 
+     *          integer in the range of {@code long}.
+     * 
+     * @since   1.1
+     */
+    private static Number parseId(String segment) {
+    	int start = (segment.startsWith("-") || segment.startsWith("+")) ? 1 : 0;
+    	if (start == segment.length()) {
+    		return null;
+    	}
+    	
+    	for (int i = start; i < segment.length(); i++) {
+    		char c = segment.charAt(i);
+    		if (c < '0' || c > '9') {
+    			return null;
+    		}
+    	}
+    	
+    	try {
+    		long id = Long.parseLong(segment);
+    		return (id >= Integer.MIN_VALUE && id <= Integer.MAX_VALUE) ? (Number) (int) id : (Number) id;
+    	} catch (NumberFormatException e) {
+    		return null;    // out of the range of long
+    	}
     }
-
+    
     /**
      * Get the class path of the class which this {@code URI} represents of.
      *
@@ -190,7 +244,7 @@ public class Uri {
      */
     public static String getPath(Class<?> clazz) {
         if(clazz != null) {
-            return Joiner.on("").join(SEPARATOR, clazz.getName().replaceAll("\\.", SEPARATOR), SEPARATOR);
+            return paths.get(clazz);
         } else {
         	return null;
         }
@@ -214,14 +268,49 @@ public class Uri {
             return null;
         }
 
-        int last  = (path.endsWith("/")) ? path.length() - 1: path.length();
-        int first = (path.startsWith("/")) ? 1 : 0;
-        String packageName = path.substring(first, last).replaceAll(SEPARATOR, ".");
-        try {
-        		return Class.forName(packageName);
-        } catch (ClassNotFoundException e) {
+        return getType(path, 0, path.length());
+    }
+    
+    /**
+     * Get the {@code Class} by a part of a string which is the class path.
+     * 
+     * <p>The class is looked up from the registered classes first, it will 
+     * be loaded by {@code Class.forName} and registered if it has not been 
+     * registered. Only the classes loaded by {@code Class.forName} are 
+     * registered, so the classes with the same name from other class 
+     * loaders will not be mixed up.
+     * 
+     * @param  str
+     *         The string contains the class path.
+     *         
+     * @param  start
+     *         The start index of the class path, inclusive.
+     *         
+     * @param  end
+     *         The end index of the class path, exclusive.
+     *         
+     * @return  The {@code Class} based on the path.
+     * 
+     * @since   1.1
+     */
+    private static Class<?> getType(String str, int start, int end) {
+        int first = (start < end && str.charAt(start) == '/')   ? start + 1 : start;
+        int last  = (first < end && str.charAt(end - 1) == '/') ? end - 1   : end;
+        if (first >= last) {
+        	return null;
+        }
+        
+        String   className = str.substring(first, last).replace('/', '.');
+        Class<?> clazz     = types.get(className);
+        if (clazz == null) {
+        	try {
+        		clazz = Class.forName(className);
+        		types.putIfAbsent(className, clazz);
+        	} catch (ClassNotFoundException e) {
         		return null;
+        	}
         }
+        return clazz;
     }
 
     @Override
@@ -229,16 +318,31 @@ public class Uri {
         return uriString;
     }
     
+    /* (non-Javadoc)
+     * The hash code is computed only once from the class path and the 
+     * unique ID, an integral unique ID is hashed by its {@code long} value.
+     * 
+     * @see java.lang.Object#hashCode()
+     */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 31)
-        		.append(getPath())
-        		.append(getId())
-        		.toHashCode();
+    	int h = hash;
+    	if (h == 0) {
+    		Object uniqueId = getId();
+    		String path     = getPath();
+    		h = 17 * 31 + (path == null ? 0 : path.hashCode());
+    		h = h * 31 + (isIntegral(uniqueId) ? Long.hashCode(((Number) uniqueId).longValue()) : Objects.hashCode(uniqueId));
+    		hash = h;
+    	}
+        return h;
     }
 
     @Override
     public boolean equals(Object o) {
+    	if (this == o) {
+    		return true;
+    	}
+    	
         if (o == null) {
             return false;
         }
@@ -248,6 +352,10 @@ public class Uri {
         }
 
         Uri uri = (Uri) o;
+        
+        if (hash != 0 && uri.hash != 0 && hash != uri.hash) {
+        	return false;
+        }
 
         return isEqualPath(uri) && isEqualId(uri);
     }
@@ -299,6 +407,9 @@ public class Uri {
     private boolean isEqualId(Uri uri) {
     	if (getId() != null) {
             if(uri.getId() != null) {
+            	if (isIntegral(getId()) && isIntegral(uri.getId())) {
+            		return ((Number) getId()).longValue() == ((Number) uri.getId()).longValue();
+            	}
                 if(!getId().equals(uri.getId())) {
                     return false;
                 }
@@ -313,5 +424,20 @@ public class Uri {
     	
     	return true;
     }
+    
+    /**
+     * Check a unique ID is an integral number or not.
+     * 
+     * @param  id
+     *         The unique ID needs to be checked.
+     *         
+     * @return  {@code true} if the unique ID is a {@code Long}, an 
+     *          {@code Integer}, a {@code Short} or a {@code Byte};
+     *          {@code false} otherwise.
+     *          
+     * @since   1.1
+     */
+    private static boolean isIntegral(Object id) {
+    	return id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte;
+    }
 }
-
@@ -18,28 +18,46 @@ package personal.wuyi.jibernate.entitymanager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
 import javax.persistence.spi.PersistenceUnitInfo;
 import javax.sql.DataSource;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.jpa.HibernatePersistenceProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 import personal.wuyi.jibernate.entity.ManagedEntity;
 import personal.wuyi.jibernate.entity.Persisted;
 import personal.wuyi.jibernate.entity.Uri;
 import personal.wuyi.jibernate.exception.DatabaseOperationException;
 import personal.wuyi.jibernate.query.JQuery;
 import personal.wuyi.jibernate.query.QueryConverter;
-import personal.wuyi.reflect.ReflectUtil;
 
 /**
  * The generic DAO (Data Access Object) for processing database operations.
@@ -57,6 +75,10 @@ import personal.wuyi.reflect.ReflectUtil;
  * @since   1.0
  */
 abstract class AbstractEntityManagerDao implements Dao {
+	protected static final int DEFAULT_FETCH_SIZE = 1000;
+	protected static final int DEFAULT_BATCH_SIZE = 50;
+	protected static final int DEFAULT_CHUNK_SIZE = 500;
+
 	private EntityManagerFactory entityManagerFactory;
 	
 	private static Logger logger = LoggerFactory.getLogger(AbstractEntityManagerDao.class);
@@ -90,6 +112,20 @@ abstract class AbstractEntityManagerDao implements Dao {
 	 */
 	protected abstract String     getPersistenceUnit();
 	
+	/**
+	 * Get the default size of JDBC batches.
+	 * 
+	 * <p>Sub-classes can override this method to change the batch size of 
+	 * the {@code EntityManagerFactory}.
+	 * 
+	 * @return  The number of statements in one JDBC batch.
+	 * 
+	 * @since   1.1
+	 */
+	protected int getBatchSize() {
+		return DEFAULT_BATCH_SIZE;
+	}
+	
 	/* (non-Javadoc)
 	 * @see personal.wuyi.jibernate.core.Dao#read(personal.wuyi.jibernate.core.Uri)
 	 */
@@ -110,6 +146,154 @@ abstract class AbstractEntityManagerDao implements Dao {
         }
     }
 
+	/**
+	 * Get the maximum number of primary keys in one {@code IN} clause when 
+	 * reading entities by a collection of {@code Uri}.
+	 * 
+	 * <p>Sub-classes can override this method to change the chunk size.
+	 * 
+	 * @return  The maximum number of primary keys in one query.
+	 * 
+	 * @since   1.1
+	 */
+	protected int getChunkSize() {
+		return DEFAULT_CHUNK_SIZE;
+	}
+	
+	/* (non-Javadoc)
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#read(java.util.Collection)
+	 */
+	@Override
+    public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+        if (uris.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            return readByUris(entityManager, uris);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Read the entities by a collection of {@code Uri} in an existing 
+     * {@code EntityManager}.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  uris
+     *         The collection of {@code Uri}s.
+     * 
+     * @return  The list of the found entities in the order of the 
+     *          {@code Uri}s.
+     * 
+     * @since   1.1
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Persisted> List<T> readByUris(EntityManager entityManager, Collection<Uri> uris) {
+        final Metamodel metamodel = entityManager.getMetamodel();
+
+        // group the primary keys by class, the duplicated keys will be 
+        // queried only once.
+        final List<Object>               idList = new ArrayList<>();
+        final Map<Class<?>, Set<Object>> idMap  = new LinkedHashMap<>();
+        for (Uri uri : uris) {
+            if (uri.getId() == null) {
+                throw new IllegalArgumentException("id can not be null when you query by primary key.");
+            }
+
+            Object id = normalizeId(uri.getId(), metamodel.entity(uri.getType()).getIdType().getJavaType());
+            idList.add(id);
+            idMap.computeIfAbsent(uri.getType(), clazz -> new LinkedHashSet<>()).add(id);
+        }
+
+        final Map<Class<?>, Map<Object, Object>> entityMap = new HashMap<>();
+        for (Entry<Class<?>, Set<Object>> entry : idMap.entrySet()) {
+            entityMap.put(entry.getKey(), readByIds(entityManager, entry.getKey(), new ArrayList<>(entry.getValue())));
+        }
+
+        // return the entities in the order of the URIs, skip the missing ones.
+        final List<T> list = new ArrayList<>();
+        int index = 0;
+        for (Uri uri : uris) {
+            Object entity = entityMap.get(uri.getType()).get(idList.get(index++));
+            if (entity != null) {
+                list.add((T) entity);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Read the entities of one class by a list of primary keys.
+     * 
+     * <p>The primary keys will be split into chunks and each chunk will be 
+     * queried by one {@code IN} clause.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     * 
+     * @param  ids
+     *         The list of distinct primary keys.
+     * 
+     * @return  The map of the found entities by their primary keys.
+     * 
+     * @since   1.1
+     */
+    private Map<Object, Object> readByIds(EntityManager entityManager, Class<?> clazz, List<Object> ids) {
+        final EntityType<?>       entityType = entityManager.getMetamodel().entity(clazz);
+        final String              idField    = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        final PersistenceUnitUtil util       = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        final Map<Object, Object> map        = new HashMap<>();
+
+        final int chunkSize = getChunkSize();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Object> chunk   = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            List<?>      results = QueryConverter.getJpaMultiGetQuery(entityManager, clazz, idField, chunk).getResultList();
+            for (Object result : results) {
+                map.put(util.getIdentifier(result), result);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Convert a numeric primary key to the type of the primary key field.
+     * 
+     * <p>The primary key parsed from a URI string is always an 
+     * {@code Integer}, so it needs to be converted before comparing with the 
+     * primary keys of the entities.
+     * 
+     * @param  id
+     *         The primary key.
+     * 
+     * @param  idType
+     *         The type of the primary key field.
+     * 
+     * @return  The converted primary key.
+     * 
+     * @since   1.1
+     */
+    private static Object normalizeId(Object id, Class<?> idType) {
+        if (id instanceof Number && !idType.isInstance(id)) {
+            if (idType == Long.class || idType == long.class) {
+                return ((Number) id).longValue();
+            } else if (idType == Integer.class || idType == int.class) {
+                return ((Number) id).intValue();
+            } else if (idType == Short.class || idType == short.class) {
+                return ((Number) id).shortValue();
+            }
+        }
+        return id;
+    }
+
 	/* (non-Javadoc)
 	 * @see personal.wuyi.jibernate.core.Dao#read(personal.wuyi.jibernate.query.Query)
 	 */
@@ -119,8 +303,8 @@ abstract class AbstractEntityManagerDao implements Dao {
         final EntityManager entityManager = getEntityManager();
 
         try {
-            final Query jpaQuery = QueryConverter.getJpaQuery(entityManager, query);
-            return jpaQuery.getResultList();
+            final Query jpaQuery = QueryConverter.getSatisfiableJpaQuery(entityManager, query);
+            return jpaQuery == null ? new ArrayList<>() : jpaQuery.getResultList();
         } finally {
             entityManager.close();
         }
@@ -134,27 +318,93 @@ abstract class AbstractEntityManagerDao implements Dao {
         final EntityManager entityManager = getEntityManager();
 
         try {
-            final Query jpaQuery = QueryConverter.getJpaQuery(entityManager, query, fieldNames);
-            List<?> results = jpaQuery.getResultList();
-            
-            List<List<?>> list = new ArrayList<>();
-            if(fieldNames.length == 1) {
-            	for(Object result : results) {
-            		List<Object> sublist = new ArrayList<>();
-            		sublist.add(result);
-            		list.add(sublist);
-            	}
-            } else {
-            	for(Object result : results) {
-            		list.add(Arrays.asList(((Object[]) result)));
-            	}
-            }
-            return list;
+            return readFields(entityManager, query, fieldNames);
         } finally {
             entityManager.close();
         }
     }
 
+    /**
+     * Read the selected fields by a query in an existing 
+     * {@code EntityManager}.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of results.
+     * 
+     * @param  fieldNames
+     *         The array of field names in Java class.
+     * 
+     * @return  The nested {@code List} of {@code List<?>}.
+     * 
+     * @since   1.1
+     */
+    List<List<?>> readFields(EntityManager entityManager, JQuery<? extends Persisted> query, String... fieldNames) {
+        final Query jpaQuery = QueryConverter.getSatisfiableJpaQuery(entityManager, query, fieldNames);
+        if (jpaQuery == null) {
+            return new ArrayList<>();
+        }
+        
+        List<?> results = jpaQuery.getResultList();
+        
+        List<List<?>> list = new ArrayList<>();
+        if(fieldNames.length == 1) {
+        	for(Object result : results) {
+        		List<Object> sublist = new ArrayList<>();
+        		sublist.add(result);
+        		list.add(sublist);
+        	}
+        } else {
+        	for(Object result : results) {
+        		list.add(Arrays.asList(((Object[]) result)));
+        	}
+        }
+        return list;
+    }
+
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#stream(personal.wuyi.jibernate.query.JQuery)
+     */
+    @Override
+    public <T extends Persisted> Stream<T> stream(JQuery<T> query) {
+        return stream(query, DEFAULT_FETCH_SIZE);
+    }
+
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#stream(personal.wuyi.jibernate.query.JQuery, int)
+     *
+     * The entity manager will not be closed here, it will be closed when the
+     * stream is closed.
+     */
+    @Override
+    public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize) {
+        Preconditions.checkArgument(fetchSize > 0, "The fetch size should be greater than 0.");
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            final Query jpaQuery = QueryConverter.getSatisfiableJpaQuery(entityManager, query);
+            if (jpaQuery == null) {
+                entityManager.close();
+                return Stream.empty();
+            }
+            
+            final org.hibernate.query.Query<?> hibernateQuery = jpaQuery.unwrap(org.hibernate.query.Query.class);
+            hibernateQuery.setFetchSize(fetchSize);
+            hibernateQuery.setReadOnly(true);
+            hibernateQuery.setCacheMode(CacheMode.IGNORE);
+
+            final ScrollableResults          results  = hibernateQuery.scroll(ScrollMode.FORWARD_ONLY);
+            final StreamingResultIterator<T> iterator = new StreamingResultIterator<>(entityManager, results, fetchSize);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(iterator::close);
+        } catch (RuntimeException e) {
+            entityManager.close();
+            throw e;
+        }
+    }
+
     /* (non-Javadoc)
      * @see personal.wuyi.jibernate.core.Dao#count(personal.wuyi.jibernate.query.Query)
      */
@@ -163,15 +413,31 @@ abstract class AbstractEntityManagerDao implements Dao {
         final EntityManager entityManager = getEntityManager();
 
         try {
-            // make a copy since we are going to modify query
-        	JQuery<T> queryCopy = ReflectUtil.copy(query);
-            final Query jpaQuery = QueryConverter.getJpaQuery(entityManager, queryCopy, "COUNT(*)");
-            return (Long) jpaQuery.getSingleResult();
+            return count(entityManager, query);
         } finally {
             entityManager.close();
         }
     }
 
+    /**
+     * Count the number of matched records in an existing 
+     * {@code EntityManager}.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of results.
+     * 
+     * @return  The number of matched records.
+     * 
+     * @since   1.1
+     */
+    static <T extends Persisted> long count(EntityManager entityManager, JQuery<T> query) {
+        final Query jpaQuery = QueryConverter.getSatisfiableJpaQuery(entityManager, query, "COUNT(*)");
+        return jpaQuery == null ? 0 : (Long) jpaQuery.getSingleResult();
+    }
+
     /* (non-Javadoc)
      * @see personal.wuyi.jibernate.core.Dao#write(personal.wuyi.jibernate.core.Persisted)
      * 
@@ -188,15 +454,7 @@ abstract class AbstractEntityManagerDao implements Dao {
 
         try {
             entityManager.getTransaction().begin();
-
-            // create new records, use persist()
-            // update existing records, use merge()
-            if(((ManagedEntity) t).getId() == null) {
-                entityManager.persist(t);
-            } else {
-                entityManager.merge(t);
-            }
-
+            persistOrMerge(entityManager, t);
             entityManager.getTransaction().commit();
         } catch(Exception e) {
             entityManager.getTransaction().rollback();
@@ -225,13 +483,7 @@ abstract class AbstractEntityManagerDao implements Dao {
             entityManager.getTransaction().begin();
 
             for (T t : tList) {
-                // create new records, use persist()
-                // update existing records, use merge()                
-            	if (((ManagedEntity) t).getId() == null) {
-                    entityManager.persist(t);
-                } else {
-                    entityManager.merge(t);
-                }
+                persistOrMerge(entityManager, t);
             }
 
             entityManager.getTransaction().commit();
@@ -244,6 +496,111 @@ abstract class AbstractEntityManagerDao implements Dao {
         }
     }
 
+    /**
+     * Insert a new record or update an existing record in an existing 
+     * {@code EntityManager}.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  t
+     *         The record needs to be inserted or updated.
+     * 
+     * @since   1.1
+     */
+    static <T extends Persisted> void persistOrMerge(EntityManager entityManager, T t) {
+        // create new records, use persist()
+        // update existing records, use merge()
+        if (((ManagedEntity) t).getId() == null) {
+            entityManager.persist(t);
+        } else {
+            entityManager.merge(t);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#write(java.util.List, int)
+     * 
+     * New records are inserted first and existing records are updated after 
+     * that, so the inserts and the updates never share a JDBC batch. Within 
+     * each group the records are ordered by class so that consecutive 
+     * statements are identical and can be batched together.
+     * 
+     * Existing records are merged like write(List), so a record with an 
+     * assigned id but no row is still inserted and a record that appears twice 
+     * in the list does not conflict with itself.
+     */
+    @Override
+    public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException {
+        Preconditions.checkArgument(batchSize > 0, "The batch size should be greater than 0.");
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+
+            final Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+
+            List<T> insertList = new ArrayList<>();
+            List<T> updateList = new ArrayList<>();
+            for (T t : tList) {
+                if (((ManagedEntity) t).getId() == null) {
+                    insertList.add(t);
+                } else {
+                    updateList.add(t);
+                }
+            }
+
+            Comparator<T> byClass = Comparator.comparing(t -> t.getClass().getName());
+            insertList.sort(byClass);
+            updateList.sort(byClass);
+
+            int count = 0;
+            for (T t : insertList) {
+                session.persist(t);
+                flushAndClearByBatch(session, ++count, batchSize);
+            }
+            session.flush();
+            session.clear();
+
+            count = 0;
+            for (T t : updateList) {
+                session.merge(t);
+                flushAndClearByBatch(session, ++count, batchSize);
+            }
+
+            entityManager.getTransaction().commit();
+        } catch(Exception e) {
+            entityManager.getTransaction().rollback();
+            logger.error("Error occurred when writing objects in batch", e);
+            throw new DatabaseOperationException("Error occurred when writing objects in batch", e);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Flush the pending statements and clear the persistence context once a 
+     * full batch of records has been processed.
+     * 
+     * @param  session
+     *         The current {@code Session}.
+     * 
+     * @param  count
+     *         The number of records have been processed.
+     * 
+     * @param  batchSize
+     *         The number of records in one batch.
+     * 
+     * @since   1.1
+     */
+    private void flushAndClearByBatch(Session session, int count, int batchSize) {
+        if (count % batchSize == 0) {
+            session.flush();
+            session.clear();
+        }
+    }
+
     /* (non-Javadoc)
      * @see personal.wuyi.jibernate.core.Dao#delete(personal.wuyi.jibernate.core.Persisted)
      * 
@@ -257,9 +614,7 @@ abstract class AbstractEntityManagerDao implements Dao {
 
         try {
             entityManager.getTransaction().begin();
-            // Can not delete an entity which is not managed by entityManager
-            // So check an entity is managed or not, if not, manage it first.
-            entityManager.remove(entityManager.contains(t) ? t : entityManager.merge(t));
+            remove(entityManager, t);
             entityManager.getTransaction().commit();
         } catch(Exception e) {
             entityManager.getTransaction().rollback();
@@ -285,9 +640,7 @@ abstract class AbstractEntityManagerDao implements Dao {
             entityManager.getTransaction().begin();
             
             for (T t : tList) {
-            	// Can not delete an entity which is not managed by entityManager
-                // So check an entity is managed or not, if not, manage it first.
-            	entityManager.remove(entityManager.contains(t) ? t : entityManager.merge(t));
+            	remove(entityManager, t);
             }
             
             entityManager.getTransaction().commit();
@@ -300,6 +653,85 @@ abstract class AbstractEntityManagerDao implements Dao {
         }
     }
     
+    /**
+     * Delete a record in an existing {@code EntityManager}.
+     * 
+     * @param  entityManager
+     *         The current {@code EntityManager}.
+     * 
+     * @param  t
+     *         The record needs to be deleted.
+     * 
+     * @since   1.1
+     */
+    static <T extends Persisted> void remove(EntityManager entityManager, T t) {
+        // Can not delete an entity which is not managed by entityManager
+        // So check an entity is managed or not, if not, manage it first.
+        entityManager.remove(entityManager.contains(t) ? t : entityManager.merge(t));
+    }
+
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#delete(personal.wuyi.jibernate.query.JQuery)
+     */
+    @Override
+    public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+            int count = QueryConverter.getJpaDeleteQuery(entityManager, query).executeUpdate();
+            entityManager.getTransaction().commit();
+            return count;
+        } catch(Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            logger.error("Error occurred when deleting objects by query", e);
+            throw new DatabaseOperationException("Error occurred when deleting objects by query", e);
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#update(personal.wuyi.jibernate.query.JQuery, java.util.Map)
+     */
+    @Override
+    public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+            int count = QueryConverter.getJpaUpdateQuery(entityManager, query, assignments).executeUpdate();
+            entityManager.getTransaction().commit();
+            return count;
+        } catch(Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            logger.error("Error occurred when updating objects by query", e);
+            throw new DatabaseOperationException("Error occurred when updating objects by query", e);
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.entitymanager.Dao#openSession()
+     */
+    @Override
+    public DaoSession openSession() {
+        final EntityManager entityManager = getEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+            return new EntityManagerDaoSession(this, entityManager);
+        } catch (RuntimeException e) {
+            entityManager.close();
+            throw e;
+        }
+    }
+    
 	/**
 	 * Get an {@code EntityManager}.
 	 * 
@@ -340,8 +772,12 @@ abstract class AbstractEntityManagerDao implements Dao {
 	private Map<String,Object> getProperties() {
         Map<String,Object> properties = new HashMap<>();
 
-        properties.put(AvailableSettings.DIALECT,    getDialect());
-        properties.put(AvailableSettings.DATASOURCE, getDataSource());
+        properties.put(AvailableSettings.DIALECT,              getDialect());
+        properties.put(AvailableSettings.DATASOURCE,           getDataSource());
+        properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, getBatchSize());
+        properties.put(AvailableSettings.ORDER_INSERTS,        true);
+        properties.put(AvailableSettings.ORDER_UPDATES,        true);
+        properties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
 
         return properties;
     }
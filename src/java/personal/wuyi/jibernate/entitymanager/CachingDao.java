@@ -0,0 +1,471 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.cache.CacheStats;
+import personal.wuyi.jibernate.cache.EvictionPolicy;
+import personal.wuyi.jibernate.cache.LocalCache;
+import personal.wuyi.jibernate.cache.SizeEstimator;
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The DAO which caches the records read by {@code Uri} in front of another 
+ * DAO.
+ * 
+ * <p>{@link #read(Uri)} and {@link #read(Collection)} will look up the cache 
+ * first and only read the missing records from the underlying DAO. The 
+ * cache has a size bound, an eviction policy (LRU or LFU) and an optional 
+ * time-to-live.
+ * 
+ * <p>The query cache for {@link #read(JQuery)}, 
+ * {@link #read(JQuery, String...)} and {@link #count(JQuery)} can be enabled 
+ * by {@link #enableQueryCache(long, EvictionPolicy, long, TimeUnit)}. The 
+ * query results are keyed by the structure of the queries and bounded by 
+ * their estimated memory usage.
+ * 
+ * <p>The writes and the deletes through this DAO will invalidate the cached 
+ * records they touched and the cached query results of their classes, a 
+ * bulk delete or update by query will invalidate all the cached records and 
+ * query results of the queried class, and a session opened by this DAO 
+ * will invalidate the records it read or wrote when it is committed. A read 
+ * which overlaps with an invalidation will not be cached. The changes made 
+ * by other applications or other DAOs can not be seen until the records are 
+ * evicted or expired, so a time-to-live is recommended if the database is 
+ * shared.
+ * 
+ * <p>The cached records are shared by all the callers, they need to be 
+ * treated as read-only unless they are written back by {@code write}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class CachingDao implements Dao {
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+	
+	private final Dao                           dao;
+	private final LocalCache<Uri, Persisted>    cache;
+	private final AtomicLong                    invalidations = new AtomicLong();
+	
+	private volatile LocalCache<QueryCacheKey, Object> queryCache = null;
+	
+	/**
+	 * Constructs a {@code CachingDao} with the default maximum size, the LRU 
+	 * policy and no time-to-live.
+	 * 
+	 * @param  dao
+	 *         The underlying DAO.
+	 * 
+	 * @since   1.1
+	 */
+	public CachingDao(Dao dao) {
+		this(dao, DEFAULT_MAXIMUM_SIZE, EvictionPolicy.LRU, 0, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Constructs a {@code CachingDao}.
+	 * 
+	 * @param  dao
+	 *         The underlying DAO.
+	 * 
+	 * @param  maximumSize
+	 *         The maximum number of the cached records.
+	 * 
+	 * @param  policy
+	 *         The policy of selecting the record to be evicted.
+	 * 
+	 * @param  ttl
+	 *         The time-to-live of a cached record, 0 means the records never 
+	 *         expire.
+	 * 
+	 * @param  unit
+	 *         The time unit of the time-to-live.
+	 * 
+	 * @since   1.1
+	 */
+	public CachingDao(Dao dao, int maximumSize, EvictionPolicy policy, long ttl, TimeUnit unit) {
+		Preconditions.checkNotNull(dao, "The underlying DAO can not be null.");
+		this.dao   = dao;
+		this.cache = new LocalCache<>(maximumSize, policy, ttl, unit);
+	}
+	
+	/**
+	 * Enable the query cache.
+	 * 
+	 * <p>If the query cache has been enabled, the cached query results will 
+	 * be dropped.
+	 * 
+	 * @param  maximumBytes
+	 *         The maximum estimated memory usage of the cached query 
+	 *         results.
+	 * 
+	 * @param  policy
+	 *         The policy of selecting the query result to be evicted.
+	 * 
+	 * @param  ttl
+	 *         The time-to-live of a cached query result, 0 means the query 
+	 *         results never expire.
+	 * 
+	 * @param  unit
+	 *         The time unit of the time-to-live.
+	 * 
+	 * @see  SizeEstimator
+	 * 
+	 * @since   1.1
+	 */
+	public void enableQueryCache(long maximumBytes, EvictionPolicy policy, long ttl, TimeUnit unit) {
+		this.queryCache = new LocalCache<>(maximumBytes, SizeEstimator::estimate, policy, ttl, unit);
+	}
+	
+	/**
+	 * Get the statistics of the cache.
+	 * 
+	 * @return  The snapshot of the hits, the misses and the evictions.
+	 * 
+	 * @since   1.1
+	 */
+	public CacheStats getCacheStats() {
+		return cache.getStats();
+	}
+	
+	/**
+	 * Get the statistics of the query cache.
+	 * 
+	 * @return  The snapshot of the hits, the misses and the evictions, or 
+	 *          {@code null} if the query cache is not enabled.
+	 * 
+	 * @since   1.1
+	 */
+	public CacheStats getQueryCacheStats() {
+		LocalCache<QueryCacheKey, Object> currentQueryCache = queryCache;
+		return currentQueryCache == null ? null : currentQueryCache.getStats();
+	}
+	
+	/**
+	 * Remove a record from the cache.
+	 * 
+	 * @param  uri
+	 *         The {@code Uri} of the record.
+	 * 
+	 * @since   1.1
+	 */
+	public void invalidate(Uri uri) {
+		invalidations.incrementAndGet();
+		cache.invalidate(uri);
+	}
+	
+	/**
+	 * Remove all the records and the query results from the cache.
+	 * 
+	 * @since   1.1
+	 */
+	public void invalidateAll() {
+		invalidations.incrementAndGet();
+		cache.invalidateAll();
+		LocalCache<QueryCacheKey, Object> currentQueryCache = queryCache;
+		if (currentQueryCache != null) {
+			currentQueryCache.invalidateAll();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> T read(Uri uri) {
+		Persisted cached = cache.get(uri);
+		if (cached != null) {
+			return (T) cached;
+		}
+		
+		long invalidationCount = invalidations.get();
+		T    t                 = dao.read(uri);
+		if (t != null && invalidations.get() == invalidationCount) {
+			cache.put(uri, t);
+		}
+		return t;
+	}
+
+	/* (non-Javadoc)
+	 * Only the records missing in the cache will be read from the underlying 
+	 * DAO, in one batch.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#read(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		Map<Uri, Persisted>    recordMap   = new HashMap<>();
+		List<Uri>              missingUris = new ArrayList<>();
+		for (Uri uri : uris) {
+			Persisted cached = cache.get(uri);
+			if (cached != null) {
+				recordMap.put(uri, cached);
+			} else {
+				missingUris.add(uri);
+			}
+		}
+		
+		if (!missingUris.isEmpty()) {
+			long            invalidationCount = invalidations.get();
+			List<Persisted> missingRecords    = dao.read(missingUris);
+			boolean         cacheable         = invalidations.get() == invalidationCount;
+			for (Persisted record : missingRecords) {
+				Uri key = record.getUri();
+				recordMap.put(key, record);
+				if (cacheable) {
+					cache.put(key, record);
+				}
+			}
+		}
+		
+		List<T> result = new ArrayList<>();
+		for (Uri uri : uris) {
+			Persisted record = recordMap.get(uri);
+			if (record != null) {
+				result.add((T) record);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		List<T> result = readQuery(new QueryCacheKey(QueryCacheKey.Kind.RECORDS, query), () -> dao.read(query));
+		return new ArrayList<>(result);
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		List<List<?>> result = readQuery(new QueryCacheKey(QueryCacheKey.Kind.FIELDS, query, fieldNames), () -> dao.read(query, fieldNames));
+		return new ArrayList<>(result);
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query) {
+		return dao.stream(query);
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize) {
+		return dao.stream(query, fetchSize);
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		return readQuery(new QueryCacheKey(QueryCacheKey.Kind.COUNT, query), () -> dao.count(query));
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		try {
+			dao.write(t);
+		} finally {
+			invalidate(t);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		try {
+			dao.write(tList);
+		} finally {
+			invalidate(tList);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException {
+		try {
+			dao.write(tList, batchSize);
+		} finally {
+			invalidate(tList);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		try {
+			dao.delete(t);
+		} finally {
+			invalidate(t);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		try {
+			dao.delete(tList);
+		} finally {
+			invalidate(tList);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		try {
+			return dao.delete(query);
+		} finally {
+			invalidateType(query.getPersistedClass());
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		try {
+			return dao.update(query, assignments);
+		} finally {
+			invalidateType(query.getPersistedClass());
+		}
+	}
+
+	/* (non-Javadoc)
+	 * The records read by the session are managed, their changes will be 
+	 * committed with the session, so the session will invalidate all the 
+	 * records it read or wrote when it is committed.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#openSession()
+	 */
+	@Override
+	public DaoSession openSession() {
+		return new CachingDaoSession(this, dao.openSession());
+	}
+
+	@Override
+	public void start() {
+		dao.start();
+	}
+
+	@Override
+	public void stop() {
+		dao.stop();
+		invalidateAll();
+	}
+	
+	/**
+	 * Read a query result from the query cache or from the underlying DAO.
+	 * 
+	 * @param  key
+	 *         The key of the query result.
+	 * 
+	 * @param  read
+	 *         The read operation on the underlying DAO.
+	 * 
+	 * @return  The query result.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings("unchecked")
+	private <R> R readQuery(QueryCacheKey key, Supplier<R> read) {
+		LocalCache<QueryCacheKey, Object> currentQueryCache = queryCache;
+		if (currentQueryCache == null) {
+			return read.get();
+		}
+		
+		Object cached = currentQueryCache.get(key);
+		if (cached != null) {
+			return (R) cached;
+		}
+		
+		long invalidationCount = invalidations.get();
+		R    result            = read.get();
+		if (result != null && invalidations.get() == invalidationCount) {
+			currentQueryCache.put(key, result);
+		}
+		return result;
+	}
+	
+	/**
+	 * Remove a record and the query results of its class from the cache.
+	 * 
+	 * <p>A record which has not been persisted has no cache entry, but it 
+	 * may be inserted, so the query results of its class are still removed.
+	 * 
+	 * @param  t
+	 *         The record to be removed.
+	 * 
+	 * @since   1.1
+	 */
+	void invalidate(Persisted t) {
+		if (t != null) {
+			invalidate(Collections.singletonList(t));
+		}
+	}
+	
+	void invalidate(Collection<? extends Persisted> tList) {
+		invalidations.incrementAndGet();
+		Set<Class<?>> classes = new HashSet<>();
+		for (Persisted t : tList) {
+			if (t.isPersisted()) {
+				cache.invalidate(t.getUri());
+			}
+			classes.add(t.getClass());
+		}
+		for (Class<?> clazz : classes) {
+			invalidateQueries(clazz);
+		}
+	}
+	
+	/**
+	 * Remove all the records and the query results of a class (and its 
+	 * subclasses) from the cache.
+	 * 
+	 * @param  clazz
+	 *         The class of the records.
+	 * 
+	 * @since   1.1
+	 */
+	void invalidateType(Class<?> clazz) {
+		invalidations.incrementAndGet();
+		cache.invalidateIf((key, record) -> clazz.isInstance(record));
+		invalidateQueries(clazz);
+	}
+	
+	/**
+	 * Remove the query results which may contain the records of a class.
+	 * 
+	 * <p>A query on a super class or a subclass may contain the records of 
+	 * the class.
+	 * 
+	 * @since   1.1
+	 */
+	private void invalidateQueries(Class<?> clazz) {
+		LocalCache<QueryCacheKey, Object> currentQueryCache = queryCache;
+		if (currentQueryCache != null) {
+			currentQueryCache.invalidateIf((key, result) -> key.getPersistedClass().isAssignableFrom(clazz) 
+					|| clazz.isAssignableFrom(key.getPersistedClass()));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The session opened by {@link CachingDao}.
+ *
+ * <p>It records the records read or written in the session and the classes 
+ * updated by query, then invalidates them in the cache of the DAO after the 
+ * session is committed.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class CachingDaoSession implements DaoSession {
+	private final CachingDao      dao;
+	private final DaoSession      session;
+	private final List<Persisted> touchedRecords = new ArrayList<>();
+	private final Set<Class<?>>   touchedTypes   = new HashSet<>();
+
+	/**
+	 * Constructs a {@code CachingDaoSession}.
+	 *
+	 * @param  dao
+	 *         The {@code CachingDao} which opened this session.
+	 *
+	 * @param  session
+	 *         The session of the underlying DAO.
+	 *
+	 * @since   1.1
+	 */
+	CachingDaoSession(CachingDao dao, DaoSession session) {
+		this.dao     = dao;
+		this.session = session;
+	}
+
+	@Override
+	public <T extends Persisted> T read(Uri uri) {
+		T t = session.read(uri);
+		if (t != null) {
+			touchedRecords.add(t);
+		}
+		return t;
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		List<T> tList = session.read(uris);
+		touchedRecords.addAll(tList);
+		return tList;
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		List<T> tList = session.read(query);
+		touchedRecords.addAll(tList);
+		return tList;
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		return session.read(query, fieldNames);
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		return session.count(query);
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		touchedRecords.add(t);
+		session.write(t);
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		touchedRecords.addAll(tList);
+		session.write(tList);
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		touchedRecords.add(t);
+		session.delete(t);
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		touchedRecords.addAll(tList);
+		session.delete(tList);
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		touchedTypes.add(query.getPersistedClass());
+		return session.delete(query);
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		touchedTypes.add(query.getPersistedClass());
+		return session.update(query, assignments);
+	}
+
+	/* (non-Javadoc)
+	 * The touched records are invalidated even if the commit failed, because 
+	 * the state of the database is unknown.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.DaoSession#commit()
+	 */
+	@Override
+	public void commit() throws DatabaseOperationException {
+		try {
+			session.commit();
+		} finally {
+			dao.invalidate(touchedRecords);
+			for (Class<?> clazz : touchedTypes) {
+				dao.invalidateType(clazz);
+			}
+		}
+	}
+
+	@Override
+	public void rollback() {
+		session.rollback();
+	}
+
+	@Override
+	public void close() {
+		session.close();
+	}
+}
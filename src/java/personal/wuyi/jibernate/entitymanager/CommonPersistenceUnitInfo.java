@@ -110,9 +110,15 @@ public class CommonPersistenceUnitInfo implements PersistenceUnitInfo {
         return false;
     }
 
+    /* (non-Javadoc)
+     * The second-level cache of the JPA provider is not used, the records
+     * can be cached by CachingDao instead.
+     *
+     * @see javax.persistence.spi.PersistenceUnitInfo#getSharedCacheMode()
+     */
     @Override
     public SharedCacheMode getSharedCacheMode() {
-        return null;
+        return SharedCacheMode.NONE;
     }
 
     @Override
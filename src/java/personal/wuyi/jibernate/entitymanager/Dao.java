@@ -16,7 +16,10 @@
 
 package personal.wuyi.jibernate.entitymanager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import personal.wuyi.jibernate.entity.Persisted;
 import personal.wuyi.jibernate.entity.Uri;
@@ -50,6 +53,25 @@ public interface Dao extends Plugin {
 	 */
     public <T extends Persisted> T read(Uri uri);
     
+    /**
+     * Query a list of records from database by a collection of {@code URI}.
+     * 
+     * <p>The {@code URI}s will be grouped by their types and the records of 
+     * each type will be queried by their primary keys in chunks, so it only 
+     * needs a few round trips to database for many records.
+     * 
+     * <p>The returned records are in the same order of the {@code URI}s, the 
+     * {@code URI} whose record can not be found will be skipped.
+     * 
+     * @param  uris
+     *         The collection of {@code URI}s to identify the records.
+     *         
+     * @return  A list of the found records.
+     * 
+     * @since   1.1
+     */
+    public <T extends Persisted> List<T> read(Collection<Uri> uris);
+    
     /**
      * Query a list of records from database by a certain criteria.
      * 
@@ -99,7 +121,58 @@ public interface Dao extends Plugin {
      * @since   1.0
      */
     public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames);
-    
+
+    /**
+     * Stream the matched records from database by a certain criteria.
+     *
+     * <p>Different from {@code read(JQuery)}, the records will not be loaded
+     * into one list. They will be read from a server-side cursor page by
+     * page and each record will be detached once it has been returned, so
+     * the memory usage stays flat no matter how big the result is.
+     *
+     * <p>For MySQL, the server-side cursor needs "jdbc.useServerPrepStmts" 
+     * to be true (the default value). Otherwise the whole result will be 
+     * read into the memory of the driver before the first record is 
+     * returned.
+     *
+     * <p>The returned {@code Stream} holds a database connection, so it
+     * needs to be closed after using, like:
+     * <pre>
+     * {@code
+     * try (Stream<Student> stream = dao.stream(query)) {
+     *     stream.forEach(student -> ...);
+     * }
+     * }
+     * </pre>
+     *
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of results.
+     *
+     * @return  The {@code Stream} of the matched records.
+     *
+     * @since   1.1
+     */
+    public <T extends Persisted> Stream<T> stream(JQuery<T> query);
+
+    /**
+     * Stream the matched records from database by a certain criteria with
+     * the specific fetch size.
+     *
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of results.
+     *
+     * @param  fetchSize
+     *         The number of records will be fetched from database in one
+     *         round trip.
+     *
+     * @return  The {@code Stream} of the matched records.
+     *
+     * @see  #stream(JQuery)
+     *
+     * @since   1.1
+     */
+    public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize);
+
     /**
      * Count the number of matched records for a certain criteria.
      * 
@@ -138,6 +211,35 @@ public interface Dao extends Plugin {
      * @since   1.0
      */
     public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException;
+
+    /**
+     * Insert or update a large list of records to database in JDBC batches.
+     * 
+     * <p>The new records and the existing records will be written in 
+     * separate batches and the persistence context will be flushed and 
+     * cleared every {@code batchSize} records, so the memory usage stays 
+     * flat for a large list.
+     * 
+     * <p>A record is written the same way as {@link #write(List)}: the 
+     * record without an id will be inserted and the record with an id will 
+     * be merged, so it will be inserted if its row does not exist.
+     * 
+     * <p>The inserts can not be batched if the primary key of an entity is 
+     * generated by {@code GenerationType.IDENTITY}, because the database 
+     * needs to generate the key for each row.
+     * 
+     * @param  tList
+     *         The list of records needs to be inserted or updated.
+     *         
+     * @param  batchSize
+     *         The number of records in one batch.
+     *         
+     * @throws  DatabaseOperationException
+     *          There is an error occurred when writing a record.
+     *       
+     * @since   1.1
+     */
+    public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException;
     
     /**
      * Delete an record from database.
@@ -172,4 +274,98 @@ public interface Dao extends Plugin {
      * @since   1.0
      */
     public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException;
+    
+    /**
+     * Delete all the records matched by a certain criteria from database.
+     * 
+     * <p>The records will be deleted by one JPQL {@code DELETE} statement, 
+     * they will not be loaded and the entity callbacks or the cascades will 
+     * not be triggered. The limit and the offset of the query are not 
+     * supported.
+     * 
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of records.
+     *         
+     * @return  The number of deleted records.
+     * 
+     * @throws  DatabaseOperationException
+     *          There is an error occurred when deleting records.
+     *          
+     * @since   1.1
+     */
+    public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException;
+    
+    /**
+     * Update some fields of all the records matched by a certain criteria.
+     * 
+     * <p>The records will be updated by one JPQL {@code UPDATE} statement, 
+     * they will not be loaded and the version of a versioned entity will not 
+     * be increased. The limit and the offset of the query are not supported.
+     * 
+     * @param  query
+     *         The {@code Query} as criteria to limit the set of records.
+     *         
+     * @param  assignments
+     *         The map of new values, the key is the field name in Java class 
+     *         (not the column name in database) and the value is the new 
+     *         value of that field.
+     *         
+     * @return  The number of updated records.
+     * 
+     * @throws  DatabaseOperationException
+     *          There is an error occurred when updating records.
+     *          
+     * @since   1.1
+     */
+    public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException;
+    
+    /**
+     * Open a session to do several data operations in one transaction.
+     * 
+     * <p>All the operations of a session share one connection and one 
+     * identity map, and all the changes will be committed together. The 
+     * session needs to be closed after using.
+     * 
+     * @return  The new session with an active transaction.
+     * 
+     * @see  DaoSession
+     * 
+     * @since   1.1
+     */
+    public DaoSession openSession();
+    
+    /**
+     * Do a work in one session and commit the changes at the end.
+     * 
+     * <p>If the work throws an exception, all the changes will be rolled 
+     * back:
+     * <pre>
+     * {@code
+     * dao.inTransaction(session -> {
+     *     Student student = session.read(uri);
+     *     student.setGpa(3.5);
+     *     session.write(newStudent);
+     *     return student;
+     * });
+     * }
+     * </pre>
+     * 
+     * @param  work
+     *         The work needs to be done in the session.
+     *         
+     * @return  The result of the work.
+     * 
+     * @throws  DatabaseOperationException
+     *          There is an error occurred when doing the work or committing 
+     *          the changes.
+     *          
+     * @since   1.1
+     */
+    public default <R> R inTransaction(DaoSession.Work<R> work) throws DatabaseOperationException {
+    	try (DaoSession session = openSession()) {
+    		R result = work.execute(session);
+    		session.commit();
+    		return result;
+    	}
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The unit of work across several data operations.
+ *
+ * <p>Different from {@code Dao}, all the operations of a session share one
+ * connection, one transaction and one identity map, so the same record will
+ * be loaded only once and all the changes will be committed together by
+ * {@link #commit()}. The records read from a session stay managed until the
+ * session is closed, the changes on them will also be committed.
+ *
+ * <p>A session is not thread-safe and it needs to be closed after using,
+ * the changes will be rolled back if the session is closed without
+ * committing:
+ * <pre>
+ * {@code
+ * try (DaoSession session = dao.openSession()) {
+ *     Student student = session.read(uri);
+ *     student.setGpa(3.5);
+ *     session.write(newStudent);
+ *     session.commit();
+ * }
+ * }
+ * </pre>
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public interface DaoSession extends AutoCloseable {
+	/**
+	 * Query a single record by {@code URI} in this session.
+	 *
+	 * @param  uri
+	 *         The {@code URI} to identify the single.
+	 *
+	 * @return  A single record / object.
+	 *
+	 * @see  Dao#read(Uri)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> T read(Uri uri);
+
+	/**
+	 * Query a list of records by a collection of {@code URI} in this session.
+	 *
+	 * @param  uris
+	 *         The collection of {@code URI}s to identify the records.
+	 *
+	 * @return  A list of the found records.
+	 *
+	 * @see  Dao#read(Collection)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> List<T> read(Collection<Uri> uris);
+
+	/**
+	 * Query a list of records by a certain criteria in this session.
+	 *
+	 * @param  query
+	 *         The {@code Query} as criteria to limit the set of results.
+	 *
+	 * @return  A list of the matched records.
+	 *
+	 * @see  Dao#read(JQuery)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> List<T> read(JQuery<T> query);
+
+	/**
+	 * Query a list of records for only selected field(s) in this session.
+	 *
+	 * @param  query
+	 *         The {@code Query} as criteria to limit the set of results.
+	 *
+	 * @param  fieldNames
+	 *         The array of field names in Java class (not the column names in
+	 *         database).
+	 *
+	 * @return  The nested {@code List} of {@code List<?>}.
+	 *
+	 * @see  Dao#read(JQuery, String...)
+	 *
+	 * @since   1.1
+	 */
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames);
+
+	/**
+	 * Count the number of matched records in this session.
+	 *
+	 * @param  query
+	 *         The {@code Query} as criteria to limit the set of results.
+	 *
+	 * @return  The number of matched records.
+	 *
+	 * @see  Dao#count(JQuery)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> long count(JQuery<T> query);
+
+	/**
+	 * Insert a new record or update a existing record in this session.
+	 *
+	 * @param  t
+	 *         The record needs to be inserted or updated.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when writing a record.
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException;
+
+	/**
+	 * Insert a list of new records or update a list of existing records in
+	 * this session.
+	 *
+	 * @param  tList
+	 *         The list of records needs to be inserted or updated.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when writing a record.
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException;
+
+	/**
+	 * Delete an record in this session.
+	 *
+	 * @param  t
+	 *         The record needs to be deleted.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when deleting a record.
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException;
+
+	/**
+	 * Delete a list of records in this session.
+	 *
+	 * @param  tList
+	 *         The list of the records needs to be deleted.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when deleting a list of records.
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException;
+
+	/**
+	 * Delete all the records matched by a certain criteria in this session.
+	 *
+	 * <p>The bulk statement will not update the records which have already
+	 * been loaded in this session.
+	 *
+	 * @param  query
+	 *         The {@code Query} as criteria to limit the set of records.
+	 *
+	 * @return  The number of deleted records.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when deleting records.
+	 *
+	 * @see  Dao#delete(JQuery)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException;
+
+	/**
+	 * Update some fields of all the records matched by a certain criteria in
+	 * this session.
+	 *
+	 * <p>The bulk statement will not update the records which have already
+	 * been loaded in this session.
+	 *
+	 * @param  query
+	 *         The {@code Query} as criteria to limit the set of records.
+	 *
+	 * @param  assignments
+	 *         The map of new values by field names.
+	 *
+	 * @return  The number of updated records.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when updating records.
+	 *
+	 * @see  Dao#update(JQuery, Map)
+	 *
+	 * @since   1.1
+	 */
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException;
+
+	/**
+	 * Commit all the changes in this session.
+	 *
+	 * <p>The session can not be used anymore after committing.
+	 *
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when committing the changes.
+	 *
+	 * @since   1.1
+	 */
+	public void commit() throws DatabaseOperationException;
+
+	/**
+	 * Roll back all the changes in this session.
+	 *
+	 * <p>The session can not be used anymore after rolling back.
+	 *
+	 * @since   1.1
+	 */
+	public void rollback();
+
+	/**
+	 * Close this session and release the connection.
+	 *
+	 * <p>If the session has not been committed, all the changes will be
+	 * rolled back.
+	 *
+	 * @since   1.1
+	 */
+	@Override
+	public void close();
+
+	/**
+	 * The work needs to be done in one session.
+	 *
+	 * @param  <R>
+	 *         The type of the result.
+	 *
+	 * @see  Dao#inTransaction(Work)
+	 *
+	 * @since   1.1
+	 */
+	@FunctionalInterface
+	public interface Work<R> {
+		/**
+		 * Execute the work in a session.
+		 *
+		 * @param  session
+		 *         The current session.
+		 *
+		 * @return  The result of the work.
+		 *
+		 * @throws  DatabaseOperationException
+		 *          There is an error occurred when executing the work.
+		 *
+		 * @since   1.1
+		 */
+		public R execute(DaoSession session) throws DatabaseOperationException;
+	}
+}
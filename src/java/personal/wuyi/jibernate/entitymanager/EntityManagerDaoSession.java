@@ -0,0 +1,240 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+import personal.wuyi.jibernate.query.QueryConverter;
+
+/**
+ * The session holds one {@code EntityManager} and one transaction.
+ *
+ * <p>The transaction is began when the session is opened by
+ * {@link AbstractEntityManagerDao#openSession()}, the persistence context of
+ * the {@code EntityManager} is the identity map shared by all the operations.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class EntityManagerDaoSession implements DaoSession {
+	private final AbstractEntityManagerDao dao;
+	private final EntityManager            entityManager;
+
+	private boolean completed = false;
+	private boolean closed    = false;
+
+	private static Logger logger = LoggerFactory.getLogger(EntityManagerDaoSession.class);
+
+	/**
+	 * Constructs a {@code EntityManagerDaoSession}.
+	 *
+	 * @param  dao
+	 *         The {@code Dao} which opened this session.
+	 *
+	 * @param  entityManager
+	 *         The {@code EntityManager} with an active transaction.
+	 *
+	 * @since   1.1
+	 */
+	EntityManagerDaoSession(AbstractEntityManagerDao dao, EntityManager entityManager) {
+		this.dao           = dao;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> T read(Uri uri) {
+		checkActive();
+		if (uri.getId() == null) {
+			throw new IllegalArgumentException("id can not be null when you query by primary key.");
+		}
+		return (T) entityManager.find(uri.getType(), uri.getId());
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		checkActive();
+		if (uris.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return dao.readByUris(entityManager, uris);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		checkActive();
+		Query jpaQuery = QueryConverter.getSatisfiableJpaQuery(entityManager, query);
+		return jpaQuery == null ? new ArrayList<>() : jpaQuery.getResultList();
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		checkActive();
+		return dao.readFields(entityManager, query, fieldNames);
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		checkActive();
+		return AbstractEntityManagerDao.count(entityManager, query);
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		checkActive();
+		try {
+			AbstractEntityManagerDao.persistOrMerge(entityManager, t);
+		} catch (Exception e) {
+			logger.error("Error occurred when writing an object", e);
+			throw new DatabaseOperationException("Error occurred when writing an object", e);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		checkActive();
+		try {
+			for (T t : tList) {
+				AbstractEntityManagerDao.persistOrMerge(entityManager, t);
+			}
+		} catch (Exception e) {
+			logger.error("Error occurred when writing objects", e);
+			throw new DatabaseOperationException("Error occurred when writing objects", e);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		checkActive();
+		try {
+			AbstractEntityManagerDao.remove(entityManager, t);
+		} catch (Exception e) {
+			logger.error("Error occurred when deleting an object", e);
+			throw new DatabaseOperationException("Error occurred when deleting an object", e);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		checkActive();
+		try {
+			for (T t : tList) {
+				AbstractEntityManagerDao.remove(entityManager, t);
+			}
+		} catch (Exception e) {
+			logger.error("Error occurred when deleting objects", e);
+			throw new DatabaseOperationException("Error occurred when deleting objects", e);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		checkActive();
+		try {
+			return QueryConverter.getJpaDeleteQuery(entityManager, query).executeUpdate();
+		} catch (Exception e) {
+			logger.error("Error occurred when deleting objects by query", e);
+			throw new DatabaseOperationException("Error occurred when deleting objects by query", e);
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		checkActive();
+		try {
+			return QueryConverter.getJpaUpdateQuery(entityManager, query, assignments).executeUpdate();
+		} catch (Exception e) {
+			logger.error("Error occurred when updating objects by query", e);
+			throw new DatabaseOperationException("Error occurred when updating objects by query", e);
+		}
+	}
+
+	@Override
+	public void commit() throws DatabaseOperationException {
+		checkActive();
+		completed = true;
+		try {
+			entityManager.getTransaction().commit();
+		} catch (Exception e) {
+			if (entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().rollback();
+			}
+			logger.error("Error occurred when committing a session", e);
+			throw new DatabaseOperationException("Error occurred when committing a session", e);
+		}
+	}
+
+	@Override
+	public void rollback() {
+		checkActive();
+		completed = true;
+		if (entityManager.getTransaction().isActive()) {
+			entityManager.getTransaction().rollback();
+		}
+	}
+
+	/**
+	 * Close this session.
+	 *
+	 * <p>Closing a session more than once has no effect.
+	 *
+	 * @since   1.1
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			if (!completed && entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().rollback();
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	/**
+	 * Check this session can still be used.
+	 *
+	 * @since   1.1
+	 */
+	private void checkActive() {
+		Preconditions.checkState(!closed,    "The session has been closed.");
+		Preconditions.checkState(!completed, "The session has been committed or rolled back.");
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.entitymanager.InMemoryEntityManagerDao.Modification;
+import personal.wuyi.jibernate.entitymanager.InMemoryEntityManagerDao.Operation;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The session opened by {@link InMemoryEntityManagerDao}.
+ *
+ * <p>The changes in the session are kept as a list of pending changes, so 
+ * the other threads can not see them before the session is committed. Each 
+ * operation of the session is run under the write lock of the DAO with the 
+ * pending changes applied and undone afterwards, and the pending changes 
+ * are applied atomically when the session is committed. The write lock is 
+ * not held between the operations, so an open session does not block the 
+ * other threads.
+ * 
+ * <p>The pending changes are applied to the latest records when the session 
+ * is committed, so a change by a query will be applied to the records 
+ * matched at that time and the written records will be copied at that 
+ * time. The records read in the session are copies, the changes on them 
+ * need to be written back by {@code write}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class InMemoryDaoSession implements DaoSession {
+	private final InMemoryEntityManagerDao dao;
+	private final List<Modification>       changes  = new ArrayList<>();
+	private volatile boolean               finished = false;
+
+	/**
+	 * Constructs a {@code InMemoryDaoSession}.
+	 *
+	 * @param  dao
+	 *         The {@code InMemoryEntityManagerDao} which opened this session.
+	 *
+	 * @since   1.1
+	 */
+	InMemoryDaoSession(InMemoryEntityManagerDao dao) {
+		this.dao = dao;
+	}
+
+	@Override
+	public <T extends Persisted> T read(Uri uri) {
+		return read(undoLog -> dao.<T>read(uri));
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		return read(undoLog -> dao.<T>read(uris));
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		return read(undoLog -> dao.read(query));
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		return read(undoLog -> dao.read(query, fieldNames));
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		return read(undoLog -> dao.count(query));
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		write(Collections.singletonList(t));
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		List<T> records = new ArrayList<>(tList);
+		modify("Error occurred when writing objects", undoLog -> {
+			dao.putAll(records, undoLog);
+			return records.size();
+		});
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		delete(Collections.singletonList(t));
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		List<T> records = new ArrayList<>(tList);
+		modify("Error occurred when deleting objects", undoLog -> dao.removeAll(records, undoLog));
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		return modify("Error occurred when deleting objects by query", undoLog -> dao.removeAll(dao.match(query), undoLog));
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		return modify("Error occurred when updating objects by query", undoLog -> dao.update(dao.match(query), assignments, undoLog));
+	}
+
+	@Override
+	public void commit() throws DatabaseOperationException {
+		checkActive();
+		try {
+			dao.modify("Error occurred when committing a session", undoLog -> {
+				int count = 0;
+				for (Modification change : changes) {
+					count += change.apply(undoLog);
+				}
+				return count;
+			});
+		} finally {
+			finish();
+		}
+	}
+
+	@Override
+	public void rollback() {
+		checkActive();
+		finish();
+	}
+
+	@Override
+	public void close() {
+		if (!finished) {
+			finish();
+		}
+	}
+	
+	/**
+	 * Run a read with the pending changes applied.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If the pending changes can not be applied anymore.
+	 */
+	private <R> R read(Operation<R> read) {
+		checkActive();
+		try {
+			return dao.preview(changes, read);
+		} catch (DatabaseOperationException e) {
+			throw new IllegalStateException("The changes of the session can not be applied.", e);
+		}
+	}
+	
+	/**
+	 * Run a modification with the pending changes applied, it will be kept 
+	 * as a pending change if it succeeded.
+	 * 
+	 * @return  The number of the modified records.
+	 */
+	private int modify(String message, Modification modification) throws DatabaseOperationException {
+		checkActive();
+		int count;
+		try {
+			count = dao.preview(changes, modification::apply);
+		} catch (RuntimeException e) {
+			throw new DatabaseOperationException(message, e);
+		}
+		changes.add(modification);
+		return count;
+	}
+	
+	private void checkActive() {
+		Preconditions.checkState(!finished, "The session has been finished.");
+	}
+	
+	private void finish() {
+		finished = true;
+		changes.clear();
+	}
+}
@@ -0,0 +1,1004 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import javax.persistence.Id;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.SerializationUtils;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.entity.ManagedEntity;
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
+import personal.wuyi.jibernate.query.InMemoryQuery;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The DAO which keeps the records in memory.
+ * 
+ * <p>The records are partitioned by their classes and keyed by the primary 
+ * keys in their {@code Uri}s. A missing primary key will be generated from a 
+ * sequence of each class if the field annotated by {@code @Id} is an 
+ * {@code Integer} or a {@code Long}. A query on a class will also return the 
+ * records of its subclasses.
+ * 
+ * <p>The secondary indexes can be created on the selected fields by 
+ * {@link #createIndex(Class, String, IndexType)}. {@link #read(JQuery)} 
+ * looks up the primary keys and the indexes by the {@code ==}, {@code IN} 
+ * and range comparisons which are ANDed at the top level of the criteria, 
+ * the smallest set of candidates will be evaluated by {@link InMemoryQuery}, 
+ * which also sorts and pages the matched records. The indexes are not used 
+ * for the strings in a case-insensitive query.
+ * 
+ * <p>The records are copied by serialization when they are written and 
+ * when they are read, so changing a record does not affect the stored one 
+ * until it is written back by {@code write}. The custom JPQL of an 
+ * {@code EntityQuery} is not supported.
+ * 
+ * <p>This DAO is thread-safe. The reads share a read lock and the writes 
+ * hold the write lock, a write of a list of records or by a query is 
+ * atomic. A session keeps its changes until it is committed, so it only 
+ * holds the write lock when it is running an operation.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class InMemoryEntityManagerDao implements Dao {
+	private static final Comparator<Object> KEY_ORDER = InMemoryEntityManagerDao::compareKeys;
+	
+	private final ReentrantReadWriteLock                lock             = new ReentrantReadWriteLock();
+	private final Map<Class<?>, Table>                  tables           = new LinkedHashMap<>();
+	private final Map<Class<?>, Map<String, IndexType>> indexDefinitions = new LinkedHashMap<>();
+	
+	/**
+	 * Create a secondary index on a field of a class and its subclasses.
+	 * 
+	 * <p>The index will be built from the existing records. The 
+	 * {@code null} values are not indexed and the values of a tree index 
+	 * need to be comparable.
+	 * 
+	 * @param  clazz
+	 *         The class of the records.
+	 * 
+	 * @param  field
+	 *         The field name in Java class, it can be nested like 
+	 *         {@code "a.b"}.
+	 * 
+	 * @param  type
+	 *         The type of the index.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the field can not be read from an existing record.
+	 * 
+	 * @since   1.1
+	 */
+	public void createIndex(Class<? extends Persisted> clazz, String field, IndexType type) {
+		Preconditions.checkNotNull(clazz, "The class can not be null.");
+		Preconditions.checkArgument(field != null && !field.isEmpty(), "The field can not be empty.");
+		Preconditions.checkNotNull(type, "The index type can not be null.");
+		
+		lock.writeLock().lock();
+		try {
+			for (Table table : tables.values()) {
+				if (clazz.isAssignableFrom(table.clazz)) {
+					table.createIndex(field, type);
+				}
+			}
+			indexDefinitions.computeIfAbsent(clazz, c -> new LinkedHashMap<>()).put(field, type);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove all the records, the indexes are kept.
+	 * 
+	 * @since   1.1
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			tables.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> T read(Uri uri) {
+		lock.readLock().lock();
+		try {
+			Persisted record = get(uri);
+			return record == null ? null : (T) copy(record);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		lock.readLock().lock();
+		try {
+			List<T> result = new ArrayList<>();
+			for (Uri uri : uris) {
+				Persisted record = get(uri);
+				if (record != null) {
+					result.add((T) copy(record));
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		lock.readLock().lock();
+		try {
+			InMemoryQuery<T> inMemoryQuery = new InMemoryQuery<>(query);
+			List<T>          result        = new ArrayList<>();
+			for (T t : inMemoryQuery.read(getCandidates(inMemoryQuery, query))) {
+				result.add(copy(t));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		lock.readLock().lock();
+		try {
+			return readFields(query, fieldNames);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * The records are already in memory, so the stream is backed by the 
+	 * result of read(JQuery).
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#stream(personal.wuyi.jibernate.query.JQuery)
+	 */
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query) {
+		return read(query).stream();
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize) {
+		Preconditions.checkArgument(fetchSize > 0, "The fetch size should be greater than 0.");
+		return stream(query);
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		lock.readLock().lock();
+		try {
+			InMemoryQuery<T> inMemoryQuery = new InMemoryQuery<>(query);
+			return inMemoryQuery.count(getCandidates(inMemoryQuery, query));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		write(Collections.singletonList(t));
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		modify("Error occurred when writing objects", undoLog -> {
+			putAll(tList, undoLog);
+			return tList.size();
+		});
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException {
+		Preconditions.checkArgument(batchSize > 0, "The batch size should be greater than 0.");
+		write(tList);
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		delete(Collections.singletonList(t));
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		modify("Error occurred when deleting objects", undoLog -> {
+			removeAll(tList, undoLog);
+			return tList.size();
+		});
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		return modify("Error occurred when deleting objects by query", undoLog -> removeAll(match(query), undoLog));
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		return modify("Error occurred when updating objects by query", undoLog -> update(match(query), assignments, undoLog));
+	}
+
+	@Override
+	public DaoSession openSession() {
+		return new InMemoryDaoSession(this);
+	}
+
+	@Override
+	public void start() {
+		// nothing needs to be started.
+	}
+
+	/* (non-Javadoc)
+	 * The records are released, the index definitions are kept.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Plugin#stop()
+	 */
+	@Override
+	public void stop() {
+		clear();
+	}
+	
+	/**
+	 * Do a modification atomically under the write lock.
+	 * 
+	 * <p>If the modification failed, its changes will be undone.
+	 * 
+	 * @param  message
+	 *         The error message if the modification failed.
+	 * 
+	 * @param  modification
+	 *         The modification.
+	 * 
+	 * @return  The number of the modified records.
+	 * 
+	 * @throws  DatabaseOperationException
+	 *          If the modification failed.
+	 * 
+	 * @since   1.1
+	 */
+	int modify(String message, Modification modification) throws DatabaseOperationException {
+		lock.writeLock().lock();
+		Deque<Runnable> undoLog = new ArrayDeque<>();
+		try {
+			return modification.apply(undoLog);
+		} catch (DatabaseOperationException e) {
+			undo(undoLog);
+			throw e;
+		} catch (RuntimeException e) {
+			undo(undoLog);
+			throw new DatabaseOperationException(message, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Run an operation under the write lock with some pending changes 
+	 * applied, the changes will always be undone afterwards.
+	 * 
+	 * <p>The changes of a session are kept until it is committed, so the 
+	 * operations in the session are run on the records with its changes.
+	 * 
+	 * @param  changes
+	 *         The pending changes.
+	 * 
+	 * @param  operation
+	 *         The operation, the changes done by it will also be undone.
+	 * 
+	 * @return  The result of the operation.
+	 * 
+	 * @throws  DatabaseOperationException
+	 *          If a change or the operation failed.
+	 * 
+	 * @since   1.1
+	 */
+	<R> R preview(List<Modification> changes, Operation<R> operation) throws DatabaseOperationException {
+		lock.writeLock().lock();
+		Deque<Runnable> undoLog = new ArrayDeque<>();
+		try {
+			for (Modification change : changes) {
+				change.apply(undoLog);
+			}
+			return operation.apply(undoLog);
+		} finally {
+			undo(undoLog);
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Run the undo actions from the latest one.
+	 * 
+	 * @since   1.1
+	 */
+	static void undo(Deque<Runnable> undoLog) {
+		while (!undoLog.isEmpty()) {
+			undoLog.pop().run();
+		}
+	}
+	
+	/**
+	 * Put a list of records, the missing primary keys will be generated.
+	 * 
+	 * @since   1.1
+	 */
+	<T extends Persisted> void putAll(Collection<T> tList, Deque<Runnable> undoLog) throws DatabaseOperationException {
+		for (T t : tList) {
+			Table table = getOrCreateTable(t.getClass());
+			if (getId(t) == null) {
+				table.generateId(t);
+			}
+			
+			String key = toKey(getId(t));
+			Record old = table.put(key, copy(t));
+			undoLog.push(() -> table.restore(key, old));
+		}
+	}
+	
+	/**
+	 * Remove a list of records.
+	 * 
+	 * @return  The number of the removed records.
+	 * 
+	 * @since   1.1
+	 */
+	<T extends Persisted> int removeAll(Collection<T> tList, Deque<Runnable> undoLog) {
+		int count = 0;
+		for (T t : tList) {
+			Table  table = tables.get(t.getClass());
+			Object id    = getId(t);
+			if (table == null || id == null) {
+				continue;
+			}
+			
+			String key = toKey(id);
+			Record old = table.remove(key);
+			if (old != null) {
+				undoLog.push(() -> table.restore(key, old));
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Update some fields of a list of records and re-index them.
+	 * 
+	 * @return  The number of the updated records.
+	 * 
+	 * @since   1.1
+	 */
+	<T extends Persisted> int update(List<T> tList, Map<String,Object> assignments, Deque<Runnable> undoLog) {
+		for (T t : tList) {
+			Table  table  = tables.get(t.getClass());
+			String oldKey = toKey(getId(t));
+			
+			Map<String, Object> oldValues = new HashMap<>();
+			for (String fieldName : assignments.keySet()) {
+				oldValues.put(fieldName, readField(t, fieldName));
+			}
+			Record old = table.remove(oldKey);
+			undoLog.push(() -> table.restore(oldKey, old));
+			undoLog.push(() -> writeFields(t, oldValues));
+			
+			writeFields(t, assignments);
+			String newKey    = toKey(getId(t));
+			Record displaced = table.put(newKey, t, old.position);
+			undoLog.push(() -> table.restore(newKey, displaced));
+		}
+		return tList.size();
+	}
+	
+	/**
+	 * Find all the records matched by the criteria of a query, the sort, the 
+	 * offset and the limit are ignored.
+	 * 
+	 * @since   1.1
+	 */
+	<T extends Persisted> List<T> match(JQuery<T> query) {
+		InMemoryQuery<T> inMemoryQuery = new InMemoryQuery<>(query);
+		List<T>          result        = new ArrayList<>();
+		for (T t : getCandidates(inMemoryQuery, query)) {
+			if (inMemoryQuery.test(t)) {
+				result.add(t);
+			}
+		}
+		return result;
+	}
+	
+	private <T extends Persisted> List<List<?>> readFields(JQuery<T> query, String... fieldNames) {
+		InMemoryQuery<T> inMemoryQuery = new InMemoryQuery<>(query);
+		return inMemoryQuery.read(getCandidates(inMemoryQuery, query), fieldNames);
+	}
+	
+	/**
+	 * Get the candidates of a query from the partitions of the queried class 
+	 * and its subclasses, in the insertion order of each partition.
+	 * 
+	 * <p>The primary keys or the indexes are looked up by the simple 
+	 * expressions ANDed at the top level of the normalized criteria, the 
+	 * candidates still need to be evaluated by the whole criteria.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Persisted> List<T> getCandidates(InMemoryQuery<T> inMemoryQuery, JQuery<T> query) {
+		List<Expression> conjuncts = new ArrayList<>();
+		collectConjuncts(inMemoryQuery.getCriteria(), conjuncts);
+		
+		List<T> candidates = new ArrayList<>();
+		for (Table table : tables.values()) {
+			if (query.getPersistedClass().isAssignableFrom(table.clazz)) {
+				for (Record record : table.getCandidates(conjuncts, query.isCaseSensitive())) {
+					candidates.add((T) record.record);
+				}
+			}
+		}
+		return candidates;
+	}
+	
+	/**
+	 * Get a record by {@code Uri}, the records of the subclasses will also 
+	 * be looked up.
+	 * 
+	 * @since   1.1
+	 */
+	private Persisted get(Uri uri) {
+		if (uri == null || uri.getId() == null) {
+			return null;
+		}
+		
+		String key = toKey(uri.getId());
+		for (Table table : tables.values()) {
+			if (uri.getType().isAssignableFrom(table.clazz)) {
+				Record record = table.records.get(key);
+				if (record != null) {
+					return record.record;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the partition of a class, a new partition will get the indexes 
+	 * defined on the class and its super classes.
+	 * 
+	 * @since   1.1
+	 */
+	private Table getOrCreateTable(Class<?> clazz) {
+		Table table = tables.get(clazz);
+		if (table == null) {
+			table = new Table(clazz);
+			for (Map.Entry<Class<?>, Map<String, IndexType>> definition : indexDefinitions.entrySet()) {
+				if (definition.getKey().isAssignableFrom(clazz)) {
+					for (Map.Entry<String, IndexType> index : definition.getValue().entrySet()) {
+						table.createIndex(index.getKey(), index.getValue());
+					}
+				}
+			}
+			tables.put(clazz, table);
+		}
+		return table;
+	}
+	
+	/**
+	 * Collect the simple expressions which are ANDed at the top level, every 
+	 * matched record needs to match all of them.
+	 * 
+	 * @since   1.1
+	 */
+	private static void collectConjuncts(Expression expression, List<Expression> conjuncts) {
+		if (expression == null || expression.isComplement()) {
+			return;
+		}
+		
+		if (!expression.isCompound()) {
+			conjuncts.add(expression);
+			return;
+		}
+		
+		for (int i = 1; i < expression.getNumberOfSubExpression(); i++) {
+			if (!Expression.AND.equals(expression.getOperator(i))) {
+				return;
+			}
+		}
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			collectConjuncts(expression.getSubExpression(i), conjuncts);
+		}
+	}
+	
+	/**
+	 * Copy a record by serialization, so the stored records are not shared 
+	 * with the callers.
+	 * 
+	 * @since   1.1
+	 */
+	private static <T extends Persisted> T copy(T t) {
+		return SerializationUtils.clone(t);
+	}
+	
+	/**
+	 * Get the primary key of a record, {@code null} if it has not been 
+	 * persisted.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object getId(Persisted t) {
+		if (t instanceof ManagedEntity) {
+			return ((ManagedEntity) t).getId();
+		}
+		return t.isPersisted() ? t.getUri().getId() : null;
+	}
+	
+	/**
+	 * Get the key of a record by its primary key.
+	 * 
+	 * <p>The primary key parsed from a URI string can be an {@code Integer} 
+	 * while the primary key of the record is a {@code Long}, so the key uses 
+	 * the string form of the normalized primary key.
+	 * 
+	 * @since   1.1
+	 */
+	private static String toKey(Object id) {
+		return String.valueOf(normalize(id));
+	}
+	
+	/**
+	 * Normalize a value for indexing, so the numbers in different types can 
+	 * match, same as the in-memory evaluation of an expression.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object normalize(Object value) {
+		if (value instanceof Number) {
+			Number number = (Number) value;
+			if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+				return number.longValue();
+			}
+			double d = number.doubleValue();
+			return (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < Long.MAX_VALUE) ? (Object) (long) d : (Object) d;
+		}
+		if (value instanceof Enum) {
+			return ((Enum<?>) value).name();
+		}
+		if (value instanceof Date) {
+			return new Date(((Date) value).getTime());
+		}
+		return value;
+	}
+	
+	/**
+	 * Get the type of a normalized value, the values in the same type can be 
+	 * compared with each other.
+	 * 
+	 * @since   1.1
+	 */
+	private static Class<?> getKeyType(Object key) {
+		return key instanceof Number ? Number.class : key.getClass();
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareKeys(Object key1, Object key2) {
+		if (key1 instanceof Long && key2 instanceof Long) {
+			return Long.compare((Long) key1, (Long) key2);
+		}
+		if (key1 instanceof Number && key2 instanceof Number) {
+			return Double.compare(((Number) key1).doubleValue(), ((Number) key2).doubleValue());
+		}
+		return ((Comparable) key1).compareTo(key2);
+	}
+	
+	private static Iterable<?> toIterable(Object value) {
+		if (value instanceof Object[]) {
+			return Arrays.asList((Object[]) value);
+		}
+		return value instanceof Iterable ? (Iterable<?>) value : null;
+	}
+	
+	private static Object readField(Object record, String field) {
+		try {
+			return PropertyUtils.getProperty(record, field);
+		} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("Can not read the field: " + field, e);
+		}
+	}
+	
+	private static void writeFields(Object record, Map<String, Object> values) {
+		for (Map.Entry<String, Object> entry : values.entrySet()) {
+			try {
+				PropertyUtils.setProperty(record, entry.getKey(), entry.getValue());
+			} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+				throw new IllegalArgumentException("Can not write the field: " + entry.getKey(), e);
+			}
+		}
+	}
+	
+	/**
+	 * The modification which records its undo actions.
+	 * 
+	 * @since   1.1
+	 */
+	@FunctionalInterface
+	interface Modification {
+		int apply(Deque<Runnable> undoLog) throws DatabaseOperationException;
+	}
+	
+	/**
+	 * The operation which is run with the pending changes of a session.
+	 * 
+	 * @since   1.1
+	 */
+	@FunctionalInterface
+	interface Operation<R> {
+		R apply(Deque<Runnable> undoLog) throws DatabaseOperationException;
+	}
+	
+	/**
+	 * A stored record with its position in the insertion order.
+	 * 
+	 * @since   1.1
+	 */
+	private static class Record {
+		private final Persisted record;
+		private final long      position;
+		
+		private Record(Persisted record, long position) {
+			this.record   = record;
+			this.position = position;
+		}
+	}
+	
+	/**
+	 * The partition of the records of one class.
+	 * 
+	 * @since   1.1
+	 */
+	private static class Table {
+		private final Class<?>            clazz;
+		private final Field               idField;
+		private final Map<String, Record> records  = new HashMap<>();
+		private final Map<String, Index>  indexes  = new HashMap<>();
+		private long                      sequence = 0;
+		private long                      position = 0;
+		
+		private Table(Class<?> clazz) {
+			this.clazz   = clazz;
+			this.idField = findIdField(clazz);
+		}
+		
+		private void createIndex(String field, IndexType type) {
+			Index index = new Index(type);
+			for (Map.Entry<String, Record> entry : records.entrySet()) {
+				index.add(entry.getKey(), readField(entry.getValue().record, field));
+			}
+			indexes.put(field, index);
+		}
+		
+		private Record put(String key, Persisted t) {
+			Record old = records.get(key);
+			return put(key, t, old == null ? position++ : old.position);
+		}
+		
+		private Record put(String key, Persisted t, long recordPosition) {
+			Map<String, Object> values = new HashMap<>();
+			for (String field : indexes.keySet()) {
+				values.put(field, readField(t, field));
+			}
+			
+			Record old = remove(key);
+			records.put(key, new Record(t, recordPosition));
+			for (Map.Entry<String, Index> entry : indexes.entrySet()) {
+				entry.getValue().add(key, values.get(entry.getKey()));
+			}
+			
+			Object id = normalize(getId(t));
+			if (id instanceof Long) {
+				sequence = Math.max(sequence, (Long) id);
+			}
+			return old;
+		}
+		
+		private Record remove(String key) {
+			Record old = records.remove(key);
+			if (old != null) {
+				for (Index index : indexes.values()) {
+					index.remove(key);
+				}
+			}
+			return old;
+		}
+		
+		/**
+		 * Restore the record of a key to its old state, {@code null} means 
+		 * the key did not exist.
+		 */
+		private void restore(String key, Record old) {
+			remove(key);
+			if (old != null) {
+				put(key, old.record, old.position);
+			}
+		}
+		
+		private void generateId(Persisted t) throws DatabaseOperationException {
+			Class<?> type = idField == null ? null : idField.getType();
+			if (type != Long.class && type != long.class && type != Integer.class && type != int.class) {
+				throw new DatabaseOperationException("Can not generate the primary key of " + clazz.getName() 
+						+ ", the field annotated by @Id should be an Integer or a Long.");
+			}
+			
+			try {
+				long id = sequence + 1;
+				idField.set(t, (type == Long.class || type == long.class) ? (Object) id : (Object) (int) id);
+				sequence = id;
+			} catch (IllegalAccessException e) {
+				throw new DatabaseOperationException("Can not generate the primary key of " + clazz.getName(), e);
+			}
+		}
+		
+		/**
+		 * Get the candidates of a query in the insertion order.
+		 * 
+		 * <p>The primary keys or the index is looked up by each of the 
+		 * conjuncts and the smallest set of records is used, all the records 
+		 * are the candidates if none of the conjuncts can be looked up.
+		 */
+		private Collection<Record> getCandidates(List<Expression> conjuncts, boolean caseSensitive) {
+			Set<String> best = null;
+			for (Expression conjunct : conjuncts) {
+				Set<String> keys = lookup(conjunct, caseSensitive);
+				if (keys != null && (best == null || keys.size() < best.size())) {
+					best = keys;
+				}
+			}
+			
+			List<Record> candidates = new ArrayList<>(best == null ? records.values() : Collections.emptyList());
+			if (best != null) {
+				for (String key : best) {
+					Record record = records.get(key);
+					if (record != null) {
+						candidates.add(record);
+					}
+				}
+			}
+			candidates.sort((r1, r2) -> Long.compare(r1.position, r2.position));
+			return candidates;
+		}
+		
+		/**
+		 * Look up the keys of the records which may match a simple 
+		 * expression.
+		 * 
+		 * @return  The keys, or {@code null} if it can not be looked up.
+		 */
+		private Set<String> lookup(Expression expression, boolean caseSensitive) {
+			String field    = expression.getSubject().getName();
+			String operator = expression.getOperator();
+			Object value    = expression.getValue();
+			if (value == null || value instanceof Parameter) {
+				return null;
+			}
+			
+			if (idField != null && idField.getName().equals(field)) {
+				return lookupPrimaryKeys(operator, value, caseSensitive);
+			}
+			
+			Index index = indexes.get(field);
+			return index == null ? null : index.lookup(operator, value, caseSensitive);
+		}
+		
+		private Set<String> lookupPrimaryKeys(String operator, Object value, boolean caseSensitive) {
+			Iterable<?> ids = Expression.IN.equals(operator) ? toIterable(value) 
+					: Expression.EQUAL.equals(operator) ? Collections.singletonList(value) : null;
+			if (ids == null) {
+				return null;
+			}
+			
+			Set<String> keys = new HashSet<>();
+			for (Object id : ids) {
+				Object key = normalize(id);
+				if (key == null) {
+					continue;
+				}
+				if (!(key instanceof Number) && !(caseSensitive && key instanceof String)) {
+					return null;
+				}
+				keys.add(key.toString());
+			}
+			return keys;
+		}
+		
+		private static Field findIdField(Class<?> clazz) {
+			for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (field.isAnnotationPresent(Id.class)) {
+						field.setAccessible(true);
+						return field;
+					}
+				}
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * The secondary index on one field.
+	 * 
+	 * <p>The normalized value of each record is kept, so the record can be 
+	 * removed from the index after its field has been changed. If the values 
+	 * are in different types, the index can not be used anymore.
+	 * 
+	 * @since   1.1
+	 */
+	private static class Index {
+		private final IndexType                type;
+		private final Map<Object, Set<String>> entries;
+		private final Map<String, Object>      values  = new HashMap<>();
+		private Class<?>                       keyType = null;
+		private boolean                        usable  = true;
+		
+		private Index(IndexType type) {
+			this.type    = type;
+			this.entries = type == IndexType.TREE ? new TreeMap<>(KEY_ORDER) : new HashMap<>();
+		}
+		
+		private void add(String recordKey, Object value) {
+			Object key = normalize(value);
+			if (key == null || !usable) {
+				return;
+			}
+			
+			if (keyType == null) {
+				keyType = getKeyType(key);
+			} else if (keyType != getKeyType(key)) {
+				usable = false;
+				entries.clear();
+				values.clear();
+				return;
+			}
+			
+			entries.computeIfAbsent(key, k -> new HashSet<>()).add(recordKey);
+			values.put(recordKey, key);
+		}
+		
+		private void remove(String recordKey) {
+			Object key = values.remove(recordKey);
+			if (key != null) {
+				Set<String> recordKeys = entries.get(key);
+				recordKeys.remove(recordKey);
+				if (recordKeys.isEmpty()) {
+					entries.remove(key);
+				}
+			}
+		}
+		
+		/**
+		 * Look up the keys of the records matched by a comparison.
+		 * 
+		 * @return  The keys, or {@code null} if the index can not be used.
+		 */
+		private Set<String> lookup(String operator, Object value, boolean caseSensitive) {
+			if (!usable) {
+				return null;
+			}
+			
+			if (Expression.IN.equals(operator)) {
+				Iterable<?> elements = toIterable(value);
+				if (elements == null) {
+					return null;
+				}
+				
+				Set<String> result = new HashSet<>();
+				for (Object element : elements) {
+					if (element == null) {
+						continue;
+					}
+					Object key = toIndexKey(element, caseSensitive);
+					if (key == null) {
+						return null;
+					}
+					result.addAll(entries.getOrDefault(key, Collections.emptySet()));
+				}
+				return result;
+			}
+			
+			Object key = toIndexKey(value, caseSensitive);
+			if (key == null) {
+				return null;
+			}
+			if (Expression.EQUAL.equals(operator)) {
+				return entries.getOrDefault(key, Collections.emptySet());
+			}
+			if (type != IndexType.TREE) {
+				return null;
+			}
+			
+			NavigableMap<Object, Set<String>> tree = (NavigableMap<Object, Set<String>>) entries;
+			Map<Object, Set<String>>          range;
+			switch (operator) {
+				case Expression.GREATER_THAN:       range = tree.tailMap(key, false); break;
+				case Expression.GREATER_THAN_EQUAL: range = tree.tailMap(key, true);  break;
+				case Expression.LESS_THAN:          range = tree.headMap(key, false); break;
+				case Expression.LESS_THAN_EQUAL:    range = tree.headMap(key, true);  break;
+				default:                            return null;
+			}
+			
+			Set<String> result = new HashSet<>();
+			for (Set<String> recordKeys : range.values()) {
+				result.addAll(recordKeys);
+			}
+			return result;
+		}
+		
+		/**
+		 * Normalize a value for looking up, {@code null} means the value can 
+		 * not be looked up.
+		 */
+		private Object toIndexKey(Object value, boolean caseSensitive) {
+			Object key = normalize(value);
+			if (!caseSensitive && key instanceof String) {
+				return null;
+			}
+			if (keyType != null && keyType != getKeyType(key)) {
+				return null;
+			}
+			if (type == IndexType.TREE && !(key instanceof Comparable)) {
+				return null;
+			}
+			return key;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+/**
+ * The types of the secondary indexes of {@link InMemoryEntityManagerDao}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public enum IndexType {
+	/** The hash index, it can be used by {@code ==} and {@code IN}. */
+	HASH,
+	
+	/** 
+	 * The tree index, it can be used by {@code ==}, {@code IN} and the 
+	 * ranges ({@code >}, {@code >=}, {@code <}, {@code <=}). 
+	 */
+	TREE
+}
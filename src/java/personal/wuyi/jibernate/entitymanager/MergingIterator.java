@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The iterator for merging several sorted iterators into one sorted 
+ * iterator (k-way merge).
+ * 
+ * <p>The heads of the iterators are kept in a heap, so each step costs 
+ * {@code O(log k)}. If 2 records are equal, the one from the earlier 
+ * iterator goes first. If the comparator is {@code null}, the iterators 
+ * will be concatenated.
+ * 
+ * @param  <T>
+ *         The type of the records.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class MergingIterator<T> implements Iterator<T> {
+	private final List<? extends Iterator<T>> iterators;
+	private final PriorityQueue<Head<T>>      heap;
+	private int                               current = 0;
+	
+	/**
+	 * The current record of an iterator.
+	 */
+	private static class Head<T> {
+		private final T   record;
+		private final int index;
+		
+		Head(T record, int index) {
+			this.record = record;
+			this.index  = index;
+		}
+	}
+	
+	/**
+	 * Constructs a {@code MergingIterator}.
+	 * 
+	 * @param  iterators
+	 *         The list of the sorted iterators.
+	 * 
+	 * @param  comparator
+	 *         The comparator which sorted the iterators, {@code null} means 
+	 *         the iterators are not sorted.
+	 * 
+	 * @since   1.1
+	 */
+	MergingIterator(List<? extends Iterator<T>> iterators, Comparator<? super T> comparator) {
+		this.iterators = iterators;
+		if (comparator == null) {
+			this.heap = null;
+		} else {
+			Comparator<Head<T>> byRecord = (head1, head2) -> comparator.compare(head1.record, head2.record);
+			this.heap = new PriorityQueue<>(Math.max(1, iterators.size()), byRecord.thenComparingInt(head -> head.index));
+			for (int i = 0; i < iterators.size(); i++) {
+				advance(i);
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (heap != null) {
+			return !heap.isEmpty();
+		}
+		
+		while (current < iterators.size() && !iterators.get(current).hasNext()) {
+			current++;
+		}
+		return current < iterators.size();
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		
+		if (heap == null) {
+			return iterators.get(current).next();
+		}
+		
+		Head<T> head = heap.poll();
+		advance(head.index);
+		return head.record;
+	}
+	
+	/**
+	 * Push the next record of an iterator into the heap.
+	 * 
+	 * @param  index
+	 *         The index of the iterator.
+	 * 
+	 * @since   1.1
+	 */
+	private void advance(int index) {
+		Iterator<T> iterator = iterators.get(index);
+		if (iterator.hasNext()) {
+			heap.add(new Head<>(iterator.next(), index));
+		}
+	}
+}
@@ -18,9 +18,10 @@ package personal.wuyi.jibernate.entitymanager;
 
 import javax.sql.DataSource;
 
-import org.apache.commons.dbcp2.BasicDataSource;
-
 import personal.wuyi.jibernate.config.MysqlDbConfig;
+import personal.wuyi.jibernate.pool.ConnectionPool;
+import personal.wuyi.jibernate.pool.ConnectionPoolFactory;
+import personal.wuyi.jibernate.pool.PoolMetrics;
 
 /**
  * The DAO (Data Access Object) for MySQL database.
@@ -31,7 +32,8 @@ import personal.wuyi.jibernate.config.MysqlDbConfig;
  * @since   1.0
  */
 public class MysqlEntityManagerDao extends AbstractEntityManagerDao {
-	private MysqlDbConfig config;
+	private MysqlDbConfig  config;
+	private ConnectionPool pool;
 	
 	/**
 	 * Constructs a {@code MysqlEntityManagerDao}.
@@ -52,19 +54,66 @@ public class MysqlEntityManagerDao extends AbstractEntityManagerDao {
 
 	@Override
 	protected DataSource getDataSource() {
-        BasicDataSource dbcpDataSource = new BasicDataSource();
-        dbcpDataSource.setDriverClassName(config.getDriverClassName());
-        dbcpDataSource.setUrl("jdbc:mysql://" + config.getHost() + ":" + config.getPort() + "/" + config.getDatabase() + "?useSSL=true");
-        dbcpDataSource.setUsername(config.getUsername());
-        dbcpDataSource.setPassword(config.getPassword());
-        dbcpDataSource.setInitialSize(10);
-        dbcpDataSource.setMaxTotal(20);
-        return dbcpDataSource;
+		return getConnectionPool().getDataSource();
+	}
+	
+	/**
+	 * Get the connection pool.
+	 * 
+	 * <p>The pool will be created by the configuration when it is used first 
+	 * time, and it will be closed when this DAO is stopped.
+	 * 
+	 * @return  The connection pool.
+	 * 
+	 * @since   1.1
+	 */
+	protected synchronized ConnectionPool getConnectionPool() {
+		if (pool == null) {
+			pool = createConnectionPool();
+		}
+		return pool;
+	}
+	
+	/**
+	 * Create a new connection pool.
+	 * 
+	 * <p>Sub-classes can override this method to provide a customized pool.
+	 * 
+	 * @return  The new connection pool.
+	 * 
+	 * @since   1.1
+	 */
+	protected ConnectionPool createConnectionPool() {
+		return ConnectionPoolFactory.create(config);
+	}
+	
+	/**
+	 * Get the live metrics of the connection pool.
+	 * 
+	 * @return  The snapshot of the metrics of the connection pool.
+	 * 
+	 * @since   1.1
+	 */
+	public PoolMetrics getPoolMetrics() {
+		return getConnectionPool().getMetrics();
 	}
 
 	@Override
 	protected String getPersistenceUnit() {
 		return "mysql.persistence";
 	}
-
+	
+    /* (non-Javadoc)
+     * Close the {@code EntityManagerFactory} and the connection pool.
+     * 
+     * @see personal.wuyi.jibernate.entitymanager.AbstractEntityManagerDao#stop()
+     */
+	@Override
+	public void stop() {
+		super.stop();
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+	}
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.query.EntityQuery;
+import personal.wuyi.jibernate.query.JQuery;
+import personal.wuyi.jibernate.query.PreparedJQuery;
+import personal.wuyi.jibernate.query.Sort;
+
+/**
+ * The key of a query result in the query cache of {@link CachingDao}.
+ * 
+ * <p>The key holds a copy of the query, so the cached result will not be 
+ * affected if the original query is modified later. The custom JPQL 
+ * statement of an {@code EntityQuery} is also a part of the key. The hash 
+ * code is computed once because a key is looked up many times.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class QueryCacheKey {
+	/**
+	 * The kinds of the query results.
+	 * 
+	 * @since   1.1
+	 */
+	enum Kind {
+		RECORDS,
+		FIELDS,
+		COUNT
+	}
+	
+	private final Kind         kind;
+	private final JQuery<?>    query;
+	private final String       jpql;
+	private final List<String> fieldNames;
+	private final int          hash;
+	
+	/**
+	 * Constructs a {@code QueryCacheKey}.
+	 * 
+	 * @param  kind
+	 *         The kind of the query result.
+	 * 
+	 * @param  query
+	 *         The query.
+	 * 
+	 * @param  fieldNames
+	 *         The selected fields if the kind is {@code FIELDS}.
+	 * 
+	 * @since   1.1
+	 */
+	QueryCacheKey(Kind kind, JQuery<?> query, String... fieldNames) {
+		this.kind       = kind;
+		this.query      = copy(query);
+		this.jpql       = (query instanceof EntityQuery) ? ((EntityQuery<?>) query).getJpql() : null;
+		this.fieldNames = Arrays.asList(fieldNames.clone());
+		this.hash       = 31 * (31 * (31 * kind.hashCode() + this.query.hashCode()) + Objects.hashCode(jpql)) + this.fieldNames.hashCode();
+	}
+	
+	Class<?> getPersistedClass() { return query.getPersistedClass(); }
+	
+	/**
+	 * Copy a query.
+	 * 
+	 * <p>A cascading sort with only one field will be copied as a simple 
+	 * sort, so the equivalent sorts have the same key. A prepared query will 
+	 * be copied with its bound values.
+	 * 
+	 * @since   1.1
+	 */
+	private static <E extends Persisted> JQuery<E> copy(JQuery<E> query) {
+		if (query instanceof PreparedJQuery) {
+			query = ((PreparedJQuery<E>) query).toJQuery();
+		}
+		JQuery<E> copy = new JQuery<>(query.getPersistedClass());
+		if (query.getCriteria() != null) {
+			copy.setCriteria((Expression) query.getCriteria().clone());
+		}
+		if (query.getSort() != null) {
+			Sort sort = null;
+			for (Sort simpleSort : query.getSort().toList()) {
+				Sort copiedSort = new Sort(simpleSort.getField(), simpleSort.isAscending());
+				sort = (sort == null) ? copiedSort : sort.add(copiedSort);
+			}
+			copy.setSort(sort);
+		}
+		if (query.getLimit() != null) {
+			copy.setLimit(query.getLimit());
+		}
+		copy.setOffset(query.getOffset());
+		copy.setCaseSensitive(query.isCaseSensitive());
+		copy.setDistinct(query.isDistinct());
+		copy.setHistory(query.isHistory());
+		return copy;
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		
+		if (!(o instanceof QueryCacheKey)) {
+			return false;
+		}
+		
+		QueryCacheKey key = (QueryCacheKey) o;
+		return hash == key.hash && kind == key.kind && Objects.equals(jpql, key.jpql) && fieldNames.equals(key.fieldNames) && query.equals(key.query);
+	}
+}
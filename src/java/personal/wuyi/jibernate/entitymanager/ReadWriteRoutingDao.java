@@ -0,0 +1,401 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.config.MysqlDbConfig;
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The DAO which splits the reads and the writes between a primary database 
+ * and a set of replica databases.
+ * 
+ * <p>The reads ({@code read}, {@code stream} and {@code count}) will be sent 
+ * to one of the replicas, the replica is selected by round-robin or by the 
+ * least number of in-flight reads. The writes ({@code write}, 
+ * {@code delete}, {@code update}) and the sessions will be sent to the 
+ * primary.
+ * 
+ * <p>Because the replicas may lag behind the primary, the read-your-writes 
+ * mode can be enabled by {@link #setReadYourWritesWindow(long, TimeUnit)}. 
+ * In that mode, after a thread writes to the primary (or opens a session), 
+ * all the reads of the same thread will be sent to the primary within the 
+ * window.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ReadWriteRoutingDao implements Dao {
+	/**
+	 * The strategies of selecting a replica for a read.
+	 * 
+	 * @since   1.1
+	 */
+	public enum ReplicaSelection {
+		ROUND_ROBIN,
+		LEAST_LOADED
+	}
+	
+	private final Dao               primary;
+	private final List<Dao>         replicas;
+	private final AtomicInteger[]   inFlightReads;
+	private final AtomicInteger     counter       = new AtomicInteger();
+	private final ThreadLocal<Long> lastWriteTime = new ThreadLocal<>();
+	
+	private ReplicaSelection replicaSelection    = ReplicaSelection.ROUND_ROBIN;
+	private long             readYourWritesNanos = 0;
+	
+	/**
+	 * Constructs a {@code ReadWriteRoutingDao} by the configurations of the 
+	 * primary database and the replica databases.
+	 * 
+	 * @param  primaryConfig
+	 *         The configuration of the primary database.
+	 * 
+	 * @param  replicaConfigs
+	 *         The configurations of the replica databases.
+	 * 
+	 * @since   1.1
+	 */
+	public ReadWriteRoutingDao(MysqlDbConfig primaryConfig, List<MysqlDbConfig> replicaConfigs) {
+		this(new MysqlEntityManagerDao(primaryConfig), toDaoList(replicaConfigs));
+	}
+	
+	/**
+	 * Constructs a {@code ReadWriteRoutingDao} by the DAOs of the primary 
+	 * database and the replica databases.
+	 * 
+	 * <p>If there is no replica, all the reads will be sent to the primary.
+	 * 
+	 * @param  primary
+	 *         The DAO of the primary database.
+	 * 
+	 * @param  replicas
+	 *         The DAOs of the replica databases.
+	 * 
+	 * @since   1.1
+	 */
+	public ReadWriteRoutingDao(Dao primary, List<? extends Dao> replicas) {
+		Preconditions.checkNotNull(primary, "The primary can not be null.");
+		this.primary       = primary;
+		this.replicas      = new ArrayList<>(replicas);
+		this.inFlightReads = new AtomicInteger[this.replicas.size()];
+		for (int i = 0; i < inFlightReads.length; i++) {
+			inFlightReads[i] = new AtomicInteger();
+		}
+	}
+	
+	private static List<Dao> toDaoList(List<MysqlDbConfig> configs) {
+		List<Dao> daoList = new ArrayList<>();
+		for (MysqlDbConfig config : configs) {
+			daoList.add(new MysqlEntityManagerDao(config));
+		}
+		return daoList;
+	}
+	
+	public ReplicaSelection getReplicaSelection()                                  { return replicaSelection;                  }
+	public void             setReplicaSelection(ReplicaSelection replicaSelection) { this.replicaSelection = replicaSelection; }
+	
+	/**
+	 * Set the window of the read-your-writes mode.
+	 * 
+	 * <p>If the window is 0, the read-your-writes mode is disabled.
+	 * 
+	 * @param  window
+	 *         The length of the window.
+	 * 
+	 * @param  unit
+	 *         The time unit of the window.
+	 * 
+	 * @since   1.1
+	 */
+	public void setReadYourWritesWindow(long window, TimeUnit unit) {
+		Preconditions.checkArgument(window >= 0, "The window can not be negative.");
+		this.readYourWritesNanos = unit.toNanos(window);
+	}
+	
+	/**
+	 * Get the window of the read-your-writes mode.
+	 * 
+	 * @param  unit
+	 *         The time unit of the window.
+	 * 
+	 * @return  The length of the window.
+	 * 
+	 * @since   1.1
+	 */
+	public long getReadYourWritesWindow(TimeUnit unit) {
+		return unit.convert(readYourWritesNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public <T extends Persisted> T read(Uri uri) {
+		return routeRead(dao -> dao.read(uri));
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		return routeRead(dao -> dao.read(uris));
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		return routeRead(dao -> dao.read(query));
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		return routeRead(dao -> dao.read(query, fieldNames));
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query) {
+		return routeStream(dao -> dao.stream(query));
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize) {
+		return routeStream(dao -> dao.stream(query, fetchSize));
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		return routeRead(dao -> dao.count(query));
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		try {
+			primary.write(t);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		try {
+			primary.write(tList);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException {
+		try {
+			primary.write(tList, batchSize);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		try {
+			primary.delete(t);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		try {
+			primary.delete(tList);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		try {
+			return primary.delete(query);
+		} finally {
+			markWrite();
+		}
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		try {
+			return primary.update(query, assignments);
+		} finally {
+			markWrite();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * A session may write, so it is always opened on the primary and it 
+	 * counts as a write for the read-your-writes mode.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#openSession()
+	 */
+	@Override
+	public DaoSession openSession() {
+		markWrite();
+		return primary.openSession();
+	}
+
+	@Override
+	public void start() {
+		primary.start();
+		for (Dao replica : replicas) {
+			replica.start();
+		}
+	}
+
+	@Override
+	public void stop() {
+		primary.stop();
+		for (Dao replica : replicas) {
+			replica.stop();
+		}
+	}
+	
+	/**
+	 * Send a read to the primary or a replica.
+	 * 
+	 * @param  read
+	 *         The read operation.
+	 * 
+	 * @return  The result of the read.
+	 * 
+	 * @since   1.1
+	 */
+	private <R> R routeRead(Function<Dao, R> read) {
+		int index = selectReplica();
+		if (index < 0) {
+			return read.apply(primary);
+		}
+		
+		inFlightReads[index].incrementAndGet();
+		try {
+			return read.apply(replicas.get(index));
+		} finally {
+			inFlightReads[index].decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Send a streaming read to the primary or a replica.
+	 * 
+	 * <p>The read is in-flight until the stream is closed.
+	 * 
+	 * @param  read
+	 *         The streaming read operation.
+	 * 
+	 * @return  The stream of the records.
+	 * 
+	 * @since   1.1
+	 */
+	private <T> Stream<T> routeStream(Function<Dao, Stream<T>> read) {
+		int index = selectReplica();
+		if (index < 0) {
+			return read.apply(primary);
+		}
+		
+		AtomicInteger inFlight = inFlightReads[index];
+		inFlight.incrementAndGet();
+		try {
+			return read.apply(replicas.get(index)).onClose(inFlight::decrementAndGet);
+		} catch (RuntimeException e) {
+			inFlight.decrementAndGet();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Select a replica for a read.
+	 * 
+	 * @return  The index of the selected replica, or -1 if the read needs to 
+	 *          be sent to the primary.
+	 * 
+	 * @since   1.1
+	 */
+	int selectReplica() {
+		if (replicas.isEmpty() || isPinnedToPrimary()) {
+			return -1;
+		}
+		
+		int start = Math.floorMod(counter.getAndIncrement(), replicas.size());
+		if (replicaSelection == ReplicaSelection.ROUND_ROBIN) {
+			return start;
+		}
+		
+		// start from the next replica of round-robin, so the replicas with 
+		// the same load will take turns.
+		int selected = start;
+		for (int i = 1; i < replicas.size(); i++) {
+			int index = (start + i) % replicas.size();
+			if (inFlightReads[index].get() < inFlightReads[selected].get()) {
+				selected = index;
+			}
+		}
+		return selected;
+	}
+	
+	/**
+	 * Check the reads of the current thread need to be sent to the primary 
+	 * because of the read-your-writes mode.
+	 * 
+	 * @return  {@code true} if the current thread wrote within the window, 
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	private boolean isPinnedToPrimary() {
+		Long writeTime = lastWriteTime.get();
+		if (writeTime == null) {
+			return false;
+		}
+		
+		if (System.nanoTime() - writeTime < readYourWritesNanos) {
+			return true;
+		}
+		
+		lastWriteTime.remove();
+		return false;
+	}
+	
+	/**
+	 * Mark the current thread has written to the primary.
+	 * 
+	 * @since   1.1
+	 */
+	private void markWrite() {
+		if (readYourWritesNanos > 0) {
+			lastWriteTime.set(System.nanoTime());
+		}
+	}
+}
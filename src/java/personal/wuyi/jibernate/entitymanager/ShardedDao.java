@@ -0,0 +1,677 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.config.MysqlDbConfig;
+import personal.wuyi.jibernate.entity.ManagedEntity;
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+import personal.wuyi.jibernate.query.PreparedJQuery;
+import personal.wuyi.jibernate.query.Sort;
+import personal.wuyi.jibernate.query.SortComparator;
+import personal.wuyi.reflect.ReflectUtil;
+
+/**
+ * The DAO over several shards (databases with the same schema).
+ * 
+ * <p>The operations on single records ({@code read(Uri)}, {@code write}, 
+ * {@code delete}) are routed to one shard by the {@code ShardFunction} on 
+ * the primary key, so the primary keys need to be assigned before writing 
+ * (e.g. by a global id generator) instead of being generated by each shard.
+ * 
+ * <p>The queries ({@code read(JQuery)}, {@code stream}, {@code count} and 
+ * the bulk delete or update) are sent to all the shards in parallel. The 
+ * results are merged by the {@code Sort} of the query and then the offset 
+ * and the limit of the query are applied, so the caller does not need to 
+ * know the sharding. Each shard only returns the first 
+ * {@code offset + limit} records.
+ * 
+ * <p>The writes on different shards are not in one transaction. A session 
+ * or a transaction can only be on one shard, it is opened by 
+ * {@link #openSession(Object)} or {@link #inTransaction(Object, DaoSession.Work)} 
+ * with the primary key which decides the shard.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ShardedDao implements Dao {
+	/**
+	 * The function to decide the shard of a record by its primary key.
+	 * 
+	 * @since   1.1
+	 */
+	@FunctionalInterface
+	public interface ShardFunction {
+		/**
+		 * Get the shard of a record.
+		 * 
+		 * @param  id
+		 *         The primary key of the record, it can not be {@code null}.
+		 * 
+		 * @param  numberOfShards
+		 *         The number of the shards.
+		 * 
+		 * @return  The index of the shard, it should be in 
+		 *          {@code [0, numberOfShards)}.
+		 * 
+		 * @since   1.1
+		 */
+		public int getShard(Object id, int numberOfShards);
+	}
+	
+	/**
+	 * The default shard function, the numeric primary keys are distributed 
+	 * by modulo and other primary keys are distributed by their hash codes.
+	 */
+	public static final ShardFunction MODULO = (id, numberOfShards) -> id instanceof Number 
+			? (int) Math.floorMod(((Number) id).longValue(), (long) numberOfShards)
+			: Math.floorMod(id.hashCode(), numberOfShards);
+	
+	/**
+	 * The task runs on one shard.
+	 */
+	@FunctionalInterface
+	private interface ShardTask<R> {
+		R call() throws DatabaseOperationException;
+	}
+	
+	/**
+	 * The operation on one shard.
+	 */
+	@FunctionalInterface
+	private interface ShardOperation<R> {
+		R apply(Dao shard) throws DatabaseOperationException;
+	}
+	
+	private final List<Dao>     shards;
+	private final ShardFunction shardFunction;
+	
+	private volatile ExecutorService executor;
+	
+	/**
+	 * Constructs a {@code ShardedDao} by the configurations of the shards 
+	 * with the default shard function.
+	 * 
+	 * @param  configs
+	 *         The configurations of the shards, the order decides the index 
+	 *         of each shard.
+	 * 
+	 * @since   1.1
+	 */
+	public ShardedDao(MysqlDbConfig... configs) {
+		this(MODULO, configs);
+	}
+	
+	/**
+	 * Constructs a {@code ShardedDao} by the configurations of the shards.
+	 * 
+	 * @param  shardFunction
+	 *         The function to decide the shard of a record.
+	 * 
+	 * @param  configs
+	 *         The configurations of the shards, the order decides the index 
+	 *         of each shard.
+	 * 
+	 * @since   1.1
+	 */
+	public ShardedDao(ShardFunction shardFunction, MysqlDbConfig... configs) {
+		this(toDaoList(configs), shardFunction);
+	}
+	
+	/**
+	 * Constructs a {@code ShardedDao} by the DAOs of the shards.
+	 * 
+	 * @param  shards
+	 *         The DAOs of the shards, the order of the list decides the 
+	 *         index of each shard.
+	 * 
+	 * @param  shardFunction
+	 *         The function to decide the shard of a record.
+	 * 
+	 * @since   1.1
+	 */
+	public ShardedDao(List<? extends Dao> shards, ShardFunction shardFunction) {
+		Preconditions.checkArgument(!shards.isEmpty(), "There should be at least one shard.");
+		this.shards        = new ArrayList<>(shards);
+		this.shardFunction = shardFunction;
+		this.executor      = newExecutor();
+	}
+	
+	/**
+	 * Create the thread pool for sending the queries to the shards.
+	 * 
+	 * @return  The new thread pool.
+	 * 
+	 * @since   1.1
+	 */
+	private static ExecutorService newExecutor() {
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "jibernate-shard");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	private static List<Dao> toDaoList(MysqlDbConfig... configs) {
+		List<Dao> daoList = new ArrayList<>();
+		for (MysqlDbConfig config : configs) {
+			daoList.add(new MysqlEntityManagerDao(config));
+		}
+		return daoList;
+	}
+
+	@Override
+	public <T extends Persisted> T read(Uri uri) {
+		return getShard(uri.getId()).read(uri);
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(Collection<Uri> uris) {
+		// group the URIs by shard
+		final Map<Integer, List<Uri>> uriMap = new TreeMap<>();
+		for (Uri uri : uris) {
+			uriMap.computeIfAbsent(getShardIndex(uri.getId()), index -> new ArrayList<>()).add(uri);
+		}
+		
+		final List<ShardTask<List<T>>> tasks = new ArrayList<>();
+		for (Map.Entry<Integer, List<Uri>> entry : uriMap.entrySet()) {
+			Dao shard = shards.get(entry.getKey());
+			tasks.add(() -> shard.read(entry.getValue()));
+		}
+		
+		final Map<Uri, T> entityMap = new HashMap<>();
+		for (List<T> result : runReads(tasks)) {
+			for (T t : result) {
+				entityMap.put(t.getUri(), t);
+			}
+		}
+		
+		// return the records in the order of the URIs, skip the missing ones.
+		final List<T> list = new ArrayList<>();
+		for (Uri uri : uris) {
+			T t = entityMap.get(uri);
+			if (t != null) {
+				list.add(t);
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public <T extends Persisted> List<T> read(JQuery<T> query) {
+		final JQuery<T>     shardQuery = getShardQuery(query);
+		final List<List<T>> results    = runReads(getTasks(shard -> shard.read(shardQuery)));
+		final Comparator<T> comparator = query.getSort() == null ? null : new SortComparator<>(query.getSort());
+		
+		return page(new MergingIterator<>(toIterators(results), comparator), query);
+	}
+
+	@Override
+	public List<List<?>> read(JQuery<? extends Persisted> query, String... fieldNames) {
+		final JQuery<? extends Persisted> shardQuery = getShardQuery(query);
+		final List<List<List<?>>>         results    = runReads(getTasks(shard -> shard.read(shardQuery, fieldNames)));
+		final Comparator<List<?>>         comparator = query.getSort() == null ? null : getRowComparator(query.getSort(), fieldNames);
+		
+		Iterator<List<?>> iterator = new MergingIterator<>(toIterators(results), comparator);
+		if (query.isDistinct()) {
+			// the same values may come from different shards
+			LinkedHashSet<List<?>> distinctRows = new LinkedHashSet<>();
+			iterator.forEachRemaining(distinctRows::add);
+			iterator = distinctRows.iterator();
+		}
+		return page(iterator, query);
+	}
+
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query) {
+		return stream(query, AbstractEntityManagerDao.DEFAULT_FETCH_SIZE);
+	}
+
+	/* (non-Javadoc)
+	 * The streams of the shards are merged lazily, so only a page of each 
+	 * shard is in memory.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#stream(personal.wuyi.jibernate.query.JQuery, int)
+	 */
+	@Override
+	public <T extends Persisted> Stream<T> stream(JQuery<T> query, int fetchSize) {
+		final JQuery<T>       shardQuery   = getShardQuery(query);
+		final List<Stream<T>> shardStreams = new ArrayList<>();
+		try {
+			for (Dao shard : shards) {
+				shardStreams.add(shard.stream(shardQuery, fetchSize));
+			}
+		} catch (RuntimeException e) {
+			closeAll(shardStreams);
+			throw e;
+		}
+		
+		final List<Iterator<T>> iterators = new ArrayList<>();
+		for (Stream<T> shardStream : shardStreams) {
+			iterators.add(shardStream.iterator());
+		}
+		
+		final Comparator<T> comparator = query.getSort() == null ? null : new SortComparator<>(query.getSort());
+		Stream<T> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator<>(iterators, comparator), Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> closeAll(shardStreams));
+		
+		if (query.getOffset() != null) {
+			stream = stream.skip(query.getOffset());
+		}
+		if (query.getLimit() != null) {
+			stream = stream.limit(query.getLimit());
+		}
+		return stream;
+	}
+
+	@Override
+	public <T extends Persisted> long count(JQuery<T> query) {
+		long count = 0;
+		for (Long shardCount : runReads(getTasks(shard -> shard.count(query)))) {
+			count += shardCount;
+		}
+		return count;
+	}
+
+	@Override
+	public <T extends Persisted> void write(T t) throws DatabaseOperationException {
+		getShard(((ManagedEntity) t).getId()).write(t);
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList) throws DatabaseOperationException {
+		final List<ShardTask<Void>> tasks = new ArrayList<>();
+		for (Map.Entry<Integer, List<T>> entry : groupByShard(tList).entrySet()) {
+			Dao shard = shards.get(entry.getKey());
+			tasks.add(() -> { shard.write(entry.getValue()); return null; });
+		}
+		runAll(tasks);
+	}
+
+	@Override
+	public <T extends Persisted> void write(List<T> tList, int batchSize) throws DatabaseOperationException {
+		final List<ShardTask<Void>> tasks = new ArrayList<>();
+		for (Map.Entry<Integer, List<T>> entry : groupByShard(tList).entrySet()) {
+			Dao shard = shards.get(entry.getKey());
+			tasks.add(() -> { shard.write(entry.getValue(), batchSize); return null; });
+		}
+		runAll(tasks);
+	}
+
+	@Override
+	public <T extends Persisted> void delete(T t) throws DatabaseOperationException {
+		getShard(((ManagedEntity) t).getId()).delete(t);
+	}
+
+	@Override
+	public <T extends Persisted> void delete(List<T> tList) throws DatabaseOperationException {
+		final List<ShardTask<Void>> tasks = new ArrayList<>();
+		for (Map.Entry<Integer, List<T>> entry : groupByShard(tList).entrySet()) {
+			Dao shard = shards.get(entry.getKey());
+			tasks.add(() -> { shard.delete(entry.getValue()); return null; });
+		}
+		runAll(tasks);
+	}
+
+	@Override
+	public <T extends Persisted> int delete(JQuery<T> query) throws DatabaseOperationException {
+		int count = 0;
+		for (Integer shardCount : runAll(getTasks(shard -> shard.delete(query)))) {
+			count += shardCount;
+		}
+		return count;
+	}
+
+	@Override
+	public <T extends Persisted> int update(JQuery<T> query, Map<String,Object> assignments) throws DatabaseOperationException {
+		int count = 0;
+		for (Integer shardCount : runAll(getTasks(shard -> shard.update(query, assignments)))) {
+			count += shardCount;
+		}
+		return count;
+	}
+
+	/* (non-Javadoc)
+	 * A session can not span over shards, use openSession(Object) instead.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#openSession()
+	 */
+	@Override
+	public DaoSession openSession() {
+		throw new UnsupportedOperationException("A session can not span over shards, use openSession(Object) to open a session on one shard.");
+	}
+	
+	/**
+	 * Open a session on the shard of a primary key.
+	 * 
+	 * <p>All the records used in the session need to be on the same shard.
+	 * 
+	 * @param  id
+	 *         The primary key which decides the shard.
+	 * 
+	 * @return  The new session with an active transaction.
+	 * 
+	 * @since   1.1
+	 */
+	public DaoSession openSession(Object id) {
+		return getShard(id).openSession();
+	}
+	
+	/* (non-Javadoc)
+	 * A transaction can not span over shards, use inTransaction(Object, Work) 
+	 * instead.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Dao#inTransaction(personal.wuyi.jibernate.entitymanager.DaoSession.Work)
+	 */
+	@Override
+	public <R> R inTransaction(DaoSession.Work<R> work) throws DatabaseOperationException {
+		throw new UnsupportedOperationException("A transaction can not span over shards, use inTransaction(Object, Work) to do the work on one shard.");
+	}
+	
+	/**
+	 * Do a work in one session on the shard of a primary key and commit the 
+	 * changes at the end.
+	 * 
+	 * <p>All the records used in the work need to be on the same shard. If 
+	 * the work throws an exception, all the changes will be rolled back.
+	 * 
+	 * @param  id
+	 *         The primary key which decides the shard.
+	 * 
+	 * @param  work
+	 *         The work needs to be done in the session.
+	 *         
+	 * @return  The result of the work.
+	 * 
+	 * @throws  DatabaseOperationException
+	 *          There is an error occurred when doing the work or committing 
+	 *          the changes.
+	 *          
+	 * @see  Dao#inTransaction(DaoSession.Work)
+	 * 
+	 * @since   1.1
+	 */
+	public <R> R inTransaction(Object id, DaoSession.Work<R> work) throws DatabaseOperationException {
+		return getShard(id).inTransaction(work);
+	}
+
+	@Override
+	public void start() {
+		if (executor.isShutdown()) {
+			executor = newExecutor();
+		}
+		for (Dao shard : shards) {
+			shard.start();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * The thread pool for the shards is shut down as well, it will be 
+	 * created again if this DAO is started again.
+	 * 
+	 * @see personal.wuyi.jibernate.entitymanager.Plugin#stop()
+	 */
+	@Override
+	public void stop() {
+		for (Dao shard : shards) {
+			shard.stop();
+		}
+		executor.shutdown();
+	}
+	
+	/**
+	 * Get the index of the shard by a primary key.
+	 * 
+	 * @param  id
+	 *         The primary key.
+	 * 
+	 * @return  The index of the shard.
+	 * 
+	 * @since   1.1
+	 */
+	int getShardIndex(Object id) {
+		Preconditions.checkArgument(id != null, "The id can not be null, the shard is decided by the id.");
+		int index = shardFunction.getShard(id, shards.size());
+		Preconditions.checkState(index >= 0 && index < shards.size(), "The shard function returns an invalid shard: " + index);
+		return index;
+	}
+	
+	private Dao getShard(Object id) {
+		return shards.get(getShardIndex(id));
+	}
+	
+	/**
+	 * Group the records by shard.
+	 * 
+	 * @param  tList
+	 *         The list of records.
+	 * 
+	 * @return  The map of the records by the index of the shard.
+	 * 
+	 * @since   1.1
+	 */
+	private <T extends Persisted> Map<Integer, List<T>> groupByShard(List<T> tList) {
+		Map<Integer, List<T>> map = new TreeMap<>();
+		for (T t : tList) {
+			map.computeIfAbsent(getShardIndex(((ManagedEntity) t).getId()), index -> new ArrayList<>()).add(t);
+		}
+		return map;
+	}
+	
+	/**
+	 * Get the query for each shard.
+	 * 
+	 * <p>The offset can only be applied after merging, so each shard needs 
+	 * to return the first {@code offset + limit} records.
+	 * 
+	 * @param  query
+	 *         The original query.
+	 * 
+	 * @return  The query for each shard.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings("unchecked")
+	private static <Q extends JQuery<?>> Q getShardQuery(Q query) {
+		Q shardQuery = (query instanceof PreparedJQuery) ? (Q) ((PreparedJQuery<?>) query).copy() : ReflectUtil.copy(query);
+		shardQuery.setOffset(null);
+		if (query.getLimit() != null) {
+			shardQuery.setLimit(query.getLimit() + (query.getOffset() == null ? 0 : query.getOffset()));
+		}
+		return shardQuery;
+	}
+	
+	/**
+	 * Apply the offset and the limit of the query on the merged records.
+	 * 
+	 * @param  iterator
+	 *         The iterator of the merged records.
+	 * 
+	 * @param  query
+	 *         The original query.
+	 * 
+	 * @return  The list of records in the page.
+	 * 
+	 * @since   1.1
+	 */
+	private static <T> List<T> page(Iterator<T> iterator, JQuery<?> query) {
+		int offset = query.getOffset() == null ? 0                 : query.getOffset();
+		int limit  = query.getLimit()  == null ? Integer.MAX_VALUE : query.getLimit();
+		
+		for (int i = 0; i < offset && iterator.hasNext(); i++) {
+			iterator.next();
+		}
+		
+		List<T> list = new ArrayList<>();
+		while (list.size() < limit && iterator.hasNext()) {
+			list.add(iterator.next());
+		}
+		return list;
+	}
+	
+	/**
+	 * Get the comparator for the rows of the selected fields.
+	 * 
+	 * @param  sort
+	 *         The sorting option.
+	 * 
+	 * @param  fieldNames
+	 *         The selected fields.
+	 * 
+	 * @return  The comparator for the rows.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If a sort field is not selected.
+	 * 
+	 * @since   1.1
+	 */
+	private static Comparator<List<?>> getRowComparator(Sort sort, String... fieldNames) {
+		final List<Sort> sortList = sort.toList();
+		final int[]      indexes  = new int[sortList.size()];
+		for (int i = 0; i < sortList.size(); i++) {
+			indexes[i] = Arrays.asList(fieldNames).indexOf(sortList.get(i).getField());
+			Preconditions.checkArgument(indexes[i] >= 0, "The sort field needs to be selected when reading from shards: " + sortList.get(i).getField());
+		}
+		
+		return (row1, row2) -> {
+			for (int i = 0; i < indexes.length; i++) {
+				int result = SortComparator.compareValues(row1.get(indexes[i]), row2.get(indexes[i]));
+				if (result != 0) {
+					return sortList.get(i).isAscending() ? result : -result;
+				}
+			}
+			return 0;
+		};
+	}
+	
+	private static <T> List<Iterator<T>> toIterators(List<List<T>> lists) {
+		List<Iterator<T>> iterators = new ArrayList<>();
+		for (List<T> list : lists) {
+			iterators.add(list.iterator());
+		}
+		return iterators;
+	}
+	
+	private static void closeAll(List<? extends Stream<?>> streams) {
+		for (Stream<?> stream : streams) {
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Build a task for each shard.
+	 * 
+	 * @since   1.1
+	 */
+	private <R> List<ShardTask<R>> getTasks(ShardOperation<R> operation) {
+		List<ShardTask<R>> tasks = new ArrayList<>();
+		for (Dao shard : shards) {
+			tasks.add(() -> operation.apply(shard));
+		}
+		return tasks;
+	}
+	
+	/**
+	 * Run the read tasks in parallel.
+	 * 
+	 * @since   1.1
+	 */
+	private <R> List<R> runReads(List<ShardTask<R>> tasks) {
+		try {
+			return runAll(tasks);
+		} catch (DatabaseOperationException e) {
+			// reads never throw a DatabaseOperationException
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Run the tasks in parallel and wait for all the results.
+	 * 
+	 * <p>If there is only one task, it will be run in the current thread.
+	 * 
+	 * @param  tasks
+	 *         The list of tasks.
+	 * 
+	 * @return  The results of the tasks in the same order.
+	 * 
+	 * @throws  DatabaseOperationException
+	 *          If a task throws a {@code DatabaseOperationException}.
+	 * 
+	 * @since   1.1
+	 */
+	private <R> List<R> runAll(List<ShardTask<R>> tasks) throws DatabaseOperationException {
+		final List<R> results = new ArrayList<>();
+		if (tasks.size() == 1) {
+			results.add(tasks.get(0).call());
+			return results;
+		}
+		
+		final List<CompletableFuture<R>> futures = new ArrayList<>();
+		for (ShardTask<R> task : tasks) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return task.call();
+				} catch (DatabaseOperationException e) {
+					throw new CompletionException(e);
+				}
+			}, executor));
+		}
+		
+		try {
+			for (CompletableFuture<R> future : futures) {
+				results.add(future.join());
+			}
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof DatabaseOperationException) {
+				throw (DatabaseOperationException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+		return results;
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.ScrollableResults;
+
+/**
+ * The iterator for streaming the records of a query page by page from a
+ * server-side cursor.
+ *
+ * <p>The records are read from the {@code ScrollableResults} by pages (the
+ * size of a page is the fetch size of the query). While the caller is
+ * consuming the current page, the next page is read ahead in a background
+ * thread. Each record is detached from the {@code EntityManager} once it has
+ * been read, so the persistence context never grows.
+ *
+ * <p>The {@code EntityManager} and the {@code ScrollableResults} are only
+ * touched by the background thread after this iterator has been created, and
+ * they will be released when this iterator is closed, or as soon as all the
+ * records have been read, so a stream which is not closed by the caller
+ * still releases them once it has been fully consumed.
+ *
+ * @param  <T>
+ *         The type of the records.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class StreamingResultIterator<T> implements Iterator<T>, AutoCloseable {
+	private final EntityManager     entityManager;
+	private final ScrollableResults results;
+	private final int               pageSize;
+	private final ExecutorService   executor;
+
+	private Iterator<T>     currentPage = Collections.emptyIterator();
+	private Future<List<T>> nextPage;
+	private boolean         closed      = false;
+
+	/**
+	 * Constructs a {@code StreamingResultIterator}.
+	 *
+	 * <p>The first page will be read immediately in the background thread.
+	 *
+	 * @param  entityManager
+	 *         The {@code EntityManager} which opened the cursor.
+	 *
+	 * @param  results
+	 *         The scrollable results of the query.
+	 *
+	 * @param  pageSize
+	 *         The number of records in each page.
+	 *
+	 * @since   1.1
+	 */
+	StreamingResultIterator(EntityManager entityManager, ScrollableResults results, int pageSize) {
+		this.entityManager = entityManager;
+		this.results       = results;
+		this.pageSize      = pageSize;
+		this.executor      = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "jibernate-stream");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.nextPage      = executor.submit(this::readPage);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!currentPage.hasNext()) {
+			if (nextPage == null) {
+				close();
+				return false;
+			}
+
+			List<T> page = waitForNextPage();
+
+			// a partial page means the cursor has been exhausted.
+			nextPage    = page.size() < pageSize ? null : executor.submit(this::readPage);
+			currentPage = page.iterator();
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return currentPage.next();
+	}
+
+	/**
+	 * Read the next page from the cursor.
+	 *
+	 * <p>This method is only called from the background thread.
+	 *
+	 * @return  The list of records in the next page, the size of the list is
+	 *          less than the page size only if the cursor has been exhausted.
+	 *
+	 * @since   1.1
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> readPage() {
+		List<T> page = new ArrayList<>(pageSize);
+		while (page.size() < pageSize && results.next()) {
+			Object record = results.get(0);
+			entityManager.detach(record);
+			page.add((T) record);
+		}
+		return page;
+	}
+
+	/**
+	 * Wait for the page which is being read in the background thread.
+	 *
+	 * @return  The list of records in the next page.
+	 *
+	 * @since   1.1
+	 */
+	private List<T> waitForNextPage() {
+		try {
+			return nextPage.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new PersistenceException("Interrupted when reading the next page of records", e);
+		} catch (ExecutionException e) {
+			close();
+			throw new PersistenceException("Error occurred when reading the next page of records", e.getCause());
+		}
+	}
+
+	/**
+	 * Close the cursor and the {@code EntityManager}.
+	 *
+	 * <p>The cleanup is queued behind the page being read ahead (if there is
+	 * one), so the cursor is never closed under a running read.
+	 *
+	 * @since   1.1
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed      = true;
+		nextPage    = null;
+		currentPage = Collections.emptyIterator();
+
+		Future<?> cleanup = executor.submit(() -> {
+			try {
+				results.close();
+			} finally {
+				entityManager.close();
+			}
+		});
+		executor.shutdown();
+
+		try {
+			cleanup.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new PersistenceException("Error occurred when closing the cursor", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,589 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.util.ReflectUtil2;
+
+/**
+ * The immutable and compact representation of an expression.
+ * 
+ * <p>Different from {@code Expression}, a {@code CompactExpression} can not 
+ * be changed after it has been built, so it never needs to be cloned and 
+ * the same node can be shared by several trees. A compound node keeps its 
+ * children in one array and the operators between them in one 
+ * {@code byte} array, like:
+ * <pre>
+ *   children  = [ExprA, ExprB, ExprC, ExprD]
+ *   operators = [-,     AND,   OR,    AND  ]
+ * </pre>
+ * 
+ * <p>The operators of the simple expressions are also coded by 
+ * {@code byte}, so comparing 2 operators does not need 
+ * {@code String.equals}.
+ * 
+ * <p>The arrays of a compound node can have spare capacity. Appending a 
+ * sub-expression by {@link #and(CompactExpression)} or 
+ * {@link #or(CompactExpression)} fills the next free slot in place if no 
+ * other node has claimed it yet, so chaining N terms takes linear time. 
+ * The arrays are only copied (with doubled capacity) when they are full or 
+ * when the same node is extended twice.
+ * 
+ * <p>The subject values and the values are serialized as well, so they 
+ * need to be {@code Serializable}.
+ * 
+ * <p>A {@code CompactExpression} is built by {@code ExpressionBuilder} or 
+ * converted from an {@code Expression} by {@link #of(Expression)}, and it 
+ * can be converted back by {@link #toExpression()}.
+ * 
+ * @see  ExpressionBuilder
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public final class CompactExpression implements Serializable {
+	private static final long serialVersionUID = 5243127916357406224L;
+
+	// The codes of the operators for combining 2 expressions.
+	public static final byte AND = 0;
+	public static final byte OR  = 1;
+
+	// The code of an operator which is not one of the well-known operators.
+	static final byte OTHER_OPERATOR = -1;
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private static final String[] OPERATORS = {
+			Expression.EQUAL,     Expression.NOT_EQUAL, Expression.GREATER_THAN, Expression.LESS_THAN, 
+			Expression.LESS_THAN_EQUAL, Expression.GREATER_THAN_EQUAL, Expression.STARTS_WITH, 
+			Expression.ENDS_WITH, Expression.CONTAINS,  Expression.IN
+	};
+
+	private final boolean complement;
+
+	// If the expression is a simple expression, those fields will be populated.
+	private final String subjectName;
+	private final Object subjectValue;
+	private final byte   operatorCode;
+	private final String operator;
+	private final Object value;
+
+	// If the expression is a compound expression, those arrays will be populated.
+	// Only the first "size" slots belong to this node, the "tail" is the number 
+	// of the claimed slots which is shared by all the nodes on the same arrays.
+	private final CompactExpression[] children;
+	private final byte[]              operators;
+	private final int                 size;
+	private final AtomicInteger       tail;
+
+	private transient int hash;
+
+	/**
+	 * Constructs a simple {@code CompactExpression}.
+	 * 
+	 * @since   1.1
+	 */
+	private CompactExpression(String subjectName, Object subjectValue, String operator, Object value, boolean complement) {
+		this.subjectName  = subjectName;
+		this.subjectValue = subjectValue;
+		this.operatorCode = getOperatorCode(operator);
+		this.operator     = (operatorCode == OTHER_OPERATOR) ? operator : null;
+		this.value        = value;
+		this.complement   = complement;
+		this.children     = null;
+		this.operators    = null;
+		this.size         = 0;
+		this.tail         = null;
+	}
+
+	/**
+	 * Constructs a compound {@code CompactExpression}.
+	 * 
+	 * <p>The arrays are owned by the new node, they will not be copied.
+	 * 
+	 * @since   1.1
+	 */
+	private CompactExpression(CompactExpression[] children, byte[] operators, boolean complement) {
+		this(children, operators, children.length, new AtomicInteger(children.length), complement);
+	}
+
+	/**
+	 * Constructs a compound {@code CompactExpression} on the first 
+	 * {@code size} slots of the arrays which may be shared with other nodes.
+	 * 
+	 * @since   1.1
+	 */
+	private CompactExpression(CompactExpression[] children, byte[] operators, int size, AtomicInteger tail, boolean complement) {
+		this.subjectName  = null;
+		this.subjectValue = null;
+		this.operatorCode = OTHER_OPERATOR;
+		this.operator     = null;
+		this.value        = null;
+		this.complement   = complement;
+		this.children     = children;
+		this.operators    = operators;
+		this.size         = size;
+		this.tail         = tail;
+	}
+
+	/**
+	 * Create a simple expression.
+	 * 
+	 * @param  subject
+	 *         The subject of the expression.
+	 *         
+	 * @param  operator
+	 *         The operator for the expression.
+	 *         
+	 * @param  value
+	 *         The value for the expression.
+	 *         
+	 * @return  The new simple expression.
+	 * 
+	 * @since   1.1
+	 */
+	public static CompactExpression simple(Subject subject, String operator, Object value) {
+		Preconditions.checkArgument(subject != null, "The subject of an expression can not be null.");
+		return new CompactExpression(subject.getName(), subject.getValue(), operator, value, false);
+	}
+
+	/**
+	 * Create a compound expression.
+	 * 
+	 * <p>The arrays are owned by the new node and the caller must not change 
+	 * them later.
+	 * 
+	 * @since   1.1
+	 */
+	static CompactExpression compound(CompactExpression[] children, byte[] operators, boolean complement) {
+		return new CompactExpression(children, operators, complement);
+	}
+
+	/**
+	 * Convert an {@code Expression} into a {@code CompactExpression}.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be converted.
+	 *         
+	 * @return  The compact version of the expression, or {@code null} if the 
+	 *          expression is {@code null}.
+	 * 
+	 * @since   1.1
+	 */
+	public static CompactExpression of(Expression expression) {
+		if (expression == null) {
+			return null;
+		}
+
+		if (!expression.isCompound()) {
+			Subject subject = expression.getSubject();
+			return new CompactExpression(subject == null ? null : subject.getName(), subject == null ? null : subject.getValue(), 
+					expression.getOperator(), expression.getValue(), expression.isComplement());
+		}
+
+		int                 size      = expression.getNumberOfSubExpression();
+		CompactExpression[] children  = new CompactExpression[size];
+		byte[]              operators = new byte[size];
+		for (int i = 0; i < size; i++) {
+			children[i]  = of(expression.getSubExpression(i));
+			operators[i] = Expression.OR.equals(expression.getOperator(i)) ? OR : AND;
+		}
+		return new CompactExpression(children, operators, expression.isComplement());
+	}
+
+	/**
+	 * Get the code of an operator of a simple expression.
+	 * 
+	 * @param  operator
+	 *         The operator of a simple expression.
+	 *         
+	 * @return  The index of the operator in the well-known operators, or 
+	 *          {@code OTHER_OPERATOR} if it is not a well-known operator.
+	 * 
+	 * @since   1.1
+	 */
+	static byte getOperatorCode(String operator) {
+		for (byte i = 0; i < OPERATORS.length; i++) {
+			if (OPERATORS[i].equals(operator)) {
+				return i;
+			}
+		}
+		return OTHER_OPERATOR;
+	}
+
+	public boolean isComplement()   { return complement;       }
+	public boolean isCompound()     { return children != null; }
+	public String  getSubjectName() { return subjectName;      }
+	public Object  getValue()       { return value;            }
+
+	/**
+	 * Get the subject of a simple expression.
+	 * 
+	 * <p>A {@code Subject} is mutable, so a new one will be returned every 
+	 * time.
+	 * 
+	 * @return  The subject of a simple expression, or {@code null} for a 
+	 *          compound expression.
+	 * 
+	 * @since   1.1
+	 */
+	public Subject getSubject() {
+		return (isCompound() || subjectName == null) ? null : new Subject(subjectName, subjectValue);
+	}
+
+	/**
+	 * Get the operator of a simple expression.
+	 * 
+	 * @return  The operator of a simple expression, or {@code null} for a 
+	 *          compound expression.
+	 * 
+	 * @since   1.1
+	 */
+	public String getOperator() {
+		return (operatorCode == OTHER_OPERATOR) ? operator : OPERATORS[operatorCode];
+	}
+
+	/**
+	 * Get the number of the sub-expressions.
+	 * 
+	 * @return  The number of the sub-expressions, 0 for a simple expression.
+	 * 
+	 * @since   1.1
+	 */
+	public int getNumberOfSubExpression() {
+		return isCompound() ? size : 0;
+	}
+
+	/**
+	 * Get the sub-expression by index.
+	 * 
+	 * @param  index
+	 *         The index of the sub-expression.
+	 *         
+	 * @return  The sub-expression.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression getSubExpression(int index) {
+		Preconditions.checkState(isCompound(), "A simple expression does not have any sub-expression.");
+		checkIndex(index);
+		return children[index];
+	}
+
+	/**
+	 * Get the code of the operator on the left side of a sub-expression.
+	 * 
+	 * @param  index
+	 *         The index of the sub-expression.
+	 *         
+	 * @return  {@code AND} or {@code OR}, or -1 for the first sub-expression.
+	 * 
+	 * @since   1.1
+	 */
+	public byte getOperatorCode(int index) {
+		Preconditions.checkState(isCompound(), "A simple expression does not have any operator between sub-expressions.");
+		checkIndex(index);
+		return (index == 0) ? -1 : operators[index];
+	}
+
+	/**
+	 * Check the index of a sub-expression is in the range of this node, the 
+	 * slots after the range may belong to other nodes.
+	 * 
+	 * @since   1.1
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Get the complement of this expression.
+	 * 
+	 * <p>The sub-expressions are shared with the new expression.
+	 * 
+	 * @return  The complement of this expression.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression complement() {
+		if (isCompound()) {
+			return new CompactExpression(children, operators, size, tail, !complement);
+		}
+		return new CompactExpression(subjectName, subjectValue, getOperator(), value, !complement);
+	}
+
+	/**
+	 * Operate AND with another expression.
+	 * 
+	 * <p>Both expressions are shared by the new expression, they will not be 
+	 * copied.
+	 * 
+	 * @param  expression
+	 *         Another expression.
+	 *         
+	 * @return  The new compound expression.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression and(CompactExpression expression) {
+		return combine(AND, expression);
+	}
+
+	/**
+	 * Operate OR with another expression.
+	 * 
+	 * <p>Both expressions are shared by the new expression, they will not be 
+	 * copied.
+	 * 
+	 * @param  expression
+	 *         Another expression.
+	 *         
+	 * @return  The new compound expression.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression or(CompactExpression expression) {
+		return combine(OR, expression);
+	}
+
+	/**
+	 * Combine this expression with another expression.
+	 * 
+	 * <p>If this expression is a compound expression without complement, the 
+	 * new sub-expression will be appended after its sub-expressions. The 
+	 * next free slot of the arrays is claimed in place if this node is the 
+	 * last one on the arrays, otherwise the top level arrays are copied with 
+	 * doubled capacity. The sub-expressions are always shared.
+	 * 
+	 * @since   1.1
+	 */
+	private CompactExpression combine(byte code, CompactExpression expression) {
+		Preconditions.checkArgument(expression != null, "Expression cannot be null.");
+
+		if (!isCompound() || complement) {
+			CompactExpression[] newChildren  = new CompactExpression[INITIAL_CAPACITY];
+			byte[]              newOperators = new byte[INITIAL_CAPACITY];
+			newChildren[0]  = this;
+			newChildren[1]  = expression;
+			newOperators[0] = AND;
+			newOperators[1] = code;
+			return new CompactExpression(newChildren, newOperators, 2, new AtomicInteger(2), false);
+		}
+
+		if (size < children.length && tail.compareAndSet(size, size + 1)) {
+			children[size]  = expression;
+			operators[size] = code;
+			return new CompactExpression(children, operators, size + 1, tail, false);
+		}
+
+		int                 capacity     = Math.max(INITIAL_CAPACITY, size * 2);
+		CompactExpression[] newChildren  = Arrays.copyOf(children, capacity);
+		byte[]              newOperators = Arrays.copyOf(operators, capacity);
+		newChildren[size]  = expression;
+		newOperators[size] = code;
+		return new CompactExpression(newChildren, newOperators, size + 1, new AtomicInteger(size + 1), false);
+	}
+
+	/**
+	 * Transform the simple expressions of this expression.
+	 * 
+	 * <p>Only the nodes on the paths to the changed simple expressions are 
+	 * rebuilt, all the other nodes are shared with this expression. If 
+	 * nothing has been changed, this expression itself will be returned.
+	 * 
+	 * <p>If the function returns {@code null} for a simple expression, that 
+	 * simple expression will be removed with the operator on its left side 
+	 * (or on its right side for the first sub-expression). If all the 
+	 * sub-expressions of a compound expression are removed, the compound 
+	 * expression will be removed too, and if only one sub-expression is 
+	 * left, the compound expression will be simplified by it.
+	 * 
+	 * @param  function
+	 *         The function to transform each simple expression.
+	 *         
+	 * @return  The transformed expression.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression transform(UnaryOperator<CompactExpression> function) {
+		if (!isCompound()) {
+			return function.apply(this);
+		}
+
+		CompactExpression[] newChildren  = null;
+		byte[]              newOperators = null;
+		int                 newSize      = 0;
+		for (int i = 0; i < size; i++) {
+			CompactExpression transformed = children[i].transform(function);
+
+			if (newChildren == null && transformed != children[i]) {
+				// the first change, copy the unchanged prefix
+				newChildren  = Arrays.copyOf(children, size);
+				newOperators = Arrays.copyOf(operators, size);
+				newSize      = i;
+			}
+
+			if (newChildren != null && transformed != null) {
+				newChildren[newSize]  = transformed;
+				newOperators[newSize] = (newSize == 0) ? AND : operators[i];
+				newSize++;
+			}
+		}
+
+		if (newChildren == null) {
+			return this;
+		}
+		if (newSize == 0) {
+			return null;
+		}
+		if (newSize == 1) {
+			return complement ? newChildren[0].complement() : newChildren[0];
+		}
+		return new CompactExpression(Arrays.copyOf(newChildren, newSize), Arrays.copyOf(newOperators, newSize), complement);
+	}
+
+	/**
+	 * Convert this expression into a new {@code Expression}.
+	 * 
+	 * <p>The conversion is linear on the number of the nodes.
+	 * 
+	 * @return  The new {@code Expression}.
+	 * 
+	 * @since   1.1
+	 */
+	public Expression toExpression() {
+		if (!isCompound()) {
+			Expression expression = new Expression(subjectName == null ? null : new Subject(subjectName, subjectValue), getOperator(), value);
+			expression.setComplement(complement);
+			return expression;
+		}
+
+		List<Object> list = new ArrayList<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				list.add(operators[i] == OR ? Expression.OR : Expression.AND);
+			}
+			list.add(children[i].toExpression());
+		}
+		return new Expression(list, complement);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 * 
+	 * 2 compact expressions are equal by the same rule of the 
+	 * Expression#equals(Object), the shared nodes are compared by identity.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof CompactExpression)) {
+			return false;
+		}
+
+		CompactExpression expression = (CompactExpression) o;
+		if (complement != expression.complement || isCompound() != expression.isCompound() || hashCode() != expression.hashCode()) {
+			return false;
+		}
+
+		if (!isCompound()) {
+			return operatorCode == expression.operatorCode 
+					&& isEqual(operator,     expression.operator)
+					&& isEqual(subjectName,  expression.subjectName)
+					&& isEqual(subjectValue, expression.subjectValue)
+					&& (value == null ? expression.value == null : ReflectUtil2.isEqual(value, expression.value));
+		}
+
+		if (size != expression.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if ((i > 0 && operators[i] != expression.operators[i]) || !children[i].equals(expression.children[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEqual(Object o1, Object o2) {
+		return (o1 == null) ? o2 == null : o1.equals(o2);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 * 
+	 * A compact expression is immutable, so the hash code is calculated only 
+	 * once.
+	 */
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			h = 17;
+			if (!isCompound()) {
+				h = 31 * h + (subjectName  == null ? 0 : subjectName.hashCode());
+				h = 31 * h + (subjectValue == null ? 0 : subjectValue.hashCode());
+				h = 31 * h + operatorCode;
+				h = 31 * h + (operator     == null ? 0 : operator.hashCode());
+				h = 31 * h + ReflectUtil2.getHashCode(value);
+			} else {
+				for (int i = 0; i < size; i++) {
+					h = 31 * h + children[i].hashCode();
+					h = 31 * h + (i == 0 ? 0 : operators[i] + 1);
+				}
+			}
+			h = 31 * h + (complement ? 1 : 0);
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return toExpression().toString();
+	}
+
+	/**
+	 * Replace a compound node which has spare capacity by a copy with the 
+	 * trimmed arrays when it is serialized, the slots after its range may 
+	 * belong to other nodes.
+	 * 
+	 * @return  The object to be serialized.
+	 * 
+	 * @since   1.1
+	 */
+	private Object writeReplace() {
+		if (isCompound() && size != children.length) {
+			return new CompactExpression(Arrays.copyOf(children, size), Arrays.copyOf(operators, size), complement);
+		}
+		return this;
+	}
+}
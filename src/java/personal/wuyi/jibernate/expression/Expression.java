@@ -88,6 +88,10 @@ public class Expression implements Cloneable, Serializable {
     /** The list of sub-expressions and operators */
     private transient List<Object> subExpressionAndOperatorList = null;
 
+    // An interned expression is frozen, its structural hash code is cached.
+    private transient boolean frozen = false;
+    private transient int     hash   = 0;
+
     /**
      * Constructs a {@code Expression}.
      * 
@@ -152,15 +156,35 @@ public class Expression implements Cloneable, Serializable {
     public Expression(Expression expression) {
     	combineExpression(null, expression);
     }
+
+    /**
+     * Constructs a compound {@code Expression} with a list of 
+     * sub-expressions and operators.
+     * 
+     * <p>The list is owned by the new expression, it will not be copied.
+     * 
+     * @param  subExpressionAndOperatorList
+     *         The list of sub-expressions and operators.
+     *         
+     * @param  complement
+     *         The complement option.
+     *         
+     * @since   1.1
+     */
+    Expression(List<Object> subExpressionAndOperatorList, boolean complement) {
+    	this.subExpressionAndOperatorList = subExpressionAndOperatorList;
+    	this.complement                   = complement;
+    }
     
-    public Subject getSubject()                      { return subject;               }
-    public void    setSubject(Subject subject)       { this.subject = subject;       }
-    public String  getOperator()                     { return operator;              }
-    public void    setOperator(String operator)      { this.operator = operator;     }
-    public Object  getValue()                        { return value;                 }
-    public void    setValue(Object value)            { this.value = value;           }
-    public boolean isComplement()                    { return complement;            }
-    public void    setComplement(boolean complement) { this.complement = complement; }
+    public Subject getSubject()                      { return subject;                                 }
+    public void    setSubject(Subject subject)       { checkNotFrozen(); this.subject = subject;       }
+    public String  getOperator()                     { return operator;                                }
+    public void    setOperator(String operator)      { checkNotFrozen(); this.operator = operator;     }
+    public Object  getValue()                        { return value;                                   }
+    public void    setValue(Object value)            { checkNotFrozen(); this.value = value;           }
+    public boolean isComplement()                    { return complement;                              }
+    public void    setComplement(boolean complement) { checkNotFrozen(); this.complement = complement; }
+    public boolean isFrozen()                        { return frozen;                                  }
 
     /**
      * Check an expression is a simple statement or is compound.
@@ -352,14 +376,21 @@ public class Expression implements Cloneable, Serializable {
      * 
      * <p>This method will make the current expression as sub-expression so 
      * that it is ready for combining with other expressions.
+     * 
+     * <p>The current expression will be reset, so its content is moved into 
+     * the new sub-expression without deep copying.
      *
      * @return  The compounded version of the current expression.
      * 
      * @since   1.0
      */
     private Expression compound() {
+    	checkNotFrozen();
         if (subject != null || operator != null || value != null || subExpressionAndOperatorList != null) {
-            final Expression subExpr = (Expression) this.clone();
+            final Expression subExpr = new Expression(subExpressionAndOperatorList, complement);
+            subExpr.subject  = subject;
+            subExpr.operator = operator;
+            subExpr.value    = value;
             reset();
             subExpressionAndOperatorList = new ArrayList<>();
             subExpressionAndOperatorList.add(subExpr);
@@ -426,6 +457,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0
      */
     protected void replaceSubExpression(int index, Expression expression) {
+    	checkNotFrozen();
     	if (isCompound()) {
     		Preconditions.checkArgument(index >= 0,                         "index can not be negative.");
     		Preconditions.checkArgument(index < getNumberOfSubExpression(), "this method can only replace an existing sub-expression.");
@@ -513,6 +545,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0
      */
     protected void setOperator(int index, int side, String operator) {
+    	checkNotFrozen();
         if ((side != SIDE_LEFT) && (side != SIDE_RIGHT)) {
             throw new IllegalArgumentException("The side \"" + side + "\" is unknown");
         }
@@ -587,6 +620,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0     
      */
     protected void addSubExpressionWithOperator(int index, Expression expression, String operator) {
+    	checkNotFrozen();
     	validateConditionBeforeAddingSubExpression(expression, operator);
         
         if (subExpressionAndOperatorList.isEmpty()) {            // if the sub-expression list is empty, just add the new sub-expression.
@@ -651,6 +685,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0  
      */
     protected void addCompoundExpression(Expression expression, String operator) {
+    	checkNotFrozen();
         if (expression == null) {
             throw new IllegalArgumentException("Expression cannot be null.");
         }
@@ -730,6 +765,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0 
      */
     protected void removeSubExpression(int index) {
+    		checkNotFrozen();
     		if (!isCompound()) {
     			return;
     		} else {
@@ -818,6 +854,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0 
      */
     public Expression complement() {
+    	checkNotFrozen();
         complement = !complement;
         return this;
     }
@@ -849,6 +886,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0 
      */
     public Expression complement(boolean distribute) {
+    	checkNotFrozen();
         // if not distributing then just change the sign
         if (!distribute || !isCompound()) {
             complement();
@@ -1043,6 +1081,7 @@ public class Expression implements Cloneable, Serializable {
      * @since   1.0 
      */
     protected void reset() {
+    	checkNotFrozen();
         setSubject(null);
         setOperator(null);
         setValue(null);
@@ -1299,12 +1338,13 @@ public class Expression implements Cloneable, Serializable {
      * 
      * <p>Compound Expressions are considered equal only if they are 
      * structurally identical and contain all the same sub-expressions and 
-     * operators in the same order.
+     * operators in the same order. Use {@link #canonical()} first if the 
+     * order of the operands should not matter.
      */
     @Override
     public boolean equals(Object o) {
-        if (o == null) {
-            return false;
+        if (this == o) {
+            return true;
         }
 
         if (!(o instanceof Expression)) {
@@ -1313,6 +1353,11 @@ public class Expression implements Cloneable, Serializable {
 
         Expression expression = (Expression) o;
 
+        // the cached hash codes of 2 frozen expressions are cheap to compare
+        if (frozen && expression.frozen && hashCode() != expression.hashCode()) {
+            return false;
+        }
+
         if (isCompound() != expression.isCompound()) {
         		// if one expression is simple and another is compound, 
         	    // they should be considered as different.
@@ -1389,7 +1434,7 @@ public class Expression implements Cloneable, Serializable {
     private boolean isEqualCompoundExpressions(Expression expression) {
     		// use size of sub-expressions to measure.
     	    // if size is not same, they should be different.
-        if (getNumberOfSubExpression() != expression.getNumberOfSubExpression()) {
+        if (getNumberOfSubExpression() != expression.getNumberOfSubExpression() || isComplement() != expression.isComplement()) {
             return false;
         }
 
@@ -1428,6 +1473,103 @@ public class Expression implements Cloneable, Serializable {
         return true;
     }
 
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     *
+     * The hash code is consistent with equals(Object): a simple expression
+     * is hashed by subject, operator, value and complement, a compound
+     * expression is hashed by its sub-expressions and operators in order
+     * and its complement.
+     *
+     * The hash code of a frozen expression is cached, its sub-expressions
+     * are also frozen, so it can not be changed.
+     */
+    @Override
+    public int hashCode() {
+        if (frozen && this.hash != 0) {
+            return this.hash;
+        }
+
+        int hash = 17;
+        if (!isCompound()) {
+            hash = 31 * hash + (subject  == null ? 0 : subject.hashCode());
+            hash = 31 * hash + (operator == null ? 0 : operator.hashCode());
+            hash = 31 * hash + ReflectUtil2.getHashCode(value);
+        } else {
+            for (int i = 0; i < getNumberOfSubExpression(); i++) {
+                Expression subExpr       = getSubExpression(i);
+                String     rightOperator = getOperator(i, SIDE_RIGHT);
+                hash = 31 * hash + (subExpr       == null ? 0 : subExpr.hashCode());
+                hash = 31 * hash + (rightOperator == null ? 0 : rightOperator.hashCode());
+            }
+        }
+        hash = 31 * hash + (complement ? 1 : 0);
+
+        if (frozen) {
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Get the canonical form of this expression.
+     *
+     * <p>The operands of AND and OR are commutative, so they are sorted in
+     * a fixed order and the duplicate ones are removed, the nested AND / OR
+     * which is not complemented is flattened into its parent:
+     * <pre>
+     *   (B &amp;&amp; A &amp;&amp; B) || C || (A &amp;&amp; B)  ==&gt;  (A &amp;&amp; B) || C
+     * </pre>
+     *
+     * <p>The equivalent expressions which only differ in the order of their
+     * operands have the same canonical form, so it can be used as the key
+     * of a cache. This expression will not be changed.
+     *
+     * @return  The new expression in canonical form.
+     *
+     * @see  ExpressionCanonicalizer
+     *
+     * @since   1.1
+     */
+    public Expression canonical() {
+        return ExpressionCanonicalizer.canonical(this);
+    }
+
+    /**
+     * Freeze this expression and its sub-expressions, so they can be shared
+     * safely and their hash codes can be cached.
+     *
+     * @see  ExpressionInterner
+     *
+     * @since   1.1
+     */
+    void freeze() {
+        if (subject != null) {
+            subject.freeze();
+        }
+        if (subExpressionAndOperatorList != null) {
+            for (Object o : subExpressionAndOperatorList) {
+                if (o instanceof Expression) {
+                    ((Expression) o).freeze();
+                }
+            }
+        }
+        frozen = true;
+    }
+
+    /**
+     * Check this expression can be modified.
+     *
+     * @throws  IllegalStateException
+     *          If this expression is frozen, it needs to be cloned before
+     *          modifying.
+     *
+     * @since   1.1
+     */
+    private void checkNotFrozen() {
+        Preconditions.checkState(!frozen, "The expression is frozen, it needs to be cloned before modifying.");
+    }
+
     /* (non-Javadoc)
      * @see java.lang.Object#clone()
      * 
@@ -1435,7 +1577,7 @@ public class Expression implements Cloneable, Serializable {
      * 
      * <p>If an {@code Expression} is a simple expression (not a compound 
      * expression), it will not be truly cloned and its value is passed by 
-     * reference.
+     * reference. The clone of a frozen expression can be modified.
      * 
      * @since   1.0
      */
@@ -1443,6 +1585,8 @@ public class Expression implements Cloneable, Serializable {
     public Object clone() {
         try {
             Expression cloned = (Expression) (super.clone());
+            cloned.frozen = false;
+            cloned.hash   = 0;
 
             if (subject != null) {
                 cloned.subject = (Subject) subject.clone();
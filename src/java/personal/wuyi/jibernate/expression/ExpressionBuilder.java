@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The builder for building a large expression in linear time.
+ * 
+ * <p>Chaining {@code Expression.and} or {@code Expression.or} changes the 
+ * expression in place and nesting {@code Expression.and(expr, subExpr)} 
+ * repeatedly makes the tree as deep as the number of terms, so the later 
+ * {@code clone()} and transformations become expensive. This builder 
+ * appends the sub-expressions and the operators into the arrays of the 
+ * current group and builds an immutable {@code CompactExpression} only 
+ * once at the end:
+ * <pre>
+ * {@code
+ * CompactExpression expr = new ExpressionBuilder()
+ *         .and("firstName", Expression.EQUAL, "Mike")
+ *         .beginAnd()
+ *             .or("gpa", Expression.GREATER_THAN, 3.5)
+ *             .or("gpa", Expression.LESS_THAN,    2.0)
+ *         .endGroup()
+ *         .build();
+ * }
+ * </pre>
+ * 
+ * <p>The operator of the first sub-expression in a group is ignored. A 
+ * group without any sub-expression will be dropped and a group with only 
+ * one sub-expression will be replaced by that sub-expression.
+ * 
+ * @see  CompactExpression
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionBuilder {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private Group current = new Group(null, CompactExpression.AND);
+
+	/**
+	 * Add a simple expression with AND operator.
+	 * 
+	 * @param  subject
+	 *         The field name in the Java class (not the column name in 
+	 *         database).
+	 *         
+	 * @param  operator
+	 *         The operator for the expression.
+	 *         
+	 * @param  value
+	 *         The value for the expression.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder and(String subject, String operator, Object value) {
+		return and(CompactExpression.simple(new Subject(subject, null), operator, value));
+	}
+
+	/**
+	 * Add a simple expression with OR operator.
+	 * 
+	 * @param  subject
+	 *         The field name in the Java class (not the column name in 
+	 *         database).
+	 *         
+	 * @param  operator
+	 *         The operator for the expression.
+	 *         
+	 * @param  value
+	 *         The value for the expression.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder or(String subject, String operator, Object value) {
+		return or(CompactExpression.simple(new Subject(subject, null), operator, value));
+	}
+
+	/**
+	 * Add an expression with AND operator.
+	 * 
+	 * <p>The expression is shared, it will not be copied.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be added.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder and(CompactExpression expression) {
+		current.add(CompactExpression.AND, expression);
+		return this;
+	}
+
+	/**
+	 * Add an expression with OR operator.
+	 * 
+	 * <p>The expression is shared, it will not be copied.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be added.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder or(CompactExpression expression) {
+		current.add(CompactExpression.OR, expression);
+		return this;
+	}
+
+	/**
+	 * Add an {@code Expression} with AND operator.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be added.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder and(Expression expression) {
+		return and(CompactExpression.of(expression));
+	}
+
+	/**
+	 * Add an {@code Expression} with OR operator.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be added.
+	 *         
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder or(Expression expression) {
+		return or(CompactExpression.of(expression));
+	}
+
+	/**
+	 * Begin a nested group which will be added with AND operator.
+	 * 
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder beginAnd() {
+		current = new Group(current, CompactExpression.AND);
+		return this;
+	}
+
+	/**
+	 * Begin a nested group which will be added with OR operator.
+	 * 
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder beginOr() {
+		current = new Group(current, CompactExpression.OR);
+		return this;
+	}
+
+	/**
+	 * End the current nested group and add it into its outer group.
+	 * 
+	 * @return  This builder.
+	 * 
+	 * @since   1.1
+	 */
+	public ExpressionBuilder endGroup() {
+		Preconditions.checkState(current.parent != null, "There is no nested group to end.");
+
+		Group             group      = current;
+		CompactExpression expression = group.toExpression();
+		current = group.parent;
+		if (expression != null) {
+			current.add(group.operator, expression);
+		}
+		return this;
+	}
+
+	/**
+	 * Build the expression.
+	 * 
+	 * <p>The builder can still be used after building, the expressions 
+	 * which have been built will not be affected.
+	 * 
+	 * @return  The immutable expression, or {@code null} if nothing has been 
+	 *          added.
+	 * 
+	 * @since   1.1
+	 */
+	public CompactExpression build() {
+		Preconditions.checkState(current.parent == null, "There is a nested group which has not been ended.");
+		return current.toExpression();
+	}
+
+	/**
+	 * Build the expression as a mutable {@code Expression}.
+	 * 
+	 * @return  The new {@code Expression}, or {@code null} if nothing has 
+	 *          been added.
+	 * 
+	 * @since   1.1
+	 */
+	public Expression buildExpression() {
+		CompactExpression expression = build();
+		return expression == null ? null : expression.toExpression();
+	}
+
+	/**
+	 * The group of the sub-expressions at the same level.
+	 */
+	private static class Group {
+		private final Group         parent;
+		private final byte          operator;
+		private CompactExpression[] children  = new CompactExpression[INITIAL_CAPACITY];
+		private byte[]              operators = new byte[INITIAL_CAPACITY];
+		private int                 size      = 0;
+
+		private Group(Group parent, byte operator) {
+			this.parent   = parent;
+			this.operator = operator;
+		}
+
+		private void add(byte code, CompactExpression expression) {
+			Preconditions.checkArgument(expression != null, "Expression cannot be null.");
+
+			if (size == children.length) {
+				children  = Arrays.copyOf(children,  size * 2);
+				operators = Arrays.copyOf(operators, size * 2);
+			}
+			children[size]  = expression;
+			operators[size] = (size == 0) ? CompactExpression.AND : code;
+			size++;
+		}
+
+		private CompactExpression toExpression() {
+			if (size == 0) {
+				return null;
+			}
+			if (size == 1) {
+				return children[0];
+			}
+			return CompactExpression.compound(Arrays.copyOf(children, size), Arrays.copyOf(operators, size), false);
+		}
+	}
+}
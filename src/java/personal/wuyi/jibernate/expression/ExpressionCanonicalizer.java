@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The tool class for converting an expression into its canonical form.
+ * 
+ * <p>A compound expression is read as the OR of the AND groups (AND takes 
+ * precedence). The operands of each AND group are sorted and the duplicate 
+ * ones are removed, then the AND groups are sorted and the duplicate ones 
+ * are removed. The nested compound expression which is not complemented is 
+ * flattened into its parent if it is an AND group or a whole OR term.
+ * 
+ * <p>The order of the operands is defined by {@link #ORDER}: the simple 
+ * expressions are before the compound ones, the simple expressions are 
+ * ordered by subject, operator, value and complement.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class ExpressionCanonicalizer {
+	static final Comparator<Expression> ORDER = ExpressionCanonicalizer::compare;
+	
+	private ExpressionCanonicalizer() {}
+	
+	/**
+	 * Convert an expression into its canonical form.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be converted, it will not be changed.
+	 * 
+	 * @return  The new expression in canonical form.
+	 * 
+	 * @since   1.1
+	 */
+	static Expression canonical(Expression expression) {
+		if (expression == null) {
+			return null;
+		}
+		
+		if (!expression.isCompound()) {
+			return (Expression) expression.clone();
+		}
+		
+		List<List<Expression>> terms = new ArrayList<>();
+		List<Expression>       group = new ArrayList<>();
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			if (i > 0 && Expression.OR.equals(expression.getOperator(i))) {
+				addTerm(terms, group);
+				group = new ArrayList<>();
+			}
+			
+			Expression subExpr = canonical(expression.getSubExpression(i));
+			if (isAndGroup(subExpr)) {
+				for (int j = 0; j < subExpr.getNumberOfSubExpression(); j++) {
+					group.add(subExpr.getSubExpression(j));
+				}
+			} else {
+				group.add(subExpr);
+			}
+		}
+		addTerm(terms, group);
+		
+		List<List<Expression>> sortedTerms = new ArrayList<>();
+		for (List<Expression> term : new LinkedHashSet<>(terms)) {
+			sortedTerms.add(term);
+		}
+		sortedTerms.sort(ExpressionCanonicalizer::compareTerms);
+		
+		if (sortedTerms.size() == 1 && sortedTerms.get(0).size() == 1) {
+			Expression single = sortedTerms.get(0).get(0);
+			if (expression.isComplement()) {
+				single.complement();
+			}
+			return single;
+		}
+		
+		List<Object> list = new ArrayList<>();
+		for (List<Expression> term : sortedTerms) {
+			for (Expression operand : term) {
+				if (!list.isEmpty()) {
+					list.add(operand == term.get(0) ? Expression.OR : Expression.AND);
+				}
+				list.add(operand);
+			}
+		}
+		return new Expression(list, expression.isComplement());
+	}
+	
+	/**
+	 * Add an AND group as an OR term, the duplicate operands are removed 
+	 * and the rest are sorted. If the group is only one nested OR, its terms 
+	 * are added instead.
+	 * 
+	 * @since   1.1
+	 */
+	private static void addTerm(List<List<Expression>> terms, List<Expression> group) {
+		if (group.size() == 1 && isOrOfTerms(group.get(0))) {
+			Expression       nested = group.get(0);
+			List<Expression> term   = new ArrayList<>();
+			for (int i = 0; i < nested.getNumberOfSubExpression(); i++) {
+				if (i > 0 && Expression.OR.equals(nested.getOperator(i))) {
+					terms.add(term);
+					term = new ArrayList<>();
+				}
+				term.add(nested.getSubExpression(i));
+			}
+			terms.add(term);
+			return;
+		}
+		
+		Set<Expression>  distinct = new LinkedHashSet<>(group);
+		List<Expression> term     = new ArrayList<>(distinct);
+		term.sort(ORDER);
+		terms.add(term);
+	}
+	
+	/**
+	 * Check an expression is a compound expression which is not complemented 
+	 * and only has AND operators.
+	 * 
+	 * @since   1.1
+	 */
+	private static boolean isAndGroup(Expression expression) {
+		if (!expression.isCompound() || expression.isComplement()) {
+			return false;
+		}
+		for (int i = 1; i < expression.getNumberOfSubExpression(); i++) {
+			if (!Expression.AND.equals(expression.getOperator(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean isOrOfTerms(Expression expression) {
+		return expression.isCompound() && !expression.isComplement() && !isAndGroup(expression);
+	}
+	
+	private static int compareTerms(List<Expression> term1, List<Expression> term2) {
+		for (int i = 0; i < Math.min(term1.size(), term2.size()); i++) {
+			int result = compare(term1.get(i), term2.get(i));
+			if (result != 0) {
+				return result;
+			}
+		}
+		return Integer.compare(term1.size(), term2.size());
+	}
+	
+	/**
+	 * Compare 2 expressions in the canonical order.
+	 * 
+	 * @since   1.1
+	 */
+	static int compare(Expression expr1, Expression expr2) {
+		if (expr1.isCompound() != expr2.isCompound()) {
+			return expr1.isCompound() ? 1 : -1;
+		}
+		
+		int result;
+		if (!expr1.isCompound()) {
+			result = compareNullable(getSubjectName(expr1), getSubjectName(expr2));
+			if (result == 0) {
+				result = compareNullable(expr1.getOperator(), expr2.getOperator());
+			}
+			if (result == 0) {
+				result = compareValues(expr1.getValue(), expr2.getValue());
+			}
+			return result != 0 ? result : Boolean.compare(expr1.isComplement(), expr2.isComplement());
+		}
+		
+		result = Boolean.compare(expr1.isComplement(), expr2.isComplement());
+		if (result == 0) {
+			result = Integer.compare(expr1.getNumberOfSubExpression(), expr2.getNumberOfSubExpression());
+		}
+		for (int i = 0; result == 0 && i < expr1.getNumberOfSubExpression(); i++) {
+			result = compareNullable(expr1.getOperator(i), expr2.getOperator(i));
+			if (result == 0) {
+				result = compare(expr1.getSubExpression(i), expr2.getSubExpression(i));
+			}
+		}
+		return result;
+	}
+	
+	private static String getSubjectName(Expression expression) {
+		return expression.getSubject() == null ? null : expression.getSubject().getName();
+	}
+	
+	private static int compareNullable(String s1, String s2) {
+		if (s1 == null || s2 == null) {
+			return s1 == null ? (s2 == null ? 0 : -1) : 1;
+		}
+		return s1.compareTo(s2);
+	}
+	
+	/**
+	 * Compare 2 values, the values in different types are ordered by their 
+	 * class names and the values which are not comparable are ordered by 
+	 * their string forms.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareValues(Object value1, Object value2) {
+		if (value1 == null || value2 == null) {
+			return value1 == null ? (value2 == null ? 0 : -1) : 1;
+		}
+		
+		if (value1.getClass() == value2.getClass() && value1 instanceof Comparable) {
+			return ((Comparable) value1).compareTo(value2);
+		}
+		
+		int result = value1.getClass().getName().compareTo(value2.getClass().getName());
+		return result != 0 ? result : String.valueOf(value1).compareTo(String.valueOf(value2));
+	}
+}
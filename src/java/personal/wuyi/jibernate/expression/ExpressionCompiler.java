@@ -0,0 +1,467 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The compiler for compiling an expression into a {@code Predicate} over 
+ * the objects of a class.
+ * 
+ * <p>The expression is compiled into a tree of nodes only once: the fields 
+ * are read by the cached {@code MethodHandle}s of their getters, the 
+ * values of {@code IN} are put into a hash set and the patterns of 
+ * {@code LIKE} are compiled. The nodes are immutable, so the compiled 
+ * predicate is thread-safe and the expression is not needed any more.
+ * 
+ * <p>The predicate matches the objects in the same way as the database 
+ * does for the same criteria:
+ * <ul>
+ *   <li>A {@code null} value of an expression means {@code IS NULL}, or 
+ *   {@code IS NOT NULL} for {@code !=}.
+ *   <li>Comparing a {@code null} field with a value is unknown, the 
+ *   unknown is propagated by the three-valued logic and the object is 
+ *   matched only if the result is true.
+ *   <li>{@code STARTS_WITH}, {@code ENDS_WITH} and {@code CONTAINS} are 
+ *   {@code LIKE} with {@code %}, like {@code SearchExpressionTransformer} 
+ *   does.
+ *   <li>The numbers are compared by their values no matter what their 
+ *   types are, and the strings are compared case-insensitively if the 
+ *   query is not case-sensitive.
+ * </ul>
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class ExpressionCompiler {
+	private static final int FALSE   = 0;
+	private static final int TRUE    = 1;
+	private static final int UNKNOWN = 2;
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final ClassValue<ConcurrentMap<String, MethodHandle>> getterCache = new ClassValue<ConcurrentMap<String, MethodHandle>>() {
+		@Override
+		protected ConcurrentMap<String, MethodHandle> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private ExpressionCompiler() {}
+
+	/**
+	 * Compile an expression into a {@code Predicate}.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be compiled, {@code null} matches all 
+	 *         the objects.
+	 *         
+	 * @param  clazz
+	 *         The class of the objects.
+	 *         
+	 * @param  caseSensitive
+	 *         Compare the strings case-sensitively or not.
+	 *         
+	 * @return  The thread-safe predicate.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If a field can not be read, a {@code Parameter} is not bound 
+	 *          or a value does not fit its operator.
+	 * 
+	 * @since   1.1
+	 */
+	static <T> Predicate<T> compile(Expression expression, Class<T> clazz, boolean caseSensitive) {
+		if (expression == null) {
+			return t -> true;
+		}
+
+		Node node = compileNode(expression, clazz, caseSensitive);
+		return t -> node.test(t) == TRUE;
+	}
+
+	private static Node compileNode(Expression expression, Class<?> clazz, boolean caseSensitive) {
+		Node node;
+		if (!expression.isCompound()) {
+			node = compileSimpleExpression(expression, clazz, caseSensitive);
+		} else {
+			// AND has higher precedence, so the sub-expressions are split 
+			// into the AND groups by OR operators.
+			List<Node[]> groups = new ArrayList<>();
+			List<Node>   group  = new ArrayList<>();
+			for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+				if (Expression.OR.equals(expression.getOperator(i))) {
+					groups.add(group.toArray(new Node[group.size()]));
+					group = new ArrayList<>();
+				}
+				group.add(compileNode(expression.getSubExpression(i), clazz, caseSensitive));
+			}
+			groups.add(group.toArray(new Node[group.size()]));
+
+			Node[] terms = new Node[groups.size()];
+			for (int i = 0; i < terms.length; i++) {
+				Node[] factors = groups.get(i);
+				terms[i] = (factors.length == 1) ? factors[0] : and(factors);
+			}
+			node = (terms.length == 1) ? terms[0] : or(terms);
+		}
+		return expression.isComplement() ? not(node) : node;
+	}
+
+	private static Node compileSimpleExpression(Expression expression, Class<?> clazz, boolean caseSensitive) {
+		Preconditions.checkArgument(expression.getSubject() != null, "The subject of an expression can not be null.");
+
+		String         subject  = expression.getSubject().getName();
+		String         operator = expression.getOperator();
+		Object         value    = expression.getValue();
+		MethodHandle[] getters  = getGetters(clazz, subject);
+
+		if (value instanceof Parameter) {
+			throw new IllegalArgumentException("The parameter " + value + " is not bound.");
+		}
+
+		if (value == null) {
+			boolean isNull = !Expression.NOT_EQUAL.equals(operator);
+			return t -> ((getValue(t, getters) == null) == isNull) ? TRUE : FALSE;
+		}
+
+		boolean multiple = value instanceof Iterable || value instanceof Object[];
+		if (multiple != Expression.IN.equals(operator)) {
+			throw new IllegalArgumentException(multiple 
+					? "You are passing multiple values into Expression, the operator must be Expression.IN" 
+					: "You are passing single value into Expression, the operator can not be Expression.IN");
+		}
+
+		boolean ignoreCase = !caseSensitive && value instanceof String;
+		switch (operator) {
+			case Expression.IN:                 return compileIn(value, getters, caseSensitive);
+			case Expression.STARTS_WITH:        return compileLike(value + "%",       getters, ignoreCase);
+			case Expression.ENDS_WITH:          return compileLike("%" + value,       getters, ignoreCase);
+			case Expression.CONTAINS:           return compileLike("%" + value + "%", getters, ignoreCase);
+			case "LIKE":                        return compileLike(value.toString(),  getters, ignoreCase);
+			case Expression.EQUAL:              return compare(getters, value, ignoreCase, c -> c == 0);
+			case Expression.NOT_EQUAL:          return compare(getters, value, ignoreCase, c -> c != 0);
+			case Expression.GREATER_THAN:       return compare(getters, value, ignoreCase, c -> c >  0);
+			case Expression.GREATER_THAN_EQUAL: return compare(getters, value, ignoreCase, c -> c >= 0);
+			case Expression.LESS_THAN:          return compare(getters, value, ignoreCase, c -> c <  0);
+			case Expression.LESS_THAN_EQUAL:    return compare(getters, value, ignoreCase, c -> c <= 0);
+			default: throw new IllegalArgumentException("Comparison " + operator + " not supported.");
+		}
+	}
+
+	private static Node compare(MethodHandle[] getters, Object value, boolean ignoreCase, IntPredicate condition) {
+		return t -> {
+			Object fieldValue = getValue(t, getters);
+			if (fieldValue == null) {
+				return UNKNOWN;
+			}
+			return condition.test(compareValues(fieldValue, value, ignoreCase)) ? TRUE : FALSE;
+		};
+	}
+
+	private static Node compileIn(Object value, MethodHandle[] getters, boolean caseSensitive) {
+		Iterable<?> values = (value instanceof Object[]) ? Arrays.asList((Object[]) value) : (Iterable<?>) value;
+
+		Set<Object> set     = new HashSet<>();
+		boolean     hasNull = false;
+		for (Object element : values) {
+			if (element == null) {
+				hasNull = true;
+			} else {
+				set.add(normalize(element, !caseSensitive));
+			}
+		}
+
+		// x IN (..., NULL) is unknown if x is not found
+		int notFound = hasNull ? UNKNOWN : FALSE;
+		return t -> {
+			Object fieldValue = getValue(t, getters);
+			if (fieldValue == null) {
+				return UNKNOWN;
+			}
+			return set.contains(normalize(fieldValue, !caseSensitive)) ? TRUE : notFound;
+		};
+	}
+
+	private static Node compileLike(String likePattern, MethodHandle[] getters, boolean ignoreCase) {
+		Pattern pattern = toRegex(likePattern, ignoreCase);
+		return t -> {
+			Object fieldValue = getValue(t, getters);
+			if (fieldValue == null) {
+				return UNKNOWN;
+			}
+			return pattern.matcher(fieldValue.toString()).matches() ? TRUE : FALSE;
+		};
+	}
+
+	/**
+	 * Convert a pattern of {@code LIKE} into a regular expression.
+	 * 
+	 * <p>{@code %} matches any characters, {@code _} matches one character 
+	 * and a backslash escapes the next character.
+	 * 
+	 * @since   1.1
+	 */
+	static Pattern toRegex(String likePattern, boolean ignoreCase) {
+		StringBuilder sb      = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < likePattern.length(); i++) {
+			char ch = likePattern.charAt(i);
+			if (ch == '\\' && i + 1 < likePattern.length()) {
+				literal.append(likePattern.charAt(++i));
+			} else if (ch == '%' || ch == '_') {
+				if (literal.length() > 0) {
+					sb.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+				sb.append(ch == '%' ? ".*" : ".");
+			} else {
+				literal.append(ch);
+			}
+		}
+		if (literal.length() > 0) {
+			sb.append(Pattern.quote(literal.toString()));
+		}
+		return Pattern.compile(sb.toString(), Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0));
+	}
+
+	/**
+	 * Compare the value of a field with the value of an expression.
+	 * 
+	 * <p>The numbers are compared by their values, the other values are 
+	 * compared by {@code compareTo()} if they are in the same type, or by 
+	 * their strings if the value of the expression is a string, like an 
+	 * {@code Enum} or an {@code Uri} field.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the values are not comparable.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	static int compareValues(Object fieldValue, Object value, boolean ignoreCase) {
+		if (fieldValue instanceof Number && value instanceof Number) {
+			return compareNumbers((Number) fieldValue, (Number) value);
+		}
+
+		if (value instanceof String) {
+			String s = (fieldValue instanceof Enum) ? ((Enum<?>) fieldValue).name() : fieldValue.toString();
+			return ignoreCase ? s.compareToIgnoreCase((String) value) : s.compareTo((String) value);
+		}
+
+		if (fieldValue instanceof Comparable && fieldValue.getClass().isInstance(value)) {
+			return ((Comparable) fieldValue).compareTo(value);
+		}
+		if (value instanceof Comparable && value.getClass().isInstance(fieldValue)) {
+			return -((Comparable) value).compareTo(fieldValue);
+		}
+
+		throw new IllegalArgumentException(fieldValue.getClass().getName() + " is not comparable to " + value.getClass().getName());
+	}
+
+	private static int compareNumbers(Number a, Number b) {
+		if (isIntegral(a) && isIntegral(b)) {
+			return Long.compare(a.longValue(), b.longValue());
+		}
+		return Double.compare(a.doubleValue(), b.doubleValue());
+	}
+
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+	}
+
+	/**
+	 * Normalize a value for looking up in a hash set, so the numbers in 
+	 * different types and the strings in different cases can match.
+	 * 
+	 * @since   1.1
+	 */
+	static Object normalize(Object value, boolean ignoreCase) {
+		if (value instanceof Number) {
+			Number number = (Number) value;
+			if (isIntegral(number)) {
+				return number.longValue();
+			}
+			double d = number.doubleValue();
+			return (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < Long.MAX_VALUE) ? (Object) (long) d : (Object) d;
+		}
+		if (value instanceof Enum) {
+			return normalize(((Enum<?>) value).name(), ignoreCase);
+		}
+		if (value instanceof String && ignoreCase) {
+			return ((String) value).toUpperCase();
+		}
+		return value;
+	}
+
+	/**
+	 * Read the value of a field, the nested field like {@code "a.b"} is 
+	 * read level by level.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object getValue(Object object, MethodHandle[] getters) {
+		Object value = object;
+		for (MethodHandle getter : getters) {
+			if (value == null) {
+				return null;
+			}
+			try {
+				value = getter.invokeExact(value);
+			} catch (Throwable e) {
+				throw new IllegalStateException("Can not read the field of " + object.getClass().getName(), e);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Get the getters for each level of a field.
+	 * 
+	 * @since   1.1
+	 */
+	private static MethodHandle[] getGetters(Class<?> clazz, String subject) {
+		String[]       names   = subject.split("\\.");
+		MethodHandle[] getters = new MethodHandle[names.length];
+		Class<?>       type    = clazz;
+		for (int i = 0; i < names.length; i++) {
+			MethodHandle getter = getGetter(type, names[i]);
+			getters[i] = getter.asType(GETTER_TYPE);
+			type       = getter.type().returnType();
+		}
+		return getters;
+	}
+
+	/**
+	 * Get the cached getter of a field.
+	 * 
+	 * <p>The getter method of the property will be used first, if there is 
+	 * no getter method, the field will be read directly. The returned 
+	 * {@code MethodHandle} is in its original type, so the type of the field 
+	 * is known for the nested field.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the field can not be found.
+	 * 
+	 * @since   1.1
+	 */
+	static MethodHandle getGetter(Class<?> clazz, String name) {
+		ConcurrentMap<String, MethodHandle> getters = getterCache.get(clazz);
+		MethodHandle getter = getters.get(name);
+		if (getter == null) {
+			getter = findGetter(clazz, name);
+			MethodHandle existing = getters.putIfAbsent(name, getter);
+			getter = (existing == null) ? getter : existing;
+		}
+		return getter;
+	}
+
+	private static MethodHandle findGetter(Class<?> clazz, String name) {
+		try {
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(clazz).getPropertyDescriptors()) {
+				if (descriptor.getName().equals(name) && descriptor.getReadMethod() != null) {
+					descriptor.getReadMethod().setAccessible(true);
+					return MethodHandles.lookup().unreflect(descriptor.getReadMethod());
+				}
+			}
+
+			Field field = findField(clazz, name);
+			field.setAccessible(true);
+			return MethodHandles.lookup().unreflectGetter(field);
+		} catch (IntrospectionException | IllegalAccessException | RuntimeException e) {
+			throw new IllegalArgumentException("Can not read the field \"" + name + "\" of " + clazz.getName(), e);
+		}
+	}
+
+	private static Field findField(Class<?> clazz, String name) {
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (field.getName().equals(name)) {
+					return field;
+				}
+			}
+		}
+		throw new IllegalArgumentException("There is no field \"" + name + "\" in " + clazz.getName());
+	}
+
+	private static Node not(Node node) {
+		return t -> {
+			int result = node.test(t);
+			return (result == UNKNOWN) ? UNKNOWN : TRUE - result;
+		};
+	}
+
+	private static Node and(Node[] nodes) {
+		return t -> {
+			int result = TRUE;
+			for (Node node : nodes) {
+				int r = node.test(t);
+				if (r == FALSE) {
+					return FALSE;
+				}
+				if (r == UNKNOWN) {
+					result = UNKNOWN;
+				}
+			}
+			return result;
+		};
+	}
+
+	private static Node or(Node[] nodes) {
+		return t -> {
+			int result = FALSE;
+			for (Node node : nodes) {
+				int r = node.test(t);
+				if (r == TRUE) {
+					return TRUE;
+				}
+				if (r == UNKNOWN) {
+					result = UNKNOWN;
+				}
+			}
+			return result;
+		};
+	}
+
+	/**
+	 * The compiled node, the result is {@code TRUE}, {@code FALSE} or 
+	 * {@code UNKNOWN}.
+	 */
+	@FunctionalInterface
+	private interface Node {
+		int test(Object object);
+	}
+}
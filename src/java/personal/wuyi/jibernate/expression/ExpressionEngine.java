@@ -16,19 +16,19 @@
 
 package personal.wuyi.jibernate.expression;
 
-import org.apache.commons.lang3.time.DateUtils;
-import org.testng.util.Strings;
-
 import com.google.common.base.Preconditions;
 
-import personal.wuyi.jibernate.util.StringUtil;
-
+import java.text.ParseException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 
 /**
  * The static class for evaluating, minimizing and manipulating expressions.
@@ -39,10 +39,8 @@ import java.util.regex.Pattern;
  * @since   1.0
  */
 public class ExpressionEngine {
-	protected static final String  SIMPLE_EXPRESSION_REGEX   = "\\[(.*?)\\]\\s*(={2}|[<>]=?|!=|IN|LIKE|CONTAINS)\\s*(.*)";	
-	protected static final Pattern SIMPLE_EXPRESSION_PATTERN = Pattern.compile(SIMPLE_EXPRESSION_REGEX, Pattern.CASE_INSENSITIVE);
-	
-	protected static final int     THRESHOLD = 500;
+	protected static final int     THRESHOLD             = 500;
+	protected static final int     PARALLELISM_THRESHOLD = 5000;
 
 	private ExpressionEngine() {}
 	
@@ -85,6 +83,68 @@ public class ExpressionEngine {
 		return truth;
 	}
 	
+	/**
+	 * Compile an expression into a {@code Predicate} for matching the 
+	 * objects in memory.
+	 * 
+	 * <p>The strings are compared case-sensitively, which is the default of 
+	 * a query.
+	 * 
+	 * @param  expr
+	 *         The expression needs to be compiled, {@code null} matches all 
+	 *         the objects.
+	 *         
+	 * @param  clazz
+	 *         The class of the objects.
+	 *         
+	 * @return  The thread-safe predicate.
+	 * 
+	 * @see  #compile(Expression, Class, boolean)
+	 * 
+     * @since   1.1 
+	 */
+	public static <T> Predicate<T> compile(Expression expr, Class<T> clazz) {
+		return compile(expr, clazz, true);
+	}
+	
+	/**
+	 * Compile an expression into a {@code Predicate} for matching the 
+	 * objects in memory.
+	 * 
+	 * <p>Different from {@link #evaluate(Expression)}, the values are read 
+	 * from the objects by the cached {@code MethodHandle}s of their getters 
+	 * instead of the subjects of the expression, and the expression tree is 
+	 * evaluated directly with short-circuiting instead of getting the 
+	 * minterms every time. The expression is not needed after compiling, so 
+	 * the predicate can be used by multiple threads at the same time.
+	 * 
+	 * <p>The objects are matched in the same way as the database does, so 
+	 * the same criteria can be used for the records in the database and the 
+	 * records in memory.
+	 * 
+	 * @param  expr
+	 *         The expression needs to be compiled, {@code null} matches all 
+	 *         the objects.
+	 *         
+	 * @param  clazz
+	 *         The class of the objects.
+	 *         
+	 * @param  caseSensitive
+	 *         Compare the strings case-sensitively or not.
+	 *         
+	 * @return  The thread-safe predicate.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If a field can not be read, a {@code Parameter} is not bound 
+	 *          or a value does not fit its operator.
+	 * 
+     * @since   1.1 
+	 */
+	public static <T> Predicate<T> compile(Expression expr, Class<T> clazz, boolean caseSensitive) {
+		Preconditions.checkNotNull(clazz, "The class can not be null");
+		return ExpressionCompiler.compile(expr, clazz, caseSensitive);
+	}
+	
 	/**
 	 * Evaluate the truth value by comparing 2 objects.
 	 * 
@@ -299,6 +359,15 @@ public class ExpressionEngine {
 	 * 
 	 * <p>This method is fit for big expression for avoiding stack overflow.
 	 * 
+	 * <p>The expression is divided at its top-level OR operators, and the 
+	 * sum of products of the divisions are merged by union. If an expression 
+	 * has no top-level OR operator, its sub-expressions are divided instead, 
+	 * and the sum of products of the divisions are merged by intersection. 
+	 * The divisions are converted and merged pairwise as a tree of 
+	 * {@code RecursiveTask}s, which will be run on the common 
+	 * {@code ForkJoinPool} if the expression has at least 
+	 * {@link #PARALLELISM_THRESHOLD} sub-expressions.
+	 * 
 	 * @param  expr
 	 *         The expression needs to be performed the sum of products 
 	 *         expansion.
@@ -312,6 +381,10 @@ public class ExpressionEngine {
      * @since   1.0
 	 */
 	protected static Expression getSumOfProductsByDivideAndConquor(Expression expr, int threshold) {
+		if(expr.isComplement()) {
+			expr = applyDeMorgansLaw(expr);
+		}
+		
 		ArrayList<Expression> divisionList = new ArrayList<>();
 		int p = 0;                // left bound
 		int q = threshold - 1;    // right bound
@@ -349,30 +422,191 @@ public class ExpressionEngine {
 		/*
 		 * Conquor each division recursively.
 		 * */
+		SumOfProductsTask task;
 		if(divisionList.size() > 1) {
-			Expression sop = new Expression();
-			for(int i = 0; i < divisionList.size(); i++) {
-				Expression subExpression = divisionList.get(i);
-				Expression subSop        = getSumOfProducts(subExpression, THRESHOLD);
-
-				if(!subSop.isCompound()) {
-					sop.combineExpression(Expression.OR, subSop);
-				} else {
-					sop.combineCompoundExpression(Expression.OR, subSop);
-				}
-			}
-			return sop;
-		} else {
+			task = new SumOfProductsTask(divisionList, Expression.OR);
+		} else if(threshold > 1) {
 			/*
 			 * if there is only one division, so shrink the threshold by half until there is more than one division.
 			 * */
-			if(threshold > 1) {
-				int newThreshold = threshold / 2;
-				return getSumOfProducts(expr, newThreshold);
+			int newThreshold = threshold / 2;
+			return getSumOfProducts(expr, newThreshold);
+		} else {
+			/*
+			 * if there is still only one division, all the sub-expressions are connected by AND.
+			 * */
+			List<Expression> factorList = new ArrayList<>();
+			for(int i = 0; i < expr.getNumberOfSubExpression(); i++) {
+				factorList.add(expr.getSubExpression(i));
+			}
+			task = new SumOfProductsTask(factorList, Expression.AND);
+		}
+		
+		if(expr.getNumberOfSubExpression() >= PARALLELISM_THRESHOLD) {
+			task.parallel = true;
+			return ForkJoinPool.commonPool().invoke(task);
+		} else {
+			return task.compute();
+		}
+	}
+	
+	/**
+	 * Apply De Morgan's law for a complemented compound expression.
+	 * 
+	 * <pre>
+	 *   !(AB + C) ==> (!A + !B) * !C
+	 * </pre>
+	 * 
+	 * <p>The complemented compound sub-expressions will be applied 
+	 * recursively.
+	 * 
+	 * @param  expr
+	 *         The complemented compound expression.
+	 *         
+	 * @return  The equivalent expression which is not complemented, the 
+	 *          products are connected by AND.
+	 *          
+	 * @since   1.1
+	 */
+	private static Expression applyDeMorgansLaw(Expression expr) {
+		Expression factors = new Expression();
+		Expression factor  = new Expression();
+		for(int i = 0; i < expr.getNumberOfSubExpression(); i++) {
+			Expression complement = (Expression) expr.getSubExpression(i).clone();
+			complement.complement();
+			if(complement.isCompound() && complement.isComplement()) {
+				complement = applyDeMorgansLaw(complement);
+			}
+			factor.combineExpression(Expression.OR, complement);
+			
+			String rightOptr = i < expr.getNumberOfSubExpression() - 1 ? expr.getOperator(i, Expression.SIDE_RIGHT) : null;
+			if(rightOptr == null || rightOptr.equals(Expression.OR)) {
+				factors.combineExpression(Expression.AND, simplifyNestedExpression(factor));
+				factor = new Expression();
+			}
+		}
+		return factors;
+	}
+	
+	/**
+	 * Get the minterms of a sum of products expression.
+	 * 
+	 * @param  sop
+	 *         The sum of products expression.
+	 *         
+	 * @return  A list of minterms.
+	 * 
+	 * @since   1.1
+	 */
+	private static List<List<Expression>> collectMintermsOfSumOfProducts(Expression sop) {
+		if(!sop.isCompound()) {
+			List<List<Expression>> mintermList = new ArrayList<>();
+			List<Expression>       minterm     = new ArrayList<>();
+			minterm.add(sop);
+			mintermList.add(minterm);
+			return mintermList;
+		} else {
+			return collectMintermAsList(sop);
+		}
+	}
+	
+	/**
+	 * The task for converting a list of divisions into a sum of products 
+	 * expression.
+	 * 
+	 * <p>The list is split into halves until there is only one division, 
+	 * which will be converted by {@link ExpressionEngine#getSumOfProducts(Expression, int)}. 
+	 * The sum of products of 2 halves are merged by union or intersection 
+	 * based on the operator between the divisions, and the redundant minterms 
+	 * are removed on each merge, so each merge only handles the result of 
+	 * its own halves.
+	 * 
+	 * @author  Wuyi Chen
+	 * @date    10/17/2026
+	 * @version 1.1
+	 * @since   1.1
+	 */
+	private static class SumOfProductsTask extends RecursiveTask<Expression> {
+		private static final long serialVersionUID = 1L;
+		
+		private final List<Expression> divisionList;
+		private final int              start;
+		private final int              end;
+		private final String           operator;
+		private boolean                parallel = false;
+		
+		/**
+		 * Constructs a {@code SumOfProductsTask}.
+		 * 
+		 * @param  divisionList
+		 *         The list of divisions.
+		 *         
+		 * @param  operator
+		 *         The operator between the divisions, {@code Expression.OR} 
+		 *         or {@code Expression.AND}.
+		 *         
+		 * @since   1.1
+		 */
+		SumOfProductsTask(List<Expression> divisionList, String operator) {
+			this(divisionList, 0, divisionList.size(), operator);
+		}
+		
+		private SumOfProductsTask(List<Expression> divisionList, int start, int end, String operator) {
+			this.divisionList = divisionList;
+			this.start        = start;
+			this.end          = end;
+			this.operator     = operator;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveTask#compute()
+		 */
+		@Override
+		protected Expression compute() {
+			if(end - start == 1) {
+				return getSumOfProducts(divisionList.get(start), THRESHOLD);
+			}
+			
+			int middle = (start + end) >>> 1;
+			SumOfProductsTask left  = new SumOfProductsTask(divisionList, start,  middle, operator);
+			SumOfProductsTask right = new SumOfProductsTask(divisionList, middle, end,    operator);
+			left.parallel  = parallel;
+			right.parallel = parallel;
+			
+			Expression leftSop;
+			Expression rightSop;
+			if(parallel) {
+				left.fork();
+				rightSop = right.compute();
+				leftSop  = left.join();
+			} else {
+				leftSop  = left.compute();
+				rightSop = right.compute();
+			}
+			
+			List<List<Expression>> leftMinterms  = collectMintermsOfSumOfProducts(leftSop);
+			List<List<Expression>> rightMinterms = collectMintermsOfSumOfProducts(rightSop);
+			List<List<Expression>> mintermList;
+			if(operator.equals(Expression.OR)) {
+				mintermList = leftMinterms;
+				mintermList.addAll(rightMinterms);
 			} else {
-				// FIXME: deal with all AND expression
-				return getSumOfProductsByStack(divisionList.get(0));
+				mintermList = new ArrayList<>(leftMinterms.size() * rightMinterms.size());
+				for(List<Expression> leftMinterm : leftMinterms) {
+					for(List<Expression> rightMinterm : rightMinterms) {
+						List<Expression> minterm = new ArrayList<>(leftMinterm);
+						for(Expression literal : rightMinterm) {
+							if(!minterm.contains(literal)) {
+								minterm.add(literal);
+							}
+						}
+						mintermList.add(minterm);
+					}
+				}
 			}
+			
+			removeRedundantMinterms(mintermList);
+			return simplifyNestedExpression(mergeMintermsAsOneExpression(mintermList));
 		}
 	}
 
@@ -646,7 +880,17 @@ public class ExpressionEngine {
 	/**
 	 * Remove redundant minterms from the minterms list.
 	 * 
-	 * <p>This method uses fast-slow pointer strategy to remove redundant minterms.
+	 * <p>A minterm is redundant if another minterm is a subset of it, like 
+	 * {@code AB} is redundant for {@code A}. If there are duplicate 
+	 * minterms, only the last one will be kept. The rest of minterms keep 
+	 * their original order.
+	 * 
+	 * <p>Each distinct literal is given an integer id and each minterm is 
+	 * represented as a bitmap of its literals, so checking one minterm is a 
+	 * subset of another minterm only needs a few word-level operations. The 
+	 * minterms are checked from the shortest one, and a kept minterm is 
+	 * indexed by its lowest literal, so a minterm only needs to be checked 
+	 * with the kept minterms whose lowest literal is in it.
 	 * 
 	 * @param  mintermList
 	 *         The list of minterms without redundant elements.
@@ -654,41 +898,243 @@ public class ExpressionEngine {
      * @since   1.0
 	 */
 	protected static void removeRedundantMinterms(List<List<Expression>> mintermList) {
-		int p = 0;
-		int q = 0;
-		while(p < mintermList.size()) {
-			List<Expression> current = mintermList.get(p);
-
-			while(q < mintermList.size()) {
-				if(p != q) {
-					List<Expression> next = mintermList.get(q);
-
-					if(current.containsAll(next)) {
-						mintermList.remove(p);
-						q = 0;
-						break;
-					}
-
-					if(next.containsAll(current)) {
-						mintermList.remove(q);
-
-						if(q < p) {
-							p--;
-						}
-					} else {
-						q++;
-					}
-
-				} else {
-					q++;
+		int size = mintermList.size();
+		if (size < 2) {
+			return;
+		}
+		
+		Map<Expression, Integer> literalIdMap = new HashMap<>();
+		long[][]  bitmaps     = new long[size][];
+		int[]     cardinality = new int[size];
+		Integer[] order       = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			List<Expression> minterm = mintermList.get(i);
+			int[] ids = new int[minterm.size()];
+			int maxId = -1;
+			for (int j = 0; j < ids.length; j++) {
+				Integer id = literalIdMap.get(minterm.get(j));
+				if (id == null) {
+					id = literalIdMap.size();
+					literalIdMap.put(minterm.get(j), id);
 				}
-
-				if(q == mintermList.size()) {
-					p++;
+				ids[j] = id;
+				maxId  = Math.max(maxId, id);
+			}
+			
+			long[] bitmap = new long[(maxId >> 6) + 1];
+			for (int id : ids) {
+				bitmap[id >> 6] |= 1L << id;
+			}
+			for (long word : bitmap) {
+				cardinality[i] += Long.bitCount(word);
+			}
+			bitmaps[i] = bitmap;
+			order[i]   = i;
+		}
+		
+		// check the shorter minterms first, for the duplicate minterms, check the last one first
+		Arrays.sort(order, (i1, i2) -> cardinality[i1] != cardinality[i2] ? Integer.compare(cardinality[i1], cardinality[i2]) : Integer.compare(i2, i1));
+		
+		Map<Integer, List<long[]>> keptByLowestLiteral = new HashMap<>();
+		boolean[] redundant = new boolean[size];
+		for (int i : order) {
+			long[] bitmap = bitmaps[i];
+			if (cardinality[i] == 0) {
+				redundant[i] = !keptByLowestLiteral.isEmpty();
+				keptByLowestLiteral.computeIfAbsent(-1, k -> new ArrayList<>()).add(bitmap);
+				continue;
+			}
+			
+			redundant[i] = keptByLowestLiteral.containsKey(-1) || hasSubset(bitmap, keptByLowestLiteral);
+			if (!redundant[i]) {
+				keptByLowestLiteral.computeIfAbsent(getLowestLiteral(bitmap), k -> new ArrayList<>()).add(bitmap);
+			}
+		}
+		
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (!redundant[i]) {
+				mintermList.set(kept++, mintermList.get(i));
+			}
+		}
+		mintermList.subList(kept, size).clear();
+	}
+	
+	/**
+	 * Check any kept minterm is a subset of a minterm.
+	 * 
+	 * @param  bitmap
+	 *         The bitmap of the minterm needs to be checked.
+	 *         
+	 * @param  keptByLowestLiteral
+	 *         The bitmaps of the kept minterms indexed by their lowest 
+	 *         literals.
+	 *         
+	 * @return  {@code true} if any kept minterm is a subset of the minterm;
+	 *          {@code false} otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	private static boolean hasSubset(long[] bitmap, Map<Integer, List<long[]>> keptByLowestLiteral) {
+		for (int w = 0; w < bitmap.length; w++) {
+			long word = bitmap[w];
+			while (word != 0) {
+				int literal = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				
+				List<long[]> candidates = keptByLowestLiteral.get(literal);
+				if (candidates == null) {
+					continue;
 				}
+				for (long[] candidate : candidates) {
+					if (isSubset(candidate, bitmap)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Check a bitmap is a subset of another bitmap.
+	 * 
+	 * @param  subset
+	 *         The bitmap may be the subset.
+	 *         
+	 * @param  superset
+	 *         The bitmap may be the superset.
+	 *         
+	 * @return  {@code true} if all the bits of the first bitmap are also in 
+	 *          the second bitmap;
+	 *          {@code false} otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	private static boolean isSubset(long[] subset, long[] superset) {
+		for (int w = 0; w < subset.length; w++) {
+			long word = w < superset.length ? superset[w] : 0L;
+			if ((subset[w] & ~word) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the lowest literal id in a non-empty bitmap.
+	 * 
+	 * @param  bitmap
+	 *         The bitmap of a minterm.
+	 *         
+	 * @return  The lowest literal id.
+	 * 
+	 * @since   1.1
+	 */
+	private static int getLowestLiteral(long[] bitmap) {
+		int w = 0;
+		while (bitmap[w] == 0) {
+			w++;
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(bitmap[w]);
+	}
+	
+	/**
+	 * Remove the minterms which can never be true from the minterms list.
+	 * 
+	 * <p>The simple expressions of a minterm on the same subject are checked 
+	 * together, like {@code x > 5 && x < 3}, {@code x == 1 && x == 2} or 
+	 * {@code x IN []} can never be true. The analysis is conservative, the 
+	 * simple expressions which can not be reasoned about are ignored.
+	 * 
+	 * @param  mintermList
+	 *         The list of minterms.
+	 *         
+	 * @since   1.1
+	 */
+	protected static void removeUnsatisfiableMinterms(List<List<Expression>> mintermList) {
+		mintermList.removeIf(minterm -> !MintermAnalyzer.isSatisfiable(minterm));
+	}
+	
+	/**
+	 * Check an expression can never be true.
+	 * 
+	 * <p>An expression can never be true if all the minterms of its sum of 
+	 * products can never be true (see 
+	 * {@link #removeUnsatisfiableMinterms(List)}). The expression will not 
+	 * be expanded if each subject only appears once and there is no 
+	 * {@code IN} expression.
+	 * 
+	 * <p>The result is conservative, {@code false} means the expression may 
+	 * be true.
+	 * 
+	 * @param  expr
+	 *         The expression needs to be checked, it will not be changed.
+	 *         
+	 * @return  {@code true} if the expression can never be true;
+	 *          {@code false} otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	public static boolean isUnsatisfiable(Expression expr) {
+		Preconditions.checkNotNull(expr, "The input expression is null");
+		if(!MintermAnalyzer.mayBeUnsatisfiable(expr)) {
+			return false;
+		}
+		
+		List<List<Expression>> mintermList = collectMintermsOfSumOfProducts(getSumOfProducts((Expression) expr.clone(), THRESHOLD));
+		removeUnsatisfiableMinterms(mintermList);
+		return mintermList.isEmpty();
+	}
+	
+	/**
+	 * Prepare the check of whether an expression can never be true, so it 
+	 * can be run many times with different values of its simple 
+	 * expressions, like the criteria of a prepared query.
+	 * 
+	 * <p>The sum-of-products expansion is done only once here, the values of 
+	 * the simple expressions are replaced by their positions before it, so 
+	 * each run of the check reads the values by the positions (see 
+	 * {@link #isUnsatisfiable(Expression)}).
+	 * 
+	 * @param  expr
+	 *         The expression needs to be checked, it will not be changed.
+	 *         
+	 * @return  The prepared check, or {@code null} if the expression can 
+	 *          never be found unsatisfiable.
+	 *          
+	 * @since   1.1
+	 */
+	public static UnsatisfiabilityCheck prepareUnsatisfiabilityCheck(Expression expr) {
+		Preconditions.checkNotNull(expr, "The input expression is null");
+		if(!MintermAnalyzer.mayBeUnsatisfiable(expr, true)) {
+			return null;
+		}
+		
+		Expression       copy   = (Expression) expr.clone();
+		List<Expression> leaves = new ArrayList<>();
+		copy.prefix(node -> {
+			if(node instanceof Expression) {
+				leaves.add((Expression) node);
+			}
+		});
+		for(int i = 0; i < leaves.size(); i++) {
+			leaves.get(i).setValue(new Parameter(Integer.toString(i)));
+		}
+		
+		List<List<Expression>> mintermList = collectMintermsOfSumOfProducts(getSumOfProducts(copy, THRESHOLD));
+		Expression[][]         minterms    = new Expression[mintermList.size()][];
+		int[][]                positions   = new int[mintermList.size()][];
+		for(int m = 0; m < minterms.length; m++) {
+			List<Expression> minterm = mintermList.get(m);
+			minterms[m]  = new Expression[minterm.size()];
+			positions[m] = new int[minterm.size()];
+			for(int l = 0; l < minterm.size(); l++) {
+				minterms[m][l]  = minterm.get(l);
+				positions[m][l] = Integer.parseInt(((Parameter) minterm.get(l).getValue()).getName());
 			}
-			q = 0;
 		}
+		return new UnsatisfiabilityCheck(minterms, positions);
 	}
 	
 	/**
@@ -974,174 +1420,25 @@ public class ExpressionEngine {
 	/**
 	 * Parse the string into an expression
 	 * 
+	 * <p>This method is lenient, if the input string is not a valid 
+	 * expression, it will return {@code null}. Use 
+	 * {@link ExpressionParser#parse(String)} to get the position of the 
+	 * error.
+	 * 
 	 * @param  input
 	 *         The input string.
 	 * 
 	 * @return  The expression by parsing
 	 * 
-     * @since   1.0
-	 */
-	public static Expression parse(String input) {
-		if(Strings.isNullOrEmpty(input)) {
-			return null;
-		}
-
-		// normalize logical operators
-		String normalizedInput = StringUtil.replace(input, "AND", "&&", true, true);
-		normalizedInput        = StringUtil.replace(normalizedInput, "OR", "||", true, true);
-
-		int length = normalizedInput.length();
-		Deque<Character>  stack           = new ArrayDeque<>();   // store the current expression string by parenthesis
-		Deque<Expression> expressionStack = new ArrayDeque<>();   // store the expressions has been parsed.
-
-		int index = 0;
-		while(index < length) {
-			char currentChar = normalizedInput.charAt(index);
-
-			if(currentChar == ')') {    // when meet balanced parenthesis, evaluate the values in stack
-				StringBuilder sb = new StringBuilder();
-				
-				while(!stack.isEmpty()) {
-					currentChar = stack.pop();
-					if(currentChar == '(') {
-						String expr = sb.toString();
-
-						Matcher matcher = SIMPLE_EXPRESSION_PATTERN.matcher(expr);
-						if(matcher.find() && matcher.groupCount() == 3) {
-							String subject  = matcher.group(1);
-							String operator = matcher.group(2);
-							String value    = matcher.group(3);
-
-							Object obj = parseValue(value);
-
-							Expression simpleExpr = new Expression(subject, operator, obj);
-							expressionStack.push(simpleExpr);
-							break;
-						} else {
-							reduceExpression(stack, expressionStack);
-							break;
-						}
-					} else if(currentChar == '&' || currentChar == '|') {
-						stack.push(currentChar);
-						reduceExpression(stack, expressionStack);
-						break;
-					} else {
-						sb.insert(0, currentChar);
-					}
-				}
-			} else {
-				stack.push(currentChar);
-			}
-
-			index++;
-		}
-
-		if(!stack.isEmpty()) {
-			reduceExpression(stack, expressionStack);
-		}
-
-		if (expressionStack.isEmpty()) {
-			return null;
-		} else {
-			return expressionStack.pop();
-		}
-	}
-	
-	/**
-	 * Parse the value in an expression.
-	 * 
-	 * <p>Currently this method supports different types of values:
-	 * <ul>
-	 *   <li>null
-	 *   <li>String
-	 *   <li>Boolean
-	 *   <li>Date
-	 *   <li>Integer
-	 *   <li>Double
-	 *   <li>List
-	 * </ul>
-	 * 
-	 * @param  value
-	 *         The value needs to be parsed.
-	 *         
-	 * @return  The {@code Object} represents the value.
+	 * @see  ExpressionParser
 	 * 
      * @since   1.0
 	 */
-	protected static Object parseValue(String value) {
-		if(value.startsWith("\"") && value.endsWith("\"")) {     // string
-			return value.substring(1, value.length() - 1);
-		} else if(value.startsWith("[") && value.endsWith("]")) {  // list
-			String formattedValue = value.substring(1, value.length() - 1);
-			String[] values = formattedValue.split(",");
-			List<Object> list = new ArrayList<>();
-			
-			for(String s : values) {
-			    if(s.startsWith("\"")) {
-                    s = s.replaceAll("^\"|\"$", "");
-                    list.add(s);
-                } else {
-                    Object v = Integer.valueOf(s.trim());
-                    list.add(v);
-                }
-			}
-			
-			return list;
-		} else if("null".equalsIgnoreCase(value)) {
+	public static Expression parse(String input) {
+		try {
+			return ExpressionParser.parse(input);
+		} catch (ParseException e) {
 			return null;
-		} else if("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-			return Boolean.valueOf(value);
-		} else {
-			try {
-				return DateUtils.parseDate(value, new String[] {"MM/dd/yy", "MM/dd/yyyy", "MM/dd/yy HH:mm:ss", "E MMM d HH:mm:ss z yyyy"});
-			} catch(Exception e) {
-				boolean isInteger = Pattern.matches("^\\d*$", value);
-				if(isInteger) {
-					return Integer.valueOf(value);
-				} else {
-					return Double.valueOf(value);
-				}
-			}
-		}
-	}
-
-	/**
-	 * Reduce the complexity of the expression stack.
-	 * 
-	 * @param  stack
-	 *         The character stack.
-	 *         
-	 * @param  expressionStack
-	 *         The expression stack.
-	 *        
-     * @since   1.0  
-	 */
-	protected static void reduceExpression(Deque<Character> stack, Deque<Expression> expressionStack) {
-		if(!stack.isEmpty() && !expressionStack.isEmpty()) {
-			Expression compoundExpr = new Expression();
-
-			Expression subExpr = expressionStack.pop();
-			compoundExpr.combineExpression(null, subExpr);
-			
-			while(!stack.isEmpty()) {
-				char current = stack.pop();
-
-				if(current == '(') {
-					break;
-				} else if(current == ' ') {    // skip white space
-					continue;
-				}
-
-				if(isLogicalOperator(current)) {
-					StringBuilder sb = new StringBuilder();
-					sb.append(current).append(stack.pop());
-
-					subExpr = expressionStack.pop();
-					compoundExpr.addSubExpressionWithOperator(0, subExpr, sb.toString());
-				}
-			}
-
-			expressionStack.push(compoundExpr);
 		}
 	}
 
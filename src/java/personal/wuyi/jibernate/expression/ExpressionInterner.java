@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * The pool which makes the equal expressions share one instance.
+ * 
+ * <p>An expression is interned bottom-up, so the equal sub-expressions of 
+ * different expressions are also shared. The interned expressions are 
+ * frozen: they can not be modified and their hash codes are cached, so 
+ * they are cheap to be used as the keys of a map. The values of the simple 
+ * expressions are copied when they are interned, a collection is copied 
+ * into an unmodifiable collection. The pool only holds the interned 
+ * expressions weakly.
+ * 
+ * <p>The equivalent expressions in different orders are not equal, they 
+ * can be converted by {@link Expression#canonical()} before interning:
+ * <pre>
+ * {@code
+ * ExpressionInterner interner = new ExpressionInterner();
+ * Expression key = interner.intern(criteria.canonical());
+ * }
+ * </pre>
+ * 
+ * <p>This class is thread-safe.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionInterner {
+	private final Interner<Expression> interner = Interners.newWeakInterner();
+	
+	/**
+	 * Get the shared instance of an expression.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be interned, it will not be changed.
+	 * 
+	 * @return  The frozen instance which is equal to the expression, it 
+	 *          needs to be cloned before modifying.
+	 * 
+	 * @since   1.1
+	 */
+	public Expression intern(Expression expression) {
+		if (expression == null) {
+			return null;
+		}
+		
+		if (expression.isFrozen()) {
+			return interner.intern(expression);
+		}
+		
+		Expression copy;
+		if (!expression.isCompound()) {
+			Subject subject = expression.getSubject() == null ? null : (Subject) expression.getSubject().clone();
+			copy = new Expression(subject, expression.getOperator(), copyValue(expression.getValue()));
+			copy.setComplement(expression.isComplement());
+		} else {
+			List<Object> list = new ArrayList<>();
+			for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+				if (i > 0) {
+					list.add(expression.getOperator(i));
+				}
+				list.add(intern(expression.getSubExpression(i)));
+			}
+			copy = new Expression(list, expression.isComplement());
+		}
+		
+		copy.freeze();
+		return interner.intern(copy);
+	}
+	
+	/**
+	 * Copy the value of a simple expression, so the interned expression 
+	 * will not be changed by modifying the original value.
+	 * 
+	 * <p>A {@code List} or a {@code Set} is copied into an unmodifiable one, 
+	 * a {@code Date} or an array is cloned and the elements of them are 
+	 * copied as well. Other values are expected to be immutable.
+	 * 
+	 * @param  value
+	 *         The value needs to be copied.
+	 *         
+	 * @return  The copied value.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object copyValue(Object value) {
+		if (value instanceof List) {
+			return Collections.unmodifiableList(copyElements((List<?>) value, new ArrayList<>()));
+		} else if (value instanceof Set) {
+			return Collections.unmodifiableSet(copyElements((Set<?>) value, new LinkedHashSet<>()));
+		} else if (value instanceof Date) {
+			return ((Date) value).clone();
+		} else if (value != null && value.getClass().isArray()) {
+			int    length = Array.getLength(value);
+			Object copied = Array.newInstance(value.getClass().getComponentType(), length);
+			for (int i = 0; i < length; i++) {
+				Array.set(copied, i, copyValue(Array.get(value, i)));
+			}
+			return copied;
+		}
+		return value;
+	}
+	
+	/**
+	 * Copy the elements of a collection into another collection.
+	 * 
+	 * @param  source
+	 *         The collection needs to be copied.
+	 *         
+	 * @param  target
+	 *         The collection receives the copied elements.
+	 *         
+	 * @return  The target collection.
+	 * 
+	 * @since   1.1
+	 */
+	private static <C extends Collection<Object>> C copyElements(Collection<?> source, C target) {
+		for (Object element : source) {
+			target.add(copyValue(element));
+		}
+		return target;
+	}
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import personal.wuyi.jibernate.cache.CacheStats;
+import personal.wuyi.jibernate.cache.EvictionPolicy;
+import personal.wuyi.jibernate.cache.LocalCache;
+
+/**
+ * The parser for converting a string into an expression.
+ * 
+ * <p>The string is in the same format of {@code Expression.toString()}, 
+ * each simple expression is wrapped by parentheses and the subject is 
+ * wrapped by brackets, like:
+ * <pre>
+ *   (([firstName]=="John") && ([age]>=23 ) || !([dob]<11/29/2018))
+ * </pre>
+ * 
+ * <p>The grammar is:
+ * <pre>
+ *   sequence := term (logical term)*
+ *   term     := "!"* "(" (simple | sequence) ")"
+ *   simple   := "[" subject "]" operator value
+ *   logical  := "&&" | "||" | "AND" | "OR"
+ *   operator := "==" | "!=" | "<" | "<=" | ">" | ">=" 
+ *             | "IN" | "LIKE" | "CONTAINS" | "STARTS_WITH" | "ENDS_WITH"
+ * </pre>
+ * 
+ * <p>The parser reads the string once from left to right without 
+ * backtracking, so the time is linear on the length of the string. The 
+ * value can be a string in double quotes (a backslash escapes the next 
+ * character), a list in brackets, {@code null}, a boolean, a number or a 
+ * date. The literals are decoded by their shapes, so an invalid literal is 
+ * reported as an error instead of an exception from another parser.
+ * 
+ * <p>The parsed expressions are cached by the input strings with LRU 
+ * policy. The cached expressions are immutable and a new 
+ * {@code Expression} will be returned for every call, the mutable values 
+ * (lists and dates) are copied as well, so modifying a returned expression 
+ * will not affect the later calls.
+ * 
+ * <p>The terms can be nested at most {@value #MAXIMUM_DEPTH} levels, a 
+ * deeper input is reported as an error instead of overflowing the stack.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public final class ExpressionParser {
+	/** The maximum number of nested terms. */
+	public static final int MAXIMUM_DEPTH = 256;
+	
+	private static final int PARSE_CACHE_SIZE = 1024;
+
+	private static final String[] DATE_PATTERNS      = {"MM/dd/yy", "MM/dd/yyyy", "MM/dd/yy HH:mm:ss"};
+	private static final String   DATE_TEXT_PATTERN  = "E MMM d HH:mm:ss z yyyy";
+	private static final String[] WORD_OPERATORS     = {Expression.IN, "LIKE", Expression.CONTAINS, Expression.STARTS_WITH, Expression.ENDS_WITH};
+
+	private static final LocalCache<String, CompactExpression> parseCache = new LocalCache<>(PARSE_CACHE_SIZE, EvictionPolicy.LRU);
+
+	private final String input;
+	private int          position = 0;
+	private int          depth    = 0;
+
+	private ExpressionParser(String input) {
+		this.input = input;
+	}
+
+	/**
+	 * Parse a string into an expression.
+	 * 
+	 * @param  input
+	 *         The input string.
+	 *         
+	 * @return  The parsed expression, or {@code null} if the input string 
+	 *          is {@code null} or blank.
+	 *          
+	 * @throws  ParseException
+	 *          If the input string is not a valid expression, the error 
+	 *          offset is the position of the first invalid character.
+	 * 
+	 * @since   1.1
+	 */
+	public static Expression parse(String input) throws ParseException {
+		if (input == null) {
+			return null;
+		}
+
+		CompactExpression cached = parseCache.get(input);
+		if (cached == null) {
+			Expression expression = new ExpressionParser(input).parse();
+			if (expression == null) {
+				return null;
+			}
+			cached = CompactExpression.of(expression);
+			parseCache.put(input, cached);
+		}
+		return copyValues(cached.toExpression());
+	}
+	
+	/**
+	 * Copy the mutable values of an expression, so the values shared with 
+	 * the cached expression will not be modified by the caller.
+	 * 
+	 * @param  expression
+	 *         The expression converted from the cached expression.
+	 *         
+	 * @return  The same expression with the copied values.
+	 * 
+	 * @since   1.1
+	 */
+	private static Expression copyValues(Expression expression) {
+		if (expression.isCompound()) {
+			for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+				copyValues(expression.getSubExpression(i));
+			}
+		} else {
+			expression.setValue(copyValue(expression.getValue()));
+		}
+		return expression;
+	}
+	
+	/**
+	 * Copy a value if it is a list or a date.
+	 * 
+	 * @param  value
+	 *         The value needs to be copied.
+	 *         
+	 * @return  The copied value, or the same value if it is immutable.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object copyValue(Object value) {
+		if (value instanceof List) {
+			List<Object> list = new ArrayList<>(((List<?>) value).size());
+			for (Object element : (List<?>) value) {
+				list.add(copyValue(element));
+			}
+			return list;
+		} else if (value instanceof Date) {
+			return ((Date) value).clone();
+		}
+		return value;
+	}
+
+	/**
+	 * Get the statistics of the cache of the parsed expressions.
+	 * 
+	 * @return  The statistics of the cache.
+	 * 
+	 * @since   1.1
+	 */
+	public static CacheStats getParseCacheStats() {
+		return parseCache.getStats();
+	}
+
+	private Expression parse() throws ParseException {
+		skipWhitespaces();
+		if (isEnd()) {
+			return null;
+		}
+
+		Expression expression = parseSequence();
+		skipWhitespaces();
+		if (!isEnd()) {
+			throw error("Expected a logical operator");
+		}
+		return expression;
+	}
+
+	/**
+	 * Parse the terms connected by the logical operators.
+	 * 
+	 * <p>The terms are added into one compound expression from left to 
+	 * right, so AND has higher precedence than OR like the other compound 
+	 * expressions.
+	 * 
+	 * @since   1.1
+	 */
+	private Expression parseSequence() throws ParseException {
+		Expression first = parseTerm();
+
+		String operator = parseLogicalOperator();
+		if (operator == null) {
+			return first;
+		}
+
+		List<Object> subExpressionAndOperatorList = new ArrayList<>();
+		subExpressionAndOperatorList.add(first);
+		while (operator != null) {
+			subExpressionAndOperatorList.add(operator);
+			subExpressionAndOperatorList.add(parseTerm());
+			operator = parseLogicalOperator();
+		}
+		return new Expression(subExpressionAndOperatorList, false);
+	}
+
+	private Expression parseTerm() throws ParseException {
+		skipWhitespaces();
+
+		boolean complement = false;
+		while (peek() == '!') {
+			complement = !complement;
+			position++;
+			skipWhitespaces();
+		}
+
+		expect('(');
+		if (++depth > MAXIMUM_DEPTH) {
+			throw error("The terms are nested more than " + MAXIMUM_DEPTH + " levels");
+		}
+		skipWhitespaces();
+		Expression expression = (peek() == '[') ? parseSimpleExpression() : parseSequence();
+		skipWhitespaces();
+		expect(')');
+		depth--;
+
+		return complement ? expression.complement() : expression;
+	}
+
+	private Expression parseSimpleExpression() throws ParseException {
+		expect('[');
+		int start = position;
+		while (!isEnd() && peek() != ']') {
+			position++;
+		}
+		String subject = input.substring(start, position);
+		expect(']');
+
+		skipWhitespaces();
+		String operator = parseComparisonOperator();
+		skipWhitespaces();
+		Object value = parseValue();
+
+		return new Expression(subject, operator, value);
+	}
+
+	/**
+	 * Parse the logical operator after a term.
+	 * 
+	 * @return  {@code Expression.AND} or {@code Expression.OR}, or 
+	 *          {@code null} if there is no more term.
+	 * 
+	 * @since   1.1
+	 */
+	private String parseLogicalOperator() throws ParseException {
+		skipWhitespaces();
+		if (isEnd() || peek() == ')') {
+			return null;
+		}
+
+		if (input.startsWith(Expression.AND, position)) {
+			position += 2;
+			return Expression.AND;
+		}
+		if (input.startsWith(Expression.OR, position)) {
+			position += 2;
+			return Expression.OR;
+		}
+
+		String word = peekWord();
+		if ("AND".equalsIgnoreCase(word)) {
+			position += word.length();
+			return Expression.AND;
+		}
+		if ("OR".equalsIgnoreCase(word)) {
+			position += word.length();
+			return Expression.OR;
+		}
+		throw error("Expected a logical operator");
+	}
+
+	private String parseComparisonOperator() throws ParseException {
+		char ch = peek();
+		if (ExpressionEngine.isComparisonOperator(ch)) {
+			String operator;
+			if (position + 1 < input.length() && input.charAt(position + 1) == '=') {
+				operator = input.substring(position, position + 2);
+			} else if (ch == '<' || ch == '>') {
+				operator = String.valueOf(ch);
+			} else {
+				throw error("Expected a comparison operator");
+			}
+			position += operator.length();
+			return operator;
+		}
+
+		String word = peekWord();
+		for (String operator : WORD_OPERATORS) {
+			if (operator.equalsIgnoreCase(word)) {
+				position += word.length();
+				return operator;
+			}
+		}
+		throw error("Expected a comparison operator");
+	}
+
+	private Object parseValue() throws ParseException {
+		char ch = peek();
+		if (ch == '"') {
+			return parseString();
+		}
+		if (ch == '[') {
+			return parseList();
+		}
+
+		int start = position;
+		while (!isEnd() && peek() != ')') {
+			position++;
+		}
+		return decodeLiteral(input.substring(start, position).trim(), start);
+	}
+
+	private String parseString() throws ParseException {
+		int start = position;
+		expect('"');
+
+		StringBuilder sb = new StringBuilder();
+		while (!isEnd() && peek() != '"') {
+			char ch = input.charAt(position++);
+			if (ch == '\\' && !isEnd()) {
+				ch = input.charAt(position++);
+			}
+			sb.append(ch);
+		}
+
+		if (isEnd()) {
+			throw new ParseException("Unclosed string at position " + start, start);
+		}
+		position++;
+		return sb.toString();
+	}
+
+	private List<Object> parseList() throws ParseException {
+		expect('[');
+
+		List<Object> list = new ArrayList<>();
+		skipWhitespaces();
+		if (peek() == ']') {
+			position++;
+			return list;
+		}
+
+		while (true) {
+			skipWhitespaces();
+			if (peek() == '"') {
+				list.add(parseString());
+			} else {
+				int start = position;
+				while (!isEnd() && peek() != ',' && peek() != ']') {
+					position++;
+				}
+				list.add(decodeLiteral(input.substring(start, position).trim(), start));
+			}
+
+			skipWhitespaces();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect(']');
+				return list;
+			}
+		}
+	}
+
+	/**
+	 * Decode a literal which is not in double quotes.
+	 * 
+	 * <p>The literal can be {@code null}, a boolean, an {@code Integer}, a 
+	 * {@code Long}, a {@code Double} or a {@code Date}.
+	 * 
+	 * @param  literal
+	 *         The literal needs to be decoded.
+	 *         
+	 * @param  start
+	 *         The position of the literal for reporting error.
+	 *         
+	 * @return  The value of the literal.
+	 * 
+	 * @throws  ParseException
+	 *          If the literal is not valid.
+	 * 
+	 * @since   1.1
+	 */
+	static Object decodeLiteral(String literal, int start) throws ParseException {
+		if ("null".equalsIgnoreCase(literal)) {
+			return null;
+		}
+		if ("true".equalsIgnoreCase(literal) || "false".equalsIgnoreCase(literal)) {
+			return Boolean.valueOf(literal);
+		}
+
+		Object number = decodeNumber(literal);
+		if (number != null) {
+			return number;
+		}
+
+		Date date = decodeDate(literal);
+		if (date != null) {
+			return date;
+		}
+
+		throw new ParseException("Invalid value \"" + literal + "\" at position " + start, start);
+	}
+
+	/**
+	 * Decode a number by its shape.
+	 * 
+	 * @return  An {@code Integer} or a {@code Long} for an integer, a 
+	 *          {@code Double} for a decimal, or {@code null} if the literal 
+	 *          is not a number.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object decodeNumber(String literal) {
+		int length = literal.length();
+		int index  = (length > 0 && (literal.charAt(0) == '-' || literal.charAt(0) == '+')) ? 1 : 0;
+
+		int digits = 0;
+		while (index < length && Character.isDigit(literal.charAt(index))) {
+			index++;
+			digits++;
+		}
+
+		if (index == length) {
+			if (digits == 0) {
+				return null;
+			}
+			if (digits <= 18) {
+				long value = Long.parseLong(literal);
+				return (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) ? (Object) Integer.valueOf((int) value) : (Object) Long.valueOf(value);
+			}
+			return Double.valueOf(literal);
+		}
+
+		if (literal.charAt(index) == '.') {
+			index++;
+			while (index < length && Character.isDigit(literal.charAt(index))) {
+				index++;
+				digits++;
+			}
+		}
+		if (digits > 0 && index < length && (literal.charAt(index) == 'e' || literal.charAt(index) == 'E')) {
+			index++;
+			if (index < length && (literal.charAt(index) == '-' || literal.charAt(index) == '+')) {
+				index++;
+			}
+			int exponentDigits = 0;
+			while (index < length && Character.isDigit(literal.charAt(index))) {
+				index++;
+				exponentDigits++;
+			}
+			if (exponentDigits == 0) {
+				return null;
+			}
+		}
+
+		return (digits > 0 && index == length) ? Double.valueOf(literal) : null;
+	}
+
+	/**
+	 * Decode a date by the date patterns without throwing exception.
+	 * 
+	 * @return  The date, or {@code null} if the literal is not a date.
+	 * 
+	 * @since   1.1
+	 */
+	private static Date decodeDate(String literal) {
+		if (literal.isEmpty()) {
+			return null;
+		}
+
+		if (Character.isDigit(literal.charAt(0))) {
+			for (String pattern : DATE_PATTERNS) {
+				Date date = decodeDate(literal, new SimpleDateFormat(pattern));
+				if (date != null) {
+					return date;
+				}
+			}
+			return null;
+		}
+		return decodeDate(literal, new SimpleDateFormat(DATE_TEXT_PATTERN, Locale.US));
+	}
+
+	private static Date decodeDate(String literal, SimpleDateFormat format) {
+		ParsePosition parsePosition = new ParsePosition(0);
+		Date          date          = format.parse(literal, parsePosition);
+		return (parsePosition.getIndex() == literal.length()) ? date : null;
+	}
+
+	private String peekWord() {
+		int end = position;
+		while (end < input.length() && (Character.isLetter(input.charAt(end)) || input.charAt(end) == '_')) {
+			end++;
+		}
+		return input.substring(position, end);
+	}
+
+	private void expect(char ch) throws ParseException {
+		if (peek() != ch) {
+			throw error("Expected '" + ch + "'");
+		}
+		position++;
+	}
+
+	private char peek() {
+		return isEnd() ? 0 : input.charAt(position);
+	}
+
+	private boolean isEnd() {
+		return position >= input.length();
+	}
+
+	private void skipWhitespaces() {
+		while (!isEnd() && Character.isWhitespace(input.charAt(position))) {
+			position++;
+		}
+	}
+
+	private ParseException error(String message) {
+		return new ParseException(message + " at position " + position, position);
+	}
+}
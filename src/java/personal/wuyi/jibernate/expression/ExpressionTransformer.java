@@ -35,6 +35,9 @@ public abstract class ExpressionTransformer extends AbstractTransformer<Expressi
 
 		if (!expression.isCompound()) {
 			Expression transformed = transform(expression.getSubject(), expression.getOperator(), expression.getValue());
+			if (transformed != null && expression.isComplement()) {
+				transformed.setComplement(!transformed.isComplement());
+			}
 			return super.transform(transformed, context);
 		} else {
 			Expression transformed = new Expression();
@@ -56,6 +59,10 @@ public abstract class ExpressionTransformer extends AbstractTransformer<Expressi
 				return null;
 			}
 			
+			if (expression.isComplement()) {
+				transformed.setComplement(!transformed.isComplement());
+			}
+			
 			return super.transform(transformed);
 		}
 	}
@@ -80,4 +87,53 @@ public abstract class ExpressionTransformer extends AbstractTransformer<Expressi
 	public Expression transform(Subject subject, String operator, Object value) {
 		return(new Expression(subject, operator, value));
 	}
+	
+	/**
+	 * Check a simple expression needs to be rewritten by this transformer 
+	 * or not.
+	 * 
+	 * <p>This method is used by {@link ExpressionTransformerChain} to skip 
+	 * the transformers which will not change a simple expression, so the 
+	 * untouched simple expressions do not need to be copied. By default, 
+	 * every simple expression will be transformed.
+	 * 
+	 * @param  subject
+	 *         The subject of an expression.
+	 *         
+	 * @param  operator
+	 *         The operator of an expression.
+	 * 
+	 * @param  value
+	 *         The value of an expression.
+	 *         
+	 * @return  {@code true} if the simple expression needs to be transformed;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	protected boolean isApplicable(Subject subject, String operator, Object value) {
+		return true;
+	}
+	
+	/**
+	 * Rewrite a compound expression after its sub-expressions have been 
+	 * transformed.
+	 * 
+	 * <p>This method is used by {@link ExpressionTransformerChain} for the 
+	 * transformers which rewrite the compound expressions. The compound 
+	 * expression may be shared with the original expression, so it should 
+	 * not be modified. By default, it is returned as it is.
+	 * 
+	 * @param  expression
+	 *         The compound expression with the transformed sub-expressions.
+	 *         
+	 * @return  The given compound expression if it is not changed;
+	 *          {@code null} if it is removed;
+	 *          the new expression otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	protected Expression transformCompound(Expression expression) {
+		return expression;
+	}
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The chain of expression transformers.
+ * 
+ * <p>Instead of transforming the whole expression by each transformer one 
+ * after another, this chain walks the expression only once and rewrites 
+ * each simple expression by all the transformers in order, the result of 
+ * one transformer is the input of the next one. So the transformers in the 
+ * chain are expected to override 
+ * {@link ExpressionTransformer#transform(Subject, String, Object)} for the 
+ * simple expressions, or 
+ * {@link ExpressionTransformer#transformCompound(Expression)} for the 
+ * compound expressions, which is called by all the transformers in order 
+ * after the sub-expressions have been transformed.
+ * 
+ * <p>A transformer will be skipped for a simple expression if it is not 
+ * applicable (see {@link ExpressionTransformer#isApplicable(Subject, String, Object)}). 
+ * If none of the transformers changes a simple expression, the original 
+ * simple expression will be kept. A compound expression will be rebuilt 
+ * only if any of its sub-expressions has been changed, otherwise the 
+ * original one will be shared by the transformed expression. So the 
+ * transformed expression should be cloned before modifying it.
+ * 
+ * <p>The chain is immutable and the transformers in a chain are shared by 
+ * all the threads, so they should be stateless.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionTransformerChain extends ExpressionTransformer {
+	private final List<ExpressionTransformer> transformers;
+	
+	/**
+	 * Constructs a {@code ExpressionTransformerChain}.
+	 * 
+	 * @param  transformers
+	 *         The transformers will be applied in order.
+	 *         
+	 * @since   1.1
+	 */
+	public ExpressionTransformerChain(ExpressionTransformer... transformers) {
+		this(Arrays.asList(transformers));
+	}
+	
+	/**
+	 * Constructs a {@code ExpressionTransformerChain}.
+	 * 
+	 * @param  transformers
+	 *         The list of transformers will be applied in order.
+	 *         
+	 * @since   1.1
+	 */
+	public ExpressionTransformerChain(List<? extends ExpressionTransformer> transformers) {
+		Preconditions.checkNotNull(transformers, "The list of transformers can not be null.");
+		for (ExpressionTransformer transformer : transformers) {
+			Preconditions.checkNotNull(transformer, "The transformer can not be null.");
+		}
+		this.transformers = Collections.unmodifiableList(new ArrayList<>(transformers));
+	}
+	
+	public List<ExpressionTransformer> getTransformers() { return transformers; }
+	
+	/* (non-Javadoc)
+	 * @see personal.wuyi.jibernate.expression.ExpressionTransformer#transform(personal.wuyi.jibernate.expression.Expression, java.lang.Object[])
+	 */
+	@Override
+	public Expression transform(Expression expression, Object... context) {
+		if (expression == null) {
+			return null;
+		}
+		
+		return expression.isCompound() ? transformCompoundExpression(expression) : transformSimpleExpression(expression);
+	}
+	
+	/**
+	 * Rewrite a simple expression by all the applicable transformers.
+	 * 
+	 * @param  expression
+	 *         The simple expression needs to be transformed.
+	 *         
+	 * @return  The original simple expression if it is not changed;
+	 *          {@code null} if it is removed by any transformer;
+	 *          the new simple expression otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	private Expression transformSimpleExpression(Expression expression) {
+		Subject subject    = expression.getSubject();
+		String  operator   = expression.getOperator();
+		Object  value      = expression.getValue();
+		boolean complement = expression.isComplement();
+		boolean changed    = false;
+		
+		for (ExpressionTransformer transformer : transformers) {
+			if (!transformer.isApplicable(subject, operator, value)) {
+				continue;
+			}
+			
+			Expression transformed = transformer.transform(subject, operator, value);
+			if (transformed == null) {
+				return null;
+			}
+			Preconditions.checkState(!transformed.isCompound(), "The transformer %s can not rewrite a simple expression into a compound expression.", transformer.getClass().getName());
+			
+			changed    = changed || transformed.getSubject() != subject || !Objects.equals(transformed.getOperator(), operator) || transformed.getValue() != value || transformed.isComplement();
+			subject    = transformed.getSubject();
+			operator   = transformed.getOperator();
+			value      = transformed.getValue();
+			complement = complement ^ transformed.isComplement();
+		}
+		
+		if (!changed) {
+			return expression;
+		}
+		
+		Expression transformed = new Expression(subject, operator, value);
+		transformed.setComplement(complement);
+		return transformed;
+	}
+	
+	/**
+	 * Transform all the sub-expressions of a compound expression.
+	 * 
+	 * <p>The removed sub-expression will be removed with the operator on its 
+	 * left side (or on its right side if it is the first one). Then the 
+	 * compound expression is rewritten by all the transformers in order, 
+	 * until it is removed or it is not compound anymore.
+	 * 
+	 * @param  expression
+	 *         The compound expression needs to be transformed.
+	 *         
+	 * @return  The original compound expression if neither it nor its 
+	 *          sub-expressions are changed;
+	 *          {@code null} if all of its sub-expressions are removed;
+	 *          the new compound expression otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	private Expression transformCompoundExpression(Expression expression) {
+		int          size = expression.getNumberOfSubExpression();
+		List<Object> list = null;
+		
+		for (int i = 0; i < size; i++) {
+			Expression subExpr     = expression.getSubExpression(i);
+			Expression transformed = transform(subExpr);
+			
+			if (list == null) {
+				if (transformed == subExpr) {
+					continue;
+				}
+				
+				list = new ArrayList<>(size * 2 - 1);
+				for (int j = 0; j < i; j++) {
+					addSubExpression(list, expression.getOperator(j), expression.getSubExpression(j));
+				}
+			}
+			
+			if (transformed != null) {
+				addSubExpression(list, expression.getOperator(i), transformed);
+			}
+		}
+		
+		Expression transformed = expression;
+		if (list != null) {
+			transformed = list.isEmpty() ? null : new Expression(list, expression.isComplement());
+		}
+		
+		for (ExpressionTransformer transformer : transformers) {
+			if (transformed == null || !transformed.isCompound()) {
+				break;
+			}
+			transformed = transformer.transformCompound(transformed);
+		}
+		return transformed;
+	}
+	
+	/**
+	 * Append a sub-expression with the operator on its left side into a list 
+	 * of sub-expressions and operators.
+	 * 
+	 * @param  list
+	 *         The list of sub-expressions and operators.
+	 *         
+	 * @param  operator
+	 *         The operator on the left side of the sub-expression.
+	 *         
+	 * @param  subExpr
+	 *         The sub-expression needs to be appended.
+	 *         
+	 * @since   1.1
+	 */
+	private static void addSubExpression(List<Object> list, String operator, Expression subExpr) {
+		if (!list.isEmpty()) {
+			list.add(operator);
+		}
+		list.add(subExpr);
+	}
+}
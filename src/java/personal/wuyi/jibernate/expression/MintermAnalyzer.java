@@ -0,0 +1,392 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * The tool class for finding the minterms which can never be true.
+ * 
+ * <p>The simple expressions of a minterm on the same subject are combined 
+ * into one constraint: whether the value is {@code null}, the set of the 
+ * allowed values (by {@code ==} and {@code IN}), the excluded values (by 
+ * {@code !=}) and the lower and upper bounds (by {@code >}, {@code >=}, 
+ * {@code <} and {@code <=}). A minterm can never be true if any constraint 
+ * is empty, like:
+ * <pre>
+ *   x &gt; 5 &amp;&amp; x &lt; 3
+ *   x == 1 &amp;&amp; x == 2
+ *   x IN []
+ *   x == null &amp;&amp; x &gt; 5
+ * </pre>
+ * 
+ * <p>The analysis is conservative, the simple expressions it can not reason 
+ * about (like {@code LIKE} or a {@code Parameter} value) and the values it 
+ * can not compare are ignored. The string values are also ignored, because 
+ * the collation of the database may be different from Java, like ignoring 
+ * case or trailing spaces.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class MintermAnalyzer {
+	private MintermAnalyzer() {}
+	
+	/**
+	 * Check an expression may have a minterm which can never be true.
+	 * 
+	 * <p>This is a quick check without the sum-of-products expansion, it 
+	 * returns {@code false} if there is no {@code IN} expression and each 
+	 * subject only appears once. It also returns {@code false} if there is a 
+	 * complemented compound expression, because the sum-of-products 
+	 * expansion does not distribute its complement correctly.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be checked.
+	 *         
+	 * @return  {@code true} if a minterm may never be true;
+	 *          {@code false} if all the minterms can be true or the 
+	 *          expression can not be analyzed.
+	 *          
+	 * @since   1.1
+	 */
+	static boolean mayBeUnsatisfiable(Expression expression) {
+		return mayBeUnsatisfiable(expression, false);
+	}
+	
+	/**
+	 * Check an expression may have a minterm which can never be true, same 
+	 * as {@link #mayBeUnsatisfiable(Expression)}.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be checked.
+	 * 
+	 * @param  parametersBound
+	 *         Whether the {@code Parameter} values will be bound before the 
+	 *         minterms are checked, so they are treated as the other values.
+	 * 
+	 * @return  {@code true} if a minterm may never be true;
+	 *          {@code false} if all the minterms can be true or the 
+	 *          expression can not be analyzed.
+	 * 
+	 * @since   1.1
+	 */
+	static boolean mayBeUnsatisfiable(Expression expression, boolean parametersBound) {
+		return !hasComplementedCompoundExpression(expression) && hasRepeatedSubject(expression, parametersBound, new HashSet<>());
+	}
+	
+	private static boolean hasRepeatedSubject(Expression expression, boolean parametersBound, Set<Subject> subjects) {
+		if (!expression.isCompound()) {
+			if (expression.getSubject() == null || (!parametersBound && expression.getValue() instanceof Parameter)) {
+				return false;
+			}
+			return Expression.IN.equals(expression.getOperator()) || !subjects.add(expression.getSubject());
+		}
+		
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			if (hasRepeatedSubject(expression.getSubExpression(i), parametersBound, subjects)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean hasComplementedCompoundExpression(Expression expression) {
+		if (!expression.isCompound()) {
+			return false;
+		}
+		
+		if (expression.isComplement()) {
+			return true;
+		}
+		
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			if (hasComplementedCompoundExpression(expression.getSubExpression(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Check a minterm can be true or not.
+	 * 
+	 * @param  minterm
+	 *         The simple expressions of the minterm, they are connected by 
+	 *         AND.
+	 *         
+	 * @return  {@code true} if the minterm can be true;
+	 *          {@code false} if the minterm can never be true.
+	 *          
+	 * @since   1.1
+	 */
+	static boolean isSatisfiable(List<Expression> minterm) {
+		Map<Subject, Constraint> constraints = new HashMap<>();
+		for (Expression literal : minterm) {
+			if (!literal.isCompound() && !add(constraints, literal, literal.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Check a minterm can be true or not with the values from somewhere 
+	 * else, so the minterm can be checked with different values without 
+	 * being copied.
+	 * 
+	 * @param  literals
+	 *         The simple expressions of the minterm, they are connected by 
+	 *         AND.
+	 * 
+	 * @param  positions
+	 *         The position of the value of each simple expression.
+	 * 
+	 * @param  values
+	 *         The values by their positions.
+	 * 
+	 * @return  {@code true} if the minterm can be true;
+	 *          {@code false} if the minterm can never be true.
+	 * 
+	 * @since   1.1
+	 */
+	static boolean isSatisfiable(Expression[] literals, int[] positions, IntFunction<?> values) {
+		Map<Subject, Constraint> constraints = new HashMap<>();
+		for (int i = 0; i < literals.length; i++) {
+			if (!add(constraints, literals[i], values.apply(positions[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Add a simple expression with its value into the constraint of its 
+	 * subject.
+	 * 
+	 * @return  {@code true} if the constraint is still not empty;
+	 *          {@code false} otherwise.
+	 */
+	private static boolean add(Map<Subject, Constraint> constraints, Expression literal, Object value) {
+		if (literal.getSubject() == null || value instanceof Parameter) {
+			return true;
+		}
+		
+		Constraint constraint = constraints.computeIfAbsent(literal.getSubject(), subject -> new Constraint());
+		return constraint.add(literal.getOperator(), value, literal.isComplement());
+	}
+	
+	/**
+	 * The constraint of the values of one subject in a minterm.
+	 * 
+	 * <p>A comparison with a non-null value is never true for a 
+	 * {@code null} value in SQL, even if it is complemented, so it also 
+	 * requires the value is not {@code null}.
+	 * 
+	 * @since   1.1
+	 */
+	private static final class Constraint {
+		private boolean     isNull         = false;
+		private boolean     notNull        = false;
+		private Set<Object> allowed        = null;    // the normalized allowed values, null means any value
+		private Set<Object> excluded       = new HashSet<>();
+		private Object      lower          = null;
+		private boolean     lowerInclusive = false;
+		private Object      upper          = null;
+		private boolean     upperInclusive = false;
+		
+		/**
+		 * Add a simple expression into the constraint.
+		 * 
+		 * @return  {@code true} if the constraint is still not empty;
+		 *          {@code false} otherwise.
+		 */
+		boolean add(String operator, Object value, boolean complement) {
+			if (value == null) {
+				if (Expression.EQUAL.equals(operator) || Expression.NOT_EQUAL.equals(operator)) {
+					if (Expression.EQUAL.equals(operator) != complement) {
+						isNull = true;
+					} else {
+						notNull = true;
+					}
+				}
+				return check();
+			}
+			
+			notNull = true;
+			if (containsString(value)) {
+				return check();
+			}
+			
+			switch (operator) {
+				case Expression.EQUAL:              if (complement) { exclude(value); } else { allow(value); } break;
+				case Expression.NOT_EQUAL:          if (complement) { allow(value); } else { exclude(value); } break;
+				case Expression.IN:                 if (complement) { excludeAll(value); } else { allowAll(value); } break;
+				case Expression.GREATER_THAN:       if (complement) { setUpper(value, true);  } else { setLower(value, false); } break;
+				case Expression.GREATER_THAN_EQUAL: if (complement) { setUpper(value, false); } else { setLower(value, true);  } break;
+				case Expression.LESS_THAN:          if (complement) { setLower(value, true);  } else { setUpper(value, false); } break;
+				case Expression.LESS_THAN_EQUAL:    if (complement) { setLower(value, false); } else { setUpper(value, true);  } break;
+				default: break;
+			}
+			return check();
+		}
+		
+		private void allow(Object value) {
+			Set<Object> values = new HashSet<>();
+			values.add(normalize(value));
+			retain(values);
+		}
+		
+		private void allowAll(Object value) {
+			Set<Object> values = new HashSet<>();
+			for (Object element : toIterable(value)) {
+				if (element != null) {    // x IN (..., NULL) is never true for NULL
+					values.add(normalize(element));
+				}
+			}
+			retain(values);
+		}
+		
+		private void retain(Set<Object> values) {
+			if (allowed == null) {
+				allowed = values;
+			} else {
+				allowed.retainAll(values);
+			}
+		}
+		
+		private void exclude(Object value) {
+			excluded.add(normalize(value));
+		}
+		
+		private void excludeAll(Object value) {
+			for (Object element : toIterable(value)) {
+				if (element != null) {
+					excluded.add(normalize(element));
+				}
+			}
+		}
+		
+		private void setLower(Object value, boolean inclusive) {
+			Integer c = lower == null ? Integer.valueOf(1) : compare(value, lower);
+			if (c != null && (c > 0 || (c == 0 && !inclusive))) {
+				lower          = value;
+				lowerInclusive = inclusive;
+			}
+		}
+		
+		private void setUpper(Object value, boolean inclusive) {
+			Integer c = upper == null ? Integer.valueOf(-1) : compare(value, upper);
+			if (c != null && (c < 0 || (c == 0 && !inclusive))) {
+				upper          = value;
+				upperInclusive = inclusive;
+			}
+		}
+		
+		/**
+		 * Check the constraint is empty or not.
+		 * 
+		 * @return  {@code true} if the constraint is not empty;
+		 *          {@code false} otherwise.
+		 */
+		private boolean check() {
+			if (isNull) {
+				return !notNull;
+			}
+			
+			if (lower != null && upper != null) {
+				Integer c = compare(lower, upper);
+				if (c != null && (c > 0 || (c == 0 && (!lowerInclusive || !upperInclusive || excluded.contains(normalize(lower)))))) {
+					return false;
+				}
+			}
+			
+			if (allowed != null) {
+				Iterator<Object> iterator = allowed.iterator();
+				while (iterator.hasNext()) {
+					Object value = iterator.next();
+					if (excluded.contains(value) || !isInBounds(value)) {
+						iterator.remove();
+					}
+				}
+				return !allowed.isEmpty();
+			}
+			return true;
+		}
+		
+		private boolean isInBounds(Object value) {
+			Integer c1 = lower == null ? null : compare(value, lower);
+			Integer c2 = upper == null ? null : compare(value, upper);
+			return (c1 == null || c1 > 0 || (c1 == 0 && lowerInclusive)) 
+					&& (c2 == null || c2 < 0 || (c2 == 0 && upperInclusive));
+		}
+		
+		/**
+		 * Compare 2 values.
+		 * 
+		 * @return  The result of the comparison, or {@code null} if the 
+		 *          values can not be compared.
+		 */
+		private static Integer compare(Object value1, Object value2) {
+			if (value1 instanceof String || value2 instanceof String) {
+				return null;
+			}
+			
+			try {
+				return ExpressionCompiler.compareValues(value1, value2, false);
+			} catch (IllegalArgumentException | ClassCastException e) {
+				return null;
+			}
+		}
+		
+		private static Object normalize(Object value) {
+			return ExpressionCompiler.normalize(value, false);
+		}
+		
+		/**
+		 * Check a value or any element of it is a string, the strings are 
+		 * not reasoned about.
+		 */
+		private static boolean containsString(Object value) {
+			for (Object element : toIterable(value)) {
+				if (element instanceof String) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		private static Iterable<?> toIterable(Object value) {
+			if (value instanceof Object[]) {
+				return Arrays.asList((Object[]) value);
+			} else if (value instanceof Iterable) {
+				return (Iterable<?>) value;
+			} else {
+				return Arrays.asList(value);
+			}
+		}
+	}
+}
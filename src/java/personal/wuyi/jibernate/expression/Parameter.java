@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.io.Serializable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The class represents a named placeholder which can be used as the value 
+ * of an expression.
+ * 
+ * <p>The real value of a placeholder is not a part of an expression, so 
+ * the expressions which only differ in values can share the same structure, 
+ * like the same JPQL statement.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class Parameter implements Serializable {
+	private static final long serialVersionUID = -4318926416013750641L;
+
+	private final String name;
+
+	/**
+	 * Constructs a {@code Parameter}.
+	 * 
+	 * @param  name
+	 *         The name of a parameter.
+	 *         
+     * @since   1.1
+	 */
+	public Parameter(String name) {
+		Preconditions.checkArgument(name != null && !name.isEmpty(), "The name of a parameter can not be empty.");
+		this.name = name;
+	}
+	
+	public String getName() { return name; }
+
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof Parameter)) {
+			return false;
+		}
+
+		return name.equals(((Parameter) o).getName());
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return ":" + name;
+	}
+}
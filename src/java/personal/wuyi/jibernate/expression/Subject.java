@@ -18,6 +18,8 @@ package personal.wuyi.jibernate.expression;
 
 import java.io.Serializable;
 
+import com.google.common.base.Preconditions;
+
 /**
  * The class represents the subject of an expression.
  * 
@@ -29,8 +31,9 @@ import java.io.Serializable;
 public class Subject implements Cloneable, Serializable {
 	private static final long serialVersionUID = 1248241253649789268L;
 
-	private           String name;
-	private transient Object value;
+	private           String  name;
+	private transient Object  value;
+	private transient boolean frozen = false;
 
 	/**
 	 * Constructs a {@code Subject}.
@@ -69,15 +72,41 @@ public class Subject implements Cloneable, Serializable {
 		this.value = value;
 	}
 	
-	public String getName()              { return name;        }
-	public void   setName(String name)   { this.name = name;   }
-	public Object getValue()             { return value;       }
-	public void   setValue(Object value) { this.value = value; }
+	public String  getName()              { return name;                         }
+	public void    setName(String name)   { checkNotFrozen(); this.name = name;   }
+	public Object  getValue()             { return value;                        }
+	public void    setValue(Object value) { checkNotFrozen(); this.value = value; }
+	public boolean isFrozen()             { return frozen;                       }
+	
+	/**
+	 * Freeze this subject, so it can be shared by the frozen expressions.
+	 * 
+	 * @see  Expression#isFrozen()
+	 * 
+	 * @since   1.1
+	 */
+	void freeze() {
+		frozen = true;
+	}
+	
+	/**
+	 * Check this subject can be modified.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If this subject is frozen, it needs to be cloned before 
+	 *          modifying.
+	 * 
+	 * @since   1.1
+	 */
+	private void checkNotFrozen() {
+		Preconditions.checkState(!frozen, "The subject is frozen, it needs to be cloned before modifying.");
+	}
 
 	@Override
 	public Object clone() {
 		try {
 			Subject cloned = (Subject) super.clone();
+			cloned.frozen = false;
 
 			if(value != null) {
 				Object copied = value;
@@ -120,4 +149,12 @@ public class Subject implements Cloneable, Serializable {
 
 		return true;
 	}
+
+	@Override
+	public int hashCode() {
+		int hash = 17;
+		hash = 31 * hash + (name  == null ? 0 : name.hashCode());
+		hash = 31 * hash + (value == null ? 0 : value.hashCode());
+		return hash;
+	}
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.function.IntFunction;
+
+/**
+ * The check of whether an expression can never be true which is prepared 
+ * once and run many times with different values, like the criteria of a 
+ * prepared query.
+ * 
+ * <p>The sum-of-products expansion is done only once when the check is 
+ * prepared by {@link ExpressionEngine#prepareUnsatisfiabilityCheck(Expression)}, 
+ * each run only checks the minterms with the values of the simple 
+ * expressions, so the expression does not need to be copied or expanded 
+ * again. The simple expressions are identified by their positions in 
+ * {@link Expression#prefix(java.util.function.Consumer)}.
+ * 
+ * <p>The check is immutable, so it is thread-safe.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public final class UnsatisfiabilityCheck {
+	private final Expression[][] minterms;     // the simple expressions of each minterm
+	private final int[][]        positions;    // the position of the value of each simple expression
+
+	/**
+	 * Constructs a {@code UnsatisfiabilityCheck}.
+	 * 
+	 * @param  minterms
+	 *         The simple expressions of each minterm.
+	 * 
+	 * @param  positions
+	 *         The position of the value of each simple expression.
+	 * 
+	 * @since   1.1
+	 */
+	UnsatisfiabilityCheck(Expression[][] minterms, int[][] positions) {
+		this.minterms  = minterms;
+		this.positions = positions;
+	}
+	
+	/**
+	 * Check the expression can never be true with the given values.
+	 * 
+	 * <p>The result is conservative, {@code false} means the expression may 
+	 * be true.
+	 * 
+	 * @param  values
+	 *         The values of the simple expressions by their positions.
+	 * 
+	 * @return  {@code true} if the expression can never be true;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	public boolean isUnsatisfiable(IntFunction<?> values) {
+		for (int i = 0; i < minterms.length; i++) {
+			if (MintermAnalyzer.isSatisfiable(minterms[i], positions[i], values)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * The abstract class of the connection pools.
+ * 
+ * <p>This class wraps the {@code DataSource} of the pool implementation to 
+ * measure the wait time and the timeouts, the sub-classes only need to 
+ * provide the pooled {@code DataSource} and the live numbers of the 
+ * connections.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public abstract class AbstractConnectionPool implements ConnectionPool {
+	private final WaitTimeHistogram waitTimeHistogram = new WaitTimeHistogram();
+	private final LongAdder         timeouts          = new LongAdder();
+	
+	private DataSource dataSource;
+	
+	/**
+	 * Get the {@code DataSource} of the pool implementation.
+	 * 
+	 * @return  The pooled {@code DataSource}.
+	 * 
+	 * @since   1.1
+	 */
+	protected abstract DataSource getPooledDataSource();
+	
+	/**
+	 * Get the number of the connections which are borrowed.
+	 * 
+	 * @return  The number of the active connections.
+	 * 
+	 * @since   1.1
+	 */
+	protected abstract int getActiveConnections();
+	
+	/**
+	 * Get the number of the idle connections in the pool.
+	 * 
+	 * @return  The number of the idle connections.
+	 * 
+	 * @since   1.1
+	 */
+	protected abstract int getIdleConnections();
+	
+	/**
+	 * Get the maximum number of the connections of the pool.
+	 * 
+	 * @return  The maximum number of the connections.
+	 * 
+	 * @since   1.1
+	 */
+	protected abstract int getMaxConnections();
+	
+	/**
+	 * Check an exception of borrowing a connection is caused by timeout or 
+	 * not.
+	 * 
+	 * @param  e
+	 *         The exception thrown by the pooled {@code DataSource}.
+	 * 
+	 * @return  {@code true} if the request timed out waiting for a 
+	 *          connection, {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	protected abstract boolean isTimeout(SQLException e);
+	
+	@Override
+	public synchronized DataSource getDataSource() {
+		if (dataSource == null) {
+			dataSource = new MeteredDataSource(getPooledDataSource(), this);
+		}
+		return dataSource;
+	}
+	
+	@Override
+	public PoolMetrics getMetrics() {
+		return new PoolMetrics(getActiveConnections(), getIdleConnections(), getMaxConnections(), waitTimeHistogram.getCounts(), timeouts.sum());
+	}
+	
+	/**
+	 * Record the time of borrowing a connection.
+	 * 
+	 * @param  nanos
+	 *         The time of waiting in nanoseconds.
+	 * 
+	 * @since   1.1
+	 */
+	void recordWait(long nanos) {
+		waitTimeHistogram.record(nanos);
+	}
+	
+	/**
+	 * Record a request which timed out waiting for a connection.
+	 * 
+	 * @since   1.1
+	 */
+	void recordTimeout() {
+		timeouts.increment();
+	}
+}
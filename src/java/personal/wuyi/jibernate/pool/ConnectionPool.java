@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import javax.sql.DataSource;
+
+/**
+ * The interface of a connection pool.
+ * 
+ * <p>A connection pool provides the {@code DataSource} for the DAO and 
+ * reports the live metrics of the pool, like the number of the active 
+ * connections and the time of waiting for a connection.
+ * 
+ * <p>The implementation can be selected by the "pool.type" setting of 
+ * {@code MysqlDbConfig}, it can be "dbcp2" or the fully-qualified name of a 
+ * class which implements this interface and has a public constructor 
+ * accepting a {@code MysqlDbConfig}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public interface ConnectionPool extends AutoCloseable {
+	/**
+	 * Get the {@code DataSource} of this pool.
+	 * 
+	 * @return  The {@code DataSource} which borrows connections from this 
+	 *          pool.
+	 * 
+	 * @since   1.1
+	 */
+	public DataSource getDataSource();
+	
+	/**
+	 * Get the snapshot of the metrics of this pool.
+	 * 
+	 * @return  The current metrics of this pool.
+	 * 
+	 * @since   1.1
+	 */
+	public PoolMetrics getMetrics();
+	
+	/**
+	 * Close this pool and all the idle connections.
+	 * 
+	 * @since   1.1
+	 */
+	@Override
+	public void close();
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import com.google.common.base.Strings;
+
+import personal.wuyi.jibernate.config.MysqlDbConfig;
+
+/**
+ * The static factory class for creating the connection pool by the 
+ * configuration.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ConnectionPoolFactory {
+	public static final String DBCP2 = "dbcp2";
+	
+	private ConnectionPoolFactory() {}
+	
+	/**
+	 * Create a connection pool by the "pool.type" setting of the 
+	 * configuration.
+	 * 
+	 * <p>If the type is empty or "dbcp2", a {@code DbcpConnectionPool} will 
+	 * be created. Otherwise the type should be the fully-qualified name of a 
+	 * class which implements {@code ConnectionPool} and has a public 
+	 * constructor accepting a {@code MysqlDbConfig}.
+	 * 
+	 * @param  config
+	 *         The configuration for MySQL connection.
+	 * 
+	 * @return  The new connection pool.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the pool class can not be found or created.
+	 * 
+	 * @since   1.1
+	 */
+	public static ConnectionPool create(MysqlDbConfig config) {
+		String type = config.getPoolType();
+		if (Strings.isNullOrEmpty(type) || DBCP2.equalsIgnoreCase(type)) {
+			return new DbcpConnectionPool(config);
+		}
+		
+		try {
+			Class<?> clazz = Class.forName(type);
+			return (ConnectionPool) clazz.getConstructor(MysqlDbConfig.class).newInstance(config);
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalArgumentException("Can not create the connection pool by the type: " + type, e);
+		}
+	}
+}
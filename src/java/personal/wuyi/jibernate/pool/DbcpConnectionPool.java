@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import personal.wuyi.jibernate.config.MysqlDbConfig;
+
+/**
+ * The connection pool based on DBCP2 ({@code BasicDataSource}).
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class DbcpConnectionPool extends AbstractConnectionPool {
+	private final BasicDataSource dbcpDataSource;
+	
+	/**
+	 * Constructs a {@code DbcpConnectionPool}.
+	 * 
+	 * @param  config
+	 *         The configuration for MySQL connection.
+	 * 
+	 * @since   1.1
+	 */
+	public DbcpConnectionPool(MysqlDbConfig config) {
+		dbcpDataSource = new BasicDataSource();
+		dbcpDataSource.setDriverClassName(config.getDriverClassName());
+		dbcpDataSource.setUrl(config.getJdbcUrl());
+		dbcpDataSource.setUsername(config.getUsername());
+		dbcpDataSource.setPassword(config.getPassword());
+		dbcpDataSource.setInitialSize(config.getInitialSize());
+		dbcpDataSource.setMaxTotal(config.getMaxTotal());
+		dbcpDataSource.setMinIdle(config.getMinIdle());
+		dbcpDataSource.setMaxIdle(config.getMaxIdle());
+		dbcpDataSource.setMaxWaitMillis(config.getMaxWaitMillis());
+		dbcpDataSource.setTestOnBorrow(config.isTestOnBorrow());
+		dbcpDataSource.setValidationQueryTimeout(config.getValidationQueryTimeout());
+		dbcpDataSource.setPoolPreparedStatements(config.isPoolPreparedStatements());
+		dbcpDataSource.setMaxOpenPreparedStatements(config.getMaxOpenPreparedStatements());
+	}
+
+	@Override
+	protected DataSource getPooledDataSource() {
+		return dbcpDataSource;
+	}
+
+	@Override
+	protected int getActiveConnections() {
+		return dbcpDataSource.getNumActive();
+	}
+
+	@Override
+	protected int getIdleConnections() {
+		return dbcpDataSource.getNumIdle();
+	}
+
+	@Override
+	protected int getMaxConnections() {
+		return dbcpDataSource.getMaxTotal();
+	}
+
+	/**
+	 * Check an exception is caused by timeout or not.
+	 * 
+	 * <p>DBCP2 throws a {@code SQLException} caused by a 
+	 * {@code NoSuchElementException} when there is no idle connection within 
+	 * the max wait time.
+	 * 
+	 * @see personal.wuyi.jibernate.pool.AbstractConnectionPool#isTimeout(java.sql.SQLException)
+	 */
+	@Override
+	protected boolean isTimeout(SQLException e) {
+		return e.getCause() instanceof NoSuchElementException;
+	}
+
+	@Override
+	public void close() {
+		try {
+			dbcpDataSource.close();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Error occurred when closing the connection pool", e);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * The {@code DataSource} which measures the time of borrowing a connection 
+ * from a pool.
+ * 
+ * <p>All the calls are delegated to the {@code DataSource} of the pool, the 
+ * time of each {@code getConnection()} will be recorded into the wait-time 
+ * histogram and a failed {@code getConnection()} because of timeout will be 
+ * counted.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class MeteredDataSource implements DataSource {
+	private final DataSource             delegate;
+	private final AbstractConnectionPool pool;
+	
+	/**
+	 * Constructs a {@code MeteredDataSource}.
+	 * 
+	 * @param  delegate
+	 *         The {@code DataSource} of the pool.
+	 * 
+	 * @param  pool
+	 *         The pool which records the metrics.
+	 * 
+	 * @since   1.1
+	 */
+	MeteredDataSource(DataSource delegate, AbstractConnectionPool pool) {
+		this.delegate = delegate;
+		this.pool     = pool;
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		try {
+			Connection connection = delegate.getConnection();
+			pool.recordWait(System.nanoTime() - start);
+			return connection;
+		} catch (SQLException e) {
+			if (pool.isTimeout(e)) {
+				pool.recordTimeout();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		try {
+			Connection connection = delegate.getConnection(username, password);
+			pool.recordWait(System.nanoTime() - start);
+			return connection;
+		} catch (SQLException e) {
+			if (pool.isTimeout(e)) {
+				pool.recordTimeout();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return delegate.getLogWriter();
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		delegate.setLogWriter(out);
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		delegate.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return delegate.getLoginTimeout();
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		return delegate.getParentLogger();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(delegate)) {
+			return iface.cast(delegate);
+		}
+		return delegate.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+	}
+}
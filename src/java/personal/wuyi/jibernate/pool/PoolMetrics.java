@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import java.util.Arrays;
+
+/**
+ * The snapshot of the metrics of a connection pool.
+ * 
+ * <p>The wait-time histogram has fixed buckets, the bucket {@code i} counts 
+ * the waits shorter than {@code getWaitTimeBounds()[i]} milliseconds (and 
+ * not shorter than the previous bound), the last bucket counts all the 
+ * waits not shorter than the last bound.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class PoolMetrics {
+	private final int    activeConnections;
+	private final int    idleConnections;
+	private final int    maxConnections;
+	private final long[] waitTimeCounts;
+	private final long   timeouts;
+	
+	/**
+	 * Constructs a {@code PoolMetrics}.
+	 * 
+	 * @param  activeConnections
+	 *         The number of the connections which are borrowed.
+	 * 
+	 * @param  idleConnections
+	 *         The number of the idle connections in the pool.
+	 * 
+	 * @param  maxConnections
+	 *         The maximum number of the connections of the pool.
+	 * 
+	 * @param  waitTimeCounts
+	 *         The number of waits in each bucket of the wait-time histogram.
+	 * 
+	 * @param  timeouts
+	 *         The number of the requests which failed because of timeout.
+	 * 
+	 * @since   1.1
+	 */
+	public PoolMetrics(int activeConnections, int idleConnections, int maxConnections, long[] waitTimeCounts, long timeouts) {
+		this.activeConnections = activeConnections;
+		this.idleConnections   = idleConnections;
+		this.maxConnections    = maxConnections;
+		this.waitTimeCounts    = waitTimeCounts.clone();
+		this.timeouts          = timeouts;
+	}
+	
+	public int    getActiveConnections() { return activeConnections;                       }
+	public int    getIdleConnections()   { return idleConnections;                         }
+	public int    getMaxConnections()    { return maxConnections;                          }
+	public long[] getWaitTimeBounds()    { return WaitTimeHistogram.BUCKET_BOUNDS.clone(); }
+	public long[] getWaitTimeCounts()    { return waitTimeCounts.clone();                  }
+	public long   getTimeouts()          { return timeouts;                                }
+	
+	/**
+	 * Get the total number of the successful connection requests.
+	 * 
+	 * @return  The total number of the successful connection requests.
+	 * 
+	 * @since   1.1
+	 */
+	public long getConnectionRequests() {
+		return Arrays.stream(waitTimeCounts).sum();
+	}
+	
+	@Override
+	public String toString() {
+		return "PoolMetrics [active=" + activeConnections + ", idle=" + idleConnections + ", max=" + maxConnections 
+				+ ", waitTimeCounts=" + Arrays.toString(waitTimeCounts) + ", timeouts=" + timeouts + "]";
+	}
+}
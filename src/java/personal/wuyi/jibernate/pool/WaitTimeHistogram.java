@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The histogram of the time of waiting for a connection.
+ * 
+ * <p>The buckets are fixed, the upper bounds (in milliseconds) of the 
+ * buckets are {@link #BUCKET_BOUNDS}, the last bucket counts all the waits 
+ * longer than the last bound. Recording a wait is lock-free, so it can be 
+ * called by many threads.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+class WaitTimeHistogram {
+	static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+	
+	/**
+	 * Record the time of one wait.
+	 * 
+	 * @param  nanos
+	 *         The time of waiting in nanoseconds.
+	 * 
+	 * @since   1.1
+	 */
+	void record(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		int  index  = 0;
+		while (index < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[index]) {
+			index++;
+		}
+		counts.incrementAndGet(index);
+	}
+	
+	/**
+	 * Get the number of waits in each bucket.
+	 * 
+	 * @return  The array of the counts, the length is the number of bounds 
+	 *          plus one.
+	 * 
+	 * @since   1.1
+	 */
+	long[] getCounts() {
+		long[] snapshot = new long[counts.length()];
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+		}
+		return snapshot;
+	}
+}
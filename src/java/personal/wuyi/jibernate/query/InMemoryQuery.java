@@ -0,0 +1,357 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.ExpressionEngine;
+
+/**
+ * The query which is evaluated against the records in memory.
+ * 
+ * <p>A {@code JQuery} is compiled once and it can be applied to any 
+ * collection or stream of records, like the cached result sets, without 
+ * going back to the database:
+ * <pre>
+ * {@code
+ * InMemoryQuery<Student> query = new InMemoryQuery<>(jQuery);
+ * List<Student> students = query.read(cachedStudents);
+ * }
+ * </pre>
+ * 
+ * <p>The semantics are the same as the JPQL generated by 
+ * {@code QueryConverter}: 
+ * <ul>
+ *   <li>The criteria is normalized by the same transformers, so "uri" is 
+ *   compared by the primary key, {@code STARTS_WITH}, {@code ENDS_WITH} and 
+ *   {@code CONTAINS} are evaluated as {@code LIKE}, and only the head 
+ *   revisions of a versioned class are matched unless the query is on 
+ *   history.
+ *   <li>The strings are compared case-insensitively if the query is not 
+ *   case-sensitive, and a comparison on {@code null} is unknown as SQL does.
+ *   <li>The records are sorted in the same way as {@link SortComparator}, 
+ *   an enumeration is sorted by its name because it is stored as a string.
+ *   The records with the same sorting values keep their original order.
+ *   <li>The offset and the limit are applied after sorting. If there is a 
+ *   limit, only the first {@code offset + limit} records are kept in a 
+ *   bounded heap instead of sorting all the matched records.
+ * </ul>
+ * 
+ * <p>The custom JPQL of an {@code EntityQuery} can not be evaluated in 
+ * memory.
+ * 
+ * @param  <T>
+ *         The type of the records.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class InMemoryQuery<T extends Persisted> implements Predicate<T> {
+	private final JQuery<T>    query;
+	private final Expression   criteria;
+	private final Predicate<T> predicate;
+	private final String[]     sortFields;
+	private final boolean[]    ascending;
+	
+	/**
+	 * Constructs a {@code InMemoryQuery}.
+	 * 
+	 * @param  query
+	 *         The query, the values of a {@code PreparedJQuery} need to be 
+	 *         bound.
+	 * 
+	 * @throws  UnsupportedOperationException
+	 *          If the query is an {@code EntityQuery} with custom JPQL.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the criteria can not be evaluated.
+	 * 
+	 * @since   1.1
+	 */
+	public InMemoryQuery(JQuery<T> query) {
+		Preconditions.checkNotNull(query, "The query can not be null.");
+		if (query instanceof EntityQuery && ((EntityQuery<T>) query).getJpql() != null) {
+			throw new UnsupportedOperationException("The custom JPQL of an EntityQuery can not be evaluated in memory.");
+		}
+		
+		this.query     = query instanceof PreparedJQuery ? ((PreparedJQuery<T>) query).toJQuery() : query;
+		this.criteria  = QueryConverter.transformCriteria(this.query);
+		this.predicate = criteria == null ? null : ExpressionEngine.compile(criteria, this.query.getPersistedClass(), this.query.isCaseSensitive());
+		
+		List<Sort> sortList = this.query.getSort() == null ? Collections.emptyList() : this.query.getSort().toList();
+		this.sortFields = new String[sortList.size()];
+		this.ascending  = new boolean[sortList.size()];
+		for (int i = 0; i < sortList.size(); i++) {
+			sortFields[i] = sortList.get(i).getField();
+			ascending[i]  = sortList.get(i).isAscending();
+		}
+	}
+	
+	/**
+	 * Get the normalized criteria.
+	 * 
+	 * @return  The criteria after transforming, or {@code null} if all the 
+	 *          records are matched.
+	 * 
+	 * @since   1.1
+	 */
+	public Expression getCriteria() {
+		return criteria;
+	}
+	
+	/* (non-Javadoc)
+	 * A record is matched only if the criteria is true, not false or unknown.
+	 * 
+	 * @see java.util.function.Predicate#test(java.lang.Object)
+	 */
+	@Override
+	public boolean test(T t) {
+		return predicate == null || predicate.test(t);
+	}
+	
+	/**
+	 * Read the matched records from a collection.
+	 * 
+	 * @param  records
+	 *         The collection of the records.
+	 * 
+	 * @return  The matched records after sorting and paging.
+	 * 
+	 * @since   1.1
+	 */
+	public List<T> read(Collection<? extends T> records) {
+		return read(records.stream());
+	}
+	
+	/**
+	 * Read the matched records from a stream.
+	 * 
+	 * @param  records
+	 *         The stream of the records, the order of the stream is kept for 
+	 *         the records which are not sorted.
+	 * 
+	 * @return  The matched records after sorting and paging.
+	 * 
+	 * @since   1.1
+	 */
+	public List<T> read(Stream<? extends T> records) {
+		int     offset  = query.getOffset() == null ? 0 : query.getOffset();
+		Integer limit   = query.getLimit();
+		List<T> result  = new ArrayList<>();
+		
+		Stream<? extends T> matched = records.filter(this::test);
+		if (sortFields.length == 0) {
+			matched = matched.skip(offset);
+			if (limit != null) {
+				matched = matched.limit(limit);
+			}
+			matched.forEachOrdered(result::add);
+			return result;
+		}
+		
+		List<Row<T>> rows = (limit == null) ? sort(matched) : top(matched, (long) offset + limit);
+		for (int i = offset; i < rows.size(); i++) {
+			result.add(rows.get(i).record);
+		}
+		return result;
+	}
+	
+	/**
+	 * Read the selected fields of the matched records from a collection.
+	 * 
+	 * <p>The selected fields are distinct before paging if the query is 
+	 * distinct, same as {@code SELECT DISTINCT}.
+	 * 
+	 * @param  records
+	 *         The collection of the records.
+	 * 
+	 * @param  fieldNames
+	 *         The array of field names in Java class.
+	 * 
+	 * @return  The nested {@code List} of {@code List<?>}. The element in 
+	 *          the outer list is by record. The elements in the inner list 
+	 *          are the values of the selected fields.
+	 * 
+	 * @since   1.1
+	 */
+	public List<List<?>> read(Collection<? extends T> records, String... fieldNames) {
+		List<T> matched;
+		if (query.isDistinct()) {
+			matched = new ArrayList<>();
+			for (Row<T> row : sort(records.stream().filter(this::test))) {
+				matched.add(row.record);
+			}
+		} else {
+			matched = read(records);
+		}
+		
+		Collection<List<?>> rows = query.isDistinct() ? new LinkedHashSet<>() : new ArrayList<>();
+		for (T t : matched) {
+			List<Object> row = new ArrayList<>(fieldNames.length);
+			for (String fieldName : fieldNames) {
+				row.add(getValue(t, fieldName));
+			}
+			rows.add(row);
+		}
+		
+		List<List<?>> result = new ArrayList<>(rows);
+		if (!query.isDistinct()) {
+			return result;
+		}
+		
+		int from = query.getOffset() == null ? 0 : Math.min(query.getOffset(), result.size());
+		int to   = query.getLimit()  == null ? result.size() : (int) Math.min((long) from + query.getLimit(), result.size());
+		return new ArrayList<>(result.subList(from, to));
+	}
+	
+	/**
+	 * Count the matched records in a collection, the offset and the limit 
+	 * are ignored.
+	 * 
+	 * @param  records
+	 *         The collection of the records.
+	 * 
+	 * @return  The number of the matched records.
+	 * 
+	 * @since   1.1
+	 */
+	public long count(Collection<? extends T> records) {
+		return count(records.stream());
+	}
+	
+	/**
+	 * Count the matched records in a stream, the offset and the limit are 
+	 * ignored.
+	 * 
+	 * @param  records
+	 *         The stream of the records.
+	 * 
+	 * @return  The number of the matched records.
+	 * 
+	 * @since   1.1
+	 */
+	public long count(Stream<? extends T> records) {
+		return records.filter(this::test).count();
+	}
+	
+	/**
+	 * Sort all the records.
+	 * 
+	 * @since   1.1
+	 */
+	private List<Row<T>> sort(Stream<? extends T> records) {
+		List<Row<T>> rows = new ArrayList<>();
+		records.forEachOrdered(t -> rows.add(new Row<>(t, getSortValues(t), rows.size())));
+		rows.sort(this::compareRows);
+		return rows;
+	}
+	
+	/**
+	 * Keep the first k records in a max-heap, the largest one is replaced 
+	 * once a smaller record comes, so only O(n log k) comparisons are 
+	 * needed.
+	 * 
+	 * @since   1.1
+	 */
+	private List<Row<T>> top(Stream<? extends T> records, long k) {
+		if (k <= 0) {
+			return Collections.emptyList();
+		}
+		
+		PriorityQueue<Row<T>> heap  = new PriorityQueue<>((row1, row2) -> compareRows(row2, row1));
+		long[]                count = new long[1];
+		records.forEachOrdered(t -> {
+			Row<T> row = new Row<>(t, getSortValues(t), count[0]++);
+			if (heap.size() < k) {
+				heap.add(row);
+			} else if (compareRows(row, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(row);
+			}
+		});
+		
+		List<Row<T>> rows = new ArrayList<>(heap);
+		rows.sort(this::compareRows);
+		return rows;
+	}
+	
+	private int compareRows(Row<T> row1, Row<T> row2) {
+		for (int i = 0; i < sortFields.length; i++) {
+			int result = SortComparator.compareValues(row1.values[i], row2.values[i]);
+			if (result != 0) {
+				return ascending[i] ? result : -result;
+			}
+		}
+		return Long.compare(row1.position, row2.position);
+	}
+	
+	/**
+	 * Read the sorting values of a record once, so they are not read again 
+	 * by each comparison.
+	 * 
+	 * @since   1.1
+	 */
+	private Object[] getSortValues(T t) {
+		Object[] values = new Object[sortFields.length];
+		for (int i = 0; i < sortFields.length; i++) {
+			Object value = getValue(t, sortFields[i]);
+			values[i] = (value instanceof Enum) ? ((Enum<?>) value).name() : value;
+		}
+		return values;
+	}
+	
+	private static Object getValue(Object record, String field) {
+		try {
+			return PropertyUtils.getProperty(record, field);
+		} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("Can not read the field: " + field, e);
+		}
+	}
+	
+	/**
+	 * A record with its sorting values and its original position.
+	 * 
+	 * @since   1.1
+	 */
+	private static class Row<T> {
+		private final T        record;
+		private final Object[] values;
+		private final long     position;
+		
+		private Row(T record, Object[] values, long position) {
+			this.record   = record;
+			this.values   = values;
+			this.position = position;
+		}
+	}
+}
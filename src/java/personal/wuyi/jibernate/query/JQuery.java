@@ -85,6 +85,25 @@ public class JQuery<E extends Persisted> {
     	this.limit = limit;
     }
     
+    /**
+     * Compile this query into a {@code PreparedJQuery}.
+     * 
+     * <p>The values of the criteria can be named placeholders 
+     * ({@link personal.wuyi.jibernate.expression.Parameter}), their values 
+     * will be bound before each execution. The prepared query is 
+     * independent from this query, changing this query later will not 
+     * affect it.
+     * 
+     * @return  The prepared query.
+     * 
+     * @see  PreparedJQuery
+     * 
+     * @since   1.1
+     */
+    public PreparedJQuery<E> compile() {
+    	return new PreparedJQuery<>(this);
+    }
+    
     /**
      * Set an simple expression as the criteria of the query.
      * 
@@ -227,4 +246,25 @@ public class JQuery<E extends Persisted> {
     	
     	return history == jq.isHistory();
     }
+    
+    /* (non-Javadoc)
+     * The hash code is consistent with equals(Object), so a query can be 
+     * used as the key of a map. Like any mutable key, a query should not be 
+     * modified while it is in a map.
+     * 
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+    	int hash = 17;
+    	hash = 31 * hash + (clazz    == null ? 0 : clazz.hashCode());
+    	hash = 31 * hash + (criteria == null ? 0 : criteria.hashCode());
+    	hash = 31 * hash + (sort     == null ? 0 : sort.hashCode());
+    	hash = 31 * hash + (offset   == null ? 0 : offset.hashCode());
+    	hash = 31 * hash + (limit    == null ? 0 : limit.hashCode());
+    	hash = 31 * hash + (caseSensitive ? 1 : 0);
+    	hash = 31 * hash + (distinct      ? 1 : 0);
+    	hash = 31 * hash + (history       ? 1 : 0);
+    	return hash;
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+/**
+ * The JPQL statement generated for a {@link QueryShape}.
+ * 
+ * <p>The parameter names are ordered by the simple expressions in the 
+ * criteria (in the order of {@link personal.wuyi.jibernate.expression.Expression#prefix}), 
+ * so the values of a query with the same shape can be bound without 
+ * building the parameter names again. The name is {@code null} if the value 
+ * of a simple expression is {@code null}, because it is rendered as 
+ * {@code IS NULL} or {@code IS NOT NULL} without a parameter.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class JpqlTemplate {
+	private final String   jpql;
+	private final String[] parameterNames;
+	
+	/**
+	 * Constructs a {@code JpqlTemplate}.
+	 * 
+	 * @param  jpql
+	 *         The JPQL statement.
+	 *         
+	 * @param  parameterNames
+	 *         The parameter names by the simple expressions of the criteria.
+	 * 
+	 * @since   1.1
+	 */
+	JpqlTemplate(String jpql, String[] parameterNames) {
+		this.jpql           = jpql;
+		this.parameterNames = parameterNames;
+	}
+	
+	String   getJpql()           { return jpql;           }
+	String[] getParameterNames() { return parameterNames; }
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.entity.Persisted;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
+import personal.wuyi.jibernate.expression.UnsatisfiabilityCheck;
+import personal.wuyi.jibernate.util.ReflectUtil2;
+
+/**
+ * The query which is compiled once and executed many times with different 
+ * values.
+ * 
+ * <p>The values of the criteria can be named placeholders 
+ * ({@link Parameter}). The criteria is transformed and the JPQL statement 
+ * is generated only once, each execution only binds the values of the 
+ * placeholders:
+ * <pre>
+ * {@code
+ * JQuery<Student> query = new JQuery<>(Student.class);
+ * query.setCriteria("firstName", Expression.EQUAL, new Parameter("name"));
+ * PreparedJQuery<Student> prepared = query.compile();
+ * 
+ * List<Student> students = dao.read(prepared.bind("name", "John"));
+ * }
+ * </pre>
+ * 
+ * <p>The criteria, the sorting option and the flags of a prepared query can 
+ * not be changed, only the limit and the offset can. A prepared query 
+ * holds the bound values, so it is not thread-safe. Use {@link #copy()} to 
+ * get another instance for another thread, the compiled state is shared.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class PreparedJQuery<E extends Persisted> extends JQuery<E> {
+	private static final Object UNBOUND = new Object();
+	
+	private final Expression                              transformedCriteria;
+	private final Map<String,Integer>                     parameterIndexes;
+	private final String[]                                parameterNames;
+	private final int[]                                   leafParameters;    // the parameter index of each simple expression, -1 for a constant
+	private final Expression[]                            sourceLeaves;      // the simple expression before transforming if its bound value needs to be transformed
+	private final Object[]                                constants;
+	private final UnsatisfiabilityCheck                   unsatisfiabilityCheck;
+	private final ConcurrentMap<List<Object>,JpqlTemplate> templates;
+	private final Object[]                                bindings;
+	
+	/**
+	 * Constructs a {@code PreparedJQuery} by compiling a query.
+	 * 
+	 * <p>The simple expressions of the transformed criteria are mapped to the 
+	 * original ones by their positions, so a registered transformer can not 
+	 * remove a simple expression or change a placeholder.
+	 * 
+	 * @param  query
+	 *         The query needs to be compiled.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If a simple expression is removed or a placeholder is 
+	 *          changed by a transformer.
+	 * 
+	 * @since   1.1
+	 */
+	PreparedJQuery(JQuery<E> query) {
+		this.clazz         = query.getPersistedClass();
+		this.criteria      = query.getCriteria() == null ? null : (Expression) query.getCriteria().clone();
+		this.sort          = copy(query.getSort());
+		this.offset        = query.getOffset();
+		this.limit         = query.getLimit();
+		this.caseSensitive = query.isCaseSensitive();
+		this.distinct      = query.isDistinct();
+		this.history       = query.isHistory();
+		
+		this.transformedCriteria = QueryConverter.transformCriteria(this);
+		
+		List<Expression> sources = QueryConverter.getSimpleExpressions(criteria);
+		List<Expression> leaves  = QueryConverter.getSimpleExpressions(transformedCriteria);
+		Map<String,Integer> indexes = new LinkedHashMap<>();
+		
+		int expectedSize = sources.size() + (QueryConverter.hasHeadCriteria(this) ? 1 : 0);
+		Preconditions.checkState(leaves.size() == expectedSize, 
+				"The criteria of a prepared query has %s simple expressions after transforming, but %s are expected. A registered transformer can not remove a simple expression of a prepared query.", 
+				leaves.size(), expectedSize);
+		
+		this.leafParameters = new int[leaves.size()];
+		this.sourceLeaves   = new Expression[leaves.size()];
+		this.constants      = new Object[leaves.size()];
+		
+		for (int i = 0; i < leaves.size(); i++) {
+			Expression leaf  = leaves.get(i);
+			Object     value = leaf.getValue();
+			
+			if (value instanceof Parameter) {
+				String name = ((Parameter) value).getName();
+				if (!indexes.containsKey(name)) {
+					indexes.put(name, indexes.size());
+				}
+				leafParameters[i] = indexes.get(name);
+				
+				// the bound value needs to be transformed the same way if a transformer rewrites this simple expression
+				Expression source = sources.get(i);
+				Preconditions.checkState(value.equals(source.getValue()), 
+						"The placeholder %s of a prepared query is changed to %s by a registered transformer.", source.getValue(), value);
+				if (!source.getSubject().getName().equals(leaf.getSubject().getName()) || !source.getOperator().equals(leaf.getOperator())) {
+					sourceLeaves[i] = source;
+				}
+			} else {
+				leafParameters[i] = -1;
+				constants[i]      = value;
+			}
+		}
+		
+		this.parameterIndexes      = Collections.unmodifiableMap(indexes);
+		this.parameterNames        = indexes.keySet().toArray(new String[indexes.size()]);
+		this.unsatisfiabilityCheck = QueryConverter.prepareUnsatisfiabilityCheck(transformedCriteria);
+		this.templates             = new ConcurrentHashMap<>();
+		this.bindings              = new Object[parameterNames.length];
+		Arrays.fill(bindings, UNBOUND);
+	}
+	
+	/**
+	 * Constructs a {@code PreparedJQuery} which shares the compiled state 
+	 * with another prepared query.
+	 * 
+	 * @param  prepared
+	 *         The prepared query needs to be copied.
+	 * 
+	 * @since   1.1
+	 */
+	private PreparedJQuery(PreparedJQuery<E> prepared) {
+		this.clazz               = prepared.clazz;
+		this.criteria            = prepared.criteria;
+		this.sort                = prepared.sort;
+		this.offset              = prepared.offset;
+		this.limit               = prepared.limit;
+		this.caseSensitive       = prepared.caseSensitive;
+		this.distinct            = prepared.distinct;
+		this.history             = prepared.history;
+		this.transformedCriteria = prepared.transformedCriteria;
+		this.parameterIndexes    = prepared.parameterIndexes;
+		this.parameterNames      = prepared.parameterNames;
+		this.leafParameters      = prepared.leafParameters;
+		this.sourceLeaves        = prepared.sourceLeaves;
+		this.constants             = prepared.constants;
+		this.unsatisfiabilityCheck = prepared.unsatisfiabilityCheck;
+		this.templates             = prepared.templates;
+		this.bindings              = prepared.bindings.clone();
+	}
+	
+	/**
+	 * Bind the value of a named placeholder.
+	 * 
+	 * @param  name
+	 *         The name of the placeholder.
+	 *         
+	 * @param  value
+	 *         The value of the placeholder, it can be {@code null}.
+	 *         
+	 * @return  This prepared query.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the placeholder is not in the criteria.
+	 * 
+	 * @since   1.1
+	 */
+	public PreparedJQuery<E> bind(String name, Object value) {
+		Integer index = parameterIndexes.get(name);
+		Preconditions.checkArgument(index != null, "The parameter \"" + name + "\" is not in the criteria.");
+		bindings[index] = value;
+		return this;
+	}
+	
+	/**
+	 * Clear all the bound values.
+	 * 
+	 * @return  This prepared query.
+	 * 
+	 * @since   1.1
+	 */
+	public PreparedJQuery<E> clearBindings() {
+		Arrays.fill(bindings, UNBOUND);
+		return this;
+	}
+	
+	/**
+	 * Get the names of all the placeholders in the criteria.
+	 * 
+	 * @return  The set of names.
+	 * 
+	 * @since   1.1
+	 */
+	public Set<String> getParameterNames() {
+		return parameterIndexes.keySet();
+	}
+	
+	/**
+	 * Get a new instance of this prepared query with the same bound values.
+	 * 
+	 * <p>The compiled state is shared, so copying is cheap.
+	 * 
+	 * @return  The copied prepared query.
+	 * 
+	 * @since   1.1
+	 */
+	public PreparedJQuery<E> copy() {
+		return new PreparedJQuery<>(this);
+	}
+	
+	/**
+	 * Get a plain query which has the bound values in its criteria.
+	 * 
+	 * @return  The plain query.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If any placeholder is not bound.
+	 * 
+	 * @since   1.1
+	 */
+	public JQuery<E> toJQuery() {
+		JQuery<E> query = new JQuery<>(clazz);
+		
+		if (criteria != null) {
+			Expression boundCriteria = (Expression) criteria.clone();
+			for (Expression leaf : QueryConverter.getSimpleExpressions(boundCriteria)) {
+				if (leaf.getValue() instanceof Parameter) {
+					leaf.setValue(getBinding(parameterIndexes.get(((Parameter) leaf.getValue()).getName())));
+				}
+			}
+			query.setCriteria(boundCriteria);
+		}
+		
+		query.setSort(copy(sort));
+		query.setOffset(offset);
+		if (limit != null) {
+			query.setLimit(limit);
+		}
+		query.setCaseSensitive(caseSensitive);
+		query.setDistinct(distinct);
+		query.setHistory(history);
+		return query;
+	}
+	
+	/**
+	 * Convert this prepared query with the bound values to JPQL query.
+	 * 
+	 * <p>The JPQL statement is generated only once for the kinds of the 
+	 * bound values (like {@code null} or multiple values), the values are 
+	 * set as the parameters directly.
+	 * 
+	 * @param  entityManager
+	 *         The entity manager object.
+	 *         
+	 * @param  fields
+	 *         The fields needs to be queried from database.
+	 *         
+	 * @return  The JPQL query.
+	 * 
+	 * @since   1.1
+	 */
+	Query getJpaQuery(EntityManager entityManager, String... fields) {
+		return createJpaQuery(entityManager, getValues(), fields);
+	}
+	
+	/**
+	 * Convert this prepared query to JPQL query with the values got by 
+	 * {@link #getValues()}.
+	 * 
+	 * @param  entityManager
+	 *         The entity manager object.
+	 *         
+	 * @param  values
+	 *         The values of the simple expressions in the transformed 
+	 *         criteria.
+	 *         
+	 * @param  fields
+	 *         The fields needs to be queried from database.
+	 *         
+	 * @return  The JPQL query.
+	 * 
+	 * @since   1.1
+	 */
+	Query createJpaQuery(EntityManager entityManager, Object[] values, String... fields) {
+		List<Object> key = new ArrayList<>(values.length + 1);
+		key.add(Arrays.asList(fields));
+		for (Object value : values) {
+			key.add(QueryShape.getValueKind(value));
+		}
+		
+		JpqlTemplate template = templates.get(key);
+		if (template == null) {
+			Expression boundCriteria = null;
+			if (transformedCriteria != null) {
+				boundCriteria = (Expression) transformedCriteria.clone();
+				List<Expression> leaves = QueryConverter.getSimpleExpressions(boundCriteria);
+				for (int i = 0; i < values.length; i++) {
+					leaves.get(i).setValue(values[i]);
+				}
+			}
+			
+			template = QueryConverter.getJpqlTemplate(clazz, boundCriteria, sort, caseSensitive, distinct, fields);
+			templates.putIfAbsent(key, template);
+		}
+		
+		Query    jpaQuery = entityManager.createQuery(template.getJpql());
+		String[] names    = template.getParameterNames();
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] != null) {
+				jpaQuery.setParameter(names[i], QueryConverter.getParameterValue(values[i], caseSensitive));
+			}
+		}
+		
+		if (limit != null) {
+			jpaQuery.setMaxResults(limit);
+		}
+		
+		if (offset != null) {
+			jpaQuery.setFirstResult(offset);
+		}
+		
+		return jpaQuery;
+	}
+	
+	/**
+	 * Get the values of the simple expressions in the transformed criteria.
+	 * 
+	 * @return  The transformed values with the bound values.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If any placeholder is not bound.
+	 * 
+	 * @since   1.1
+	 */
+	Object[] getValues() {
+		Object[] values = new Object[leafParameters.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = getValue(i);
+		}
+		return values;
+	}
+	
+	/**
+	 * Check the criteria can never be true with some values, the check is 
+	 * prepared when this query is compiled.
+	 * 
+	 * @param  values
+	 *         The values got by {@link #getValues()}.
+	 * 
+	 * @return  {@code true} if the criteria can never be true;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	boolean isUnsatisfiable(Object[] values) {
+		return unsatisfiabilityCheck != null && unsatisfiabilityCheck.isUnsatisfiable(i -> values[i]);
+	}
+	
+	/**
+	 * Get the transformed value of a simple expression in the transformed 
+	 * criteria.
+	 * 
+	 * @param  leafIndex
+	 *         The position of the simple expression.
+	 *         
+	 * @return  The value.
+	 * 
+	 * @since   1.1
+	 */
+	private Object getValue(int leafIndex) {
+		int parameterIndex = leafParameters[leafIndex];
+		if (parameterIndex < 0) {
+			return constants[leafIndex];
+		}
+		
+		Object     value  = getBinding(parameterIndex);
+		Expression source = sourceLeaves[leafIndex];
+		if (source != null) {
+			value = QueryConverter.transform(clazz, new Expression(source.getSubject(), source.getOperator(), value)).getValue();
+		}
+		return value;
+	}
+	
+	/**
+	 * Get the bound value of a placeholder.
+	 * 
+	 * @param  parameterIndex
+	 *         The index of the placeholder.
+	 *         
+	 * @return  The bound value.
+	 * 
+	 * @throws  IllegalStateException
+	 *          If the placeholder is not bound.
+	 * 
+	 * @since   1.1
+	 */
+	private Object getBinding(int parameterIndex) {
+		Object value = bindings[parameterIndex];
+		if (value == UNBOUND) {
+			throw new IllegalStateException("The parameter \"" + parameterNames[parameterIndex] + "\" is not bound.");
+		}
+		return value;
+	}
+	
+	/**
+	 * Copy a sorting option.
+	 * 
+	 * @param  sort
+	 *         The sorting option needs to be copied.
+	 *         
+	 * @return  The copied sorting option.
+	 * 
+	 * @since   1.1
+	 */
+	private static Sort copy(Sort sort) {
+		if (sort == null) {
+			return null;
+		}
+		
+		Sort copy = null;
+		for (Sort simpleSort : sort.toList()) {
+			Sort copiedSort = new Sort(simpleSort.getField(), simpleSort.isAscending());
+			copy = (copy == null) ? copiedSort : copy.add(copiedSort);
+		}
+		return copy;
+	}
+	
+	@Override public void       setPersistedClass(Class<E> clazz)       { throw unmodifiable(); }
+	@Override public Expression setCriteria(Expression criteria)        { throw unmodifiable(); }
+	@Override public Expression setCriteria(String subject, String operator, Object value) { throw unmodifiable(); }
+	@Override public void       setSort(Sort sort)                      { throw unmodifiable(); }
+	@Override public void       setSort(String... sorts)                { throw unmodifiable(); }
+	@Override public void       setCaseSensitive(boolean caseSensitive) { throw unmodifiable(); }
+	@Override public void       setDistinct(boolean distinct)           { throw unmodifiable(); }
+	@Override public void       setHistory(boolean history)             { throw unmodifiable(); }
+	
+	/**
+	 * Create the exception for changing a compiled part of the query.
+	 * 
+	 * @return  The exception.
+	 * 
+	 * @since   1.1
+	 */
+	private static UnsupportedOperationException unmodifiable() {
+		return new UnsupportedOperationException("A prepared query can not be changed except the limit and the offset, compile a new one.");
+	}
+	
+	/* (non-Javadoc)
+	 * Two prepared queries are equal only if their bound values are equal 
+	 * too.
+	 * 
+	 * @see personal.wuyi.jibernate.query.JQuery#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof PreparedJQuery) || !super.equals(o)) {
+			return false;
+		}
+		
+		Object[] otherBindings = ((PreparedJQuery<?>) o).bindings;
+		if (bindings.length != otherBindings.length) {
+			return false;
+		}
+		
+		for (int i = 0; i < bindings.length; i++) {
+			if (bindings[i] == UNBOUND || otherBindings[i] == UNBOUND) {
+				if (bindings[i] != otherBindings[i]) {
+					return false;
+				}
+			} else if (!ReflectUtil2.isEqual(bindings[i], otherBindings[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/* (non-Javadoc)
+	 * @see personal.wuyi.jibernate.query.JQuery#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + ReflectUtil2.getHashCode(bindings);
+	}
+}
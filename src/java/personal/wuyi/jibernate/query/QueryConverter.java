@@ -16,9 +16,9 @@
 
 package personal.wuyi.jibernate.query;
 
-import java.io.UnsupportedEncodingException;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,25 +28,46 @@ import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
 
+import personal.wuyi.jibernate.cache.CacheStats;
+import personal.wuyi.jibernate.cache.EvictionPolicy;
+import personal.wuyi.jibernate.cache.LocalCache;
 import personal.wuyi.jibernate.entity.Versioned;
 import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.ExpressionEngine;
+import personal.wuyi.jibernate.expression.Parameter;
 import personal.wuyi.jibernate.expression.Subject;
-import personal.wuyi.jibernate.transformer.SearchExpressionTransformer;
-import personal.wuyi.jibernate.transformer.UriExpressionTransformer;
-import personal.wuyi.jibernate.util.Md5;
+import personal.wuyi.jibernate.expression.UnsatisfiabilityCheck;
+import personal.wuyi.jibernate.transformer.RewriteExpressionTransformer;
+import personal.wuyi.jibernate.transformer.TransformerRegistry;
 import personal.wuyi.reflect.ReflectUtil;
 
 /**
  * The static converter class for converting {@code JQuery} (project query 
  * object) to JPQL query.
  * 
+ * <p>The parameter names of a JPQL statement only depend on the positions 
+ * of the simple expressions in the criteria, not on their values. So the 
+ * generated JPQL statements are cached by the shape of the queries (see 
+ * {@link QueryShape}), a query with the same shape but different values 
+ * reuses the same JPQL statement and the query plan cached by the JPA 
+ * provider.
+ * 
  * @author  Wuyi Chen
  * @date    09/25/2018
  * @version 1.1
  * @since   1.0
  */
 public class QueryConverter {
+	public    static final int    DEFAULT_MAXIMUM_MINTERMS = 256;
+	protected static final String MULTI_GET_PARAMETER      = "IDS";
+	private   static final int    JPQL_CACHE_SIZE          = 1024;
+	
+	private static final LocalCache<QueryShape, JpqlTemplate> jpqlCache = new LocalCache<>(JPQL_CACHE_SIZE, EvictionPolicy.LRU);
+	
+	private static volatile int maximumMinterms = DEFAULT_MAXIMUM_MINTERMS;
+	
 	private QueryConverter() {}
 	
 	/**
@@ -66,26 +87,71 @@ public class QueryConverter {
      * @since   1.0
      */
     public static Query getJpaQuery(EntityManager entityManager, JQuery<?> query, String... fields) {
-    	JQuery<?> transformedQuery = transform(query);
-
-        Class<?>   clazz         = transformedQuery.getPersistedClass();
-        Expression criteria      = transformedQuery.getCriteria();
-        boolean    caseSensitive = transformedQuery.isCaseSensitive();
-        Integer    limit         = transformedQuery.getLimit();
-        Integer    offset        = transformedQuery.getOffset();
-        
-        transformedQuery.setSort(query.getSort()); 
-
-        String jpqlStatement = getJpqlStatement(transformedQuery, fields);
-        Query  jpaQuery      = entityManager.createQuery(jpqlStatement);
+    	if (query instanceof PreparedJQuery) {
+    		return ((PreparedJQuery<?>) query).getJpaQuery(entityManager, fields);
+    	}
+    	return createJpaQuery(entityManager, query, transformCriteria(query), fields);
+    }
+    
+    /**
+     * Convert {@code JQuery} (project query object) to JPQL query, unless 
+     * the query always returns nothing.
+     * 
+     * <p>This is the same as checking the query by 
+     * {@link #isUnsatisfiable(JQuery)} before converting it by 
+     * {@link #getJpaQuery(EntityManager, JQuery, String...)}, but the 
+     * criteria is only transformed once.
+     *
+     * @param  entityManager
+     *         The entity manager object.
+     *         
+     * @param  query
+     *         The project-level query object.
+     *         
+     * @param  fields
+     *         The fields needs to be queried from database.
+     *   
+     * @return  The JPQL query, or {@code null} if the query always returns 
+     *          nothing.
+     * 
+     * @throws  IllegalStateException
+     *          If a placeholder of a prepared query is not bound.
+     * 
+     * @since   1.1
+     */
+    public static Query getSatisfiableJpaQuery(EntityManager entityManager, JQuery<?> query, String... fields) {
+    	if (query instanceof PreparedJQuery) {
+    		PreparedJQuery<?> prepared = (PreparedJQuery<?>) query;
+    		Object[]          values   = prepared.getValues();
+    		return prepared.isUnsatisfiable(values) ? null : prepared.createJpaQuery(entityManager, values, fields);
+    	}
+    	
+    	Expression criteria = transformCriteria(query);
+    	return isUnsatisfiable(query, criteria) ? null : createJpaQuery(entityManager, query, criteria, fields);
+    }
+    
+    /**
+     * Convert {@code JQuery} (project query object) to JPQL query with its 
+     * transformed criteria.
+     * 
+     * @since   1.1
+     */
+    private static Query createJpaQuery(EntityManager entityManager, JQuery<?> query, Expression criteria, String... fields) {
+        Class<?>   clazz         = query.getPersistedClass();
+        boolean    caseSensitive = query.isCaseSensitive();
+        Integer    limit         = query.getLimit();
+        Integer    offset        = query.getOffset();
 
-        if(criteria != null) {
-            Map<String,Object> parameterMap = getParameterMap(clazz, criteria, caseSensitive);
-            for(Entry<String,Object> entry : parameterMap.entrySet()) {
-                jpaQuery.setParameter(entry.getKey(), entry.getValue());
-            }
+        JpqlTemplate template;
+        if (query instanceof EntityQuery && ((EntityQuery<?>)query).getJpql() != null) {
+        	template = new JpqlTemplate(((EntityQuery<?>)query).getJpql(), getParameterNames(clazz, criteria));
+        } else {
+        	template = getJpqlTemplate(clazz, criteria, query.getSort(), caseSensitive, query.isDistinct(), fields);
         }
 
+        Query jpaQuery = entityManager.createQuery(template.getJpql());
+        setParameters(jpaQuery, template.getParameterNames(), getParameterValues(criteria, caseSensitive));
+
         if(limit != null) {
             jpaQuery.setMaxResults(limit);
         }
@@ -97,6 +163,318 @@ public class QueryConverter {
         return jpaQuery;
     }
     
+    /**
+     * Check the criteria of a query can never be true, so the query will 
+     * always return nothing and does not need to be run.
+     * 
+     * <p>The transformed criteria is checked by 
+     * {@link ExpressionEngine#isUnsatisfiable(Expression)}, like 
+     * {@code x > 5 && x < 3} or {@code x IN []}. The criteria will not be 
+     * checked if its sum-of-products form has more minterms than the 
+     * ceiling (see {@link #getMaximumMinterms()}), or the query is an 
+     * {@code EntityQuery} with a JPQL statement. The criteria of a prepared 
+     * query is expanded once when it is prepared (see 
+     * {@link #prepareUnsatisfiabilityCheck(Expression)}), so only the bound 
+     * values are checked.
+     *
+     * @param  query
+     *         The project-level query object.
+     *   
+     * @return  {@code true} if the query always returns nothing;
+     *          {@code false} otherwise.
+     * 
+     * @throws  IllegalStateException
+     *          If a placeholder of a prepared query is not bound.
+     * 
+     * @since   1.1
+     */
+    public static boolean isUnsatisfiable(JQuery<?> query) {
+    	if (query instanceof PreparedJQuery) {
+    		PreparedJQuery<?> prepared = (PreparedJQuery<?>) query;
+    		return prepared.isUnsatisfiable(prepared.getValues());
+    	}
+    	return isUnsatisfiable(query, transformCriteria(query));
+    }
+    
+    /**
+     * Check the transformed criteria of a query can never be true.
+     * 
+     * @since   1.1
+     */
+    private static boolean isUnsatisfiable(JQuery<?> query, Expression criteria) {
+    	if (query instanceof EntityQuery && ((EntityQuery<?>) query).getJpql() != null) {
+    		return false;
+    	}
+    	
+    	if (criteria == null || WhereClausePlanner.estimate(criteria).minterms > maximumMinterms) {
+    		return false;
+    	}
+    	return ExpressionEngine.isUnsatisfiable(criteria);
+    }
+    
+    /**
+     * Prepare the check of whether the transformed criteria of a prepared 
+     * query can never be true, so the sum-of-products expansion is only 
+     * done once.
+     * 
+     * @param  criteria
+     *         The transformed criteria of the prepared query.
+     * 
+     * @return  The prepared check, or {@code null} if the criteria will 
+     *          never be checked.
+     * 
+     * @since   1.1
+     */
+    static UnsatisfiabilityCheck prepareUnsatisfiabilityCheck(Expression criteria) {
+    	if (criteria == null || WhereClausePlanner.estimate(criteria).minterms > maximumMinterms) {
+    		return null;
+    	}
+    	return ExpressionEngine.prepareUnsatisfiabilityCheck(criteria);
+    }
+    
+    /**
+     * Convert {@code JQuery} (project query object) to a JPQL bulk delete 
+     * statement.
+     * 
+     * <p>The records matched by the criteria of the query will be deleted by 
+     * one statement, they will never be loaded.
+     *
+     * @param  entityManager
+     *         The entity manager object.
+     *         
+     * @param  query
+     *         The project-level query object.
+     *   
+     * @return  The JPQL query, it needs to be executed by 
+     *          {@code executeUpdate()}.
+     * 
+     * @since   1.1
+     */
+    public static Query getJpaDeleteQuery(EntityManager entityManager, JQuery<?> query) {
+    	checkBulkQuery(query);
+    	if (query instanceof PreparedJQuery) {
+    		query = ((PreparedJQuery<?>) query).toJQuery();
+    	}
+
+        Class<?>   clazz         = query.getPersistedClass();
+        Expression criteria      = transformCriteria(query);
+        boolean    caseSensitive = query.isCaseSensitive();
+
+        String jpqlStatement = buildJpqlDeleteStatement(clazz, criteria, caseSensitive);
+        Query  jpaQuery      = entityManager.createQuery(jpqlStatement);
+
+        setParameters(jpaQuery, getParameterMap(clazz, criteria, caseSensitive));
+        return jpaQuery;
+    }
+    
+    /**
+     * Convert {@code JQuery} (project query object) to a JPQL bulk update 
+     * statement.
+     * 
+     * <p>The records matched by the criteria of the query will be updated by 
+     * one statement, they will never be loaded.
+     *
+     * @param  entityManager
+     *         The entity manager object.
+     *         
+     * @param  query
+     *         The project-level query object.
+     *         
+     * @param  assignments
+     *         The map of new values, the key is the field name in Java class 
+     *         (not the column name in database) and the value is the new 
+     *         value of that field.
+     *   
+     * @return  The JPQL query, it needs to be executed by 
+     *          {@code executeUpdate()}.
+     * 
+     * @since   1.1
+     */
+    public static Query getJpaUpdateQuery(EntityManager entityManager, JQuery<?> query, Map<String,Object> assignments) {
+    	checkBulkQuery(query);
+    	Preconditions.checkArgument(assignments != null && !assignments.isEmpty(), "The assignments can not be empty.");
+    	if (query instanceof PreparedJQuery) {
+    		query = ((PreparedJQuery<?>) query).toJQuery();
+    	}
+
+        Class<?>   clazz         = query.getPersistedClass();
+        Expression criteria      = transformCriteria(query);
+        boolean    caseSensitive = query.isCaseSensitive();
+
+        String jpqlStatement = buildJpqlUpdateStatement(clazz, assignments, criteria, caseSensitive);
+        Query  jpaQuery      = entityManager.createQuery(jpqlStatement);
+
+        setParameters(jpaQuery, getAssignmentParameterMap(clazz, assignments));
+        setParameters(jpaQuery, getParameterMap(clazz, criteria, caseSensitive));
+        return jpaQuery;
+    }
+    
+    /**
+     * Build a JPQL query to retrieve the entities of one class by a list of 
+     * primary keys.
+     *
+     * @param  entityManager
+     *         The entity manager object.
+     *         
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  idField
+     *         The name of the primary key field.
+     *         
+     * @param  ids
+     *         The list of primary keys.
+     *   
+     * @return  The JPQL query.
+     * 
+     * @since   1.1
+     */
+    public static Query getJpaMultiGetQuery(EntityManager entityManager, Class<?> clazz, String idField, Collection<?> ids) {
+    	Query jpaQuery = entityManager.createQuery(buildJpqlMultiGetStatement(clazz, idField));
+    	jpaQuery.setParameter(MULTI_GET_PARAMETER, ids);
+    	return jpaQuery;
+    }
+    
+    /**
+     * Check a query can be used for a bulk statement.
+     * 
+     * <p>JPQL bulk statements can not be limited, so the limit and the offset 
+     * of the query must be empty.
+     * 
+     * @param  query
+     *         The query needs to be checked.
+     * 
+     * @since   1.1
+     */
+    protected static void checkBulkQuery(JQuery<?> query) {
+    	Preconditions.checkArgument(query.getLimit() == null && query.getOffset() == null, "The limit and the offset are not supported by bulk delete or update.");
+    }
+    
+    /**
+     * Set the parameters into a JPQL query.
+     * 
+     * @param  jpaQuery
+     *         The JPQL query.
+     * 
+     * @param  parameterMap
+     *         The map of parameters, it can be {@code null}.
+     * 
+     * @since   1.1
+     */
+    protected static void setParameters(Query jpaQuery, Map<String,Object> parameterMap) {
+    	if(parameterMap != null) {
+    		for(Entry<String,Object> entry : parameterMap.entrySet()) {
+    			jpaQuery.setParameter(entry.getKey(), entry.getValue());
+    		}
+    	}
+    }
+    
+    /**
+     * Set the parameters into a JPQL query by the parameter names of a 
+     * {@code JpqlTemplate}.
+     * 
+     * @param  jpaQuery
+     *         The JPQL query.
+     * 
+     * @param  parameterNames
+     *         The parameter names by the simple expressions of the criteria.
+     *         
+     * @param  parameterValues
+     *         The values by the simple expressions of the criteria.
+     * 
+     * @since   1.1
+     */
+    protected static void setParameters(Query jpaQuery, String[] parameterNames, List<Object> parameterValues) {
+    	for(int i = 0; i < parameterNames.length; i++) {
+    		if(parameterNames[i] != null) {
+    			jpaQuery.setParameter(parameterNames[i], parameterValues.get(i));
+    		}
+    	}
+    }
+    
+    /**
+     * Get the JPQL statement of a query shape from the JPQL cache.
+     * 
+     * <p>If the shape is not in the cache, the JPQL statement will be built 
+     * and put into the cache.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  criteria
+     *         The transformed criteria (expression) of the query.
+     * 
+     * @param  sort
+     *         The sorting option.
+     * 
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     *         
+     * @param  distinct
+     *         Need to see distinct values of a certain field.
+     *         
+     * @param  fields
+     *         The fields need to be queried.
+     *
+     * @return  The JPQL statement with its parameter names.
+     * 
+     * @since   1.1
+     */
+    static JpqlTemplate getJpqlTemplate(Class<?> clazz, Expression criteria, Sort sort, boolean caseSensitive, boolean distinct, String... fields) {
+    	QueryShape   shape    = new QueryShape(clazz, criteria, sort, caseSensitive, distinct, fields);
+    	JpqlTemplate template = jpqlCache.get(shape);
+    	
+    	if(template == null) {
+    		String jpqlStatement = buildJpqlStatement(clazz, criteria, sort, caseSensitive, distinct, fields);
+    		template = new JpqlTemplate(jpqlStatement, getParameterNames(clazz, criteria));
+    		jpqlCache.put(shape, template);
+    	}
+    	
+    	return template;
+    }
+    
+    /**
+     * Get the ceiling of the number of minterms for rendering the where 
+     * expression in the sum-of-products form.
+     * 
+     * @return  The ceiling of the number of minterms.
+     * 
+     * @since   1.1
+     */
+    public static int getMaximumMinterms() {
+    	return maximumMinterms;
+    }
+    
+    /**
+     * Set the ceiling of the number of minterms for rendering the where 
+     * expression in the sum-of-products form.
+     * 
+     * <p>If the sum-of-products form of the criteria has more minterms than 
+     * the ceiling, the criteria will be rendered in its original nested 
+     * form. The cached JPQL statements will be cleared.
+     * 
+     * @param  maximumMinterms
+     *         The ceiling of the number of minterms.
+     * 
+     * @since   1.1
+     */
+    public static void setMaximumMinterms(int maximumMinterms) {
+    	Preconditions.checkArgument(maximumMinterms > 0, "The maximum number of minterms should be greater than 0.");
+    	QueryConverter.maximumMinterms = maximumMinterms;
+    	jpqlCache.invalidateAll();
+    }
+    
+    /**
+     * Get the statistics of the JPQL cache.
+     * 
+     * @return  The statistics of the JPQL cache.
+     * 
+     * @since   1.1
+     */
+    public static CacheStats getJpqlCacheStats() {
+    	return jpqlCache.getStats();
+    }
+    
     /**
      * Normalize the query.
      * 
@@ -115,17 +493,63 @@ public class QueryConverter {
     protected static JQuery<?> transform(JQuery<?> query) {
     	JQuery<?> copy = ReflectUtil.copy(query);
 
-        copy.setCriteria(transform(copy.getCriteria()));
+        copy.setCriteria(transformCriteria(copy));
+        return copy;
+    }
+    
+    /**
+     * Normalize the criteria of a query.
+     * 
+     * <p>Same as {@link #transform(JQuery)}, but only the criteria will be 
+     * transformed, so the query does not need to be copied. The criteria of 
+     * the query will not be modified, but the untouched sub-expressions may 
+     * be shared by the normalized criteria, so it needs to be cloned before 
+     * modifying it.
+     * 
+     * <p>The criteria of a query which is not prepared is also rewritten by 
+     * {@link RewriteExpressionTransformer} in the same pass (see 
+     * {@link TransformerRegistry#getRewritingChain(Class, boolean)}), like 
+     * the equalities on the same field connected by OR are merged into 
+     * {@code IN}.
+     *
+     * @param  query
+     *         The query needs to be normalized.
+     * 
+     * @return  The normalized criteria.
+     * 
+     * @since   1.1
+     */
+    protected static Expression transformCriteria(JQuery<?> query) {
+    	// the simple expressions of a prepared query are mapped by their positions, so they can not be merged
+    	Expression criteria = (query instanceof PreparedJQuery) ? transform(query.getPersistedClass(), query.getCriteria()) 
+    			: TransformerRegistry.getRewritingChain(query.getPersistedClass(), query.isCaseSensitive()).transform(query.getCriteria());
 
-        if(Versioned.class.isAssignableFrom(copy.getPersistedClass()) && !copy.isHistory()) {
+        if(hasHeadCriteria(query)) {
         	Expression headCriteria = new Expression("head", Expression.EQUAL, true);
-        	if(copy.getCriteria() == null) {
-        		copy.setCriteria(headCriteria);
+        	if(criteria == null) {
+        		criteria = headCriteria;
         	} else {
-        		copy.setCriteria(Expression.and(copy.getCriteria(), headCriteria));
+        		criteria = Expression.and(criteria, headCriteria);
             }
         }
-        return copy;
+        return criteria;
+    }
+    
+    /**
+     * Check the implicit criteria {@code head == true} is appended to the 
+     * transformed criteria of a query or not.
+     * 
+     * @param  query
+     *         The query needs to be checked.
+     * 
+     * @return  {@code true} if the query is on a versioned class and it 
+     *          does not query the history;
+     *          {@code false} otherwise.
+     * 
+     * @since   1.1
+     */
+    static boolean hasHeadCriteria(JQuery<?> query) {
+    	return Versioned.class.isAssignableFrom(query.getPersistedClass()) && !query.isHistory();
     }
     
     /**
@@ -154,9 +578,29 @@ public class QueryConverter {
      * @since   1.0
      */
     protected static Expression transform(Expression expression) {
-        Expression expr1 = (new UriExpressionTransformer()).transform(expression);
-        Expression expr2 = (new SearchExpressionTransformer()).transform(expr1);
-        return expr2;
+        return transform(null, expression);
+    }
+    
+    /**
+     * Transform an expression in this project-specific grammar into the 
+     * vanilla SQL grammar by the transformers of a persisted class.
+     * 
+     * <p>The expression is transformed by one pass of the transformer chain 
+     * of the persisted class (see {@link TransformerRegistry#getChain(Class)}), 
+     * the untouched sub-expressions are shared with the original expression.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  expression
+     *         The expression needs to be transformed.
+     *         
+     * @return  The transformed expression.
+     * 
+     * @since   1.1
+     */
+    protected static Expression transform(Class<?> clazz, Expression expression) {
+        return TransformerRegistry.getChain(clazz).transform(expression);
     }
     
     /**
@@ -231,15 +675,159 @@ public class QueryConverter {
         return Joiner.on(" ").skipNulls().join(Arrays.asList(select, where, orderBy));
     }
     
+    /**
+     * Build JPQL statement for retrieving the entities by a list of primary 
+     * keys.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  idField
+     *         The name of the primary key field.
+     *
+     * @return  The JPQL statement.
+     * 
+     * @since   1.1
+     */
+    protected static String buildJpqlMultiGetStatement(Class<?> clazz, String idField) {
+    	String select = buildBasicSelectStatement(clazz, false);
+    	String where  = "WHERE " + getAlias(clazz) + "." + idField + " IN (:" + MULTI_GET_PARAMETER + ")";
+    	return Joiner.on(" ").join(Arrays.asList(select, where));
+    }
+    
+    /**
+     * Build JPQL bulk delete statement.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  criteria
+     *         The criteria (expression) of the query.
+     * 
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     *
+     * @return  The JPQL statement.
+     * 
+     * @since   1.1
+     */
+    protected static String buildJpqlDeleteStatement(Class<?> clazz, Expression criteria, boolean caseSensitive) {
+    	String delete = Joiner.on(" ").join(Arrays.asList("DELETE FROM", clazz.getSimpleName(), getAlias(clazz)));
+    	
+    	String where = null;
+        if (criteria != null) {
+            where = buildWhereClause(clazz, criteria, caseSensitive);
+        }
+        
+        return Joiner.on(" ").skipNulls().join(Arrays.asList(delete, where));
+    }
+    
+    /**
+     * Build JPQL bulk update statement.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  assignments
+     *         The map of new values by field names.
+     *         
+     * @param  criteria
+     *         The criteria (expression) of the query.
+     * 
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     *
+     * @return  The JPQL statement.
+     * 
+     * @since   1.1
+     */
+    protected static String buildJpqlUpdateStatement(Class<?> clazz, Map<String,Object> assignments, Expression criteria, boolean caseSensitive) {
+    	String update = Joiner.on(" ").join(Arrays.asList("UPDATE", clazz.getSimpleName(), getAlias(clazz)));
+    	String set    = buildSetClause(clazz, assignments);
+    	
+    	String where = null;
+        if (criteria != null) {
+            where = buildWhereClause(clazz, criteria, caseSensitive);
+        }
+        
+        return Joiner.on(" ").skipNulls().join(Arrays.asList(update, set, where));
+    }
+    
+    /**
+     * Build a set clause for the bulk update statement.
+     * 
+     * <p>The {@code null} value will be set as "NULL" directly, other values 
+     * will be set by parameters.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  assignments
+     *         The map of new values by field names.
+     *         
+     * @return  The set clause.
+     * 
+     * @since   1.1
+     */
+    protected static String buildSetClause(Class<?> clazz, Map<String,Object> assignments) {
+    	String alias = getAlias(clazz);
+    	
+    	StringBuilder sb = new StringBuilder();
+    	sb.append("SET");
+    	
+    	boolean first = true;
+    	for(Entry<String,Object> entry : assignments.entrySet()) {
+    		if(!first) {
+    			sb.append(",");
+    		}
+    		
+    		sb.append(" ").append(alias).append(".").append(entry.getKey()).append(" = ");
+    		if(entry.getValue() == null) {
+    			sb.append("NULL");
+    		} else {
+    			sb.append(":").append(getJpqlAssignmentParameter(clazz, entry.getKey()));
+    		}
+    		first = false;
+    	}
+    	
+    	return sb.toString();
+    }
+    
+    /**
+     * Generate the parameter map from the assignments of the bulk update.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  assignments
+     *         The map of new values by field names.
+     *         
+     * @return  The map of parameters.
+     * 
+     * @since   1.1
+     */
+    protected static Map<String,Object> getAssignmentParameterMap(Class<?> clazz, Map<String,Object> assignments) {
+    	Map<String,Object> paramMap = new HashMap<>();
+    	
+    	for(Entry<String,Object> entry : assignments.entrySet()) {
+    		if(entry.getValue() != null) {
+    			paramMap.put(getJpqlAssignmentParameter(clazz, entry.getKey()), entry.getValue());
+    		}
+    	}
+    	
+    	return paramMap;
+    }
+    
     /**
      * Generate the parameter map from the criteria of the query.
      * 
      * <p>This method will traverse the expression tree of the criteria and 
      * add the key-value pair of each node into the map.
      * 
-     * <p>This key will be the unique parameter based on the persisted class, 
-     * subject and value of the query. The value will be the value of the 
-     * query.
+     * <p>This key will be the parameter based on the persisted class, the 
+     * subject and the position of the node (see 
+     * {@link #getJpqlParameter(Class, String, int)}). The value will be the 
+     * value of the query.
      *
      * @param  clazz
      *         The persisted class.
@@ -258,30 +846,127 @@ public class QueryConverter {
 
         Map<String,Object> paramMap = new HashMap<>();
 
-        criteria.prefix(node -> {
-            if(node instanceof Expression) {
-                Expression subExpr = (Expression) node;
-                String     subject = subExpr.getSubject().getName();
-                Object     value   = subExpr.getValue();
-                String     param   = getJpqlParameter(clazz, subject, value);
-
-                if(value != null) {
-                    if(value instanceof String) {
-                        if(!caseSensitive) {
-                            value = value.toString().toUpperCase();
-                        }
-                    } else if(value instanceof Object[]) {
-                        value = Arrays.asList((Object[]) value);
-                    }
-                
-                    paramMap.put(param, value);
-                }
-            }
-        });
+        String[]     names  = getParameterNames(clazz, criteria);
+        List<Object> values = getParameterValues(criteria, caseSensitive);
+        for(int i = 0; i < names.length; i++) {
+        	if(names[i] != null) {
+        		paramMap.put(names[i], values.get(i));
+        	}
+        }
 
         return paramMap;
     }
     
+    /**
+     * Get the parameter names of the simple expressions in the criteria.
+     * 
+     * <p>The names are in the order of {@link Expression#prefix}, the name 
+     * will be {@code null} if the value of a simple expression is 
+     * {@code null}.
+     *
+     * @param  clazz
+     *         The persisted class.
+     *         
+     * @param  criteria
+     *         The criteria of the query, it can be {@code null}.
+     * 
+     * @return  The array of parameter names.
+     * 
+     * @since   1.1
+     */
+    protected static String[] getParameterNames(Class<?> clazz, Expression criteria) {
+    	List<Expression> simpleExprs = getSimpleExpressions(criteria);
+    	String[]         names       = new String[simpleExprs.size()];
+    	
+    	for(int i = 0; i < names.length; i++) {
+    		Expression simpleExpr = simpleExprs.get(i);
+    		if(simpleExpr.getValue() != null) {
+    			names[i] = getJpqlParameter(clazz, simpleExpr.getSubject().getName(), i);
+    		}
+    	}
+    	
+    	return names;
+    }
+    
+    /**
+     * Get the parameter values of the simple expressions in the criteria.
+     * 
+     * <p>The values are in the order of {@link Expression#prefix}. A string 
+     * will be upper-cased if the query is not case sensitive and an array 
+     * will be converted to a list.
+     *
+     * @param  criteria
+     *         The criteria of the query, it can be {@code null}.
+     *         
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     * 
+     * @return  The list of parameter values.
+     * 
+     * @since   1.1
+     */
+    protected static List<Object> getParameterValues(Expression criteria, boolean caseSensitive) {
+    	List<Object> values = new ArrayList<>();
+    	
+    	for(Expression simpleExpr : getSimpleExpressions(criteria)) {
+    		values.add(getParameterValue(simpleExpr.getValue(), caseSensitive));
+    	}
+    	
+    	return values;
+    }
+    
+    /**
+     * Get the parameter value of a value in the criteria.
+     * 
+     * <p>A string will be upper-cased if the query is not case sensitive and 
+     * an array will be converted to a list.
+     *
+     * @param  value
+     *         The value of a simple expression.
+     *         
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     * 
+     * @return  The parameter value.
+     * 
+     * @since   1.1
+     */
+    protected static Object getParameterValue(Object value, boolean caseSensitive) {
+    	if(value instanceof String) {
+    		if(!caseSensitive) {
+    			return value.toString().toUpperCase();
+    		}
+    	} else if(value instanceof Object[]) {
+    		return Arrays.asList((Object[]) value);
+    	}
+    	return value;
+    }
+    
+    /**
+     * Get all the simple expressions of the criteria in the order of 
+     * {@link Expression#prefix}.
+     *
+     * @param  criteria
+     *         The criteria of the query, it can be {@code null}.
+     * 
+     * @return  The list of simple expressions.
+     * 
+     * @since   1.1
+     */
+    protected static List<Expression> getSimpleExpressions(Expression criteria) {
+    	List<Expression> simpleExprs = new ArrayList<>();
+    	
+    	if(criteria != null) {
+    		criteria.prefix(node -> {
+    			if(node instanceof Expression) {
+    				simpleExprs.add((Expression) node);
+    			}
+    		});
+    	}
+    	
+    	return simpleExprs;
+    }
+    
     /**
      * Build a basic select statement.
      * 
@@ -365,6 +1050,16 @@ public class QueryConverter {
      * 
      * <p>This method will concatenate the "WHERE" keyword with the where expression. 
      * 
+     * <p>Before the criteria is rendered, the value of each simple 
+     * expression is replaced by a {@link Parameter} named by its position, 
+     * so the where expression and the generated parameter names only 
+     * depend on the structure of the criteria.
+     * 
+     * <p>The criteria is rendered in the sum-of-products form only if it is 
+     * not larger than the original nested form and its number of minterms 
+     * is under the ceiling (see {@link #setMaximumMinterms(int)}), so a 
+     * product-of-sums criteria will not be expanded exponentially.
+     * 
      * @param  clazz
      *         The persisted class.
      * 
@@ -379,33 +1074,90 @@ public class QueryConverter {
      * @since   1.0
      */
     protected static String buildWhereClause(Class<?> clazz, Expression criteria, boolean caseSensitive) {
-    	Expression criteriaLocal = criteria.minimized();
-    	String whereExpression = buildWhereExpression(clazz, criteriaLocal, caseSensitive);
+    	Map<Parameter,Object> values = new HashMap<>();
+    	Expression criteriaLocal = parameterize(clazz, criteria, values);
+    	if (WhereClausePlanner.isSumOfProductsPreferred(criteriaLocal, maximumMinterms)) {
+    		criteriaLocal = criteriaLocal.minimized();
+    	}
+    	String whereExpression = buildWhereExpression(clazz, criteriaLocal, caseSensitive, values);
     	return Joiner.on(" ").join("WHERE", whereExpression);
     }
     
+    /**
+     * Replace the values of the criteria by parameters.
+     * 
+     * <p>The criteria will be cloned first, so the original criteria will 
+     * not be modified. The {@code null} values are not replaced because they 
+     * are rendered without parameters.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     * 
+     * @param  criteria
+     *         The criteria of the query.
+     *         
+     * @param  values
+     *         The map to collect the original values by parameters.
+     *         
+     * @return  The cloned criteria with parameters.
+     * 
+     * @since   1.1
+     */
+    protected static Expression parameterize(Class<?> clazz, Expression criteria, Map<Parameter,Object> values) {
+    	Expression       parameterized = (Expression) criteria.clone();
+    	List<Expression> simpleExprs   = getSimpleExpressions(parameterized);
+    	
+    	for(int i = 0; i < simpleExprs.size(); i++) {
+    		Expression simpleExpr = simpleExprs.get(i);
+    		if(simpleExpr.getValue() != null) {
+    			Parameter parameter = new Parameter(getJpqlParameter(clazz, simpleExpr.getSubject().getName(), i));
+    			values.put(parameter, simpleExpr.getValue());
+    			simpleExpr.setValue(parameter);
+    		}
+    	}
+    	
+    	return parameterized;
+    }
+    
     /**
      * Build a where expression (by the criteria of the query).
      * 
      * <p>This method will loop through the current expression and its 
-     * sub-expressions recursively and generate the where expression.
+     * sub-expressions recursively and generate the where expression. A 
+     * compound sub-expression will be wrapped by parentheses and a 
+     * complemented expression will be rendered with "NOT".
      *
      * @param  clazz
      *         The persisted class.
      *         
      * @param  expression
-     *         The criteria of the query.
+     *         The parameterized criteria of the query.
+     * 
+     * @param  caseSensitive
+     *         Is case sensitive or not.
+     *         
+     * @param  values
+     *         The original values by parameters.
      * 
      * @return  The where expression.
      * 
      * @since   1.0
      */
-    protected static String buildWhereExpression(Class<?> clazz, Expression expression, boolean caseSensitive) {        
+    protected static String buildWhereExpression(Class<?> clazz, Expression expression, boolean caseSensitive, Map<Parameter,Object> values) {        
+        String whereExpression;
         if (!expression.isCompound()) {
-        	return buildWhereExpressionForSimpleExpression(clazz, expression.getSubject(), expression.getOperator(), expression.getValue(), caseSensitive);
+        	Object value     = expression.getValue();
+        	String parameter = null;
+        	if (value instanceof Parameter) {
+        		parameter = ((Parameter) value).getName();
+        		value     = values.get(value);
+        	}
+        	whereExpression = buildWhereExpressionForSimpleExpression(clazz, expression.getSubject(), expression.getOperator(), value, parameter, caseSensitive);
         } else {
-            return buildWhereExpressionForCompoundExpression(clazz, expression, caseSensitive);
+        	whereExpression = buildWhereExpressionForCompoundExpression(clazz, expression, caseSensitive, values);
         }
+        
+        return expression.isComplement() ? "NOT (" + whereExpression + ")" : whereExpression;
     }
     
     /**
@@ -423,6 +1175,9 @@ public class QueryConverter {
      * @param  value
      *         The value of the expression.
      * 
+     * @param  parameter
+     *         The parameter name of the value.
+     * 
      * @param  caseSensitive
      *         Is case sensitive or not.
      * 
@@ -430,7 +1185,7 @@ public class QueryConverter {
      * 
      * @since   1.0
      */
-    protected static String buildWhereExpressionForSimpleExpression(Class<?> clazz, Subject subject, String operator, Object value, boolean caseSensitive)  {
+    protected static String buildWhereExpressionForSimpleExpression(Class<?> clazz, Subject subject, String operator, Object value, String parameter, boolean caseSensitive)  {
     	StringBuilder sb = new StringBuilder();
 
     	String name = getAlias(clazz) + "." + subject.getName();
@@ -450,18 +1205,16 @@ public class QueryConverter {
     		String optr = getJpqlOperator(operator);
     		sb.append(" ").append(optr).append(" ");
     		
-    		String parameter = ":" + getJpqlParameter(clazz, subject.getName(), value);
-
     		if(value instanceof Iterable || value instanceof Object[]) {
     			if (!Expression.IN.equals(optr)) {
     				throw new IllegalArgumentException("You are passing multiple values into Expression, the operator must be Expression.IN");
     			}
-    			sb.append("(").append(parameter).append(")");
+    			sb.append("(:").append(parameter).append(")");
     		} else {
     			if (Expression.IN.equals(optr)) {
     				throw new IllegalArgumentException("You are passing single value into Expression, the operator can not be Expression.IN");
     			}
-    			sb.append(parameter);
+    			sb.append(":").append(parameter);
     		}
     	}
 
@@ -479,18 +1232,24 @@ public class QueryConverter {
      * 
      * @param  caseSensitive
      *         Is case sensitive or not.
+     *         
+     * @param  values
+     *         The original values by parameters.
      * 
      * @return  The where expression.
      * 
      * @since   1.0
      */
-    protected static String buildWhereExpressionForCompoundExpression(Class<?> clazz, Expression expression, boolean caseSensitive) {
+    protected static String buildWhereExpressionForCompoundExpression(Class<?> clazz, Expression expression, boolean caseSensitive, Map<Parameter,Object> values) {
     	StringBuilder sb = new StringBuilder();
 
         for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
             Expression subExpr = expression.getSubExpression(i);
             if (subExpr != null) {
-                String subExprStr = buildWhereExpression(clazz, subExpr, caseSensitive);
+                String subExprStr = buildWhereExpression(clazz, subExpr, caseSensitive, values);
+                if (subExpr.isCompound() && !subExpr.isComplement() && expression.getNumberOfSubExpression() > 1) {
+                	subExprStr = "(" + subExprStr + ")";
+                }
                 String optr = expression.getOperator(i);
                 if (Expression.AND.equals(optr)) {
                     sb.append(" AND ");
@@ -544,12 +1303,15 @@ public class QueryConverter {
    
     /**
      * Generate a unique JPQL parameter name based on the persisted class, 
-     * subject, and value.
+     * subject, and the position of the simple expression in the criteria.
      * 
      * <p>The format of JPQL parameter will be looked like:
      * <pre>
-     *     [class name]_[subject name]_[value in MD5]
+     *     [class name]_[subject name]_[position]
      * </pre>
+     * 
+     * <p>The value is not a part of the name, so the queries with the same 
+     * shape always generate the same JPQL statement.
      *
      * @param  clazz
      *         The persisted class.
@@ -557,31 +1319,54 @@ public class QueryConverter {
      * @param  subject
      *         The subject of the expression.
      * 
-     * @param  value
-     *         The value of the expression.
+     * @param  index
+     *         The position of the simple expression in the criteria (in the 
+     *         order of {@link Expression#prefix}).
      * 
      * @return  The unique JPQL parameter.
      * 
      * @since   1.0
      */
-    protected static String getJpqlParameter(Class<?> clazz, String subject, Object value) {
-    	String formattedSubject = subject.replaceAll("\\.", "_").toUpperCase();
-
-    	StringBuilder sb = new StringBuilder();
-    	sb.append(clazz.getSimpleName().toUpperCase()).append("_").append(formattedSubject);
-
-    	if(value != null) {
-    		try {
-    			String hash = Md5.hash(value.toString());
-    			sb.append("_").append(hash);
-    		} catch(UnsupportedEncodingException e) {
-    			throw new IllegalArgumentException("If the charset of the input text \"" + value.toString() + "\" is not supported.");
-    		} catch(NoSuchAlgorithmException e) {
-    			throw new IllegalArgumentException("MD5 algorithm is not supported.");
-    		}
-    	}
-
-    	return sb.toString();
+    protected static String getJpqlParameter(Class<?> clazz, String subject, int index) {
+    	return getJpqlFieldParameter(clazz, subject) + "_" + index;
+    }
+   
+    /**
+     * Generate a JPQL parameter name for an assignment of the bulk update.
+     * 
+     * <p>The "SET_" prefix keeps the parameter of an assignment apart from 
+     * the parameter of the criteria on the same field.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     *       
+     * @param  field
+     *         The field needs to be updated.
+     *         
+     * @return  The unique JPQL parameter.
+     * 
+     * @since   1.1
+     */
+    protected static String getJpqlAssignmentParameter(Class<?> clazz, String field) {
+    	return "SET_" + getJpqlFieldParameter(clazz, field);
+    }
+   
+    /**
+     * Generate the part of a JPQL parameter name by the persisted class and 
+     * a field, like {@code STUDENT_FIRSTNAME}.
+     * 
+     * @param  clazz
+     *         The persisted class.
+     *       
+     * @param  field
+     *         The field name.
+     *         
+     * @return  The part of a JPQL parameter name.
+     * 
+     * @since   1.1
+     */
+    private static String getJpqlFieldParameter(Class<?> clazz, String field) {
+    	return clazz.getSimpleName().toUpperCase() + "_" + field.replace('.', '_').toUpperCase();
     }
    
     /**
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import personal.wuyi.jibernate.expression.Expression;
+
+/**
+ * The shape of a query, it is the key of a JPQL statement in the JPQL cache 
+ * of {@link QueryConverter}.
+ * 
+ * <p>The shape covers the persisted class, the structure of the criteria, 
+ * the sorting option, the selected fields, distinct and case-sensitivity. 
+ * The values of the criteria are not a part of the shape, only their kinds 
+ * are, because they decide how a condition is rendered (like 
+ * {@code IS NULL} or {@code IN}). So the queries which only differ in 
+ * values share the same JPQL statement.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class QueryShape {
+	/**
+	 * The kinds of the values in the criteria.
+	 * 
+	 * @since   1.1
+	 */
+	enum ValueKind {
+		NULL,
+		STRING,
+		MULTIPLE,
+		SINGLE
+	}
+	
+	private static final String OPEN  = "(";
+	private static final String CLOSE = ")";
+	
+	private final List<Object> components = new ArrayList<>();
+	private final int          hash;
+	
+	/**
+	 * Constructs a {@code QueryShape}.
+	 * 
+	 * @param  clazz
+	 *         The persisted class.
+	 *         
+	 * @param  criteria
+	 *         The transformed criteria of the query.
+	 * 
+	 * @param  sort
+	 *         The sorting option.
+	 * 
+	 * @param  caseSensitive
+	 *         Is case sensitive or not.
+	 *         
+	 * @param  distinct
+	 *         Need distinct values or not.
+	 *         
+	 * @param  fields
+	 *         The fields need to be queried.
+	 * 
+	 * @since   1.1
+	 */
+	QueryShape(Class<?> clazz, Expression criteria, Sort sort, boolean caseSensitive, boolean distinct, String... fields) {
+		components.add(clazz);
+		components.add(caseSensitive);
+		components.add(distinct);
+		components.add(fields == null ? null : Arrays.asList(fields.clone()));
+		
+		if(sort != null) {
+			for(Sort s : sort.toList()) {
+				components.add(s.getField());
+				components.add(s.isAscending());
+			}
+		}
+		
+		if(criteria != null) {
+			addCriteria(criteria);
+		}
+		
+		this.hash = components.hashCode();
+	}
+	
+	/**
+	 * Add the structure of the criteria into the components recursively.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be added.
+	 * 
+	 * @since   1.1
+	 */
+	private void addCriteria(Expression expression) {
+		components.add(expression.isComplement());
+		
+		if(!expression.isCompound()) {
+			components.add(expression.getSubject().getName());
+			components.add(expression.getOperator());
+			components.add(getValueKind(expression.getValue()));
+		} else {
+			components.add(OPEN);
+			for(int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+				components.add(expression.getOperator(i));
+				addCriteria(expression.getSubExpression(i));
+			}
+			components.add(CLOSE);
+		}
+	}
+	
+	/**
+	 * Get the kind of a value in the criteria.
+	 * 
+	 * @param  value
+	 *         The value of a simple expression.
+	 *         
+	 * @return  The kind of the value.
+	 * 
+	 * @since   1.1
+	 */
+	static ValueKind getValueKind(Object value) {
+		if(value == null) {
+			return ValueKind.NULL;
+		} else if(value instanceof String) {
+			return ValueKind.STRING;
+		} else if(value instanceof Iterable || value instanceof Object[]) {
+			return ValueKind.MULTIPLE;
+		} else {
+			return ValueKind.SINGLE;
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+		
+		if(!(o instanceof QueryShape)) {
+			return false;
+		}
+		
+		QueryShape other = (QueryShape) o;
+		return hash == other.hash && components.equals(other.components);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -295,4 +295,13 @@ public class Sort {
     	
     	return true;
     }
+    
+    @Override
+    public int hashCode() {
+    	int hash = 17;
+    	hash = 31 * hash + (field == null ? 0 : field.hashCode());
+    	hash = 31 * hash + (ascending ? 1 : 0);
+    	hash = 31 * hash + (list  == null ? 0 : list.hashCode());
+    	return hash;
+    }
 }
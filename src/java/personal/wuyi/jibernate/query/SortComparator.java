@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * The comparator for sorting the records in memory by a {@code Sort}.
+ * 
+ * <p>The values are compared in the same way as MySQL does by default: 
+ * {@code null} is smaller than any other value and the strings are compared 
+ * case-insensitively. So the records sorted by database can be merged or 
+ * re-sorted in memory without changing their order.
+ * 
+ * @param  <T>
+ *         The type of the records.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class SortComparator<T> implements Comparator<T> {
+	private final List<Sort> sortList;
+	
+	/**
+	 * Constructs a {@code SortComparator}.
+	 * 
+	 * @param  sort
+	 *         The sorting option, it can be cascading.
+	 * 
+	 * @since   1.1
+	 */
+	public SortComparator(Sort sort) {
+		this.sortList = sort.toList();
+	}
+
+	@Override
+	public int compare(T record1, T record2) {
+		for (Sort sort : sortList) {
+			int result = compareValues(getValue(record1, sort.getField()), getValue(record2, sort.getField()));
+			if (result != 0) {
+				return sort.isAscending() ? result : -result;
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Compare 2 values of the same field.
+	 * 
+	 * @param  value1
+	 *         The first value.
+	 * 
+	 * @param  value2
+	 *         The second value.
+	 * 
+	 * @return  A negative integer, zero, or a positive integer as the first 
+	 *          value is less than, equal to, or greater than the second.
+	 * 
+	 * @throws  IllegalArgumentException
+	 *          If the values are not comparable.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static int compareValues(Object value1, Object value2) {
+		if (value1 == null || value2 == null) {
+			return value1 == null ? (value2 == null ? 0 : -1) : 1;
+		}
+		
+		if (value1 instanceof String && value2 instanceof String) {
+			return String.CASE_INSENSITIVE_ORDER.compare((String) value1, (String) value2);
+		}
+		
+		if (value1 instanceof Comparable) {
+			return ((Comparable) value1).compareTo(value2);
+		}
+		
+		throw new IllegalArgumentException("The value is not comparable: " + value1.getClass().getName());
+	}
+	
+	/**
+	 * Get the value of a field from a record.
+	 * 
+	 * @param  record
+	 *         The record.
+	 * 
+	 * @param  field
+	 *         The field name in Java class.
+	 * 
+	 * @return  The value of the field.
+	 * 
+	 * @since   1.1
+	 */
+	private static Object getValue(Object record, String field) {
+		try {
+			return PropertyUtils.getProperty(record, field);
+		} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new IllegalArgumentException("Can not read the field for sorting: " + field, e);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import personal.wuyi.jibernate.expression.Expression;
+
+/**
+ * The planner to choose the form of the where expression.
+ * 
+ * <p>The sum-of-products form of the criteria grows exponentially for the 
+ * product-of-sums criteria, like several multi-valued facets ANDed 
+ * together. This planner estimates the size of the sum-of-products 
+ * expansion without doing it, by the number of minterms and the number of 
+ * the simple expressions (literals) of the expanded form.
+ * 
+ * <p>For each node of the expression tree, the sizes of the node and its 
+ * complement are calculated bottom-up (* is AND, + is OR):
+ * <pre>
+ *   minterms(P * Q) = minterms(P) * minterms(Q)
+ *   literals(P * Q) = literals(P) * minterms(Q) + literals(Q) * minterms(P)
+ *   minterms(P + Q) = minterms(P) + minterms(Q)
+ *   literals(P + Q) = literals(P) + literals(Q)
+ *   !(P * Q) = !P + !Q,  !(P + Q) = !P * !Q
+ * </pre>
+ * 
+ * <p>The values are saturated, so the estimation never overflows.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+final class WhereClausePlanner {
+	private static final long SATURATED = Long.MAX_VALUE / 4;
+	
+	private WhereClausePlanner() {}
+	
+	/**
+	 * Check the criteria should be rendered in the sum-of-products form or 
+	 * not.
+	 * 
+	 * <p>The sum-of-products form is chosen only if it has no more minterms 
+	 * than the ceiling and it is not larger than the original nested form. 
+	 * Otherwise the original nested form will be rendered as it is.
+	 * 
+	 * <p>The criteria with a complemented compound expression always keeps 
+	 * the nested form, because the sum-of-products expansion does not 
+	 * distribute the complement of a compound expression correctly, like 
+	 * {@code !(A && B)} is expanded to {@code !A && !B}.
+	 * 
+	 * @param  criteria
+	 *         The criteria of the query.
+	 *         
+	 * @param  maximumMinterms
+	 *         The ceiling of the number of minterms.
+	 *         
+	 * @return  {@code true} if the sum-of-products form should be rendered;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	static boolean isSumOfProductsPreferred(Expression criteria, int maximumMinterms) {
+		if (hasComplementedCompoundExpression(criteria)) {
+			return false;
+		}
+		
+		Size size = estimate(criteria);
+		return size.minterms <= maximumMinterms && size.literals <= countSimpleExpressions(criteria);
+	}
+	
+	/**
+	 * Estimate the size of the sum-of-products form of an expression.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be estimated.
+	 *         
+	 * @return  The size of the sum-of-products form.
+	 * 
+	 * @since   1.1
+	 */
+	static Size estimate(Expression expression) {
+		return estimateNode(expression)[0];
+	}
+	
+	/**
+	 * Estimate the sizes of the sum-of-products forms of an expression and 
+	 * its complement.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be estimated.
+	 *         
+	 * @return  The sizes of the expression and its complement.
+	 * 
+	 * @since   1.1
+	 */
+	private static Size[] estimateNode(Expression expression) {
+		Size positive;
+		Size negative;
+		
+		if (!expression.isCompound()) {
+			positive = new Size(1, 1);
+			negative = new Size(1, 1);
+		} else {
+			Size positiveSum     = null;   // the sum of the minterms (OR)
+			Size negativeProduct = null;   // the product of the complemented minterms (AND)
+			Size positiveTerm    = null;   // the current minterm (AND)
+			Size negativeTerm    = null;   // the complement of the current minterm (OR)
+			
+			for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+				String operator = expression.getOperator(i);
+				Size[] child    = estimateNode(expression.getSubExpression(i));
+				
+				if (operator == null || Expression.OR.equals(operator)) {
+					if (positiveTerm != null) {
+						positiveSum     = or(positiveSum, positiveTerm);
+						negativeProduct = and(negativeProduct, negativeTerm);
+					}
+					positiveTerm = child[0];
+					negativeTerm = child[1];
+				} else {
+					positiveTerm = and(positiveTerm, child[0]);
+					negativeTerm = or(negativeTerm, child[1]);
+				}
+			}
+			
+			positive = or(positiveSum, positiveTerm);
+			negative = and(negativeProduct, negativeTerm);
+		}
+		
+		return expression.isComplement() ? new Size[] {negative, positive} : new Size[] {positive, negative};
+	}
+	
+	/**
+	 * Count the simple expressions in the criteria.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be counted.
+	 *         
+	 * @return  The number of simple expressions.
+	 * 
+	 * @since   1.1
+	 */
+	private static long countSimpleExpressions(Expression expression) {
+		if (!expression.isCompound()) {
+			return 1;
+		}
+		
+		long count = 0;
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			count += countSimpleExpressions(expression.getSubExpression(i));
+		}
+		return count;
+	}
+	
+	/**
+	 * Check the expression has a complemented compound expression or not.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be checked.
+	 *         
+	 * @return  {@code true} if there is a complemented compound expression;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	private static boolean hasComplementedCompoundExpression(Expression expression) {
+		if (!expression.isCompound()) {
+			return false;
+		}
+		
+		if (expression.isComplement()) {
+			return true;
+		}
+		
+		for (int i = 0; i < expression.getNumberOfSubExpression(); i++) {
+			if (hasComplementedCompoundExpression(expression.getSubExpression(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static Size and(Size p, Size q) {
+		if (p == null) {
+			return q;
+		}
+		return new Size(multiply(p.minterms, q.minterms), add(multiply(p.literals, q.minterms), multiply(q.literals, p.minterms)));
+	}
+	
+	private static Size or(Size p, Size q) {
+		if (p == null) {
+			return q;
+		}
+		return new Size(add(p.minterms, q.minterms), add(p.literals, q.literals));
+	}
+	
+	private static long add(long a, long b) {
+		return Math.min(SATURATED, a + b);
+	}
+	
+	private static long multiply(long a, long b) {
+		return (a != 0 && b > SATURATED / a) ? SATURATED : Math.min(SATURATED, a * b);
+	}
+	
+	/**
+	 * The size of a sum-of-products form.
+	 * 
+	 * @since   1.1
+	 */
+	static final class Size {
+		final long minterms;
+		final long literals;
+		
+		Size(long minterms, long literals) {
+			this.minterms = minterms;
+			this.literals = literals;
+		}
+	}
+}
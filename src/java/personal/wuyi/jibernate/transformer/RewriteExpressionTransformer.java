@@ -0,0 +1,434 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.transformer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.ExpressionTransformer;
+import personal.wuyi.jibernate.expression.Parameter;
+import personal.wuyi.jibernate.expression.Subject;
+
+/**
+ * Rewrite Expression Transformer.
+ * 
+ * <p>This class is to rewrite the expression into a shorter equivalent 
+ * expression, so the generated JPQL statement has fewer predicates and 
+ * parameters. Each compound expression is rewritten after its 
+ * sub-expressions:
+ * <ul>
+ *   <li>Merge the equalities on the same subject connected by OR into 
+ *   {@code IN}:
+ *     <pre>
+ *       a == 1 || a == 2 || a IN [3, 4] ==> a IN [1, 2, 3, 4]
+ *     </pre>
+ *   <li>Merge the bounds on the same subject connected by AND into one 
+ *   lower bound and one upper bound:
+ *     <pre>
+ *       x &gt; 5 &amp;&amp; x &gt; 7 &amp;&amp; x &lt;= 9 ==&gt; x &gt; 7 &amp;&amp; x &lt;= 9
+ *       x &gt;= 3 &amp;&amp; x &lt;= 3       ==&gt; x == 3
+ *     </pre>
+ *   <li>Remove the duplicate sub-expressions connected by AND and the 
+ *   duplicate minterms connected by OR:
+ *     <pre>
+ *       a == 1 &amp;&amp; a == 1 || b == 2 || b == 2 ==&gt; a == 1 || b == 2
+ *     </pre>
+ * </ul>
+ * 
+ * <p>The rewriting is done by {@link #transformCompound(Expression)}, so 
+ * this transformer can be a step of an {@code ExpressionTransformerChain}, 
+ * which keeps the compound expressions which are not rewritten as they 
+ * are.
+ * 
+ * <p>The complemented simple expressions and the simple expressions with a 
+ * {@code null} value or a {@link Parameter} are never merged. The strings 
+ * are not merged as bounds because the collation of the database may be 
+ * different from Java, and they are not merged into {@code IN} if the query 
+ * is not case sensitive, because {@code IN} is always case sensitive.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class RewriteExpressionTransformer extends ExpressionTransformer {
+	private final boolean caseSensitive;
+	
+	/**
+	 * Constructs a {@code RewriteExpressionTransformer} for a case 
+	 * sensitive query.
+	 * 
+	 * @since   1.1
+	 */
+	public RewriteExpressionTransformer() {
+		this(true);
+	}
+	
+	/**
+	 * Constructs a {@code RewriteExpressionTransformer}.
+	 * 
+	 * @param  caseSensitive
+	 *         Is the query case sensitive or not.
+	 * 
+	 * @since   1.1
+	 */
+	public RewriteExpressionTransformer(boolean caseSensitive) {
+		this.caseSensitive = caseSensitive;
+	}
+	
+	/* (non-Javadoc)
+	 * The sub-expressions are rewritten by the recursive calls of this 
+	 * method, so only the current level needs to be rewritten here.
+	 * 
+	 * @see personal.wuyi.jibernate.expression.ExpressionTransformer#transform(personal.wuyi.jibernate.expression.Expression, java.lang.Object[])
+	 */
+	@Override
+	public Expression transform(Expression expression, Object... context) {
+		Expression transformed = super.transform(expression, context);
+		if (transformed == null || !transformed.isCompound()) {
+			return transformed;
+		}
+		return transformCompound(transformed);
+	}
+	
+	/* (non-Javadoc)
+	 * The simple expressions are never rewritten.
+	 * 
+	 * @see personal.wuyi.jibernate.expression.ExpressionTransformer#isApplicable(personal.wuyi.jibernate.expression.Subject, java.lang.String, java.lang.Object)
+	 */
+	@Override
+	protected boolean isApplicable(Subject subject, String operator, Object value) {
+		return false;
+	}
+	
+	/* (non-Javadoc)
+	 * The compound expression is returned as it is if nothing is merged or 
+	 * removed, the sub-expressions are shared by the rewritten expression 
+	 * and they are never modified.
+	 * 
+	 * @see personal.wuyi.jibernate.expression.ExpressionTransformer#transformCompound(personal.wuyi.jibernate.expression.Expression)
+	 */
+	@Override
+	protected Expression transformCompound(Expression transformed) {
+		Set<List<Expression>> minterms = new LinkedHashSet<>();
+		List<Expression>      minterm  = new ArrayList<>();
+		for (int i = 0; i < transformed.getNumberOfSubExpression(); i++) {
+			if (i > 0 && Expression.OR.equals(transformed.getOperator(i))) {
+				minterms.add(mergeBounds(minterm));
+				minterm = new ArrayList<>();
+			}
+			if (!minterm.contains(transformed.getSubExpression(i))) {
+				minterm.add(transformed.getSubExpression(i));
+			}
+		}
+		minterms.add(mergeBounds(minterm));
+		
+		List<List<Expression>> mintermList = mergeEqualities(new ArrayList<>(minterms));
+		if (mintermList.size() == 1 && mintermList.get(0).size() == 1) {
+			Expression single = mintermList.get(0).get(0);
+			if (transformed.isComplement()) {
+				single = (Expression) single.clone();
+				single.setComplement(!single.isComplement());
+			}
+			return single;
+		}
+		
+		int size = 0;
+		for (List<Expression> term : mintermList) {
+			size += term.size();
+		}
+		if (size == transformed.getNumberOfSubExpression()) {
+			return transformed;
+		}
+		
+		Expression rewritten = null;
+		for (List<Expression> term : mintermList) {
+			for (int i = 0; i < term.size(); i++) {
+				if (rewritten == null) {
+					rewritten = new Expression(term.get(i));
+				} else {
+					rewritten.combineExpression(i == 0 ? Expression.OR : Expression.AND, term.get(i));
+				}
+			}
+		}
+		rewritten.setComplement(transformed.isComplement());
+		return rewritten;
+	}
+	
+	/**
+	 * Merge the bounds on the same subject in a minterm.
+	 * 
+	 * <p>The tightest lower bound and the tightest upper bound are kept at 
+	 * the position of the first bound of the subject. If they are the same 
+	 * value and both inclusive, they are merged into one equality.
+	 * 
+	 * @param  minterm
+	 *         The sub-expressions connected by AND.
+	 *         
+	 * @return  The merged sub-expressions.
+	 * 
+	 * @since   1.1
+	 */
+	private List<Expression> mergeBounds(List<Expression> minterm) {
+		List<Expression>     merged     = new ArrayList<>();
+		Map<Subject,Integer> lowerIndex = new HashMap<>();
+		Map<Subject,Integer> upperIndex = new HashMap<>();
+		
+		for (Expression expression : minterm) {
+			int direction = getBoundDirection(expression);
+			if (direction == 0) {
+				merged.add(expression);
+				continue;
+			}
+			
+			Map<Subject,Integer> indexes = direction > 0 ? lowerIndex : upperIndex;
+			Integer index = indexes.get(expression.getSubject());
+			if (index == null) {
+				indexes.put(expression.getSubject(), merged.size());
+				merged.add(expression);
+			} else {
+				Boolean tighter = isTighter(expression, merged.get(index), direction);
+				if (tighter == null) {
+					merged.add(expression);    // both bounds are kept if they can not be compared
+				} else if (tighter) {
+					merged.set(index, expression);
+				}
+			}
+		}
+		
+		for (Map.Entry<Subject,Integer> entry : lowerIndex.entrySet()) {
+			Integer upper = upperIndex.get(entry.getKey());
+			if (upper != null) {
+				Expression lowerBound = merged.get(entry.getValue());
+				Expression upperBound = merged.get(upper);
+				if (Expression.GREATER_THAN_EQUAL.equals(lowerBound.getOperator()) && Expression.LESS_THAN_EQUAL.equals(upperBound.getOperator()) 
+						&& compare(lowerBound.getValue(), upperBound.getValue()) == 0) {
+					merged.set(entry.getValue(), new Expression(lowerBound.getSubject(), Expression.EQUAL, lowerBound.getValue()));
+					merged.set(upper, null);
+				}
+			}
+		}
+		merged.removeIf(expression -> expression == null);
+		return merged;
+	}
+	
+	/**
+	 * Merge the equalities on the same subject connected by OR into 
+	 * {@code IN}.
+	 * 
+	 * <p>Only the minterms with one simple expression are merged, the 
+	 * {@code IN} expression is at the position of the first merged minterm.
+	 * 
+	 * @param  mintermList
+	 *         The list of minterms.
+	 *         
+	 * @return  The merged list of minterms.
+	 * 
+	 * @since   1.1
+	 */
+	private List<List<Expression>> mergeEqualities(List<List<Expression>> mintermList) {
+		Map<Subject,List<Integer>> positions = new LinkedHashMap<>();
+		for (int i = 0; i < mintermList.size(); i++) {
+			List<Expression> minterm = mintermList.get(i);
+			if (minterm.size() == 1 && isMergeableEquality(minterm.get(0))) {
+				positions.computeIfAbsent(minterm.get(0).getSubject(), subject -> new ArrayList<>()).add(i);
+			}
+		}
+		
+		for (Map.Entry<Subject,List<Integer>> entry : positions.entrySet()) {
+			List<Integer> indexes = entry.getValue();
+			if (indexes.size() < 2) {
+				continue;
+			}
+			
+			Set<Object> values = new LinkedHashSet<>();
+			for (int index : indexes) {
+				Expression equality = mintermList.get(index).get(0);
+				values.addAll(getValues(equality));
+				mintermList.set(index, null);
+			}
+			
+			List<Expression> in = new ArrayList<>();
+			in.add(new Expression(entry.getKey(), Expression.IN, new ArrayList<>(values)));
+			mintermList.set(indexes.get(0), in);
+		}
+		
+		mintermList.removeIf(minterm -> minterm == null);
+		return mintermList;
+	}
+	
+	/**
+	 * Check a simple expression can be merged into {@code IN}.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be checked.
+	 *         
+	 * @return  {@code true} if the expression is an equality or {@code IN} 
+	 *          with the values which can be merged;
+	 *          {@code false} otherwise.
+	 * 
+	 * @since   1.1
+	 */
+	private boolean isMergeableEquality(Expression expression) {
+		if (expression.isCompound() || expression.isComplement() || expression.getSubject() == null) {
+			return false;
+		}
+		
+		Object value = expression.getValue();
+		boolean multiple = value instanceof Iterable || value instanceof Object[];
+		if (!(Expression.EQUAL.equals(expression.getOperator()) && !multiple) && !(Expression.IN.equals(expression.getOperator()) && multiple)) {
+			return false;
+		}
+		
+		for (Object element : getValues(expression)) {
+			if (element == null || element instanceof Parameter || (!caseSensitive && element instanceof String)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the values of an equality or {@code IN} expression.
+	 * 
+	 * @param  expression
+	 *         The equality or {@code IN} expression.
+	 *         
+	 * @return  The list of values.
+	 * 
+	 * @since   1.1
+	 */
+	private static List<?> getValues(Expression expression) {
+		Object value = expression.getValue();
+		if (value instanceof Object[]) {
+			return Arrays.asList((Object[]) value);
+		} else if (value instanceof Iterable) {
+			List<Object> values = new ArrayList<>();
+			((Iterable<?>) value).forEach(values::add);
+			return values;
+		} else {
+			return Arrays.asList(value);
+		}
+	}
+	
+	/**
+	 * Get the direction of a bound.
+	 * 
+	 * @param  expression
+	 *         The expression needs to be checked.
+	 *         
+	 * @return  1 for a lower bound ({@code >} or {@code >=}), -1 for an upper 
+	 *          bound ({@code <} or {@code <=}), or 0 if the expression is 
+	 *          not a bound which can be merged.
+	 * 
+	 * @since   1.1
+	 */
+	private static int getBoundDirection(Expression expression) {
+		if (expression.isCompound() || expression.isComplement() || expression.getSubject() == null) {
+			return 0;
+		}
+		
+		Object value = expression.getValue();
+		if (value == null || value instanceof Parameter || value instanceof String || !(value instanceof Comparable)) {
+			return 0;
+		}
+		
+		String operator = expression.getOperator();
+		if (Expression.GREATER_THAN.equals(operator) || Expression.GREATER_THAN_EQUAL.equals(operator)) {
+			return 1;
+		} else if (Expression.LESS_THAN.equals(operator) || Expression.LESS_THAN_EQUAL.equals(operator)) {
+			return -1;
+		} else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * Check a bound is tighter than another bound in the same direction.
+	 * 
+	 * @param  bound
+	 *         The new bound.
+	 *         
+	 * @param  current
+	 *         The current bound.
+	 *         
+	 * @param  direction
+	 *         1 for the lower bounds, -1 for the upper bounds.
+	 *         
+	 * @return  {@code true} if the new bound is tighter, {@code false} if 
+	 *          it is not tighter, or {@code null} if the values can not be 
+	 *          compared.
+	 * 
+	 * @since   1.1
+	 */
+	private static Boolean isTighter(Expression bound, Expression current, int direction) {
+		Integer c = compare(bound.getValue(), current.getValue());
+		if (c == null) {
+			return null;
+		}
+		if (c != 0) {
+			return c * direction > 0;
+		}
+		return isInclusive(current) && !isInclusive(bound);
+	}
+	
+	private static boolean isInclusive(Expression bound) {
+		return Expression.GREATER_THAN_EQUAL.equals(bound.getOperator()) || Expression.LESS_THAN_EQUAL.equals(bound.getOperator());
+	}
+	
+	/**
+	 * Compare 2 values of the bounds.
+	 * 
+	 * @param  value1
+	 *         The first value.
+	 *         
+	 * @param  value2
+	 *         The second value.
+	 *         
+	 * @return  The result of the comparison, or {@code null} if the values 
+	 *          can not be compared.
+	 * 
+	 * @since   1.1
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Integer compare(Object value1, Object value2) {
+		if (value1 instanceof Number && value2 instanceof Number) {
+			Number n1 = (Number) value1;
+			Number n2 = (Number) value2;
+			if (isIntegral(n1) && isIntegral(n2)) {
+				return Long.compare(n1.longValue(), n2.longValue());
+			}
+			return Double.compare(n1.doubleValue(), n2.doubleValue());
+		}
+		
+		if (value1 != null && value2 != null && value1.getClass() == value2.getClass()) {
+			return ((Comparable) value1).compareTo(value2);
+		}
+		return null;
+	}
+	
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+	}
+}
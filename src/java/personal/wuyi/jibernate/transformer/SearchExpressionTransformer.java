@@ -18,6 +18,7 @@ package personal.wuyi.jibernate.transformer;
 
 import personal.wuyi.jibernate.expression.Expression;
 import personal.wuyi.jibernate.expression.ExpressionTransformer;
+import personal.wuyi.jibernate.expression.Parameter;
 import personal.wuyi.jibernate.expression.Subject;
 
 /**
@@ -32,6 +33,9 @@ import personal.wuyi.jibernate.expression.Subject;
  *   CONTAINS 'ABC'   ==> LIKE '%ABC%'
  * </pre>
  * 
+ * <p>If the value is a {@link Parameter}, only the operator will be 
+ * changed, the bound value will be transformed when the query is executed.
+ * 
  * @author  Wuyi Chen
  * @date    09/26/2018
  * @version 1.1
@@ -40,6 +44,10 @@ import personal.wuyi.jibernate.expression.Subject;
 public class SearchExpressionTransformer extends ExpressionTransformer {
     @Override
     public Expression transform(Subject subject, String operator, Object value) {
+    	if (value instanceof Parameter) {
+    		return super.transform(subject, isSearchOperator(operator) ? "LIKE" : operator, value);
+    	}
+    	
     	switch (operator) {
         	case Expression.STARTS_WITH : return super.transform(subject, "LIKE", value + "%");
         	case Expression.ENDS_WITH   : return super.transform(subject, "LIKE", "%" + value);
@@ -47,4 +55,28 @@ public class SearchExpressionTransformer extends ExpressionTransformer {
         	default: return super.transform(subject, operator, value);
     	}
     }
+    
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.expression.ExpressionTransformer#isApplicable(personal.wuyi.jibernate.expression.Subject, java.lang.String, java.lang.Object)
+     */
+    @Override
+    protected boolean isApplicable(Subject subject, String operator, Object value) {
+    	return isSearchOperator(operator);
+    }
+    
+    /**
+     * Check an operator is a wild-card search operator or not.
+     * 
+     * @param  operator
+     *         The operator needs to be checked.
+     *         
+     * @return  {@code true} if the operator is "START_WITH", "END_WITH" or 
+     *          "CONTAINS";
+     *          {@code false} otherwise.
+     * 
+     * @since   1.1
+     */
+    private static boolean isSearchOperator(String operator) {
+    	return Expression.STARTS_WITH.equals(operator) || Expression.ENDS_WITH.equals(operator) || Expression.CONTAINS.equals(operator);
+    }
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Preconditions;
+
+import personal.wuyi.jibernate.expression.ExpressionTransformer;
+import personal.wuyi.jibernate.expression.ExpressionTransformerChain;
+
+/**
+ * The registry of the expression transformers for the persisted classes.
+ * 
+ * <p>The criteria of a query is transformed by the chain of the persisted 
+ * class (see {@link #getChain(Class)}). The chain consists of the 
+ * transformers registered for the persisted class or any of its super 
+ * classes and interfaces in the registration order, and then the built-in 
+ * transformers: {@link UriExpressionTransformer} and 
+ * {@link SearchExpressionTransformer}. So a registered transformer can 
+ * rewrite a simple expression into the project-specific grammar, like:
+ * <pre>
+ * {@code
+ * TransformerRegistry.register(Student.class, new ExpressionTransformer() {
+ *     public Expression transform(Subject subject, String operator, Object value) {
+ *         return super.transform("name".equals(subject.getName()) ? new Subject("lastName") : subject, operator, value);
+ *     }
+ * });
+ * }
+ * </pre>
+ * 
+ * <p>The criteria of a query which is not prepared is transformed by the 
+ * rewriting chain (see {@link #getRewritingChain(Class, boolean)}), which 
+ * is the chain of the persisted class with a 
+ * {@link RewriteExpressionTransformer} at the end, so the criteria is 
+ * transformed and rewritten in one pass.
+ * 
+ * <p>The simple expressions of a prepared query are transformed one more 
+ * time when the query is executed, so a registered transformer should keep 
+ * the value if it is a {@code Parameter}. The simple expressions of a 
+ * prepared query are mapped by their positions, so a registered 
+ * transformer should not remove any simple expression of a prepared query. 
+ * Otherwise compiling the query fails with an 
+ * {@code IllegalStateException}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class TransformerRegistry {
+	private static final ExpressionTransformerChain   DEFAULT_CHAIN            = new ExpressionTransformerChain(new UriExpressionTransformer(), new SearchExpressionTransformer());
+	private static final RewriteExpressionTransformer CASE_SENSITIVE_REWRITE   = new RewriteExpressionTransformer(true);
+	private static final RewriteExpressionTransformer CASE_INSENSITIVE_REWRITE = new RewriteExpressionTransformer(false);
+	
+	private static final List<Registration>                        registrations         = new ArrayList<>();
+	private static final Map<Class<?>, ExpressionTransformerChain> chains                = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ExpressionTransformerChain> caseSensitiveChains   = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ExpressionTransformerChain> caseInsensitiveChains = new ConcurrentHashMap<>();
+	
+	private TransformerRegistry() {}
+	
+	/**
+	 * Register a transformer for a persisted class.
+	 * 
+	 * <p>The transformer will be applied on the queries of the persisted 
+	 * class and its sub-classes.
+	 * 
+	 * @param  clazz
+	 *         The persisted class.
+	 *         
+	 * @param  transformer
+	 *         The transformer needs to be registered.
+	 *         
+	 * @since   1.1
+	 */
+	public static synchronized void register(Class<?> clazz, ExpressionTransformer transformer) {
+		Preconditions.checkNotNull(clazz,       "The class can not be null.");
+		Preconditions.checkNotNull(transformer, "The transformer can not be null.");
+		
+		registrations.add(new Registration(clazz, transformer));
+		clearChains();
+	}
+	
+	/**
+	 * Unregister a transformer for a persisted class.
+	 * 
+	 * @param  clazz
+	 *         The persisted class.
+	 *         
+	 * @param  transformer
+	 *         The transformer needs to be unregistered.
+	 *         
+	 * @return  {@code true} if the transformer has been registered for the 
+	 *          class;
+	 *          {@code false} otherwise.
+	 *          
+	 * @since   1.1
+	 */
+	public static synchronized boolean unregister(Class<?> clazz, ExpressionTransformer transformer) {
+		boolean removed = registrations.removeIf(registration -> registration.clazz == clazz && registration.transformer == transformer);
+		if (removed) {
+			clearChains();
+		}
+		return removed;
+	}
+	
+	/**
+	 * Get the transformer chain of a persisted class.
+	 * 
+	 * <p>The chain is built once and cached until the registrations are 
+	 * changed.
+	 * 
+	 * @param  clazz
+	 *         The persisted class, {@code null} for only the built-in 
+	 *         transformers.
+	 *         
+	 * @return  The transformer chain.
+	 * 
+	 * @since   1.1
+	 */
+	public static ExpressionTransformerChain getChain(Class<?> clazz) {
+		if (clazz == null) {
+			return DEFAULT_CHAIN;
+		}
+		
+		ExpressionTransformerChain chain = chains.get(clazz);
+		if (chain == null) {
+			synchronized (TransformerRegistry.class) {
+				chain = chains.computeIfAbsent(clazz, TransformerRegistry::buildChain);
+			}
+		}
+		return chain;
+	}
+	
+	/**
+	 * Get the rewriting chain of a persisted class.
+	 * 
+	 * <p>The rewriting chain is the transformer chain of the persisted class 
+	 * (see {@link #getChain(Class)}) with a 
+	 * {@link RewriteExpressionTransformer} at the end. It is built once and 
+	 * cached until the registrations are changed.
+	 * 
+	 * @param  clazz
+	 *         The persisted class, {@code null} for only the built-in 
+	 *         transformers.
+	 *         
+	 * @param  caseSensitive
+	 *         Is the query case sensitive or not.
+	 *         
+	 * @return  The rewriting chain.
+	 * 
+	 * @since   1.1
+	 */
+	public static ExpressionTransformerChain getRewritingChain(Class<?> clazz, boolean caseSensitive) {
+		Map<Class<?>, ExpressionTransformerChain> rewritingChains = caseSensitive ? caseSensitiveChains : caseInsensitiveChains;
+		Class<?>                                  key             = clazz == null ? Object.class : clazz;
+		
+		ExpressionTransformerChain chain = rewritingChains.get(key);
+		if (chain == null) {
+			synchronized (TransformerRegistry.class) {
+				chain = rewritingChains.computeIfAbsent(key, c -> {
+					List<ExpressionTransformer> transformers = new ArrayList<>(getChain(clazz).getTransformers());
+					transformers.add(caseSensitive ? CASE_SENSITIVE_REWRITE : CASE_INSENSITIVE_REWRITE);
+					return new ExpressionTransformerChain(transformers);
+				});
+			}
+		}
+		return chain;
+	}
+	
+	private static void clearChains() {
+		chains.clear();
+		caseSensitiveChains.clear();
+		caseInsensitiveChains.clear();
+	}
+	
+	/**
+	 * Build the transformer chain of a persisted class.
+	 * 
+	 * @param  clazz
+	 *         The persisted class.
+	 *         
+	 * @return  The transformer chain.
+	 * 
+	 * @since   1.1
+	 */
+	private static ExpressionTransformerChain buildChain(Class<?> clazz) {
+		List<ExpressionTransformer> transformers = new ArrayList<>();
+		for (Registration registration : registrations) {
+			if (registration.clazz.isAssignableFrom(clazz)) {
+				transformers.add(registration.transformer);
+			}
+		}
+		
+		if (transformers.isEmpty()) {
+			return DEFAULT_CHAIN;
+		}
+		
+		transformers.addAll(DEFAULT_CHAIN.getTransformers());
+		return new ExpressionTransformerChain(transformers);
+	}
+	
+	/**
+	 * The registration of a transformer for a persisted class.
+	 * 
+	 * @author  Wuyi Chen
+	 * @date    10/17/2026
+	 * @version 1.1
+	 * @since   1.1
+	 */
+	private static class Registration {
+		private final Class<?>              clazz;
+		private final ExpressionTransformer transformer;
+		
+		private Registration(Class<?> clazz, ExpressionTransformer transformer) {
+			this.clazz       = clazz;
+			this.transformer = transformer;
+		}
+	}
+}
@@ -19,6 +19,7 @@ package personal.wuyi.jibernate.transformer;
 import personal.wuyi.jibernate.entity.Uri;
 import personal.wuyi.jibernate.expression.Expression;
 import personal.wuyi.jibernate.expression.ExpressionTransformer;
+import personal.wuyi.jibernate.expression.Parameter;
 import personal.wuyi.jibernate.expression.Subject;
 
 /**
@@ -32,6 +33,9 @@ import personal.wuyi.jibernate.expression.Subject;
  *     Expression("uri","=","/personal/wuyi/jibernate/entity/Student/27") ==> Expression("id", "=", "27")
  * </pre>
  * 
+ * <p>If the value is a {@link Parameter}, only the subject will be changed, 
+ * the bound value will be transformed when the query is executed.
+ * 
  * @author  Wuyi Chen
  * @date    09/25/2018
  * @version 1.1
@@ -46,12 +50,22 @@ public class UriExpressionTransformer extends ExpressionTransformer {
         	if (value instanceof String) {
         		value = Uri.parse((String) value);
         	}
-        	value = ((Uri) value).getId();
+        	if (!(value instanceof Parameter)) {
+        		value = ((Uri) value).getId();
+        	}
         }
 
         return super.transform(newSubject, operator, value);
     }
 
+    /* (non-Javadoc)
+     * @see personal.wuyi.jibernate.expression.ExpressionTransformer#isApplicable(personal.wuyi.jibernate.expression.Subject, java.lang.String, java.lang.Object)
+     */
+    @Override
+    protected boolean isApplicable(Subject subject, String operator, Object value) {
+    	return "uri".equals(subject.getName()) && value != null;
+    }
+
     /**
      * The name of the unique identifier.
      *
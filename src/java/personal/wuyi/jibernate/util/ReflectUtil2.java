@@ -16,11 +16,14 @@
 
 package personal.wuyi.jibernate.util;
 
+import java.lang.reflect.Array;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.beanutils.PropertyUtils;
 
@@ -35,6 +38,17 @@ import personal.wuyi.reflect.ReflectUtil;
  * @since   1.0
  */
 public class ReflectUtil2 {
+	private static final ClassValue<Boolean> equalsOverridden = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> clazz) {
+			try {
+				return clazz.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+	
 	private ReflectUtil2() {}
 	
 	/**
@@ -49,6 +63,10 @@ public class ReflectUtil2 {
 	 *   <li>If both 2 objects are {@code List}, they are equal only if they 
 	 *   have the same number of elements and each element in one {@code List} 
 	 *   has the same element in another {@code List}.
+	 *   <li>If both 2 objects are arrays, they are equal only if they have 
+	 *   the same length and each element is equal.
+	 *   <li>If the first object is an {@code Enum} or a {@code Set}, or its 
+	 *   class overrides {@code equals()}, {@code equals()} will be applied.
 	 *   <li>If both 2 objects are in primitive types, so they will be 
 	 *   evaluated by ==. If 2 objects are primitive wrappers, so 
 	 *   {@code equals()} will be applied.
@@ -75,6 +93,14 @@ public class ReflectUtil2 {
         	return isEqualList((List<?>) obj1, (List<?>) obj2);
         }
 
+        if(obj1.getClass().isArray() && obj2.getClass().isArray()) {
+        	return isEqualArray(obj1, obj2);
+        }
+
+        if(obj1 instanceof Enum || obj1 instanceof Set || equalsOverridden.get(obj1.getClass())) {
+        	return obj1.equals(obj2);
+        }
+
         if(!obj1.getClass().isAssignableFrom(obj2.getClass())) {
             return false;
         }
@@ -107,7 +133,51 @@ public class ReflectUtil2 {
 
         return true;
     }
-    
+
+    /**
+     * Get the hash code of a general object which is consistent with
+     * {@link #isEqual(Object, Object)}.
+     *
+     * <p>A {@code List} or an array is hashed by its elements, an object 
+     * which is compared by {@code equals()} is hashed by 
+     * {@code hashCode()}. Other objects are compared by their properties and
+     * can be equal across subclasses, so they share the same hash code.
+     *
+     * @param  obj
+     *         The object needs to be hashed.
+     *
+     * @return  The hash code of the object.
+     *
+     * @since   1.1
+     */
+    public static int getHashCode(Object obj) {
+    	if (obj == null) {
+    		return 0;
+    	}
+
+    	if (obj instanceof List) {
+    		int hash = 1;
+    		for (Object element : (List<?>) obj) {
+    			hash = 31 * hash + getHashCode(element);
+    		}
+    		return hash;
+    	}
+
+    	if (obj.getClass().isArray()) {
+    		int hash = 1;
+    		for (int i = 0; i < Array.getLength(obj); i++) {
+    			hash = 31 * hash + getHashCode(Array.get(obj, i));
+    		}
+    		return hash;
+    	}
+
+    	if (obj instanceof Enum || obj instanceof Set || ReflectUtil.isPrimitive(obj.getClass()) || equalsOverridden.get(obj.getClass())) {
+    		return Objects.hashCode(obj);
+    	}
+
+    	return 1;
+    }
+
     /**
      * Check 2 lists are equal or not.
      * 
@@ -142,6 +212,35 @@ public class ReflectUtil2 {
         return true;
     }
     
+    /**
+     * Check 2 arrays are equal or not.
+     *
+     * @param  array1
+     *         The first array.
+     *
+     * @param  array2
+     *         The second array.
+     *
+     * @return  {@code true} if 2 arrays are equal;
+     *          {@code false} otherwise.
+     *
+     * @since   1.1
+     */
+    private static boolean isEqualArray(Object array1, Object array2) {
+        int length = Array.getLength(array1);
+        if(length != Array.getLength(array2)) {
+            return false;
+        }
+
+        for(int i = 0; i < length; i++) {
+            if(!isEqual(Array.get(array1, i), Array.get(array2, i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Returns a property map of a class.
      * 
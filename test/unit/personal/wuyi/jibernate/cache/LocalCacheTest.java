@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@code LocalCache}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class LocalCacheTest {
+	@Test
+	public void lruTest() {
+		LocalCache<String, Integer> cache = new LocalCache<>(2, EvictionPolicy.LRU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		
+		// "b" is the least recently used
+		cache.put("c", 3);
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+		
+		CacheStats stats = cache.getStats();
+		Assert.assertEquals(3, stats.getHits());
+		Assert.assertEquals(1, stats.getMisses());
+		Assert.assertEquals(1, stats.getEvictions());
+		Assert.assertEquals(2, stats.getSize());
+		Assert.assertEquals(0.75, stats.getHitRate(), 0.0001);
+	}
+	
+	@Test
+	public void lfuTest() {
+		LocalCache<String, Integer> cache = new LocalCache<>(2, EvictionPolicy.LFU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+		
+		// "b" is used less than "a", even if it is used more recently
+		cache.put("c", 3);
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		
+		// "c" is the least frequently used
+		cache.put("d", 4);
+		Assert.assertNull(cache.get("c"));
+		Assert.assertEquals(Integer.valueOf(4), cache.get("d"));
+		Assert.assertEquals(2, cache.getStats().getEvictions());
+	}
+	
+	@Test
+	public void lfuInvalidateTest() {
+		LocalCache<String, Integer> cache = new LocalCache<>(2, EvictionPolicy.LFU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+		cache.get("b");
+		cache.get("b");
+		cache.invalidate("a");
+		cache.put("c", 3);
+		cache.get("c");
+		cache.get("c");
+		cache.get("c");
+		
+		// the evicted one is "b" with the minimum frequency after the invalidation
+		cache.put("d", 4);
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+		Assert.assertEquals(Integer.valueOf(4), cache.get("d"));
+	}
+	
+	@Test
+	public void weightTest() {
+		LocalCache<String, String> cache = new LocalCache<>(10, String::length, EvictionPolicy.LRU, 0, TimeUnit.SECONDS);
+		cache.put("a", "1234");
+		cache.put("b", "1234");
+		cache.put("c", "12");
+		Assert.assertEquals(10, cache.getStats().getWeight());
+		
+		// 2 entries need to be evicted for the new value
+		cache.get("a");
+		cache.put("d", "123456");
+		Assert.assertNull(cache.get("b"));
+		Assert.assertNull(cache.get("c"));
+		Assert.assertEquals("1234", cache.get("a"));
+		Assert.assertEquals(2, cache.getStats().getEvictions());
+		
+		// the value heavier than the maximum weight is not cached
+		cache.put("e", "12345678901");
+		Assert.assertNull(cache.get("e"));
+		Assert.assertEquals(10, cache.getStats().getWeight());
+	}
+	
+	@Test
+	public void expireTest() {
+		AtomicLong                  time  = new AtomicLong();
+		LocalCache<String, Integer> cache = new LocalCache<>(10, value -> 1L, EvictionPolicy.LRU, 5, TimeUnit.SECONDS, time::get);
+		cache.put("a", 1);
+		time.addAndGet(TimeUnit.SECONDS.toNanos(4));
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		
+		time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		Assert.assertNull(cache.get("a"));
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(1, cache.getStats().getExpirations());
+		Assert.assertEquals(1, cache.getStats().getMisses());
+		
+		// putting again restarts the time-to-live
+		cache.put("a", 2);
+		time.addAndGet(TimeUnit.SECONDS.toNanos(4));
+		Assert.assertEquals(Integer.valueOf(2), cache.get("a"));
+	}
+	
+	@Test
+	public void invalidateIfTest() {
+		LocalCache<String, Integer> cache = new LocalCache<>(10, EvictionPolicy.LFU);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+		cache.invalidateIf((key, value) -> value % 2 == 1);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(Integer.valueOf(2), cache.get("b"));
+		
+		cache.invalidateAll();
+		Assert.assertEquals(0, cache.size());
+	}
+}
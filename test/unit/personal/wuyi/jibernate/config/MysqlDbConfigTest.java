@@ -16,6 +16,7 @@
 package personal.wuyi.jibernate.config;
 
 import java.io.FileNotFoundException;
+import java.util.Properties;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -60,4 +61,39 @@ public class MysqlDbConfigTest {
 		dbConfig.setPassword("AjK4U8Pw");
 		Assert.assertEquals("AjK4U8Pw", dbConfig.getPassword());
 	}
+	
+	@Test
+	public void loadOptionalPropertiesTest() {
+		Properties properties = new Properties();
+		properties.setProperty("pool.maxTotal",           "50");
+		properties.setProperty("pool.maxWaitMillis",      "1500");
+		properties.setProperty("jdbc.useServerPrepStmts", "false");
+		dbConfig.loadOptionalProperties(properties);
+		
+		Assert.assertEquals(50,    dbConfig.getMaxTotal());
+		Assert.assertEquals(1500L, dbConfig.getMaxWaitMillis());
+		Assert.assertFalse(dbConfig.isUseServerPrepStmts());
+		Assert.assertEquals(10,    dbConfig.getInitialSize());   // not in the properties, keep the default value
+		Assert.assertEquals("dbcp2", dbConfig.getPoolType());
+	}
+	
+	@Test
+	public void getJdbcUrlTest() {
+		dbConfig.setHost("localhost");
+		dbConfig.setPort("3306");
+		dbConfig.setDatabase("test");
+		dbConfig.setUseLocalSessionState(false);
+		Assert.assertEquals("jdbc:mysql://localhost:3306/test?useSSL=true&useCursorFetch=true&cachePrepStmts=true&prepStmtCacheSize=250"
+				+ "&prepStmtCacheSqlLimit=2048&useServerPrepStmts=true&rewriteBatchedStatements=true&useLocalSessionState=false", dbConfig.getJdbcUrl());
+	}
+	
+	@Test
+	public void getJdbcUrlTestWithoutServerPrepStmts() {
+		dbConfig.setHost("localhost");
+		dbConfig.setPort("3306");
+		dbConfig.setDatabase("test");
+		dbConfig.setUseServerPrepStmts(false);
+		Assert.assertEquals("jdbc:mysql://localhost:3306/test?useSSL=true&cachePrepStmts=true&prepStmtCacheSize=250"
+				+ "&prepStmtCacheSqlLimit=2048&useServerPrepStmts=false&rewriteBatchedStatements=true&useLocalSessionState=true", dbConfig.getJdbcUrl());
+	}
 }
@@ -77,6 +77,33 @@ public class UriTest {
 		Uri uri = Uri.parse("/personal/wuyi/jibernate/entity/Student/27");
 		Assert.assertEquals(Student.class,                                uri.getType());
 		Assert.assertEquals(27,                                           uri.getId());
+		
+		Uri uri2 = Uri.parse("personal/wuyi/jibernate/entity/Student/27/");
+		Assert.assertEquals(Student.class,                                uri2.getType());
+		Assert.assertEquals(27,                                           uri2.getId());
+		
+		Uri uri3 = Uri.parse("/personal/wuyi/jibernate/entity/Student/");
+		Assert.assertEquals(Student.class,                                uri3.getType());
+		Assert.assertEquals(null,                                         uri3.getId());
+	}
+	
+	@Test
+	public void parseTestLongId() {
+		// the ID which does not fit in an Integer is parsed as a Long
+		Uri uri = Uri.parse(new Uri(Student.class, 5000000000L).toString());
+		Assert.assertEquals(5000000000L,                                  uri.getId());
+		Assert.assertEquals(new Uri(Student.class, 5000000000L),          uri);
+		Assert.assertEquals(-27,                                          Uri.parse("/personal/wuyi/jibernate/entity/Student/-27").getId());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void parseTestNonIntegralId() {
+		Uri.parse("/personal/wuyi/jibernate/entity/Student/1.5");
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void parseTestUnknownClass() {
+		Uri.parse("/personal/wuyi/jibernate/entity/XYZ/27");
 	}
 	
 	@Test
@@ -89,6 +116,9 @@ public class UriTest {
 	public void hashCodeTest() {
 		Uri uri1 = new Uri(Student.class, 24);
 		Assert.assertEquals(-159100475, uri1.hashCode());
+		Assert.assertEquals(-159100475, uri1.hashCode());
+		Assert.assertEquals(uri1.hashCode(), Uri.parse("/personal/wuyi/jibernate/entity/Student/24").hashCode());
+		Assert.assertEquals(uri1.hashCode(), new Uri(Student.class, 24L).hashCode());
 	}
 	
 	@Test
@@ -99,6 +129,11 @@ public class UriTest {
 		Assert.assertFalse((new Uri(Student.class, 24)).equals(null));
 		Assert.assertFalse((new Uri(Student.class, 24)).equals("abc"));
 		
+		// the integral unique IDs are compared by their values
+		Assert.assertTrue((new Uri(Student.class, 24L)).equals(Uri.parse("/personal/wuyi/jibernate/entity/Student/24")));
+		Assert.assertTrue(Uri.parse("/personal/wuyi/jibernate/entity/Student/24").equals(new Uri(Student.class, 24L)));
+		Assert.assertFalse((new Uri(Student.class, 24L)).equals(new Uri(Student.class, "24")));
+		
 		Uri uriA = new Uri(Student.class, 24);
 		Uri uriB = new Uri(Student.class, 25);
 		
@@ -26,8 +26,13 @@ import java.sql.SQLException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.log4j.PropertyConfigurator;
 import org.junit.After;
@@ -163,6 +168,72 @@ public class AbstractEntityManagerDaoTest {
 		Assert.assertEquals(Ethnicity.BLACK, studentExist2Verify.getRace());
 	}
 	
+	/**
+	 * Test writing a list of objects in JDBC batches
+	 */
+	@Test
+	public void writeBatchTest() throws ParseException, DatabaseOperationException, SQLException {
+		DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+
+		int originalCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Batch'");
+
+		List<Student> newList = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Student student = new Student();
+			student.setFirstName("Batch" + i);
+			student.setLastName("Batch");
+			student.setDob(df.parse("07/16/2002"));
+			student.setGpa(2.22);
+			student.setRace(Ethnicity.WHITE);
+			newList.add(student);
+		}
+		dao.write(newList, 2);
+
+		int newCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Batch'");
+		Assert.assertEquals(originalCount + 5, newCount);
+
+		// update the existing objects in batch
+		for (Student student : newList) {
+			Assert.assertTrue(student.isPersisted());
+			student.setRace(Ethnicity.BLACK);
+		}
+		dao.write(newList, 2);
+
+		for (Student student : newList) {
+			Student verify = dao.read(new Uri(Student.class, student.getId()));
+			Assert.assertEquals(Ethnicity.BLACK, verify.getRace());
+		}
+
+		dao.delete(newList);
+	}
+
+	/**
+	 * Test writing an object with a pre-assigned id which is not in the 
+	 * table yet in JDBC batches.
+	 */
+	@Test
+	public void writeBatchTestAssignedId() throws ParseException, DatabaseOperationException, SQLException {
+		DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+
+		int originalCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Assigned'");
+
+		Student student = new Student();
+		student.setId(Long.MAX_VALUE);
+		student.setFirstName("Assigned");
+		student.setLastName("Assigned");
+		student.setDob(df.parse("07/16/2002"));
+		student.setGpa(2.22);
+		student.setRace(Ethnicity.WHITE);
+		dao.write(Arrays.asList(student, student), 2);
+
+		int newCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Assigned'");
+		Assert.assertEquals(originalCount + 1, newCount);
+
+		EntityQuery<Student> query = new EntityQuery<Student>(Student.class);
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Assigned"));
+		dao.delete(dao.read(query));
+	}
+
 	/**
 	 * Test reading a list of objects by inputing an {@code EntityQuery} object.
 	 */
@@ -247,6 +318,36 @@ public class AbstractEntityManagerDaoTest {
 		}
 	}
 	
+	/**
+	 * Test reading a list of objects by inputing a collection of {@code Uri}.
+	 */
+	@Test
+	public void readMultiGetTest() throws ParseException, DatabaseOperationException {
+		DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+		
+		List<Student> newList = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Student student = new Student();
+			student.setFirstName("Multi" + i);
+			student.setLastName("Multi");
+			student.setDob(df.parse("07/16/2002"));
+			student.setGpa(2.22);
+			student.setRace(Ethnicity.WHITE);
+			newList.add(student);
+		}
+		dao.write(newList);
+		
+		// the results should follow the order of the URIs and skip the missing one
+		List<Uri> uriList = Arrays.asList(newList.get(2).getUri(), new Uri(Student.class, -1L), newList.get(0).getUri(), newList.get(1).getUri());
+		List<Student> studentList = dao.read(uriList);
+		Assert.assertEquals(3, studentList.size());
+		Assert.assertEquals("Multi2", studentList.get(0).getFirstName());
+		Assert.assertEquals("Multi0", studentList.get(1).getFirstName());
+		Assert.assertEquals("Multi1", studentList.get(2).getFirstName());
+		
+		dao.delete(newList);
+	}
+	
 	@Test
 	public void readExceptionTest() {
 		try {
@@ -258,6 +359,28 @@ public class AbstractEntityManagerDaoTest {
 		}
 	}
 	
+	/**
+	 * Test streaming a list of objects by inputing an {@code EntityQuery} object.
+	 */
+	@Test
+	public void streamTest() throws SQLException {
+		EntityQuery<Student> q1 = new EntityQuery<Student>(Student.class);
+		q1.setCriteria(new Expression("firstName", Expression.EQUAL, "John"));
+	    q1.setSort(new Sort("id", true));
+		List<Student> studentList = dao.read(q1);
+
+		// use a small fetch size so that the records are read by multiple pages
+		List<Student> streamedList;
+		try (Stream<Student> stream = dao.stream(q1, 2)) {
+			streamedList = stream.collect(Collectors.toList());
+		}
+
+		Assert.assertEquals(studentList.size(), streamedList.size());
+		for (int i = 0; i < studentList.size(); i++) {
+			Assert.assertEquals(studentList.get(i).getId(), streamedList.get(i).getId());
+		}
+	}
+
 	@Test
 	public void countTest() throws SQLException {
 		int expectedCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "first_name = 'John'");
@@ -298,6 +421,74 @@ public class AbstractEntityManagerDaoTest {
 		Assert.assertEquals(0, newCount);
 	}
 	
+	@Test
+	public void deleteAndUpdateByQueryTest() throws ParseException, DatabaseOperationException, SQLException {
+		DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+		
+		List<Student> newList = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Student student = new Student();
+			student.setFirstName("Bulk" + i);
+			student.setLastName("Bulk");
+			student.setDob(df.parse("07/16/2002"));
+			student.setGpa(2.22);
+			student.setRace(Ethnicity.WHITE);
+			newList.add(student);
+		}
+		dao.write(newList);
+		
+		EntityQuery<Student> query = new EntityQuery<Student>(Student.class);
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Bulk"));
+		
+		// update all the matched records by one statement
+		Map<String, Object> assignments = new HashMap<>();
+		assignments.put("race", Ethnicity.BLACK);
+		Assert.assertEquals(3, dao.update(query, assignments));
+		for (Student student : newList) {
+			Student verify = dao.read(new Uri(Student.class, student.getId()));
+			Assert.assertEquals(Ethnicity.BLACK, verify.getRace());
+		}
+		
+		// delete all the matched records by one statement
+		Assert.assertEquals(3, dao.delete(query));
+		int newCount = GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Bulk'");
+		Assert.assertEquals(0, newCount);
+	}
+	
+	@Test
+	public void sessionTest() throws ParseException, DatabaseOperationException, SQLException {
+		DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
+		
+		Student studentNew = new Student();
+		studentNew.setFirstName("Session");
+		studentNew.setLastName("Session");
+		studentNew.setDob(df.parse("07/16/2002"));
+		studentNew.setGpa(2.22);
+		studentNew.setRace(Ethnicity.WHITE);
+		
+		// the changes are rolled back if the session is not committed
+		try (DaoSession session = dao.openSession()) {
+			session.write(studentNew);
+		}
+		Assert.assertEquals(0, GenericDbClientUtil.getNumberOfRecords(dbService, "student", "last_name = 'Session'"));
+		
+		// the identity map is shared by all the reads in one session
+		studentNew.setId(null);
+		Student result = dao.inTransaction(session -> {
+			session.write(studentNew);
+			Student student1 = session.read(studentNew.getUri());
+			Student student2 = session.read(studentNew.getUri());
+			Assert.assertSame(student1, student2);
+			student1.setRace(Ethnicity.BLACK);
+			return student1;
+		});
+		
+		Student verify = dao.read(result.getUri());
+		Assert.assertEquals(Ethnicity.BLACK, verify.getRace());
+		
+		dao.delete(verify);
+	}
+	
 	@After
 	public void closeConnection() throws SQLException {
 		dbService.closeConnection();
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package personal.wuyi.jibernate.entitymanager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.cache.EvictionPolicy;
+import personal.wuyi.jibernate.entity.Ethnicity;
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.query.EntityQuery;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * Test class for {@code CachingDao}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class CachingDaoTest {
+	@Test
+	public void readTest() throws DatabaseOperationException {
+		Student student = createStudent(1L);
+		Dao     backend = mock(Dao.class);
+		when(backend.read(any(Uri.class))).thenReturn(student);
+		CachingDao dao = new CachingDao(backend);
+		
+		// the URI parsed from a string has an Integer ID
+		Assert.assertSame(student, dao.read(new Uri(Student.class, 1L)));
+		Assert.assertSame(student, dao.read(Uri.parse(student.getUri().toString())));
+		verify(backend, times(1)).read(any(Uri.class));
+		Assert.assertEquals(1, dao.getCacheStats().getHits());
+		Assert.assertEquals(1, dao.getCacheStats().getMisses());
+		
+		// the write invalidates the cached record
+		dao.write(student);
+		dao.read(new Uri(Student.class, 1L));
+		verify(backend, times(2)).read(any(Uri.class));
+		
+		// the delete by query invalidates all the records of the class
+		dao.delete(new JQuery<>(Student.class));
+		dao.read(new Uri(Student.class, 1L));
+		verify(backend, times(3)).read(any(Uri.class));
+	}
+	
+	@Test
+	public void readMultiGetTest() {
+		Student s1      = createStudent(1L);
+		Student s2      = createStudent(2L);
+		Student s3      = createStudent(3L);
+		Uri     uri1    = new Uri(Student.class, 1L);
+		Uri     uri2    = new Uri(Student.class, 2L);
+		Uri     uri3    = new Uri(Student.class, 3L);
+		Dao     backend = mock(Dao.class);
+		when(backend.read(uri2)).thenReturn(s2);
+		when(backend.read(Arrays.asList(uri1, uri3))).thenReturn(Arrays.asList(s1, s3));
+		CachingDao dao = new CachingDao(backend, 10, EvictionPolicy.LFU, 1, TimeUnit.MINUTES);
+		
+		// only the missing records are read from the underlying DAO
+		dao.read(uri2);
+		List<Student> result = dao.read(Arrays.asList(uri1, uri2, uri3));
+		Assert.assertEquals(Arrays.asList(s1, s2, s3), result);
+		verify(backend, times(1)).read(Arrays.asList(uri1, uri3));
+		
+		Assert.assertEquals(Arrays.asList(s3, s1), dao.read(Arrays.asList(uri3, uri1)));
+		verify(backend, times(1)).read(any(Collection.class));
+	}
+	
+	@Test
+	public void queryCacheTest() throws DatabaseOperationException {
+		Student student = createStudent(1L);
+		Dao     backend = mock(Dao.class);
+		when(backend.read(any(JQuery.class))).thenReturn(Collections.singletonList(student));
+		when(backend.count(any())).thenReturn(1L);
+		CachingDao dao = new CachingDao(backend);
+		dao.enableQueryCache(1024 * 1024, EvictionPolicy.LRU, 0, TimeUnit.SECONDS);
+		
+		// the equal queries share the cached result
+		JQuery<Student> query = createQuery(Ethnicity.WHITE);
+		Assert.assertEquals(Collections.singletonList(student), dao.read(query));
+		Assert.assertEquals(Collections.singletonList(student), dao.read(createQuery(Ethnicity.WHITE)));
+		Assert.assertEquals(1, dao.count(query));
+		Assert.assertEquals(1, dao.count(query));
+		verify(backend, times(1)).read(any(JQuery.class));
+		verify(backend, times(1)).count(any());
+		
+		// the different query or the modified query is not a hit
+		dao.read(createQuery(Ethnicity.ASIAN));
+		query.setLimit(10);
+		dao.read(query);
+		verify(backend, times(3)).read(any(JQuery.class));
+		Assert.assertEquals(2, dao.getQueryCacheStats().getHits());
+		
+		// the write invalidates the query results of the class
+		dao.write(new Student("Mary", "Wang", 3.5));
+		dao.read(createQuery(Ethnicity.WHITE));
+		dao.count(createQuery(Ethnicity.WHITE));
+		verify(backend, times(4)).read(any(JQuery.class));
+		verify(backend, times(2)).count(any());
+	}
+	
+	@Test
+	public void queryCacheTestJpql() {
+		Student student1 = createStudent(1L);
+		Student student2 = createStudent(2L);
+		Dao     backend  = mock(Dao.class);
+		CachingDao dao = new CachingDao(backend);
+		dao.enableQueryCache(1024 * 1024, EvictionPolicy.LRU, 0, TimeUnit.SECONDS);
+		
+		// the queries with the same criteria but different custom JPQL statements do not share the cached result
+		EntityQuery<Student> query1 = new EntityQuery<>(Student.class);
+		query1.setJpql("SELECT student FROM Student student WHERE student.id = 1");
+		EntityQuery<Student> query2 = new EntityQuery<>(Student.class);
+		query2.setJpql("SELECT student FROM Student student WHERE student.id = 2");
+		when(backend.read(any(JQuery.class))).thenAnswer(invocation -> 
+				Collections.singletonList(invocation.getArgument(0) == query1 ? student1 : student2));
+		
+		Assert.assertEquals(student1.getUri(), dao.read(query1).get(0).getUri());
+		Assert.assertEquals(student2.getUri(), dao.read(query2).get(0).getUri());
+		Assert.assertEquals(student1.getUri(), dao.read(query1).get(0).getUri());
+		verify(backend, times(2)).read(any(JQuery.class));
+	}
+	
+	@Test
+	public void sessionTest() throws DatabaseOperationException {
+		Student    student = createStudent(1L);
+		Dao        backend = mock(Dao.class);
+		DaoSession session = mock(DaoSession.class);
+		when(backend.read(any(Uri.class))).thenReturn(student);
+		when(backend.openSession()).thenReturn(session);
+		when(session.read(any(JQuery.class))).thenReturn(Collections.singletonList(student));
+		CachingDao dao = new CachingDao(backend);
+		
+		dao.read(new Uri(Student.class, 1L));
+		dao.inTransaction(s -> s.read(new JQuery<>(Student.class)));
+		verify(session, times(1)).commit();
+		
+		// the record read by the session may be changed, so it is invalidated
+		dao.read(new Uri(Student.class, 1L));
+		verify(backend, times(2)).read(any(Uri.class));
+	}
+	
+	private static JQuery<Student> createQuery(Ethnicity race) {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Doe").and("race", Expression.EQUAL, race));
+		query.setSort("firstName+");
+		return query;
+	}
+	
+	private static Student createStudent(long id) {
+		Student student = new Student("John", "Doe", 3.1);
+		student.setId(id);
+		return student;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+
+/**
+ * Test class for {@code EntityManagerDaoSession}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class EntityManagerDaoSessionTest {
+	@Test
+	public void commitTest() throws DatabaseOperationException {
+		EntityManager     entityManager = mock(EntityManager.class);
+		EntityTransaction transaction   = mock(EntityTransaction.class);
+		when(entityManager.getTransaction()).thenReturn(transaction);
+		when(transaction.isActive()).thenReturn(true);
+
+		Student student1 = new Student("John", "Doe",  3.1);
+		Student student2 = new Student("Mary", "Wang", 3.2);
+		try (DaoSession session = new EntityManagerDaoSession(mock(AbstractEntityManagerDao.class), entityManager)) {
+			session.write(student1);
+			session.write(student2);
+			session.commit();
+		}
+
+		// all the writes share one entity manager and one commit
+		verify(entityManager, times(1)).persist(student1);
+		verify(entityManager, times(1)).persist(student2);
+		verify(transaction,   times(1)).commit();
+		verify(transaction,   never()).rollback();
+		verify(entityManager, times(1)).close();
+	}
+
+	@Test
+	public void closeWithoutCommitTest() throws DatabaseOperationException {
+		EntityManager     entityManager = mock(EntityManager.class);
+		EntityTransaction transaction   = mock(EntityTransaction.class);
+		when(entityManager.getTransaction()).thenReturn(transaction);
+		when(transaction.isActive()).thenReturn(true);
+
+		DaoSession session = new EntityManagerDaoSession(mock(AbstractEntityManagerDao.class), entityManager);
+		session.write(new Student("John", "Doe", 3.1));
+		session.close();
+		session.close();
+
+		verify(transaction,   never()).commit();
+		verify(transaction,   times(1)).rollback();
+		verify(entityManager, times(1)).close();
+	}
+
+	@Test
+	public void closedSessionTest() {
+		EntityManager     entityManager = mock(EntityManager.class);
+		EntityTransaction transaction   = mock(EntityTransaction.class);
+		when(entityManager.getTransaction()).thenReturn(transaction);
+
+		DaoSession session = new EntityManagerDaoSession(mock(AbstractEntityManagerDao.class), entityManager);
+		session.close();
+		try {
+			session.write(new Student("John", "Doe", 3.1));
+			Assert.fail("Expected an IllegalStateException to be thrown");
+		} catch (IllegalStateException | DatabaseOperationException e) {
+			Assert.assertTrue(e instanceof IllegalStateException);
+		}
+	}
+}
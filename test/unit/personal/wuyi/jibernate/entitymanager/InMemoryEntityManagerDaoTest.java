@@ -0,0 +1,258 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Ethnicity;
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
+import personal.wuyi.jibernate.query.EntityQuery;
+import personal.wuyi.jibernate.query.JQuery;
+import personal.wuyi.jibernate.query.Sort;
+
+/**
+ * Test class for {@code InMemoryEntityManagerDao}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class InMemoryEntityManagerDaoTest {
+	private InMemoryEntityManagerDao dao;
+	
+	@Before
+	public void buildDao() throws DatabaseOperationException {
+		dao = new InMemoryEntityManagerDao();
+		dao.createIndex(Student.class, "lastName", IndexType.HASH);
+		dao.createIndex(Student.class, "race",     IndexType.HASH);
+		dao.createIndex(Student.class, "gpa",      IndexType.TREE);
+		dao.write(Arrays.asList(
+				createStudent("John",  "Doe",   3.2, Ethnicity.WHITE),
+				createStudent("Jane",  "Doe",   3.8, Ethnicity.ASIAN),
+				createStudent("Mike",  "Smith", 2.5, Ethnicity.ASIAN),
+				createStudent("Sara",  "Lee",   3.5, Ethnicity.BLACK),
+				createStudent("Tom",   null,    3.0, null)));
+	}
+	
+	@Test
+	public void writeTest() throws DatabaseOperationException {
+		Student student = createStudent("Amy", "Wong", 3.9, Ethnicity.ASIAN);
+		dao.write(student);
+		
+		// the primary key is generated from the sequence
+		Assert.assertEquals(Long.valueOf(6L), student.getId());
+		Assert.assertTrue(student.isPersisted());
+		Assert.assertEquals(student.getUri(), dao.read(new Uri(Student.class, 6L)).getUri());
+		
+		// the URI parsed from a string has an Integer ID
+		Assert.assertEquals(student.getUri(), dao.read(Uri.parse(student.getUri().toString())).getUri());
+		
+		// the stored record is a copy
+		Student read = dao.read(new Uri(Student.class, 6L));
+		Assert.assertNotSame(student, read);
+		student.setGpa(2.0);
+		read.setGpa(2.0);
+		Assert.assertEquals(3.9, dao.<Student>read(new Uri(Student.class, 6L)).getGpa(), 0.0);
+		Assert.assertEquals(2, dao.read(Arrays.asList(new Uri(Student.class, 6L), new Uri(Student.class, 99L), new Uri(Student.class, 1L))).size());
+	}
+	
+	@Test
+	public void readTest() {
+		// hash index and residual criteria
+		JQuery<Student> q1 = new JQuery<>(Student.class);
+		q1.setCriteria(new Expression("lastName", Expression.EQUAL, "Doe").and("firstName", Expression.STARTS_WITH, "Ja"));
+		Assert.assertEquals(Arrays.asList("Jane"), getFirstNames(dao.read(q1)));
+		
+		// tree index with range
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setCriteria(new Expression("gpa", Expression.GREATER_THAN_EQUAL, 3).and("gpa", Expression.LESS_THAN, 3.8));
+		Assert.assertEquals(Arrays.asList("John", "Sara", "Tom"), getFirstNames(dao.read(q2)));
+		
+		// enum matched by name
+		JQuery<Student> q3 = new JQuery<>(Student.class);
+		q3.setCriteria(new Expression("race", Expression.IN, Arrays.asList("ASIAN", Ethnicity.BLACK)));
+		Assert.assertEquals(Arrays.asList("Jane", "Mike", "Sara"), getFirstNames(dao.read(q3)));
+		
+		// OR and complement are evaluated without index
+		JQuery<Student> q4 = new JQuery<>(Student.class);
+		q4.setCriteria(Expression.or(new Expression("lastName", Expression.EQUAL, "Lee"), new Expression("gpa", Expression.LESS_THAN, 3)));
+		Assert.assertEquals(Arrays.asList("Mike", "Sara"), getFirstNames(dao.read(q4)));
+		
+		JQuery<Student> q5 = new JQuery<>(Student.class);
+		q5.setCriteria(new Expression("lastName", Expression.EQUAL, "Doe").complement());
+		Assert.assertEquals(Arrays.asList("Mike", "Sara"), getFirstNames(dao.read(q5)));
+		
+		// case-insensitive query
+		JQuery<Student> q6 = new JQuery<>(Student.class);
+		q6.setCriteria(new Expression("lastName", Expression.EQUAL, "doe"));
+		Assert.assertTrue(dao.read(q6).isEmpty());
+		q6.setCaseSensitive(false);
+		Assert.assertEquals(2, dao.count(q6));
+		
+		// uri is changed to the primary key
+		JQuery<Student> q7 = new JQuery<>(Student.class);
+		q7.setCriteria(new Expression("uri", Expression.EQUAL, new Uri(Student.class, 2L).toString()));
+		Assert.assertEquals(Arrays.asList("Jane"), getFirstNames(dao.read(q7)));
+	}
+	
+	@Test
+	public void readSortAndPageTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setSort(new Sort("gpa", false));
+		query.setOffset(1);
+		query.setLimit(2);
+		Assert.assertEquals(Arrays.asList("Sara", "John"), getFirstNames(dao.read(query)));
+		Assert.assertEquals(5, dao.count(query));
+		
+		query.setOffset(4);
+		Assert.assertEquals(Arrays.asList("Mike"), getFirstNames(dao.read(query)));
+		
+		// nulls first, same as MySQL
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setSort(new Sort("lastName", true));
+		Assert.assertEquals("Tom", dao.read(q2).get(0).getFirstName());
+	}
+	
+	@Test
+	public void readFieldsTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("race", Expression.EQUAL, Ethnicity.ASIAN));
+		query.setSort(new Sort("firstName", true));
+		Assert.assertEquals(Arrays.asList(Arrays.asList("Jane", "Doe"), Arrays.asList("Mike", "Smith")), dao.read(query, "firstName", "lastName"));
+		
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setDistinct(true);
+		q2.setSort(new Sort("id", true));
+		Assert.assertEquals(Arrays.asList(Arrays.asList("Doe"), Arrays.asList("Smith"), Arrays.asList("Lee"), Collections.singletonList(null)), dao.read(q2, "lastName"));
+	}
+	
+	@Test
+	public void readPreparedTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, new Parameter("name")));
+		Assert.assertEquals(Arrays.asList("Mike"), getFirstNames(dao.read(query.compile().bind("name", "Smith"))));
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void readJpqlTest() {
+		EntityQuery<Student> query = new EntityQuery<>(Student.class);
+		query.setJpql("SELECT s FROM Student s");
+		dao.read(query);
+	}
+	
+	@Test
+	public void updateAndDeleteTest() throws DatabaseOperationException {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Doe"));
+		Assert.assertEquals(2, dao.update(query, Collections.singletonMap("lastName", "Roe")));
+		
+		// the index is updated
+		Assert.assertTrue(dao.read(query).isEmpty());
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Roe"));
+		Assert.assertEquals(2, dao.count(query));
+		
+		// the record changed and written back is re-indexed
+		Student student = dao.read(new Uri(Student.class, 3L));
+		student.setGpa(3.9);
+		dao.write(student);
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.8));
+		Assert.assertEquals(Arrays.asList("Mike"), getFirstNames(dao.read(q2)));
+		
+		Assert.assertEquals(2, dao.delete(query));
+		dao.delete(student);
+		Assert.assertEquals(2, dao.count(new JQuery<>(Student.class)));
+		Assert.assertNull(dao.read(new Uri(Student.class, 3L)));
+	}
+	
+	@Test
+	public void createIndexTest() {
+		dao.createIndex(Student.class, "firstName", IndexType.TREE);
+		
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("firstName", Expression.LESS_THAN, "Mike"));
+		Assert.assertEquals(Arrays.asList("John", "Jane"), getFirstNames(dao.read(query)));
+	}
+	
+	@Test
+	public void sessionTest() throws DatabaseOperationException {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.6));
+		
+		// the changes are undone if the session is not committed
+		try (DaoSession session = dao.openSession()) {
+			session.write(createStudent("Amy", "Wong", 3.9, Ethnicity.ASIAN));
+			session.delete(query);
+			session.update(new JQuery<>(Student.class), Collections.singletonMap("gpa", 4.0));
+			Assert.assertEquals(4, session.count(query));
+		}
+		Assert.assertEquals(Arrays.asList("Jane"), getFirstNames(dao.read(query)));
+		Assert.assertEquals(5, dao.count(new JQuery<>(Student.class)));
+		
+		// the records read in a session need to be written back
+		dao.inTransaction(session -> {
+			Student student = session.read(new Uri(Student.class, 1L));
+			student.setGpa(3.7);
+			session.write(student);
+			return student;
+		});
+		Assert.assertEquals(Arrays.asList("John", "Jane"), getFirstNames(dao.read(query)));
+	}
+	
+	@Test
+	public void sessionIsolationTest() throws Exception {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		DaoSession      session = dao.openSession();
+		session.write(createStudent("Amy", "Wong", 3.9, Ethnicity.ASIAN));
+		Assert.assertEquals(6, session.count(query));
+		
+		// an open session does not block the other threads
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Assert.assertEquals(Long.valueOf(5L), executor.submit(() -> dao.count(query)).get(1, TimeUnit.SECONDS));
+			executor.submit(session::close).get(1, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(5, dao.count(query));
+	}
+	
+	private static Student createStudent(String firstName, String lastName, double gpa, Ethnicity race) {
+		Student student = new Student(firstName, lastName, gpa);
+		student.setRace(race);
+		return student;
+	}
+	
+	private static List<String> getFirstNames(List<Student> students) {
+		return students.stream().map(Student::getFirstName).collect(Collectors.toList());
+	}
+}
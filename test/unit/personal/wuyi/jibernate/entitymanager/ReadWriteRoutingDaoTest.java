@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * Test class for {@code ReadWriteRoutingDao}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ReadWriteRoutingDaoTest {
+	@Test
+	public void routeTest() throws DatabaseOperationException {
+		Dao primary  = mock(Dao.class);
+		Dao replica1 = mock(Dao.class);
+		Dao replica2 = mock(Dao.class);
+		ReadWriteRoutingDao dao = new ReadWriteRoutingDao(primary, Arrays.asList(replica1, replica2));
+		
+		Uri     uri     = new Uri(Student.class, 1L);
+		Student student = new Student("John", "Doe", 3.1);
+		
+		// the reads take turns on the replicas
+		dao.read(uri);
+		dao.read(uri);
+		dao.count(new JQuery<Student>(Student.class));
+		verify(replica1, times(1)).read(uri);
+		verify(replica2, times(1)).read(uri);
+		verify(replica1, times(1)).count(any());
+		verify(primary,  never()).read(uri);
+		
+		// the writes go to the primary
+		dao.write(student);
+		dao.delete(student);
+		verify(primary,  times(1)).write(student);
+		verify(primary,  times(1)).delete(student);
+		verify(replica1, never()).write(student);
+		verify(replica2, never()).write(student);
+	}
+	
+	@Test
+	public void leastLoadedTest() {
+		Dao primary  = mock(Dao.class);
+		Dao replica1 = mock(Dao.class);
+		Dao replica2 = mock(Dao.class);
+		when(replica1.stream(any())).thenReturn(Stream.empty());
+		ReadWriteRoutingDao dao = new ReadWriteRoutingDao(primary, Arrays.asList(replica1, replica2));
+		dao.setReplicaSelection(ReadWriteRoutingDao.ReplicaSelection.LEAST_LOADED);
+		
+		// the open stream keeps the replica 1 busy, so the next reads go to the replica 2
+		Uri uri = new Uri(Student.class, 1L);
+		try (Stream<Student> stream = dao.stream(new JQuery<Student>(Student.class))) {
+			dao.read(uri);
+			dao.read(uri);
+			verify(replica2, times(2)).read(uri);
+			verify(replica1, never()).read(uri);
+		}
+		
+		// the replica 1 is free after the stream is closed
+		dao.read(uri);
+		dao.read(uri);
+		verify(replica1, times(1)).read(uri);
+		verify(replica2, times(3)).read(uri);
+	}
+	
+	@Test
+	public void readYourWritesTest() throws DatabaseOperationException, InterruptedException {
+		Dao primary = mock(Dao.class);
+		Dao replica = mock(Dao.class);
+		ReadWriteRoutingDao dao = new ReadWriteRoutingDao(primary, Arrays.asList(replica));
+		dao.setReadYourWritesWindow(200, TimeUnit.MILLISECONDS);
+		
+		Uri     uri     = new Uri(Student.class, 1L);
+		Student student = new Student("John", "Doe", 3.1);
+		
+		dao.read(uri);
+		verify(replica, times(1)).read(uri);
+		
+		// the reads are pinned to the primary after writing
+		dao.write(student);
+		dao.read(uri);
+		verify(primary, times(1)).read(uri);
+		
+		// the reads go back to the replica after the window
+		Thread.sleep(250);
+		dao.read(uri);
+		verify(replica, times(2)).read(uri);
+		Assert.assertEquals(200, dao.getReadYourWritesWindow(TimeUnit.MILLISECONDS));
+	}
+}
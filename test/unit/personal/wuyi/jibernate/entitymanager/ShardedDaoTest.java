@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.entity.Uri;
+import personal.wuyi.jibernate.exception.DatabaseOperationException;
+import personal.wuyi.jibernate.query.JQuery;
+import personal.wuyi.jibernate.query.Sort;
+
+/**
+ * Test class for {@code ShardedDao}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ShardedDaoTest {
+	private static Student newStudent(long id, String firstName, double gpa) {
+		Student student = new Student(firstName, "Doe", gpa);
+		student.setId(id);
+		return student;
+	}
+	
+	@Test
+	public void routeTest() throws DatabaseOperationException {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		Student s2 = newStudent(2, "John", 3.1);
+		Student s3 = newStudent(3, "Mary", 3.2);
+		dao.write(s2);
+		dao.write(s3);
+		verify(shard0, times(1)).write(s2);
+		verify(shard1, times(1)).write(s3);
+		
+		// a URI parsed from string has an Integer id
+		Uri uri = Uri.parse("/personal/wuyi/jibernate/entity/Student/3");
+		dao.read(uri);
+		verify(shard1, times(1)).read(uri);
+		verify(shard0, never()).read(uri);
+		
+		dao.delete(Arrays.asList(s2, s3));
+		verify(shard0, times(1)).delete(Arrays.asList(s2));
+		verify(shard1, times(1)).delete(Arrays.asList(s3));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void readTest() {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		when(shard0.read(any(JQuery.class))).thenReturn(Arrays.asList(newStudent(4, "Amy", 3.9), newStudent(2, "Carl", 3.5), newStudent(6, "Eve", 3.1)));
+		when(shard1.read(any(JQuery.class))).thenReturn(Arrays.asList(newStudent(1, "Bob", 3.8), newStudent(3, "Dan", 3.4)));
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setSort(new Sort("gpa", false));
+		query.setOffset(1);
+		query.setLimit(3);
+		List<Student> list = dao.read(query);
+		Assert.assertEquals(Arrays.asList("Bob", "Carl", "Dan"), list.stream().map(Student::getFirstName).collect(Collectors.toList()));
+		
+		// each shard returns the first (offset + limit) records
+		ArgumentCaptor<JQuery<Student>> captor = ArgumentCaptor.forClass(JQuery.class);
+		verify(shard0).read(captor.capture());
+		Assert.assertNull(captor.getValue().getOffset());
+		Assert.assertEquals(Integer.valueOf(4), captor.getValue().getLimit());
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamTest() {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		when(shard0.stream(any(JQuery.class), anyInt())).thenReturn(Stream.of(newStudent(1, "Amy", 3.1), newStudent(3, "Dan", 3.1)));
+		when(shard1.stream(any(JQuery.class), anyInt())).thenReturn(Stream.of(newStudent(2, "Bob", 3.1), newStudent(4, "Eve", 3.1)));
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setSort(new Sort("firstName", true));
+		try (Stream<Student> stream = dao.stream(query)) {
+			Assert.assertEquals(Arrays.asList("Amy", "Bob", "Dan", "Eve"), stream.map(Student::getFirstName).collect(Collectors.toList()));
+		}
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void countTest() throws DatabaseOperationException {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		when(shard0.count(any(JQuery.class))).thenReturn(3L);
+		when(shard1.count(any(JQuery.class))).thenReturn(4L);
+		when(shard0.delete(any(JQuery.class))).thenReturn(1);
+		when(shard1.delete(any(JQuery.class))).thenReturn(2);
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		Assert.assertEquals(7L, dao.count(new JQuery<>(Student.class)));
+		Assert.assertEquals(3,  dao.delete(new JQuery<>(Student.class)));
+	}
+	
+	@Test
+	public void inTransactionTest() throws DatabaseOperationException {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		when(shard1.inTransaction(any())).thenReturn("done");
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		// the transaction is routed to the shard of the id
+		Assert.assertEquals("done", dao.inTransaction(3L, session -> "done"));
+		verify(shard1, times(1)).inTransaction(any());
+		verify(shard0, never()).inTransaction(any());
+		
+		try {
+			dao.inTransaction(session -> "done");
+			Assert.fail("A transaction can not span over shards.");
+		} catch (UnsupportedOperationException e) {
+			verify(shard0, never()).openSession();
+			verify(shard1, never()).openSession();
+		}
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void stopTest() {
+		Dao shard0 = mock(Dao.class);
+		Dao shard1 = mock(Dao.class);
+		when(shard0.count(any(JQuery.class))).thenReturn(3L);
+		when(shard1.count(any(JQuery.class))).thenReturn(4L);
+		ShardedDao dao = new ShardedDao(Arrays.asList(shard0, shard1), ShardedDao.MODULO);
+		
+		dao.stop();
+		verify(shard0, times(1)).stop();
+		verify(shard1, times(1)).stop();
+		
+		// the thread pool is created again when the DAO is restarted
+		dao.start();
+		Assert.assertEquals(7L, dao.count(new JQuery<>(Student.class)));
+	}
+}
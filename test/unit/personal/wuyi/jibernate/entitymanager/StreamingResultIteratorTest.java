@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.entitymanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.ScrollableResults;
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+
+/**
+ * Test class for {@code StreamingResultIterator}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class StreamingResultIteratorTest {
+	@Test
+	public void iterateTest() {
+		Student s1 = new Student("John", "Doe",   3.1);
+		Student s2 = new Student("Mary", "Wang",  3.2);
+		Student s3 = new Student("Bob",  "Scott", 3.3);
+
+		EntityManager     entityManager = mock(EntityManager.class);
+		ScrollableResults results       = mock(ScrollableResults.class);
+		when(results.next()).thenReturn(true, true, true, false);
+		when(results.get(0)).thenReturn(s1, s2, s3);
+
+		List<Student> list = new ArrayList<>();
+		try (StreamingResultIterator<Student> iterator = new StreamingResultIterator<>(entityManager, results, 2)) {
+			while (iterator.hasNext()) {
+				list.add(iterator.next());
+			}
+			Assert.assertFalse(iterator.hasNext());
+		}
+
+		Assert.assertEquals(3, list.size());
+		Assert.assertSame(s1, list.get(0));
+		Assert.assertSame(s2, list.get(1));
+		Assert.assertSame(s3, list.get(2));
+
+		// each record should be detached once it has been read
+		verify(entityManager, times(1)).detach(s1);
+		verify(entityManager, times(1)).detach(s2);
+		verify(entityManager, times(1)).detach(s3);
+
+		// the cursor and the entity manager should be released after closing
+		verify(results,       times(1)).close();
+		verify(entityManager, times(1)).close();
+	}
+
+	@Test
+	public void iterateTestWithoutClosing() {
+		Student s1 = new Student("John", "Doe",  3.1);
+		Student s2 = new Student("Mary", "Wang", 3.2);
+
+		EntityManager     entityManager = mock(EntityManager.class);
+		ScrollableResults results       = mock(ScrollableResults.class);
+		when(results.next()).thenReturn(true, true, false);
+		when(results.get(0)).thenReturn(s1, s2);
+
+		// the cursor and the entity manager should be released once all the records have been read
+		StreamingResultIterator<Student> iterator = new StreamingResultIterator<>(entityManager, results, 2);
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+		verify(results,       times(1)).close();
+		verify(entityManager, times(1)).close();
+
+		iterator.close();
+		Assert.assertFalse(iterator.hasNext());
+		verify(results,       times(1)).close();
+	}
+
+	@Test
+	public void emptyTest() {
+		EntityManager     entityManager = mock(EntityManager.class);
+		ScrollableResults results       = mock(ScrollableResults.class);
+		when(results.next()).thenReturn(false);
+
+		StreamingResultIterator<Student> iterator = new StreamingResultIterator<>(entityManager, results, 10);
+		Assert.assertFalse(iterator.hasNext());
+		try {
+			iterator.next();
+			Assert.fail("Expected an NoSuchElementException to be thrown");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+
+		// closing twice should only release the resources once
+		iterator.close();
+		iterator.close();
+		verify(results,       times(1)).close();
+		verify(entityManager, times(1)).close();
+	}
+}
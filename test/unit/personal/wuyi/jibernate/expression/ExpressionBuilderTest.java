@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@code ExpressionBuilder} and {@code CompactExpression}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionBuilderTest {
+	@Test
+	public void buildTest() {
+		CompactExpression compact = new ExpressionBuilder()
+				.and("firstName", Expression.EQUAL, "Mike")
+				.beginAnd()
+					.or("gpa", Expression.GREATER_THAN, 3.5)
+					.or("gpa", Expression.LESS_THAN,    2.0)
+				.endGroup()
+				.build();
+		
+		Expression expected = new Expression("firstName", Expression.EQUAL, "Mike")
+				.and(new Expression("gpa", Expression.GREATER_THAN, 3.5).or("gpa", Expression.LESS_THAN, 2.0));
+		Assert.assertEquals(expected, compact.toExpression());
+		Assert.assertEquals(CompactExpression.of(expected), compact);
+		Assert.assertEquals(CompactExpression.of(expected).hashCode(), compact.hashCode());
+		Assert.assertEquals(expected.toString(), compact.toString());
+	}
+	
+	@Test
+	public void buildTestSingleAndEmpty() {
+		Assert.assertNull(new ExpressionBuilder().build());
+		Assert.assertNull(new ExpressionBuilder().beginOr().endGroup().buildExpression());
+		
+		Expression single = new ExpressionBuilder().beginOr().or("gpa", Expression.EQUAL, 4.0).endGroup().buildExpression();
+		Assert.assertEquals(new Expression("gpa", Expression.EQUAL, 4.0), single);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void buildTestGroupNotEnded() {
+		new ExpressionBuilder().and("gpa", Expression.EQUAL, 4.0).beginAnd().build();
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void endGroupTestWithoutGroup() {
+		new ExpressionBuilder().endGroup();
+	}
+	
+	@Test
+	public void buildTestManyTerms() {
+		ExpressionBuilder builder = new ExpressionBuilder();
+		for (int i = 0; i < 10000; i++) {
+			builder.or("segment", Expression.EQUAL, i);
+		}
+		CompactExpression compact = builder.build();
+		
+		Assert.assertEquals(10000, compact.getNumberOfSubExpression());
+		Assert.assertEquals(CompactExpression.OR, compact.getOperatorCode(9999));
+		Assert.assertEquals(10000, compact.toExpression().getNumberOfSubExpression());
+		
+		// the built expression is not affected by later changes of the builder
+		builder.or("segment", Expression.EQUAL, -1);
+		Assert.assertEquals(10000, compact.getNumberOfSubExpression());
+	}
+	
+	@Test
+	public void ofTestRoundTrip() {
+		Expression expr = new Expression("a", Expression.EQUAL, 1).or(new Expression("b", "LIKE", "x%").complement()).and("c", Expression.IN, 3);
+		expr.complement();
+		
+		CompactExpression compact = CompactExpression.of(expr);
+		Assert.assertTrue(compact.isComplement());
+		Assert.assertEquals("LIKE", compact.getSubExpression(1).getOperator());
+		Assert.assertEquals(expr, compact.toExpression());
+		Assert.assertNotSame(expr, compact.toExpression());
+	}
+	
+	@Test
+	public void andTestSharing() {
+		CompactExpression a = CompactExpression.of(new Expression("a", Expression.EQUAL, 1));
+		CompactExpression b = CompactExpression.of(new Expression("b", Expression.EQUAL, 2));
+		CompactExpression c = CompactExpression.of(new Expression("c", Expression.EQUAL, 3));
+		
+		CompactExpression ab  = a.and(b);
+		CompactExpression abc = ab.or(c);
+		
+		Assert.assertEquals(2, ab.getNumberOfSubExpression());
+		Assert.assertEquals(3, abc.getNumberOfSubExpression());
+		Assert.assertSame(a, abc.getSubExpression(0));
+		Assert.assertSame(c, abc.getSubExpression(2));
+		Assert.assertEquals(new Expression("a", Expression.EQUAL, 1).and("b", Expression.EQUAL, 2).or("c", Expression.EQUAL, 3), abc.toExpression());
+		
+		// a complemented compound expression is kept as one sub-expression
+		CompactExpression notAb = ab.complement().and(c);
+		Assert.assertEquals(2, notAb.getNumberOfSubExpression());
+		Assert.assertSame(b, notAb.getSubExpression(0).getSubExpression(1));
+		
+		// extending the same node twice does not change the other branch
+		CompactExpression abd = ab.and(CompactExpression.of(new Expression("d", Expression.EQUAL, 4)));
+		Assert.assertSame(c, abc.getSubExpression(2));
+		Assert.assertEquals("d", abd.getSubExpression(2).getSubjectName());
+		Assert.assertEquals(2, ab.getNumberOfSubExpression());
+	}
+	
+	@Test(timeout = 5000)
+	public void andTestChainingManyTerms() {
+		CompactExpression expr = CompactExpression.of(new Expression("id", Expression.EQUAL, 0));
+		for (int i = 1; i < 200000; i++) {
+			expr = expr.or(CompactExpression.of(new Expression("id", Expression.EQUAL, i)));
+		}
+		Assert.assertEquals(200000, expr.getNumberOfSubExpression());
+		Assert.assertEquals(199999, expr.getSubExpression(199999).getValue());
+	}
+	
+	@Test
+	public void serializeTest() throws IOException, ClassNotFoundException {
+		CompactExpression expr = CompactExpression.of(new Expression("firstName", Expression.EQUAL, "Mike"))
+				.and(CompactExpression.of(new Expression("gpa", Expression.GREATER_THAN, 3.5)));
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(expr);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			CompactExpression deserialized = (CompactExpression) in.readObject();
+			Assert.assertEquals(expr, deserialized);
+			Assert.assertEquals("Mike", deserialized.getSubExpression(0).getValue());
+			Assert.assertEquals(3.5,    deserialized.getSubExpression(1).getValue());
+		}
+	}
+	
+	@Test
+	public void transformTest() {
+		CompactExpression group = new ExpressionBuilder().or("a", Expression.EQUAL, 1).or("b", Expression.EQUAL, 2).build();
+		CompactExpression expr  = new ExpressionBuilder().and(group).and("c", Expression.EQUAL, 3).build();
+		
+		// nothing changed
+		Assert.assertSame(expr, expr.transform(e -> e));
+		
+		// only the path to the changed node is rebuilt
+		CompactExpression transformed = expr.transform(e -> "c".equals(e.getSubjectName()) ? CompactExpression.simple(new Subject("c"), Expression.EQUAL, 4) : e);
+		Assert.assertNotSame(expr, transformed);
+		Assert.assertSame(group, transformed.getSubExpression(0));
+		Assert.assertEquals(4, transformed.getSubExpression(1).getValue());
+		Assert.assertEquals(3, expr.getSubExpression(1).getValue());
+		
+		// removing a node removes its operator as well
+		CompactExpression removed = expr.transform(e -> "a".equals(e.getSubjectName()) ? null : e);
+		Assert.assertEquals(new Expression("b", Expression.EQUAL, 2).and("c", Expression.EQUAL, 3), removed.toExpression());
+		
+		Assert.assertNull(expr.transform(e -> null));
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Ethnicity;
+import personal.wuyi.jibernate.entity.Student;
+
+/**
+ * Test class for {@code ExpressionEngine.compile()}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionCompilerTest {
+	private Student john  = createStudent(1L, "John",  "Doe",   3.5, Ethnicity.WHITE);
+	private Student mary  = createStudent(2L, "Mary",  "Smith", 3.9, Ethnicity.ASIAN);
+	private Student nobody = createStudent(3L, null,   null,    2.0, null);
+	
+	private static Student createStudent(Long id, String firstName, String lastName, double gpa, Ethnicity race) {
+		Student student = new Student(firstName, lastName, gpa);
+		student.setId(id);
+		student.setRace(race);
+		return student;
+	}
+	
+	@Test
+	public void compileTestComparison() {
+		Assert.assertTrue(compile(new Expression("gpa", Expression.GREATER_THAN, 3)).test(john));
+		Assert.assertFalse(compile(new Expression("gpa", Expression.GREATER_THAN_EQUAL, 4)).test(mary));
+		Assert.assertTrue(compile(new Expression("gpa", Expression.LESS_THAN_EQUAL, 3.5)).test(john));
+		Assert.assertTrue(compile(new Expression("id", Expression.EQUAL, 2)).test(mary));      // Integer to Long
+		Assert.assertTrue(compile(new Expression("race", Expression.EQUAL, "ASIAN")).test(mary));
+		Assert.assertTrue(compile(new Expression("race", Expression.EQUAL, Ethnicity.ASIAN)).test(mary));
+		Assert.assertTrue(compile(new Expression("uri", Expression.EQUAL, john.getUri().toString())).test(john));
+	}
+	
+	@Test
+	public void compileTestNull() {
+		Assert.assertTrue(compile(new Expression("firstName", Expression.EQUAL, null)).test(nobody));
+		Assert.assertFalse(compile(new Expression("firstName", Expression.NOT_EQUAL, null)).test(nobody));
+		
+		// comparing null is unknown, the complement of unknown is still unknown
+		Assert.assertFalse(compile(new Expression("firstName", Expression.NOT_EQUAL, "John")).test(nobody));
+		Assert.assertFalse(compile(new Expression("firstName", Expression.EQUAL, "John").complement()).test(nobody));
+		Assert.assertTrue(compile(new Expression("firstName", Expression.EQUAL, "John").or("gpa", Expression.EQUAL, 2)).test(nobody));
+	}
+	
+	@Test
+	public void compileTestSearch() {
+		Assert.assertTrue(compile(new Expression("firstName", Expression.STARTS_WITH, "Jo")).test(john));
+		Assert.assertTrue(compile(new Expression("firstName", Expression.ENDS_WITH, "ry")).test(mary));
+		Assert.assertTrue(compile(new Expression("lastName", Expression.CONTAINS, "mit")).test(mary));
+		Assert.assertTrue(compile(new Expression("lastName", "LIKE", "S_it%")).test(mary));
+		Assert.assertFalse(compile(new Expression("lastName", "LIKE", "s_it%")).test(mary));
+		Assert.assertTrue(ExpressionEngine.compile(new Expression("lastName", "LIKE", "s_it%"), Student.class, false).test(mary));
+		Assert.assertFalse(compile(new Expression("lastName", "LIKE", "S\\_it%")).test(mary));
+		Assert.assertTrue(compile(new Expression("lastName", "LIKE", "(.*)")).test(createStudent(4L, "A", "(.*)", 1, null)));
+	}
+	
+	@Test
+	public void compileTestIn() {
+		Predicate<Student> in = compile(new Expression("id", Expression.IN, Arrays.asList(1, 3)));
+		Assert.assertTrue(in.test(john));
+		Assert.assertFalse(in.test(mary));
+		
+		Predicate<Student> names = ExpressionEngine.compile(new Expression("firstName", Expression.IN, new String[] {"JOHN", "mary"}), Student.class, false);
+		Assert.assertTrue(names.test(john));
+		Assert.assertTrue(names.test(mary));
+		Assert.assertFalse(names.test(nobody));
+		
+		// NOT (x IN (1, NULL)) is unknown if x is not 1
+		Assert.assertFalse(compile(new Expression("id", Expression.IN, Arrays.asList(1, null)).complement()).test(mary));
+	}
+	
+	@Test
+	public void compileTestCompound() {
+		// AND has higher precedence: firstName == Mary || gpa > 3 && race == ASIAN
+		Expression expr = new Expression("firstName", Expression.EQUAL, "Mary").or("gpa", Expression.GREATER_THAN, 3).and("race", Expression.EQUAL, "ASIAN");
+		Predicate<Student> predicate = compile(expr);
+		Assert.assertFalse(predicate.test(john));
+		Assert.assertTrue(predicate.test(mary));
+		
+		// !(firstName == John && gpa > 3)
+		Predicate<Student> complement = compile(new Expression(new Expression("firstName", Expression.EQUAL, "John").and("gpa", Expression.GREATER_THAN, 3)).complement());
+		Assert.assertFalse(complement.test(john));
+		Assert.assertTrue(complement.test(mary));
+		
+		Assert.assertTrue(compile(null).test(john));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void compileTestUnknownField() {
+		compile(new Expression("age", Expression.EQUAL, 1));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void compileTestUnboundParameter() {
+		compile(new Expression("gpa", Expression.EQUAL, new Parameter("gpa")));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void compileTestSingleValueIn() {
+		compile(new Expression("gpa", Expression.IN, 1));
+	}
+	
+	private static Predicate<Student> compile(Expression expr) {
+		return ExpressionEngine.compile(expr, Student.class);
+	}
+}
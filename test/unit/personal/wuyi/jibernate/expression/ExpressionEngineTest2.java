@@ -16,6 +16,8 @@
 
 package personal.wuyi.jibernate.expression;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
@@ -133,4 +135,154 @@ public class ExpressionEngineTest2 {
 				new Expression("A", Expression.EQUAL, "a").and("B", Expression.EQUAL, "b"))
         );
 	}
+	
+	@Test
+	public void removeRedundantMintermsTest() {
+		Expression a = new Expression("A", Expression.EQUAL, "a");
+		Expression b = new Expression("B", Expression.EQUAL, "b");
+		Expression c = new Expression("C", Expression.EQUAL, "c");
+		Expression d = new Expression("D", Expression.EQUAL, "d");
+		
+		// ABC + CD + AB + DC + A ==> CD + A
+		List<List<Expression>> mintermList = new ArrayList<>();
+		mintermList.add(new ArrayList<>(Arrays.asList(a, b, c)));
+		mintermList.add(new ArrayList<>(Arrays.asList(c, d)));
+		mintermList.add(new ArrayList<>(Arrays.asList(a, b)));
+		mintermList.add(new ArrayList<>(Arrays.asList(d, c)));
+		mintermList.add(new ArrayList<>(Arrays.asList(new Expression("A", Expression.EQUAL, "a"))));
+		ExpressionEngine.removeRedundantMinterms(mintermList);
+		
+		Assert.assertEquals(2, mintermList.size());
+		Assert.assertEquals(Arrays.asList(d, c), mintermList.get(0));
+		Assert.assertEquals(Arrays.asList(a),    mintermList.get(1));
+	}
+	
+	@Test
+	public void removeRedundantMintermsTestManyMinterms() {
+		// X0 Y0 + X1 Y1 + ... + X0 + X1 + ... ==> X0 + X1 + ...
+		List<List<Expression>> mintermList = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			mintermList.add(new ArrayList<>(Arrays.asList(new Expression("X", Expression.EQUAL, i), new Expression("Y", Expression.EQUAL, i))));
+		}
+		for (int i = 0; i < 10000; i++) {
+			mintermList.add(new ArrayList<>(Arrays.asList(new Expression("X", Expression.EQUAL, i))));
+		}
+		ExpressionEngine.removeRedundantMinterms(mintermList);
+		
+		Assert.assertEquals(10000, mintermList.size());
+		Assert.assertEquals(Arrays.asList(new Expression("X", Expression.EQUAL, 0)),    mintermList.get(0));
+		Assert.assertEquals(Arrays.asList(new Expression("X", Expression.EQUAL, 9999)), mintermList.get(9999));
+	}
+	
+	@Test
+	public void getSumOfProductsByDivideAndConquorTestAllAnd() {
+		// X0 X1 ... X999 (A + B) ==> X0 X1 ... X999 A + X0 X1 ... X999 B
+		Expression expr = new Expression("X", Expression.EQUAL, 0);
+		for (int i = 1; i < 1000; i++) {
+			expr.and("X", Expression.EQUAL, i);
+		}
+		expr.and(new Expression("A", Expression.EQUAL, "a").or("B", Expression.EQUAL, "b"));
+		
+		List<List<Expression>> mintermList = ExpressionEngine.collectMintermAsList(ExpressionEngine.getSumOfProducts(expr));
+		Assert.assertEquals(2, mintermList.size());
+		Assert.assertEquals(1001, mintermList.get(0).size());
+		Assert.assertEquals(1001, mintermList.get(1).size());
+		Assert.assertTrue(mintermList.get(0).contains(new Expression("A", Expression.EQUAL, "a")));
+		Assert.assertTrue(mintermList.get(1).contains(new Expression("B", Expression.EQUAL, "b")));
+	}
+	
+	@Test
+	public void getSumOfProductsByDivideAndConquorTestComplement() {
+		// !(AB + C) ==> !A !C + !B !C
+		Expression expr = new Expression(new Expression("A", Expression.EQUAL, "a").and("B", Expression.EQUAL, "b"))
+				.or("C", Expression.EQUAL, "c").complement();
+		
+		Expression sop = ExpressionEngine.getSumOfProductsByDivideAndConquor(expr, 1);
+		assertThat(ExpressionEngine.collectMintermAsExpression(sop), containsInAnyOrder(
+				new Expression("A", Expression.EQUAL, "a").complement().and(new Expression("C", Expression.EQUAL, "c").complement()),
+				new Expression("B", Expression.EQUAL, "b").complement().and(new Expression("C", Expression.EQUAL, "c").complement()))
+		);
+	}
+	
+	@Test
+	public void getSumOfProductsByDivideAndConquorTestParallel() {
+		// X0 Y0 + X1 Y1 + ... + X9999 Y9999 + X0 Y0
+		Expression expr = new Expression();
+		for (int i = 0; i < 10000; i++) {
+			expr.combineCompoundExpression(Expression.OR, new Expression("X", Expression.EQUAL, i).and("Y", Expression.EQUAL, i));
+		}
+		expr.combineCompoundExpression(Expression.OR, new Expression("X", Expression.EQUAL, 0).and("Y", Expression.EQUAL, 0));
+		
+		List<List<Expression>> mintermList = ExpressionEngine.collectMintermAsList(ExpressionEngine.getSumOfProducts(expr));
+		Assert.assertEquals(10000, mintermList.size());
+		Assert.assertEquals(Arrays.asList(new Expression("X", Expression.EQUAL, 1),    new Expression("Y", Expression.EQUAL, 1)),    mintermList.get(0));
+		Assert.assertEquals(Arrays.asList(new Expression("X", Expression.EQUAL, 0),    new Expression("Y", Expression.EQUAL, 0)),    mintermList.get(9999));
+	}
+	
+	@Test
+	public void prepareUnsatisfiabilityCheckTest() {
+		// x > :min && x < :max
+		Expression            expr  = new Expression("x", Expression.GREATER_THAN, new Parameter("min")).and("x", Expression.LESS_THAN, new Parameter("max"));
+		UnsatisfiabilityCheck check = ExpressionEngine.prepareUnsatisfiabilityCheck(expr);
+		Assert.assertTrue(check.isUnsatisfiable(i -> i == 0 ? 5 : 3));
+		Assert.assertFalse(check.isUnsatisfiable(i -> i == 0 ? 3 : 5));
+		Assert.assertEquals(new Parameter("min"), expr.getSubExpression(0).getValue());
+		
+		Assert.assertNull(ExpressionEngine.prepareUnsatisfiabilityCheck(new Expression("x", Expression.EQUAL, 1).and("y", Expression.EQUAL, 2)));
+	}
+	
+	@Test
+	public void isUnsatisfiableTest() {
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.GREATER_THAN, 5).and("x", Expression.LESS_THAN, 3)));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, 1).and("x", Expression.EQUAL, 2L)));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.IN, new ArrayList<>())));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, null).and("x", Expression.GREATER_THAN, 5)));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.IN, Arrays.asList(1, 2)).and("x", Expression.GREATER_THAN_EQUAL, 3)));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.GREATER_THAN_EQUAL, 3).and("x", Expression.LESS_THAN_EQUAL, 3).and("x", Expression.NOT_EQUAL, 3)));
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, "Mike").and("x", Expression.EQUAL, null)));
+		
+		// (x > 5 || y == 1) && x < 3 ==> x > 5 && x < 3 || y == 1 && x < 3
+		Expression expr = new Expression(new Expression("x", Expression.GREATER_THAN, 5).or("y", Expression.EQUAL, 1)).and("x", Expression.LESS_THAN, 3);
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(expr));
+		expr.and("y", Expression.EQUAL, 2);
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(expr));
+		
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.GREATER_THAN_EQUAL, 3).and("x", Expression.LESS_THAN_EQUAL, 3)));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, 1).and("y", Expression.EQUAL, 2)));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, "Mike").and("x", Expression.EQUAL, "MIKE")));
+		
+		// the strings are compared by the collation of the database
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, "Mike").and("x", Expression.EQUAL, "John")));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, "john").and("x", Expression.NOT_EQUAL, "John")));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, "john").and("x", Expression.NOT_EQUAL, "john ")));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, 1).and("x", Expression.EQUAL, new Parameter("x"))));
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, 1).and("x", Expression.EQUAL, 1)));
+	}
+	
+	@Test
+	public void isUnsatisfiableTestComplement() {
+		// !(x <= 5) && x < 3
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.LESS_THAN_EQUAL, 5).complement().and("x", Expression.LESS_THAN, 3)));
+		
+		// !(x == 1) && x == 1
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, 1).complement().and("x", Expression.EQUAL, 1)));
+		
+		// !(x == null) && x == null
+		Assert.assertTrue(ExpressionEngine.isUnsatisfiable(new Expression("x", Expression.EQUAL, null).complement().and("x", Expression.EQUAL, null)));
+		
+		// a complemented compound expression is not analyzed
+		Expression expr = new Expression("x", Expression.EQUAL, 1).or("x", Expression.EQUAL, 2).complement().and("x", Expression.EQUAL, 1);
+		Assert.assertFalse(ExpressionEngine.isUnsatisfiable(expr));
+	}
+	
+	@Test
+	public void removeUnsatisfiableMintermsTest() {
+		List<List<Expression>> mintermList = new ArrayList<>();
+		mintermList.add(new ArrayList<>(Arrays.asList(new Expression("x", Expression.EQUAL, 1), new Expression("x", Expression.EQUAL, 2))));
+		mintermList.add(new ArrayList<>(Arrays.asList(new Expression("x", Expression.EQUAL, 1), new Expression("y", Expression.EQUAL, 2))));
+		ExpressionEngine.removeUnsatisfiableMinterms(mintermList);
+		
+		Assert.assertEquals(1, mintermList.size());
+		Assert.assertEquals(new Expression("y", Expression.EQUAL, 2), mintermList.get(0).get(1));
+	}
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@code Expression.canonical()} and 
+ * {@code ExpressionInterner}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionInternerTest {
+	@Test
+	public void canonicalTest() {
+		Expression expr1 = new Expression("firstName", Expression.EQUAL, "Mike").and("gpa", Expression.GREATER_THAN, 3.5);
+		Expression expr2 = new Expression("gpa", Expression.GREATER_THAN, 3.5).and("firstName", Expression.EQUAL, "Mike");
+		Assert.assertNotEquals(expr1, expr2);
+		Assert.assertEquals(expr1.canonical(), expr2.canonical());
+		Assert.assertEquals(expr1.canonical().hashCode(), expr2.canonical().hashCode());
+		
+		// the original expressions are not changed
+		Assert.assertEquals("firstName", expr1.getSubExpression(0).getSubject().getName());
+	}
+	
+	@Test
+	public void canonicalTestFlattenAndDuplicate() {
+		Expression nested = a().and(b().and(c())).and(a());
+		Expression flat   = c().and(b()).and(a());
+		Assert.assertEquals(flat.canonical(), nested.canonical());
+		Assert.assertEquals(3, nested.canonical().getNumberOfSubExpression());
+		
+		Expression or1 = a().or(b().and(c()));
+		Expression or2 = c().and(b()).or(a()).or(a());
+		Assert.assertEquals(or1.canonical(), or2.canonical());
+	}
+	
+	@Test
+	public void canonicalTestComplement() {
+		Expression expr1 = a().and(b()).complement();
+		Expression expr2 = b().and(a());
+		Assert.assertNotEquals(expr1.canonical(), expr2.canonical());
+		Assert.assertEquals(expr1.canonical(), expr2.complement().canonical());
+		
+		Expression single = a().and(a()).complement().canonical();
+		Assert.assertFalse(single.isCompound());
+		Assert.assertTrue(single.isComplement());
+	}
+	
+	@Test
+	public void internTest() {
+		ExpressionInterner interner = new ExpressionInterner();
+		
+		Expression input  = a().and("gpa", Expression.GREATER_THAN, 3.5);
+		Expression expr1  = interner.intern(input);
+		Expression expr2  = interner.intern(a().or("age", Expression.LESS_THAN, 20));
+		
+		Assert.assertSame(expr1, interner.intern(a().and("gpa", Expression.GREATER_THAN, 3.5)));
+		Assert.assertSame(expr1.getSubExpression(0), expr2.getSubExpression(0));
+		Assert.assertSame(expr1, interner.intern(expr1));
+		Assert.assertFalse(input.isFrozen());
+		Assert.assertTrue(expr1.isFrozen());
+		Assert.assertTrue(expr1.getSubExpression(0).isFrozen());
+	}
+	
+	@Test
+	public void internTestFrozen() {
+		Expression interned = new ExpressionInterner().intern(new Expression("firstName", Expression.EQUAL, "Mike"));
+		try {
+			interned.setValue("Mary");
+			Assert.fail("A frozen expression can not be modified.");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("Mike", interned.getValue());
+		}
+		
+		Expression clone = (Expression) interned.clone();
+		clone.setValue("Mary");
+		Assert.assertFalse(clone.isFrozen());
+		Assert.assertEquals("Mary", clone.getValue());
+		
+		// the subject of a frozen expression can not be modified either
+		try {
+			interned.getSubject().setName("lastName");
+			Assert.fail("The subject of a frozen expression can not be modified.");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("firstName", interned.getSubject().getName());
+		}
+		clone.getSubject().setName("lastName");
+		Assert.assertEquals("lastName", clone.getSubject().getName());
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void internTestValueCopied() {
+		ExpressionInterner interner = new ExpressionInterner();
+		
+		List<Integer> ids      = new ArrayList<>(Arrays.asList(1, 2));
+		Expression    interned = interner.intern(new Expression("id", Expression.IN, ids));
+		int           hash     = interned.hashCode();
+		
+		// modifying the original value does not change the interned expression
+		ids.add(3);
+		Assert.assertEquals(Arrays.asList(1, 2), interned.getValue());
+		Assert.assertEquals(hash, interned.hashCode());
+		Assert.assertSame(interned, interner.intern(new Expression("id", Expression.IN, Arrays.asList(1, 2))));
+		Assert.assertNotSame(interned, interner.intern(new Expression("id", Expression.IN, ids)));
+		
+		try {
+			((List<Object>) interned.getValue()).add(4);
+			Assert.fail("The value of an interned expression can not be modified.");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertEquals(Arrays.asList(1, 2), interned.getValue());
+		}
+	}
+	
+	private static Expression a() {
+		return new Expression("firstName", Expression.EQUAL, "Mike");
+	}
+	
+	private static Expression b() {
+		return new Expression("gpa", Expression.GREATER_THAN, 3.5);
+	}
+	
+	private static Expression c() {
+		return new Expression("age", Expression.LESS_THAN, 20);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@code ExpressionParser}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionParserTest {
+	@Test
+	public void parseTestLogicalWords() throws ParseException {
+		Expression expected = new Expression("firstName", Expression.EQUAL, "John").and("age", Expression.GREATER_THAN_EQUAL, 23).or("age", Expression.LESS_THAN, 10);
+		Assert.assertEquals(expected, ExpressionParser.parse("( ([firstName] == \"John\") AND ([age] >= 23) or ([age] < 10) )"));
+		Assert.assertEquals(expected, ExpressionParser.parse("([firstName]==\"John\") && ([age]>=23) || ([age]<10)"));
+	}
+	
+	@Test
+	public void parseTestLiterals() throws ParseException {
+		// the logical words in a string are not operators
+		Assert.assertEquals(new Expression("name", Expression.EQUAL, "Tom AND \"Jerry\""), ExpressionParser.parse("([name]==\"Tom AND \\\"Jerry\\\"\")"));
+		Assert.assertEquals(new Expression("age",  Expression.EQUAL, -5),                 ExpressionParser.parse("([age]==-5)"));
+		Assert.assertEquals(new Expression("id",   Expression.EQUAL, 12345678901L),       ExpressionParser.parse("([id]==12345678901)"));
+		Assert.assertEquals(new Expression("gpa",  Expression.EQUAL, 1.5e2),              ExpressionParser.parse("([gpa]==1.5e2)"));
+		Assert.assertEquals(new Expression("id",   Expression.IN,    Arrays.asList(1, "a", null)), ExpressionParser.parse("([id] in [1, \"a\", null])"));
+		Assert.assertEquals(new Expression("id",   Expression.IN,    Arrays.asList()),    ExpressionParser.parse("([id] IN [])"));
+	}
+	
+	@Test
+	public void parseTestRoundTrip() throws ParseException {
+		Expression expr = new Expression(new Expression("firstName", Expression.STARTS_WITH, "Jo").or("age", Expression.NOT_EQUAL, 23).complement())
+				.and("dob", Expression.LESS_THAN, new SimpleDateFormat("MM/dd/yyyy").parse("11/29/2018"))
+				.and("id", Expression.IN, Arrays.asList("a", "b"));
+		Assert.assertEquals(expr, ExpressionParser.parse(expr.toString()));
+		
+		// the cached expression can be changed by the caller
+		Expression parsed = ExpressionParser.parse(expr.toString());
+		parsed.complement();
+		Assert.assertEquals(expr, ExpressionParser.parse(expr.toString()));
+		Assert.assertTrue(ExpressionParser.getParseCacheStats().getHits() >= 2);
+	}
+	
+	@Test
+	public void parseTestBlank() throws ParseException {
+		Assert.assertNull(ExpressionParser.parse(null));
+		Assert.assertNull(ExpressionParser.parse(" "));
+	}
+	
+	@Test
+	public void parseTestErrorPosition() {
+		assertErrorOffset("abc",                          0);
+		assertErrorOffset("([age]==23",                   10);
+		assertErrorOffset("([age]=23)",                   6);
+		assertErrorOffset("([age]==abc)",                 8);
+		assertErrorOffset("([age]==1) XOR ([age]==2)",    11);
+		assertErrorOffset("([name]==\"abc)",              9);
+		assertErrorOffset("([age]==1))",                  10);
+	}
+	
+	@Test
+	public void parseTestNestingLimit() throws ParseException {
+		String valid = repeat("(", ExpressionParser.MAXIMUM_DEPTH - 1) + "([age]==1)" + repeat(")", ExpressionParser.MAXIMUM_DEPTH - 1);
+		Assert.assertEquals(new Expression("age", Expression.EQUAL, 1), ExpressionParser.parse(valid));
+		
+		// a deeper input is an error instead of a stack overflow
+		assertErrorOffset(repeat("(", ExpressionParser.MAXIMUM_DEPTH + 1) + "([age]==1)", ExpressionParser.MAXIMUM_DEPTH + 1);
+		assertErrorOffset(repeat("(", 50000), ExpressionParser.MAXIMUM_DEPTH + 1);
+		Assert.assertNull(ExpressionEngine.parse(repeat("(", 50000)));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void parseTestCachedValuesCopied() throws ParseException {
+		String input = "([id] IN [1, 2]) && ([dob]==08/20/2018)";
+		
+		Expression expr1 = ExpressionParser.parse(input);
+		((List<Object>) expr1.getSubExpression(0).getValue()).add(3);
+		((Date) expr1.getSubExpression(1).getValue()).setTime(0);
+		
+		// modifying the values of a returned expression does not change the cached one
+		Expression expr2 = ExpressionParser.parse(input);
+		Assert.assertEquals(Arrays.asList(1, 2), expr2.getSubExpression(0).getValue());
+		Assert.assertNotEquals(0L, ((Date) expr2.getSubExpression(1).getValue()).getTime());
+		Assert.assertNotSame(expr2.getSubExpression(0).getValue(), ExpressionParser.parse(input).getSubExpression(0).getValue());
+	}
+	
+	private static String repeat(String str, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(str);
+		}
+		return sb.toString();
+	}
+	
+	private void assertErrorOffset(String input, int errorOffset) {
+		try {
+			ExpressionParser.parse(input);
+			Assert.fail("The input \"" + input + "\" should be invalid.");
+		} catch (ParseException e) {
+			Assert.assertEquals(errorOffset, e.getErrorOffset());
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.expression;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.transformer.SearchExpressionTransformer;
+import personal.wuyi.jibernate.transformer.UriExpressionTransformer;
+
+/**
+ * The test class for {@code ExpressionTransformerChain}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ExpressionTransformerChainTest {
+	private final ExpressionTransformerChain chain = new ExpressionTransformerChain(new UriExpressionTransformer(), new SearchExpressionTransformer());
+	
+	@Test
+	public void transformTestUntouched() {
+		Expression expr = new Expression("firstName", Expression.EQUAL, "John").and("gpa", Expression.GREATER_THAN, 3.0);
+		Assert.assertSame(expr, chain.transform(expr));
+		
+		Expression simple = new Expression("firstName", Expression.EQUAL, "John");
+		Assert.assertSame(simple, chain.transform(simple));
+	}
+	
+	@Test
+	public void transformTestChangedPath() {
+		Expression left  = new Expression("uri", Expression.EQUAL, "/personal/wuyi/jibernate/entity/Student/27").and("lastName", Expression.STARTS_WITH, "Chen");
+		Expression right = new Expression("gpa", Expression.GREATER_THAN, 3.0).and("firstName", Expression.EQUAL, "John");
+		Expression expr  = new Expression(left).or(right);
+		
+		Expression transformed = chain.transform(expr);
+		Expression expected    = new Expression(new Expression("id", Expression.EQUAL, 27).and("lastName", "LIKE", "Chen%")).or(new Expression("gpa", Expression.GREATER_THAN, 3.0).and("firstName", Expression.EQUAL, "John"));
+		Assert.assertEquals(expected, transformed);
+		
+		// only the changed path is rebuilt
+		Assert.assertNotSame(left, transformed.getSubExpression(0));
+		Assert.assertSame(right, transformed.getSubExpression(1));
+		
+		// the original expression is not modified
+		Assert.assertEquals("uri", expr.getSubExpression(0).getSubExpression(0).getSubject().getName());
+	}
+	
+	@Test
+	public void transformTestComplement() {
+		Expression simple = new Expression("lastName", Expression.CONTAINS, "Chen").complement();
+		Assert.assertEquals(new Expression("lastName", "LIKE", "%Chen%").complement(), chain.transform(simple));
+		
+		Expression expr = new Expression(new Expression("lastName", Expression.ENDS_WITH, "Chen").or("gpa", Expression.LESS_THAN, 2.0)).complement();
+		Assert.assertEquals(new Expression(new Expression("lastName", "LIKE", "%Chen").or("gpa", Expression.LESS_THAN, 2.0)).complement(), chain.transform(expr));
+	}
+	
+	@Test
+	public void transformTestOrderAndRemoval() {
+		// the result of one transformer is the input of the next one
+		ExpressionTransformer rename = new ExpressionTransformer() {
+			@Override
+			public Expression transform(Subject subject, String operator, Object value) {
+				return super.transform("name".equals(subject.getName()) ? new Subject("lastName") : subject, Expression.EQUAL.equals(operator) ? Expression.STARTS_WITH : operator, value);
+			}
+		};
+		ExpressionTransformer remove = new ExpressionTransformer() {
+			@Override
+			public Expression transform(Subject subject, String operator, Object value) {
+				return "deleted".equals(subject.getName()) ? null : super.transform(subject, operator, value);
+			}
+		};
+		ExpressionTransformerChain chain = new ExpressionTransformerChain(rename, remove, new SearchExpressionTransformer());
+		
+		Expression expr = new Expression("deleted", Expression.EQUAL, true).and("name", Expression.EQUAL, "Chen").or("gpa", Expression.GREATER_THAN, 3.0);
+		Assert.assertEquals(new Expression("lastName", "LIKE", "Chen%").or("gpa", Expression.GREATER_THAN, 3.0), chain.transform(expr));
+		
+		Assert.assertNull(chain.transform(new Expression("deleted", Expression.EQUAL, true).or("deleted", Expression.EQUAL, false)));
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.config.MysqlDbConfig;
+
+/**
+ * Test class for {@code ConnectionPoolFactory}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class ConnectionPoolFactoryTest {
+	@Test
+	public void createTest() {
+		MysqlDbConfig config = new MysqlDbConfig("config/MysqlDb.properties");
+		config.setMaxTotal(7);
+		
+		ConnectionPool pool = ConnectionPoolFactory.create(config);
+		Assert.assertTrue(pool instanceof DbcpConnectionPool);
+		Assert.assertEquals(7, pool.getMetrics().getMaxConnections());
+		Assert.assertEquals(0, pool.getMetrics().getActiveConnections());
+		pool.close();
+	}
+	
+	@Test
+	public void createTestException() {
+		MysqlDbConfig config = new MysqlDbConfig("config/MysqlDb.properties");
+		config.setPoolType("personal.wuyi.jibernate.pool.UnknownPool");
+		try {
+			ConnectionPoolFactory.create(config);
+			fail("Expected an java.lang.IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is("Can not create the connection pool by the type: personal.wuyi.jibernate.pool.UnknownPool"));
+		}
+	}
+}
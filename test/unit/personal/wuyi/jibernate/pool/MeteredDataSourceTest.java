@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.pool;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@code MeteredDataSource}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class MeteredDataSourceTest {
+	/**
+	 * The pool for testing, it has a fixed number of connections.
+	 */
+	private static class TestConnectionPool extends AbstractConnectionPool {
+		private final DataSource pooledDataSource;
+		
+		TestConnectionPool(DataSource pooledDataSource) {
+			this.pooledDataSource = pooledDataSource;
+		}
+		
+		@Override protected DataSource getPooledDataSource()     { return pooledDataSource;                             }
+		@Override protected int        getActiveConnections()    { return 3;                                            }
+		@Override protected int        getIdleConnections()      { return 2;                                            }
+		@Override protected int        getMaxConnections()       { return 5;                                            }
+		@Override protected boolean    isTimeout(SQLException e) { return e.getCause() instanceof NoSuchElementException; }
+		@Override public    void       close()                   {                                                      }
+	}
+	
+	@Test
+	public void getConnectionTest() throws SQLException {
+		DataSource pooledDataSource = mock(DataSource.class);
+		Connection connection       = mock(Connection.class);
+		when(pooledDataSource.getConnection()).thenReturn(connection);
+		
+		TestConnectionPool pool = new TestConnectionPool(pooledDataSource);
+		Assert.assertSame(connection, pool.getDataSource().getConnection());
+		Assert.assertSame(connection, pool.getDataSource().getConnection());
+		
+		PoolMetrics metrics = pool.getMetrics();
+		Assert.assertEquals(3, metrics.getActiveConnections());
+		Assert.assertEquals(2, metrics.getIdleConnections());
+		Assert.assertEquals(5, metrics.getMaxConnections());
+		Assert.assertEquals(2, metrics.getConnectionRequests());
+		Assert.assertEquals(0, metrics.getTimeouts());
+		Assert.assertEquals(metrics.getWaitTimeBounds().length + 1, metrics.getWaitTimeCounts().length);
+	}
+	
+	@Test
+	public void timeoutTest() throws SQLException {
+		DataSource pooledDataSource = mock(DataSource.class);
+		when(pooledDataSource.getConnection())
+				.thenThrow(new SQLException("Cannot get a connection, pool error Timeout waiting for idle object", new NoSuchElementException()))
+				.thenThrow(new SQLException("Access denied"));
+		
+		TestConnectionPool pool = new TestConnectionPool(pooledDataSource);
+		for (int i = 0; i < 2; i++) {
+			try {
+				pool.getDataSource().getConnection();
+				Assert.fail("Expected an SQLException to be thrown");
+			} catch (SQLException e) {
+				// expected
+			}
+		}
+		
+		// only the first failure is caused by timeout
+		PoolMetrics metrics = pool.getMetrics();
+		Assert.assertEquals(1, metrics.getTimeouts());
+		Assert.assertEquals(0, metrics.getConnectionRequests());
+	}
+	
+	@Test
+	public void waitTimeHistogramTest() {
+		WaitTimeHistogram histogram = new WaitTimeHistogram();
+		histogram.record(500_000L);          // 0.5 ms
+		histogram.record(3_000_000L);        // 3 ms
+		histogram.record(3_000_000L);        // 3 ms
+		histogram.record(60_000_000_000L);   // 60 s
+		
+		long[] expected = new long[WaitTimeHistogram.BUCKET_BOUNDS.length + 1];
+		expected[0]                   = 1;
+		expected[2]                   = 2;
+		expected[expected.length - 1] = 1;
+		Assert.assertEquals(Arrays.toString(expected), Arrays.toString(histogram.getCounts()));
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Ethnicity;
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
+
+/**
+ * Test class for {@code InMemoryQuery}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class InMemoryQueryTest {
+	private final List<Student> students = Arrays.asList(
+			createStudent(1L, "John", "Doe",   3.2, Ethnicity.WHITE),
+			createStudent(2L, "Jane", "Doe",   3.8, Ethnicity.ASIAN),
+			createStudent(3L, "Mike", "Smith", 2.5, Ethnicity.HISPANIC),
+			createStudent(4L, "Sara", "Lee",   3.2, Ethnicity.BLACK),
+			createStudent(5L, "Tom",  null,    3.0, null));
+	
+	@Test
+	public void searchTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("firstName", Expression.STARTS_WITH, "J").and("lastName", Expression.ENDS_WITH, "oe"));
+		Assert.assertEquals(Arrays.asList("John", "Jane"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+		
+		query.setCriteria(new Expression("lastName", Expression.CONTAINS, "MIT"));
+		Assert.assertTrue(new InMemoryQuery<>(query).read(students).isEmpty());
+		query.setCaseSensitive(false);
+		Assert.assertEquals(Arrays.asList("Mike"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+		
+		// the comparison on null is unknown, so NOT does not match it
+		query.setCriteria(new Expression("lastName", Expression.EQUAL, "Doe").complement());
+		Assert.assertEquals(Arrays.asList("Mike", "Sara"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+		Assert.assertEquals(2, new InMemoryQuery<>(query).count(students.stream()));
+		
+		query.setCriteria(new Expression("uri", Expression.EQUAL, "/personal/wuyi/jibernate/entity/Student/4"));
+		Assert.assertEquals(Arrays.asList("Sara"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+	}
+	
+	@Test
+	public void sortTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setSort(new Sort("gpa", false).add(new Sort("lastName", true)));
+		Assert.assertEquals(Arrays.asList("Jane", "John", "Sara", "Tom", "Mike"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+		
+		// the enumeration is sorted by its name, null first
+		query.setSort(new Sort("race", true));
+		Assert.assertEquals(Arrays.asList("Tom", "Jane", "Sara", "Mike", "John"), getFirstNames(new InMemoryQuery<>(query).read(students)));
+		
+		// the records with the same values keep their order
+		query.setSort(new Sort("gpa", true));
+		query.setOffset(2);
+		query.setLimit(2);
+		Assert.assertEquals(Arrays.asList("John", "Sara"), getFirstNames(new InMemoryQuery<>(query).read(students.stream())));
+		
+		// the records are not sorted without sort
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setOffset(3);
+		Assert.assertEquals(Arrays.asList("Sara", "Tom"), getFirstNames(new InMemoryQuery<>(q2).read(students)));
+	}
+	
+	@Test
+	public void topTest() {
+		Random        random = new Random(7);
+		List<Student> list   = new ArrayList<>();
+		for (long i = 0; i < 1000; i++) {
+			list.add(createStudent(i, "S" + i, "L" + random.nextInt(50), random.nextInt(40) / 10.0, null));
+		}
+		
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 1));
+		query.setSort(new Sort("gpa", false).add(new Sort("lastName", true)));
+		List<Student> all = new InMemoryQuery<>(query).read(list);
+		
+		query.setOffset(15);
+		query.setLimit(30);
+		Assert.assertEquals(all.subList(15, 45), new InMemoryQuery<>(query).read(list));
+	}
+	
+	@Test
+	public void readFieldsTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN_EQUAL, new Parameter("gpa")));
+		query.setSort(new Sort("lastName", true));
+		query.setDistinct(true);
+		query.setLimit(2);
+		
+		PreparedJQuery<Student> prepared = query.compile().bind("gpa", 3);
+		Assert.assertEquals(Arrays.asList(Collections.singletonList(null), Arrays.asList("Doe")), new InMemoryQuery<>(prepared).read(students, "lastName"));
+		
+		JQuery<Student> q2 = new JQuery<>(Student.class);
+		q2.setCriteria(new Expression("gpa", Expression.GREATER_THAN_EQUAL, 3));
+		q2.setSort(new Sort("lastName", true));
+		Assert.assertEquals(Arrays.asList(Arrays.asList("Tom", 3.0), Arrays.asList("John", 3.2), Arrays.asList("Jane", 3.8), Arrays.asList("Sara", 3.2)), 
+				new InMemoryQuery<>(q2).read(students, "firstName", "gpa"));
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void jpqlTest() {
+		EntityQuery<Student> query = new EntityQuery<>(Student.class);
+		query.setJpql("SELECT s FROM Student s");
+		new InMemoryQuery<>(query);
+	}
+	
+	private static Student createStudent(Long id, String firstName, String lastName, double gpa, Ethnicity race) {
+		Student student = new Student(firstName, lastName, gpa);
+		student.setId(id);
+		student.setRace(race);
+		return student;
+	}
+	
+	private static List<String> getFirstNames(List<Student> list) {
+		return list.stream().map(Student::getFirstName).collect(Collectors.toList());
+	}
+}
@@ -184,4 +184,31 @@ public class JQueryTest2 {
 		Assert.assertFalse(jq8a.equals(jq8c));
 		Assert.assertFalse(jq8c.equals(jq8a));
 	}
+	
+	@Test
+	public void hashCodeTest() {
+		JQuery<Student> jq1 = new JQuery<>(Student.class);
+		JQuery<Student> jq2 = new JQuery<>(Student.class);
+		Assert.assertEquals(jq1.hashCode(), jq2.hashCode());
+		
+		jq1.setCriteria(new Expression("firstName", Expression.EQUAL, "John").or("gpa", Expression.GREATER_THAN, 3.0));
+		jq2.setCriteria(new Expression("firstName", Expression.EQUAL, "John").or("gpa", Expression.GREATER_THAN, 3.0));
+		jq1.setSort("lastName+", "gpa-");
+		jq2.setSort("lastName+", "gpa-");
+		jq1.setLimit(10);
+		jq2.setLimit(10);
+		jq1.setOffset(20);
+		jq2.setOffset(20);
+		jq1.setDistinct(true);
+		jq2.setDistinct(true);
+		Assert.assertTrue(jq1.equals(jq2));
+		Assert.assertEquals(jq1.hashCode(), jq2.hashCode());
+		
+		jq2.setCriteria(new Expression("firstName", Expression.EQUAL, "John").or("gpa", Expression.GREATER_THAN, 3.5));
+		Assert.assertFalse(jq1.hashCode() == jq2.hashCode());
+		
+		jq2.setCriteria(new Expression("firstName", Expression.EQUAL, "John").or("gpa", Expression.GREATER_THAN, 3.0));
+		jq2.setSort("lastName+", "gpa+");
+		Assert.assertFalse(jq1.hashCode() == jq2.hashCode());
+	}
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
+
+/**
+ * The test class for {@code PreparedJQuery}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class PreparedJQueryTest {
+	private EntityManager entityManager;
+	private Query         jpaQuery;
+	
+	@Before
+	public void setUp() {
+		entityManager = mock(EntityManager.class);
+		jpaQuery      = mock(Query.class);
+		when(entityManager.createQuery(anyString())).thenReturn(jpaQuery);
+	}
+	
+	@Test
+	public void bindTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("firstName", Expression.EQUAL, new Parameter("name")).and("lastName", Expression.STARTS_WITH, new Parameter("prefix")));
+		query.setCaseSensitive(false);
+		query.setLimit(10);
+		PreparedJQuery<Student> prepared = query.compile();
+		Assert.assertEquals(2, prepared.getParameterNames().size());
+		
+		String jpql = "SELECT student FROM Student student WHERE UPPER(student.firstName) = :STUDENT_FIRSTNAME_0 AND UPPER(student.lastName) LIKE :STUDENT_LASTNAME_1";
+		
+		QueryConverter.getJpaQuery(entityManager, prepared.bind("name", "John").bind("prefix", "D"));
+		verify(jpaQuery).setParameter("STUDENT_FIRSTNAME_0", "JOHN");
+		verify(jpaQuery).setParameter("STUDENT_LASTNAME_1",  "D%");
+		verify(jpaQuery).setMaxResults(10);
+		
+		QueryConverter.getJpaQuery(entityManager, prepared.bind("name", "Mary").bind("prefix", "W"));
+		verify(jpaQuery).setParameter("STUDENT_FIRSTNAME_0", "MARY");
+		verify(jpaQuery).setParameter("STUDENT_LASTNAME_1",  "W%");
+		verify(entityManager, times(2)).createQuery(jpql);
+		
+		// the original query is not affected
+		query.setCriteria("gpa", Expression.EQUAL, 3.0);
+		QueryConverter.getJpaQuery(entityManager, prepared);
+		verify(entityManager, times(3)).createQuery(jpql);
+	}
+	
+	@Test
+	public void bindKindTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("uri", Expression.EQUAL, new Parameter("uri")).or("firstName", Expression.EQUAL, new Parameter("name")));
+		PreparedJQuery<Student> prepared = query.compile();
+		
+		QueryConverter.getJpaQuery(entityManager, prepared.bind("uri", "/personal/wuyi/jibernate/entity/Student/27").bind("name", null));
+		verify(entityManager).createQuery("SELECT student FROM Student student WHERE student.id = :STUDENT_ID_0 OR student.firstName IS NULL");
+		verify(jpaQuery).setParameter("STUDENT_ID_0", 27);
+		
+		// the same placeholder can be used in the count query
+		QueryConverter.getJpaQuery(entityManager, prepared.bind("name", "John"), "COUNT(*)");
+		verify(entityManager).createQuery("SELECT COUNT(student) FROM Student student WHERE student.id = :STUDENT_ID_0 OR student.firstName = :STUDENT_FIRSTNAME_1");
+		verify(jpaQuery).setParameter("STUDENT_FIRSTNAME_1", "John");
+	}
+	
+	@Test
+	public void toJQueryTest() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria("firstName", Expression.EQUAL, new Parameter("name"));
+		query.setSort("gpa-");
+		
+		PreparedJQuery<Student> prepared1 = query.compile().bind("name", "John");
+		PreparedJQuery<Student> prepared2 = prepared1.copy().bind("name", "Mary");
+		
+		JQuery<Student> expected = new JQuery<>(Student.class);
+		expected.setCriteria("firstName", Expression.EQUAL, "John");
+		expected.setSort("gpa-");
+		Assert.assertEquals(expected, prepared1.toJQuery());
+		
+		Assert.assertFalse(prepared1.equals(prepared2));
+		Assert.assertEquals(prepared1, prepared2.copy().bind("name", "John"));
+		Assert.assertEquals(prepared1.hashCode(), prepared2.copy().bind("name", "John").hashCode());
+		Assert.assertFalse(prepared1.equals(prepared1.copy().clearBindings()));
+	}
+	
+	@Test
+	public void bindTestException() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria("firstName", Expression.EQUAL, new Parameter("name"));
+		PreparedJQuery<Student> prepared = query.compile();
+		
+		try {
+			prepared.bind("gpa", 3.0);
+			Assert.fail("Expected an java.lang.IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("The parameter \"gpa\" is not in the criteria.", e.getMessage());
+		}
+		
+		try {
+			QueryConverter.getJpaQuery(entityManager, prepared);
+			Assert.fail("Expected an java.lang.IllegalStateException to be thrown");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("The parameter \"name\" is not bound.", e.getMessage());
+		}
+		
+		try {
+			prepared.setSort("gpa-");
+			Assert.fail("Expected an java.lang.UnsupportedOperationException to be thrown");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+}
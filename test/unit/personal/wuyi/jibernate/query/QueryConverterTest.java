@@ -18,6 +18,7 @@ package personal.wuyi.jibernate.query;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -28,6 +29,7 @@ import junit.framework.Assert;
 import personal.wuyi.jibernate.entity.Student;
 import personal.wuyi.jibernate.entity.VersionedStudent;
 import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
 
 import org.hamcrest.collection.IsMapContaining;
 
@@ -71,14 +73,14 @@ public class QueryConverterTest {
 		EntityQuery<Student> q1 = new EntityQuery<Student>(Student.class);
 		q1.setCriteria(new Expression("firstName", Expression.EQUAL, "John"));
 		String js1 = QueryConverter.getJpqlStatement(q1);
-		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f", js1);
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_0", js1);
 		
 		// test jpql field is not null
 		EntityQuery<Student> q2 = new EntityQuery<Student>(Student.class);
 		q2.setCriteria(new Expression("lastName", Expression.EQUAL, "John"));   // there is last name, not first name
-		q2.setJpql("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f");
+		q2.setJpql("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_0");
 		String js2 = QueryConverter.getJpqlStatement(q2);
-		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f", js2);
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_0", js2);
 	}
 	
 	@Test
@@ -88,15 +90,21 @@ public class QueryConverterTest {
 		
 		// test simple expression
 		Map<String, Object> paramMap1 = QueryConverter.getParameterMap(Student.class, new Expression("firstName", Expression.EQUAL, "John"), true);  // case sensitive
-		assertThat(paramMap1, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f", "John"));
+		assertThat(paramMap1, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_0", "John"));
 		Map<String, Object> paramMap2 = QueryConverter.getParameterMap(Student.class, new Expression("firstName", Expression.EQUAL, "John"), false);  // case non-sensitive
-		assertThat(paramMap2, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f", "JOHN"));
+		assertThat(paramMap2, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_0", "JOHN"));
 		Map<String, Object> paramMap3 = QueryConverter.getParameterMap(Student.class, new Expression("firstName", Expression.EQUAL, new String[]{"John","Johnny"}), true);  // case sensitive - list as value
 		List<Entry<String, Object>> entryList = new ArrayList<>();
 		entryList.addAll(paramMap3.entrySet());
 		Assert.assertEquals(Arrays.asList("John","Johnny"), entryList.get(0).getValue());
-//      the hex value in the key can be different among different environments, so just check the value
-//		assertThat(paramMap3, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_8ab4d802949bc28780acce7bc3b3a472",      Arrays.asList("John","Johnny")));    // the hex value in key can be diff
+		assertThat(paramMap3, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_0", Arrays.asList("John","Johnny")));
+		
+		// test compound expression and null value
+		Expression expr4 = new Expression("firstName", Expression.EQUAL, "John").and("lastName", Expression.EQUAL, null).and("gpa", Expression.EQUAL, 3.45);
+		Map<String, Object> paramMap4 = QueryConverter.getParameterMap(Student.class, expr4, true);
+		Assert.assertEquals(2, paramMap4.size());
+		assertThat(paramMap4, IsMapContaining.hasEntry("STUDENT_FIRSTNAME_0", "John"));
+		assertThat(paramMap4, IsMapContaining.hasEntry("STUDENT_GPA_2",       3.45));
 	}
 	
 	@Test
@@ -120,24 +128,89 @@ public class QueryConverterTest {
 	@Test
 	public void buildWhereClauseTest() {
 		// test simple expression
-		Assert.assertEquals("WHERE UPPER(student.firstname) = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f", 
+		Assert.assertEquals("WHERE UPPER(student.firstname) = :STUDENT_FIRSTNAME_0", 
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.EQUAL, "John"), false));                      // test case non-sensitive
-		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f",        
+		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_0",        
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.EQUAL, "John"), true));                       // test case sensitive
 		Assert.assertEquals("WHERE student.firstname IS NULL",                                                      
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.EQUAL, null), true));                         // test EQUAL null
 		Assert.assertEquals("WHERE student.firstname IS NOT NULL",                                                  
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.NOT_EQUAL, null), true));                     // test NOT_EQUAL null
-		Assert.assertEquals("WHERE student.firstname IN (:STUDENT_FIRSTNAME_9aefd7dd925d795da67a249e696d7a56)",     
+		Assert.assertEquals("WHERE student.firstname IN (:STUDENT_FIRSTNAME_0)",     
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.IN, Arrays.asList("John", "Mary")), true));   // test IN           
 		
 		// test compound expressions
-		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f AND student.gpa = :STUDENT_GPA_2fe1d1290c6aeb51f235f9ffda8332db",
+		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_0 AND student.gpa = :STUDENT_GPA_1",
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.EQUAL, "John").and("gpa", Expression.EQUAL, 3.45), true));              // test AND
-		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_61409aa1fd47d4a5332de23cbf59a36f OR student.gpa = :STUDENT_GPA_2fe1d1290c6aeb51f235f9ffda8332db", 
+		Assert.assertEquals("WHERE student.firstname = :STUDENT_FIRSTNAME_0 OR student.gpa = :STUDENT_GPA_1", 
 				QueryConverter.buildWhereClause(Student.class, new Expression("firstname", Expression.EQUAL, "John").or("gpa", Expression.EQUAL, 3.45), true));               // test OR
 	}
 	
+	@Test
+	public void buildWhereClauseTestNested() {
+		// the sum-of-products form is larger, so the original nested form is kept
+		Expression expr = new Expression("firstName", Expression.EQUAL, "John").or("firstName", Expression.EQUAL, "Mary");
+		expr = Expression.and(expr, new Expression("gpa", Expression.EQUAL, 3.45));
+		Assert.assertEquals("WHERE (student.firstName = :STUDENT_FIRSTNAME_0 OR student.firstName = :STUDENT_FIRSTNAME_1) AND student.gpa = :STUDENT_GPA_2",
+				QueryConverter.buildWhereClause(Student.class, expr, true));
+		
+		// the complement is rendered by NOT
+		Expression complement = new Expression(new Expression("firstName", Expression.EQUAL, "John").and("gpa", Expression.EQUAL, 3.45)).complement();
+		Assert.assertEquals("WHERE NOT (student.firstName = :STUDENT_FIRSTNAME_0 AND student.gpa = :STUDENT_GPA_1)",
+				QueryConverter.buildWhereClause(Student.class, complement, true));
+		
+		// 8 facets with 5 values each would be 390625 minterms in the sum-of-products form
+		Expression facets = null;
+		for (int i = 0; i < 8; i++) {
+			Expression facet = new Expression("facet" + i, Expression.EQUAL, 0);
+			for (int j = 1; j < 5; j++) {
+				facet.or("facet" + i, Expression.EQUAL, j);
+			}
+			facets = (facets == null) ? facet : Expression.and(facets, facet);
+		}
+		String where = QueryConverter.buildWhereClause(Student.class, facets, true);
+		Assert.assertTrue(where.contains("(student.facet0 = :STUDENT_FACET0_0 OR student.facet0 = :STUDENT_FACET0_1 OR "));
+		Assert.assertEquals(40, where.split(":STUDENT_FACET").length - 1);
+	}
+	
+	@Test
+	public void setMaximumMintermsTest() {
+		Expression expr = new Expression("firstName", Expression.EQUAL, "John").and("gpa", Expression.EQUAL, 3.45).or("lastName", Expression.EQUAL, "Doe");
+		try {
+			QueryConverter.setMaximumMinterms(1);
+			Assert.assertEquals("WHERE student.firstName = :STUDENT_FIRSTNAME_0 AND student.gpa = :STUDENT_GPA_1 OR student.lastName = :STUDENT_LASTNAME_2", 
+					QueryConverter.buildWhereClause(Student.class, expr, true));
+		} finally {
+			QueryConverter.setMaximumMinterms(QueryConverter.DEFAULT_MAXIMUM_MINTERMS);
+		}
+		
+		try {
+			QueryConverter.setMaximumMinterms(0);
+			fail("Expected an java.lang.IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is("The maximum number of minterms should be greater than 0."));
+		}
+	}
+	
+	@Test
+	public void getJpqlTemplateTest() {
+		// the same shape with different values
+		JpqlTemplate template1 = QueryConverter.getJpqlTemplate(Student.class, new Expression("firstName", Expression.EQUAL, "Mary").and("gpa", Expression.GREATER_THAN, 3.0), null, true, false);
+		JpqlTemplate template2 = QueryConverter.getJpqlTemplate(Student.class, new Expression("firstName", Expression.EQUAL, "Anna").and("gpa", Expression.GREATER_THAN, 2.5), null, true, false);
+		Assert.assertSame(template1, template2);
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_0 AND student.gpa > :STUDENT_GPA_1", template1.getJpql());
+		Assert.assertEquals(Arrays.asList("STUDENT_FIRSTNAME_0", "STUDENT_GPA_1"), Arrays.asList(template1.getParameterNames()));
+		
+		// the kind of a value changes the shape
+		JpqlTemplate template3 = QueryConverter.getJpqlTemplate(Student.class, new Expression("firstName", Expression.EQUAL, null).and("gpa", Expression.GREATER_THAN, 3.0), null, true, false);
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.firstName IS NULL AND student.gpa > :STUDENT_GPA_1", template3.getJpql());
+		Assert.assertEquals(Arrays.asList(null, "STUDENT_GPA_1"), Arrays.asList(template3.getParameterNames()));
+		
+		// the case-sensitivity and the sorting option change the shape
+		JpqlTemplate template4 = QueryConverter.getJpqlTemplate(Student.class, new Expression("firstName", Expression.EQUAL, "Mary").and("gpa", Expression.GREATER_THAN, 3.0), new Sort("gpa", false), false, false);
+		Assert.assertEquals("SELECT student FROM Student student WHERE UPPER(student.firstName) = :STUDENT_FIRSTNAME_0 AND student.gpa > :STUDENT_GPA_1 ORDER BY student.gpa DESC", template4.getJpql());
+	}
+	
 	@Test
 	public void buildWhereClauseTestException() {
 		// test use IN as operator but the value is not a list
@@ -163,4 +236,92 @@ public class QueryConverterTest {
 		Assert.assertEquals("ORDER BY student.firstname DESC",              QueryConverter.buildOrderByClause(Student.class, new Sort("firstname", false)));
 		Assert.assertEquals("ORDER BY student.firstname, student.gpa DESC", QueryConverter.buildOrderByClause(Student.class, new Sort("firstname", true).add("gpa", false)));
 	}
+	
+	@Test
+	public void buildJpqlDeleteStatementTest() {
+		Assert.assertEquals("DELETE FROM Student student", QueryConverter.buildJpqlDeleteStatement(Student.class, null, true));
+		Assert.assertEquals("DELETE FROM Student student WHERE student.firstName = :STUDENT_FIRSTNAME_0", 
+				QueryConverter.buildJpqlDeleteStatement(Student.class, new Expression("firstName", Expression.EQUAL, "John"), true));
+	}
+	
+	@Test
+	public void buildJpqlUpdateStatementTest() {
+		Map<String, Object> assignments = new LinkedHashMap<>();
+		assignments.put("firstName", "John");
+		assignments.put("lastName",  null);
+		
+		Assert.assertEquals("UPDATE Student student SET student.firstName = :SET_STUDENT_FIRSTNAME, student.lastName = NULL", 
+				QueryConverter.buildJpqlUpdateStatement(Student.class, assignments, null, true));
+		Assert.assertEquals("UPDATE Student student SET student.firstName = :SET_STUDENT_FIRSTNAME, student.lastName = NULL WHERE student.firstName = :STUDENT_FIRSTNAME_0", 
+				QueryConverter.buildJpqlUpdateStatement(Student.class, assignments, new Expression("firstName", Expression.EQUAL, "John"), true));
+	}
+	
+	@Test
+	public void getAssignmentParameterMapTest() {
+		Map<String, Object> assignments = new LinkedHashMap<>();
+		assignments.put("firstName", "John");
+		assignments.put("lastName",  null);
+		
+		Map<String, Object> paramMap = QueryConverter.getAssignmentParameterMap(Student.class, assignments);
+		Assert.assertEquals(1, paramMap.size());
+		assertThat(paramMap, IsMapContaining.hasEntry("SET_STUDENT_FIRSTNAME", "John"));
+	}
+	
+	@Test
+	public void checkBulkQueryTestException() {
+		JQuery<Student> query = new JQuery<Student>(Student.class);
+		query.setLimit(10);
+		try {
+			QueryConverter.checkBulkQuery(query);
+			fail("Expected an java.lang.IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), is("The limit and the offset are not supported by bulk delete or update."));
+		}
+	}
+	
+	@Test
+	public void buildJpqlMultiGetStatementTest() {
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.id IN (:IDS)", QueryConverter.buildJpqlMultiGetStatement(Student.class, "id"));
+	}
+	
+	@Test
+	public void isUnsatisfiableTest() {
+		JQuery<Student> query = new JQuery<Student>(Student.class);
+		Assert.assertFalse(QueryConverter.isUnsatisfiable(query));
+		
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.5).and("gpa", Expression.LESS_THAN, 2.0));
+		Assert.assertTrue(QueryConverter.isUnsatisfiable(query));
+		
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.5).and("firstName", Expression.STARTS_WITH, "J"));
+		Assert.assertFalse(QueryConverter.isUnsatisfiable(query));
+		
+		// the versioned entity has the implicit criteria head == true
+		JQuery<VersionedStudent> versionedQuery = new JQuery<VersionedStudent>(VersionedStudent.class);
+		versionedQuery.setCriteria("head", Expression.EQUAL, false);
+		Assert.assertTrue(QueryConverter.isUnsatisfiable(versionedQuery));
+		
+		// the values of a prepared query are checked after binding
+		JQuery<Student> template = new JQuery<Student>(Student.class);
+		template.setCriteria(new Expression("gpa", Expression.GREATER_THAN, new Parameter("min")).and("gpa", Expression.LESS_THAN, new Parameter("max")));
+		Assert.assertTrue(QueryConverter.isUnsatisfiable(template.compile().bind("min", 3.5).bind("max", 2.0)));
+		Assert.assertFalse(QueryConverter.isUnsatisfiable(template.compile().bind("min", 2.0).bind("max", 3.5)));
+		
+		// the custom JPQL statement is not checked
+		EntityQuery<Student> entityQuery = new EntityQuery<Student>(Student.class);
+		entityQuery.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.5).and("gpa", Expression.LESS_THAN, 2.0));
+		entityQuery.setJpql("SELECT student FROM Student student WHERE student.gpa > :STUDENT_GPA_0 OR student.gpa < :STUDENT_GPA_1");
+		Assert.assertFalse(QueryConverter.isUnsatisfiable(entityQuery));
+	}
+	
+	@Test
+	public void getJpqlStatementTestRewrite() {
+		// (id == 0 || id == 1 || ... || id == 199) && gpa > 2.0 && gpa > 3.0 ==> id IN (...) && gpa > 3.0
+		Expression ids = new Expression("id", Expression.EQUAL, 0L);
+		for (long i = 1; i < 200; i++) {
+			ids.or("id", Expression.EQUAL, i);
+		}
+		JQuery<Student> query = new JQuery<Student>(Student.class);
+		query.setCriteria(new Expression(ids).and("gpa", Expression.GREATER_THAN, 2.0).and("gpa", Expression.GREATER_THAN, 3.0));
+		Assert.assertEquals("SELECT student FROM Student student WHERE student.id IN (:STUDENT_ID_0) AND student.gpa > :STUDENT_GPA_1", QueryConverter.getJpqlStatement(QueryConverter.transform(query)));
+	}
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+
+/**
+ * Test class for {@code SortComparator}.
+ *
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class SortComparatorTest {
+	@Test
+	public void compareTest() {
+		Student s1 = new Student("John", "Doe",   3.5);
+		Student s2 = new Student("mary", "Wang",  3.5);
+		Student s3 = new Student("Bob",  "Scott", 3.9);
+		Student s4 = new Student(null,   "Smith", 3.9);
+		
+		List<Student> list = new ArrayList<>(Arrays.asList(s1, s2, s3, s4));
+		list.sort(new SortComparator<>(new Sort("gpa", false).add("firstName", true)));
+		Assert.assertEquals(Arrays.asList(s4, s3, s1, s2), list);
+	}
+	
+	@Test
+	public void compareValuesTest() {
+		Assert.assertEquals(0, SortComparator.compareValues(null, null));
+		Assert.assertTrue(SortComparator.compareValues(null, 1) < 0);
+		Assert.assertTrue(SortComparator.compareValues(1, null) > 0);
+		Assert.assertTrue(SortComparator.compareValues("abc", "ABD") < 0);   // case-insensitive
+		Assert.assertEquals(0, SortComparator.compareValues("abc", "ABC"));
+		Assert.assertTrue(SortComparator.compareValues(2.5, 1.5) > 0);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.expression.Expression;
+
+/**
+ * The test class for {@code WhereClausePlanner}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class WhereClausePlannerTest {
+	@Test
+	public void estimateTest() {
+		Expression a = new Expression("a", Expression.EQUAL, 1);
+		Expression b = new Expression("b", Expression.EQUAL, 2);
+		Expression c = new Expression("c", Expression.EQUAL, 3);
+		Expression d = new Expression("d", Expression.EQUAL, 4);
+		
+		// a
+		assertSize(1, 1, WhereClausePlanner.estimate(a));
+		
+		// a * b + c
+		assertSize(2, 3, WhereClausePlanner.estimate(((Expression) a.clone()).and((Expression) b.clone()).or((Expression) c.clone())));
+		
+		// (a + b) * (c + d) = a * c + a * d + b * c + b * d
+		Expression pos = Expression.and(((Expression) a.clone()).or((Expression) b.clone()), ((Expression) c.clone()).or((Expression) d.clone()));
+		assertSize(4, 8, WhereClausePlanner.estimate(pos));
+		
+		// !(a * b + c) = (!a + !b) * !c = !a * !c + !b * !c
+		Expression complement = new Expression(((Expression) a.clone()).and((Expression) b.clone()).or((Expression) c.clone())).complement();
+		assertSize(2, 4, WhereClausePlanner.estimate(complement));
+	}
+	
+	@Test
+	public void estimateTestSaturated() {
+		Expression expr = null;
+		for (int i = 0; i < 100; i++) {
+			Expression facet = new Expression("facet" + i, Expression.EQUAL, 0).or("facet" + i, Expression.EQUAL, 1);
+			expr = (expr == null) ? facet : Expression.and(expr, facet);
+		}
+		
+		WhereClausePlanner.Size size = WhereClausePlanner.estimate(expr);
+		Assert.assertTrue(size.minterms > 0);
+		Assert.assertTrue(size.literals > 0);
+		Assert.assertFalse(WhereClausePlanner.isSumOfProductsPreferred(expr, Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void isSumOfProductsPreferredTest() {
+		Expression flat   = new Expression("a", Expression.EQUAL, 1).and("b", Expression.EQUAL, 2).or("c", Expression.EQUAL, 3);
+		Expression nested = Expression.and(new Expression("a", Expression.EQUAL, 1).or("b", Expression.EQUAL, 2), new Expression("c", Expression.EQUAL, 3));
+		
+		Assert.assertTrue(WhereClausePlanner.isSumOfProductsPreferred(flat, 2));
+		Assert.assertFalse(WhereClausePlanner.isSumOfProductsPreferred(flat, 1));      // too many minterms
+		Assert.assertFalse(WhereClausePlanner.isSumOfProductsPreferred(nested, 100));  // larger than the nested form
+		
+		// a complemented compound expression keeps the nested form
+		Expression complement = new Expression("a", Expression.EQUAL, 1).and("b", Expression.EQUAL, 2).complement();
+		Assert.assertFalse(WhereClausePlanner.isSumOfProductsPreferred(complement, 100));
+		Assert.assertTrue(WhereClausePlanner.isSumOfProductsPreferred(new Expression("a", Expression.EQUAL, 1).complement(), 100));
+	}
+	
+	private static void assertSize(long minterms, long literals, WhereClausePlanner.Size size) {
+		Assert.assertEquals(minterms, size.minterms);
+		Assert.assertEquals(literals, size.literals);
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.transformer;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.ExpressionTransformerChain;
+import personal.wuyi.jibernate.expression.Parameter;
+
+/**
+ * The test class for {@code RewriteExpressionTransformer}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class RewriteExpressionTransformerTest {
+	private RewriteExpressionTransformer transformer;
+	
+	@Before
+	public void initialize() {
+		transformer = new RewriteExpressionTransformer();
+	}
+	
+	@Test
+	public void transformTestEqualities() {
+		// a == 1 || a == 2 || b == 3 || a IN [3, 1] ==> a IN [1, 2, 3] || b == 3
+		Expression expr = new Expression("a", Expression.EQUAL, 1).or("a", Expression.EQUAL, 2).or("b", Expression.EQUAL, 3).or("a", Expression.IN, Arrays.asList(3, 1));
+		Expression expected = new Expression("a", Expression.IN, Arrays.asList(1, 2, 3)).or("b", Expression.EQUAL, 3);
+		Assert.assertEquals(expected, transformer.transform(expr));
+		
+		// a == 1 || a == 2 ==> a IN [1, 2]
+		Assert.assertEquals(new Expression("a", Expression.IN, Arrays.asList(1, 2)), transformer.transform(new Expression("a", Expression.EQUAL, 1).or("a", Expression.EQUAL, 2)));
+		
+		// the strings are not merged for a case insensitive query
+		Expression names = new Expression("name", Expression.EQUAL, "Mike").or("name", Expression.EQUAL, "John");
+		Assert.assertEquals(new Expression("name", Expression.IN, Arrays.asList("Mike", "John")), transformer.transform(names));
+		Assert.assertEquals(names, new RewriteExpressionTransformer(false).transform(names));
+		
+		// the parameters, null values and complemented expressions are not merged
+		Expression notMerged = new Expression("a", Expression.EQUAL, new Parameter("a")).or("a", Expression.EQUAL, null).or(new Expression("a", Expression.EQUAL, 1).complement()).or("a", Expression.EQUAL, 2);
+		Assert.assertEquals(notMerged, transformer.transform(notMerged));
+	}
+	
+	@Test
+	public void transformTestBounds() {
+		// x > 5 && x > 7 && x <= 9 && x < 10 ==> x > 7 && x <= 9
+		Expression expr = new Expression("x", Expression.GREATER_THAN, 5).and("x", Expression.GREATER_THAN, 7).and("x", Expression.LESS_THAN_EQUAL, 9).and("x", Expression.LESS_THAN, 10);
+		Assert.assertEquals(new Expression("x", Expression.GREATER_THAN, 7).and("x", Expression.LESS_THAN_EQUAL, 9), transformer.transform(expr));
+		
+		// x >= 5 && x > 5L ==> x > 5L
+		Assert.assertEquals(new Expression("x", Expression.GREATER_THAN, 5L), transformer.transform(new Expression("x", Expression.GREATER_THAN_EQUAL, 5).and("x", Expression.GREATER_THAN, 5L)));
+		
+		// x >= 3 && x <= 3.0 && y == 1 ==> x == 3 && y == 1
+		Expression equal = new Expression("x", Expression.GREATER_THAN_EQUAL, 3).and("x", Expression.LESS_THAN_EQUAL, 3.0).and("y", Expression.EQUAL, 1);
+		Assert.assertEquals(new Expression("x", Expression.EQUAL, 3).and("y", Expression.EQUAL, 1), transformer.transform(equal));
+		
+		// the strings are not merged
+		Expression names = new Expression("name", Expression.GREATER_THAN, "A").and("name", Expression.GREATER_THAN, "B");
+		Assert.assertEquals(names, transformer.transform(names));
+		
+		// the bounds in different classes can not be compared, so both of them are kept
+		Expression dates = new Expression("dob", Expression.GREATER_THAN, new Date(1000000)).and("dob", Expression.GREATER_THAN, new Timestamp(5000000));
+		Assert.assertEquals(dates, transformer.transform(dates));
+	}
+	
+	@Test
+	public void transformTestDuplicates() {
+		// (a == 1 && a == 1 || b == 2 || b == 2) && c == 3 ==> (a == 1 || b == 2) && c == 3
+		Expression expr = new Expression(new Expression("a", Expression.EQUAL, 1).and("a", Expression.EQUAL, 1).or("b", Expression.EQUAL, 2).or("b", Expression.EQUAL, 2)).and("c", Expression.EQUAL, 3);
+		Expression expected = new Expression(new Expression("a", Expression.EQUAL, 1).or("b", Expression.EQUAL, 2)).and("c", Expression.EQUAL, 3);
+		Assert.assertEquals(expected, transformer.transform(expr));
+	}
+	
+	@Test
+	public void transformTestComplement() {
+		// !(x > 5 && x > 7) ==> !(x > 7)
+		Expression expr = new Expression("x", Expression.GREATER_THAN, 5).and("x", Expression.GREATER_THAN, 7).complement();
+		Assert.assertEquals(new Expression("x", Expression.GREATER_THAN, 7).complement(), transformer.transform(expr));
+		
+		// !(a == 1 || a == 2) ==> !(a IN [1, 2])
+		Expression in = new Expression("a", Expression.EQUAL, 1).or("a", Expression.EQUAL, 2).complement();
+		Assert.assertEquals(new Expression("a", Expression.IN, Arrays.asList(1, 2)).complement(), transformer.transform(in));
+	}
+	
+	@Test
+	public void transformTestChain() {
+		ExpressionTransformerChain chain = new ExpressionTransformerChain(new SearchExpressionTransformer(), transformer);
+		
+		// (a == 1 || a == 2) && (b > 1 && c STARTS_WITH "x") ==> a IN [1, 2] && (b > 1 && c LIKE "x%")
+		Expression expr = new Expression(new Expression("a", Expression.EQUAL, 1).or("a", Expression.EQUAL, 2)).and(new Expression("b", Expression.GREATER_THAN, 1).and("c", Expression.STARTS_WITH, "x"));
+		Expression expected = new Expression(new Expression("a", Expression.IN, Arrays.asList(1, 2))).and(new Expression("b", Expression.GREATER_THAN, 1).and("c", "LIKE", "x%"));
+		Expression transformed = chain.transform(expr);
+		Assert.assertEquals(expected, transformed);
+		Assert.assertSame(expr.getSubExpression(1).getSubExpression(0), transformed.getSubExpression(1).getSubExpression(0));
+		
+		// the expression which is not rewritten is returned as it is
+		Expression unchanged = new Expression("a", Expression.EQUAL, 1).or("b", Expression.GREATER_THAN, 2);
+		Assert.assertSame(unchanged, chain.transform(unchanged));
+	}
+}
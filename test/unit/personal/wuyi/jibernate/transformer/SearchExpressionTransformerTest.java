@@ -21,6 +21,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
 import personal.wuyi.jibernate.expression.Subject;
 
 /**
@@ -52,5 +53,9 @@ public class SearchExpressionTransformerTest {
 		
 		// test contains
 		Assert.assertEquals(new Expression("firstName", "LIKE", "%John%"), transformer.transform(new Subject("firstName"), Expression.CONTAINS, "John"));
+		
+		// test parameter
+		Assert.assertEquals(new Expression("firstName", "LIKE", new Parameter("name")), transformer.transform(new Subject("firstName"), Expression.CONTAINS, new Parameter("name")));
+		Assert.assertEquals(new Expression("firstName", Expression.EQUAL, new Parameter("name")), transformer.transform(new Subject("firstName"), Expression.EQUAL, new Parameter("name")));
 	}
 }
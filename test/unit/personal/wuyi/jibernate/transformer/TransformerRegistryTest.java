@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Wuyi Chen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package personal.wuyi.jibernate.transformer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.entity.VersionedStudent;
+import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.ExpressionTransformer;
+import personal.wuyi.jibernate.expression.Parameter;
+import personal.wuyi.jibernate.expression.Subject;
+import personal.wuyi.jibernate.query.JQuery;
+
+/**
+ * The test class for {@code TransformerRegistry}.
+ * 
+ * @author  Wuyi Chen
+ * @date    10/17/2026
+ * @version 1.1
+ * @since   1.1
+ */
+public class TransformerRegistryTest {
+	private final ExpressionTransformer transformer = new ExpressionTransformer() {
+		@Override
+		public Expression transform(Subject subject, String operator, Object value) {
+			return super.transform("name".equals(subject.getName()) ? new Subject("lastName") : subject, operator, value);
+		}
+	};
+	
+	private final ExpressionTransformer remover = new ExpressionTransformer() {
+		@Override
+		public Expression transform(Subject subject, String operator, Object value) {
+			return "gpa".equals(subject.getName()) ? null : super.transform(subject, operator, value);
+		}
+	};
+	
+	@After
+	public void cleanUp() {
+		TransformerRegistry.unregister(Student.class, transformer);
+		TransformerRegistry.unregister(Student.class, remover);
+	}
+	
+	@Test
+	public void registerTest() {
+		Expression expr = new Expression("name", Expression.STARTS_WITH, "Chen");
+		Assert.assertEquals(new Expression("name", "LIKE", "Chen%"), TransformerRegistry.getChain(Student.class).transform(expr));
+		
+		// the transformer is applied on the sub-classes and before the built-in transformers
+		TransformerRegistry.register(Student.class, transformer);
+		Assert.assertEquals(new Expression("lastName", "LIKE", "Chen%"), TransformerRegistry.getChain(Student.class).transform(expr));
+		Assert.assertEquals(new Expression("lastName", "LIKE", "Chen%"), TransformerRegistry.getChain(VersionedStudent.class).transform(expr));
+		Assert.assertEquals(new Expression("name", "LIKE", "Chen%"), TransformerRegistry.getChain(String.class).transform(expr));
+		Assert.assertEquals(new Expression("name", "LIKE", "Chen%"), TransformerRegistry.getChain(null).transform(expr));
+		
+		Assert.assertTrue(TransformerRegistry.unregister(Student.class, transformer));
+		Assert.assertFalse(TransformerRegistry.unregister(Student.class, transformer));
+		Assert.assertEquals(new Expression("name", "LIKE", "Chen%"), TransformerRegistry.getChain(Student.class).transform(expr));
+	}
+	
+	@Test
+	public void registerTestPreparedQuery() {
+		JQuery<Student> query = new JQuery<>(Student.class);
+		query.setCriteria(new Expression("gpa", Expression.GREATER_THAN, 3.0).and("firstName", Expression.EQUAL, new Parameter("name")));
+		Assert.assertEquals(1, query.compile().getParameterNames().size());
+		
+		// the simple expressions of a prepared query are mapped by their positions, so they can not be removed
+		TransformerRegistry.register(Student.class, remover);
+		try {
+			query.compile();
+			Assert.fail("The transformer removed a simple expression of a prepared query.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
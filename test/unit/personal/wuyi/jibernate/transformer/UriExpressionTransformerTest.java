@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import personal.wuyi.jibernate.expression.Expression;
+import personal.wuyi.jibernate.expression.Parameter;
 import personal.wuyi.jibernate.expression.Subject;
 
 /**
@@ -41,6 +42,7 @@ public class UriExpressionTransformerTest {
 	@Test
 	public void transformTest() {
 		Assert.assertEquals(new Expression("id", Expression.EQUAL, 27), transformer.transform(new Subject("uri"), Expression.EQUAL, "/personal/wuyi/jibernate/entity/Student/27"));
+		Assert.assertEquals(new Expression("id", Expression.EQUAL, new Parameter("uri")), transformer.transform(new Subject("uri"), Expression.EQUAL, new Parameter("uri")));
 	}
 	
 	@Test
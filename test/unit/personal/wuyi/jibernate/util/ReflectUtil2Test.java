@@ -1,7 +1,9 @@
 package personal.wuyi.jibernate.util;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -10,6 +12,7 @@ import org.junit.Test;
 import junit.framework.Assert;
 import personal.wuyi.jibernate.entity.Ethnicity;
 import personal.wuyi.jibernate.entity.Student;
+import personal.wuyi.jibernate.expression.Parameter;
 
 import org.hamcrest.collection.IsMapContaining;
 
@@ -35,6 +38,30 @@ public class ReflectUtil2Test {
 		Assert.assertFalse(ReflectUtil2.isEqual("abcdefg", "opqrst"));
 		Assert.assertTrue(ReflectUtil2.isEqual(new Student("John", "Clash", 3.45), new Student("John", "Clash", 3.45)));
 		Assert.assertFalse(ReflectUtil2.isEqual(new Student("John", "Clash", 3.45), new Student("John", "Clash", 3.49)));
+		Assert.assertTrue(ReflectUtil2.isEqual(Ethnicity.WHITE, Ethnicity.WHITE));
+		Assert.assertFalse(ReflectUtil2.isEqual(Ethnicity.WHITE, Ethnicity.ASIAN));
+		Assert.assertTrue(ReflectUtil2.isEqual(new Object[] {1, "A"}, new Object[] {1, "A"}));
+		Assert.assertFalse(ReflectUtil2.isEqual(new Object[] {1, "A"}, new Object[] {1, "B"}));
+		Assert.assertTrue(ReflectUtil2.isEqual(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(Arrays.asList(2, 1))));
+		Assert.assertFalse(ReflectUtil2.isEqual(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(Arrays.asList(1, 3))));
+	}
+	
+	@Test
+	public void getHashCodeTest() {
+		Assert.assertEquals(0, ReflectUtil2.getHashCode(null));
+		Assert.assertEquals(ReflectUtil2.getHashCode("abc"), ReflectUtil2.getHashCode("abc"));
+		Assert.assertEquals(ReflectUtil2.getHashCode(Arrays.asList(1, "A")), ReflectUtil2.getHashCode(new Object[] {1, "A"}));
+		Assert.assertFalse(ReflectUtil2.getHashCode(Arrays.asList(1, "A")) == ReflectUtil2.getHashCode(Arrays.asList(1, "B")));
+		Assert.assertFalse(ReflectUtil2.getHashCode(Ethnicity.WHITE) == ReflectUtil2.getHashCode(Ethnicity.ASIAN));
+		Assert.assertEquals(ReflectUtil2.getHashCode(new Student("John", "Clash", 3.45)), ReflectUtil2.getHashCode(new Student("John", "Clash", 3.45)));
+		
+		// the objects compared by equals() are hashed by hashCode()
+		Assert.assertEquals(new BigDecimal("1.5").hashCode(), ReflectUtil2.getHashCode(new BigDecimal("1.5")));
+		Assert.assertFalse(ReflectUtil2.getHashCode(new BigDecimal("1.5")) == ReflectUtil2.getHashCode(new BigDecimal("2.5")));
+		Assert.assertFalse(ReflectUtil2.getHashCode(new Parameter("a")) == ReflectUtil2.getHashCode(new Parameter("b")));
+		Assert.assertFalse(ReflectUtil2.isEqual(new BigDecimal("1.5"), new BigDecimal("2.5")));
+		Assert.assertFalse(ReflectUtil2.isEqual(new Parameter("a"), new Parameter("b")));
+		Assert.assertTrue(ReflectUtil2.isEqual(new Parameter("a"), new Parameter("a")));
 	}
 	
 	@Test